@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.enums;
+
+import java.util.Arrays;
+
+/**
+ * attack record status confirmed against the agent
+ *
+ * @author yefei
+ */
+public enum ReconcileStatus {
+
+    /**
+     * 与探针状态一致
+     */
+    CONSISTENT((byte) 0),
+
+    /**
+     * 任务运行中，探针上攻击已不存在
+     */
+    DIVERGENT((byte) 1),
+
+    /**
+     * 任务已结束，探针上攻击仍在运行
+     */
+    ORPHANED((byte) 2),
+
+    /**
+     * 孤儿攻击已重新销毁
+     */
+    DESTROYED((byte) 3);
+
+    byte value;
+
+    ReconcileStatus(byte value) {
+        this.value = value;
+    }
+
+    public byte getValue() {
+        return this.value;
+    }
+
+    public static ReconcileStatus of(byte value) {
+        return Arrays.stream(ReconcileStatus.values())
+                .filter(o -> o.value == value)
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -40,6 +40,10 @@ public class BizException extends RuntimeException {
         super(message);
     }
 
+    public BizException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
     public Integer getCode() {
         return code;
     }
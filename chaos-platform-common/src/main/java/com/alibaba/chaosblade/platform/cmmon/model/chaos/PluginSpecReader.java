@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.model.chaos;
+
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Reads a chaosblade spec file item by item, without loading the whole file.
+ *
+ * <p>Only the events of the current item are buffered and bound to a {@link ModelSpecBean},
+ * the other top level keys besides version and kind are skipped. Anchors can not be
+ * referenced across items.
+ *
+ * @author yefei
+ */
+public class PluginSpecReader {
+
+    private final static String VERSION = "version";
+
+    private final static String KIND = "kind";
+
+    private final static String ITEMS = "items";
+
+    /**
+     * @param consumer called with every item in file order
+     * @return version and kind of the spec, without items
+     */
+    public static PluginSpecBean read(InputStream inputStream, Consumer<ModelSpecBean> consumer) {
+        return readWithHeader(inputStream, (header, item) -> consumer.accept(item));
+    }
+
+    /**
+     * @param consumer called with every item in file order, along with the version and kind
+     *                 read before it
+     * @return version and kind of the spec, without items
+     */
+    public static PluginSpecBean readWithHeader(InputStream inputStream, BiConsumer<PluginSpecBean, ModelSpecBean> consumer) {
+        Parser parser = new ParserImpl(new StreamReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        PluginSpecBean pluginSpecBean = new PluginSpecBean();
+
+        expect(parser, Event.ID.StreamStart);
+        if (parser.checkEvent(Event.ID.StreamEnd)) {
+            return pluginSpecBean;
+        }
+        expect(parser, Event.ID.DocumentStart);
+        if (!parser.checkEvent(Event.ID.MappingStart)) {
+            return pluginSpecBean;
+        }
+        parser.getEvent();
+
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event key = parser.getEvent();
+            String name = key instanceof ScalarEvent ? ((ScalarEvent) key).getValue() : null;
+            if (VERSION.equals(name) && parser.checkEvent(Event.ID.Scalar)) {
+                pluginSpecBean.setVersion(((ScalarEvent) parser.getEvent()).getValue());
+            } else if (KIND.equals(name) && parser.checkEvent(Event.ID.Scalar)) {
+                pluginSpecBean.setKind(((ScalarEvent) parser.getEvent()).getValue());
+            } else if (ITEMS.equals(name) && parser.checkEvent(Event.ID.SequenceStart)) {
+                parser.getEvent();
+                while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+                    ModelSpecBean item = bind(collect(parser));
+                    if (item != null) {
+                        consumer.accept(pluginSpecBean, item);
+                    }
+                }
+                parser.getEvent();
+            } else {
+                collect(parser);
+            }
+        }
+        return pluginSpecBean;
+    }
+
+    /**
+     * the events of the next node with its children
+     */
+    private static List<Event> collect(Parser parser) {
+        List<Event> events = new ArrayList<>();
+        int depth = 0;
+        do {
+            Event event = parser.getEvent();
+            events.add(event);
+            if (event instanceof CollectionStartEvent) {
+                depth++;
+            } else if (event instanceof CollectionEndEvent) {
+                depth--;
+            }
+        } while (depth > 0);
+        return events;
+    }
+
+    private static ModelSpecBean bind(List<Event> events) {
+        List<Event> document = new ArrayList<>(events.size() + 4);
+        document.add(new StreamStartEvent(null, null));
+        document.add(new DocumentStartEvent(null, null, false, null, null));
+        document.addAll(events);
+        document.add(new DocumentEndEvent(null, null, false));
+        document.add(new StreamEndEvent(null, null));
+
+        Constructor constructor = new Constructor(ModelSpecBean.class);
+        constructor.getPropertyUtils().setSkipMissingProperties(true);
+        constructor.setComposer(new Composer(new EventListParser(document), new Resolver()));
+        return (ModelSpecBean) constructor.getSingleData(ModelSpecBean.class);
+    }
+
+    private static void expect(Parser parser, Event.ID id) {
+        Event event = parser.getEvent();
+        if (!event.is(id)) {
+            throw new IllegalArgumentException("expected " + id + " but got " + event);
+        }
+    }
+
+    private static class EventListParser implements Parser {
+
+        private final Iterator<Event> iterator;
+
+        private Event next;
+
+        EventListParser(List<Event> events) {
+            this.iterator = events.iterator();
+        }
+
+        @Override
+        public boolean checkEvent(Event.ID choice) {
+            Event event = peekEvent();
+            return event != null && event.is(choice);
+        }
+
+        @Override
+        public Event peekEvent() {
+            if (next == null && iterator.hasNext()) {
+                next = iterator.next();
+            }
+            return next;
+        }
+
+        @Override
+        public Event getEvent() {
+            Event event = peekEvent();
+            next = null;
+            return event;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Weight bounded LRU cache whose loads are single-flight: concurrent misses of one key share
+ * the first caller's load instead of each hitting the backend.
+ *
+ * <p>Entries are put with a time to live, {@code ttl <= 0} never expires, so immutable
+ * results such as closed metric windows stay until evicted while live ones are reloaded
+ * soon. Failed loads are not cached.
+ *
+ * @author yefei
+ */
+public class SingleFlightCache<K, V> {
+
+    private final long maxWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxWeight total weight kept, the least recently used entries are evicted beyond it
+     * @param weigher   weight of a value, e.g. its sample count
+     */
+    public SingleFlightCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * cached value of the key, or the result of one shared asynchronous load
+     */
+    public CompletableFuture<V> getAsync(K key, long ttlMillis, Supplier<CompletableFuture<V>> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        // a load may have finished between the lookup and claiming the key
+        value = getIfPresent(key);
+        if (value != null) {
+            loading.remove(key, future);
+            future.complete(value);
+            return future;
+        }
+        misses.incrementAndGet();
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (Throwable e) {
+            load = new CompletableFuture<>();
+            load.completeExceptionally(e);
+        }
+        load.whenComplete((v, e) -> {
+            if (e == null && v != null) {
+                put(key, v, ttlMillis);
+            }
+            loading.remove(key, future);
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(v);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * cached value of the key, or the result of one shared load run by the first caller
+     */
+    public V get(K key, long ttlMillis, Supplier<V> loader) {
+        try {
+            return getAsync(key, ttlMillis, () -> CompletableFuture.completedFuture(loader.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt > 0 && entry.expireAt <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value, long ttlMillis) {
+        long w = Math.max(weigher.applyAsLong(value), 1);
+        if (w > maxWeight) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry<>(value, w, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0));
+        weight += w;
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    /**
+     * drops every entry, loads in flight still complete into the cache
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private void remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long weight;
+        final long expireAt;
+
+        Entry(V value, long weight, long expireAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.search;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.bitmap.CompressedBitmap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory search over documents identified by a long id, answering case insensitive
+ * substring matches on text fields and equality on term fields, like {@code like '%q%'} and
+ * {@code =} would.
+ *
+ * <p>Every document gets a dense ordinal. Text fields post all their 1 to {@value #GRAM}
+ * character grams, term fields their value, each into a {@link CompressedBitmap} of ordinals,
+ * so the many grams posted by a handful of documents stay small. A substring up to
+ * {@value #GRAM} characters is answered by its gram bitmap alone; a longer one by intersecting
+ * the bitmaps of its grams and checking the few candidates left. Results are ordered by the
+ * sort key of the documents, ties by id.
+ *
+ * @author yefei
+ */
+public class SearchIndex {
+
+    public final static int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final List<Document> documents = new ArrayList<>();
+
+    private final Deque<Integer> free = new ArrayDeque<>();
+
+    private CompressedBitmap live = new CompressedBitmap();
+
+    private final Map<String, Map<String, CompressedBitmap>> grams = new HashMap<>();
+
+    private final Map<String, Map<Object, CompressedBitmap>> terms = new HashMap<>();
+
+    /**
+     * adds the document, or replaces the one with the same id
+     */
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(document.id);
+            if (ordinal != null) {
+                unpost(ordinal, documents.get(ordinal));
+            } else {
+                ordinal = free.isEmpty() ? documents.size() : free.poll();
+                if (ordinal == documents.size()) {
+                    documents.add(null);
+                }
+                ordinals.put(document.id, ordinal);
+            }
+            documents.set(ordinal, document);
+            live.add(ordinal);
+            post(ordinal, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            unpost(ordinal, documents.get(ordinal));
+            documents.set(ordinal, null);
+            live.remove(ordinal);
+            free.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            documents.clear();
+            free.clear();
+            live = new CompressedBitmap();
+            grams.clear();
+            terms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return ordinals.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param offset matches skipped
+     * @param limit  ids returned at most
+     */
+    public Result search(Query query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap matched = live;
+            for (Map.Entry<String, Object> eq : query.terms.entrySet()) {
+                matched = and(matched, terms.getOrDefault(eq.getKey(), Collections.emptyMap()).get(eq.getValue()));
+            }
+            List<Map.Entry<String, String>> verify = new ArrayList<>();
+            for (Map.Entry<String, String> contains : query.texts.entrySet()) {
+                Map<String, CompressedBitmap> postings = grams.getOrDefault(contains.getKey(), Collections.emptyMap());
+                String text = contains.getValue();
+                if (text.length() <= GRAM) {
+                    matched = and(matched, postings.get(text));
+                } else {
+                    for (int i = 0; i + GRAM <= text.length() && !matched.isEmpty(); i++) {
+                        matched = and(matched, postings.get(text.substring(i, i + GRAM)));
+                    }
+                    verify.add(contains);
+                }
+            }
+
+            Comparator<Document> order = query.descending
+                    ? Comparator.comparingLong((Document d) -> d.sortKey).thenComparingLong(d -> d.id).reversed()
+                    : Comparator.comparingLong((Document d) -> d.sortKey).thenComparingLong(d -> d.id);
+            int wanted = offset + limit;
+            // the first offset + limit matches, worst first
+            PriorityQueue<Document> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, 1024)), order.reversed());
+            long total = 0;
+            for (int ordinal : matched.toArray()) {
+                Document document = documents.get(ordinal);
+                if (!document.contains(verify)) {
+                    continue;
+                }
+                total++;
+                if (wanted <= 0) {
+                    continue;
+                }
+                if (top.size() < wanted) {
+                    top.add(document);
+                } else if (order.compare(document, top.peek()) < 0) {
+                    top.poll();
+                    top.add(document);
+                }
+            }
+            List<Document> sorted = new ArrayList<>(top);
+            sorted.sort(order);
+            List<Long> ids = new ArrayList<>(Math.max(0, sorted.size() - offset));
+            for (int i = offset; i < sorted.size(); i++) {
+                ids.add(sorted.get(i).id);
+            }
+            return new Result(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void post(int ordinal, Document document) {
+        document.texts.forEach((field, text) -> {
+            Map<String, CompressedBitmap> postings = grams.computeIfAbsent(field, f -> new HashMap<>());
+            for (String gram : grams(text)) {
+                postings.computeIfAbsent(gram, g -> new CompressedBitmap()).add(ordinal);
+            }
+        });
+        document.terms.forEach((field, value) ->
+                terms.computeIfAbsent(field, f -> new HashMap<>()).computeIfAbsent(value, v -> new CompressedBitmap()).add(ordinal));
+    }
+
+    private void unpost(int ordinal, Document document) {
+        document.texts.forEach((field, text) -> {
+            Map<String, CompressedBitmap> postings = grams.get(field);
+            for (String gram : grams(text)) {
+                CompressedBitmap bitmap = postings.get(gram);
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        });
+        document.terms.forEach((field, value) -> {
+            Map<Object, CompressedBitmap> postings = terms.get(field);
+            CompressedBitmap bitmap = postings.get(value);
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                postings.remove(value);
+            }
+        });
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int n = 1; n <= GRAM; n++) {
+            for (int i = 0; i + n <= text.length(); i++) {
+                grams.add(text.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+
+    private static CompressedBitmap and(CompressedBitmap matched, CompressedBitmap postings) {
+        return postings == null ? new CompressedBitmap() : matched.and(postings);
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * integral numbers are compared as longs, so a Byte column matches an Integer parameter
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    /**
+     * a document, null fields are not indexed and never match
+     */
+    public static class Document {
+
+        private final long id;
+
+        private final long sortKey;
+
+        private final Map<String, String> texts = new HashMap<>();
+
+        private final Map<String, Object> terms = new HashMap<>();
+
+        public Document(long id, long sortKey) {
+            this.id = id;
+            this.sortKey = sortKey;
+        }
+
+        public Document text(String field, String text) {
+            if (text != null) {
+                texts.put(field, normalize(text));
+            }
+            return this;
+        }
+
+        public Document term(String field, Object value) {
+            if (value != null) {
+                terms.put(field, normalize(value));
+            }
+            return this;
+        }
+
+        /**
+         * @return whether any field is indexed
+         */
+        public boolean hasFields() {
+            return !texts.isEmpty() || !terms.isEmpty();
+        }
+
+        private boolean contains(List<Map.Entry<String, String>> verify) {
+            for (Map.Entry<String, String> contains : verify) {
+                String text = texts.get(contains.getKey());
+                if (text == null || !text.contains(contains.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * conditions are and-ed, null values and blank strings are ignored
+     */
+    public static class Query {
+
+        private final Map<String, String> texts = new HashMap<>();
+
+        private final Map<String, Object> terms = new HashMap<>();
+
+        private boolean descending;
+
+        public Query contains(String field, String text) {
+            if (text != null && !text.trim().isEmpty()) {
+                texts.put(field, normalize(text));
+            }
+            return this;
+        }
+
+        public Query eq(String field, Object value) {
+            if (value != null && !(value instanceof String && ((String) value).trim().isEmpty())) {
+                terms.put(field, normalize(value));
+            }
+            return this;
+        }
+
+        public Query descending() {
+            this.descending = true;
+            return this;
+        }
+    }
+
+    public static class Result {
+
+        private final List<Long> ids;
+
+        private final long total;
+
+        public Result(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        /**
+         * ids of the requested page, in order
+         */
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        /**
+         * number of matches
+         */
+        public long getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * reduction of the samples in one step
+ *
+ * @author yefei
+ */
+public enum Aggregation {
+
+    MIN,
+
+    MAX,
+
+    AVG,
+
+    P95;
+
+    public static Aggregation parse(String name) {
+        return Arrays.stream(Aggregation.values())
+                .filter(o -> o.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * NaN values are ignored, sorts values[from, to) for percentiles
+     */
+    double apply(double[] values, int from, int to) {
+        int n = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double v = values[i];
+            if (Double.isNaN(v)) {
+                continue;
+            }
+            values[from + n++] = v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+            sum += v;
+        }
+        if (n == 0) {
+            return Double.NaN;
+        }
+        switch (this) {
+            case MIN:
+                return min;
+            case MAX:
+                return max;
+            case AVG:
+                return sum / n;
+            default:
+                Arrays.sort(values, from, from + n);
+                return values[from + (int) Math.ceil(0.95 * n) - 1];
+        }
+    }
+}
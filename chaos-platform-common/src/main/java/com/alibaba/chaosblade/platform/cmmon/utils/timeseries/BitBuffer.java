@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * growable big-endian bit buffer, written once then read from the start
+ *
+ * @author yefei
+ */
+class BitBuffer {
+
+    private byte[] bytes;
+
+    private long writePos;
+
+    private long readPos;
+
+    BitBuffer(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 8)];
+    }
+
+    BitBuffer(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.writePos = (long) bytes.length << 3;
+        this.readPos = (long) offset << 3;
+    }
+
+    void writeBit(boolean bit) {
+        ensure(1);
+        if (bit) {
+            bytes[(int) (writePos >>> 3)] |= 1 << (7 - (writePos & 7));
+        }
+        writePos++;
+    }
+
+    /**
+     * the low n bits of value, most significant first
+     */
+    void writeBits(long value, int n) {
+        ensure(n);
+        while (n > 0) {
+            int index = (int) (writePos >>> 3);
+            int free = 8 - (int) (writePos & 7);
+            int take = Math.min(free, n);
+            int bits = (int) ((value >>> (n - take)) & ((1 << take) - 1));
+            bytes[index] |= bits << (free - take);
+            writePos += take;
+            n -= take;
+        }
+    }
+
+    boolean readBit() {
+        boolean bit = (bytes[(int) (readPos >>> 3)] & (1 << (7 - (readPos & 7)))) != 0;
+        readPos++;
+        return bit;
+    }
+
+    long readBits(int n) {
+        long value = 0;
+        while (n > 0) {
+            int index = (int) (readPos >>> 3);
+            int available = 8 - (int) (readPos & 7);
+            int take = Math.min(available, n);
+            int bits = (bytes[index] >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | bits;
+            readPos += take;
+            n -= take;
+        }
+        return value;
+    }
+
+    int byteLength() {
+        return (int) ((writePos + 7) >>> 3);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, byteLength());
+    }
+
+    private void ensure(int n) {
+        long need = (writePos + n + 7) >>> 3;
+        if (need > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.max(need, bytes.length * 2L));
+        }
+    }
+}
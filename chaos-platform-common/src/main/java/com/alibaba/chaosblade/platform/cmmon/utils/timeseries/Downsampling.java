@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Keeps chart series to a bounded number of points.
+ *
+ * @author yefei
+ */
+public class Downsampling {
+
+    /**
+     * Largest-Triangle-Three-Buckets: keeps the first and last sample and from every bucket in
+     * between the sample forming the largest triangle with the previous pick and the next bucket's mean.
+     */
+    public static Samples lttb(Samples samples, int threshold) {
+        int n = samples.size();
+        if (threshold >= n || threshold < 3) {
+            return samples;
+        }
+        Samples sampled = new Samples(threshold);
+        sampled.add(samples.timestamp(0), samples.value(0));
+
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += samples.timestamp(j);
+                avgY += samples.value(j);
+            }
+            avgX /= avgEnd - avgStart;
+            avgY /= avgEnd - avgStart;
+
+            int from = (int) Math.floor(i * every) + 1;
+            int to = (int) Math.floor((i + 1) * every) + 1;
+            double ax = samples.timestamp(a);
+            double ay = samples.value(a);
+            double maxArea = -1;
+            int next = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((ax - avgX) * (samples.value(j) - ay)
+                        - (ax - samples.timestamp(j)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled.add(samples.timestamp(next), samples.value(next));
+            a = next;
+        }
+        sampled.add(samples.timestamp(n - 1), samples.value(n - 1));
+        return sampled;
+    }
+
+    /**
+     * one sample per step, stamped with the step start aligned to the epoch
+     */
+    public static Samples aggregate(Samples samples, long step, Aggregation aggregation) {
+        int n = samples.size();
+        if (n == 0 || step <= 0) {
+            return samples;
+        }
+        Samples aggregated = new Samples();
+        double[] bucket = new double[16];
+        int size = 0;
+        long bucketStart = Math.floorDiv(samples.timestamp(0), step) * step;
+        for (int i = 0; i < n; i++) {
+            long start = Math.floorDiv(samples.timestamp(i), step) * step;
+            if (start != bucketStart) {
+                aggregated.add(bucketStart, aggregation.apply(bucket, 0, size));
+                bucketStart = start;
+                size = 0;
+            }
+            if (size == bucket.length) {
+                bucket = Arrays.copyOf(bucket, size * 2);
+            }
+            bucket[size++] = samples.value(i);
+        }
+        aggregated.add(bucketStart, aggregation.apply(bucket, 0, size));
+        return aggregated;
+    }
+}
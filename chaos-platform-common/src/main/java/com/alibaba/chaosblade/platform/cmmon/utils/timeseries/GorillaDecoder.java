@@ -0,0 +1,93 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+/**
+ * decodes a chunk written by {@link GorillaEncoder}
+ *
+ * @author yefei
+ */
+public class GorillaDecoder {
+
+    public static Samples decode(byte[] bytes) {
+        Samples samples = new Samples(size(bytes));
+        decode(bytes, samples);
+        return samples;
+    }
+
+    /**
+     * appends the samples of the chunk to the given series
+     */
+    public static void decode(byte[] bytes, Samples samples) {
+        int size = size(bytes);
+        if (size == 0) {
+            return;
+        }
+        BitBuffer buffer = new BitBuffer(bytes, 4);
+        long timestamp = buffer.readBits(64);
+        long value = buffer.readBits(64);
+        samples.add(timestamp, Double.longBitsToDouble(value));
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < size; i++) {
+            delta += readDeltaOfDelta(buffer);
+            timestamp += delta;
+
+            if (buffer.readBit()) {
+                if (buffer.readBit()) {
+                    leading = (int) buffer.readBits(5);
+                    int meaningful = (int) buffer.readBits(6);
+                    if (meaningful == 0) {
+                        meaningful = 64;
+                    }
+                    trailing = 64 - leading - meaningful;
+                }
+                value ^= buffer.readBits(64 - leading - trailing) << trailing;
+            }
+            samples.add(timestamp, Double.longBitsToDouble(value));
+        }
+    }
+
+    public static int size(byte[] bytes) {
+        if (bytes == null || bytes.length < 4) {
+            return 0;
+        }
+        return ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    }
+
+    private static long readDeltaOfDelta(BitBuffer buffer) {
+        if (!buffer.readBit()) {
+            return 0;
+        }
+        if (!buffer.readBit()) {
+            return signExtend(buffer.readBits(7), 7);
+        }
+        if (!buffer.readBit()) {
+            return signExtend(buffer.readBits(9), 9);
+        }
+        if (!buffer.readBit()) {
+            return signExtend(buffer.readBits(12), 12);
+        }
+        return buffer.readBits(64);
+    }
+
+    private static long signExtend(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+/**
+ * Gorilla chunk encoder: delta-of-delta timestamps and XOR compressed doubles.
+ *
+ * <p>Layout: sample count (32 bits), first timestamp (64 bits), first value (64 bits), then per
+ * sample a delta-of-delta in one of the buckets {@code 0 | 10+7 | 110+9 | 1110+12 | 1111+64}
+ * bits, and the XOR of the value with the previous one, {@code 0} when equal, {@code 10} plus
+ * the meaningful bits when they fit the previous window, otherwise {@code 11}, 5 bits of leading
+ * zeros, 6 bits of length and the meaningful bits. Timestamps must be strictly increasing.
+ *
+ * @author yefei
+ */
+public class GorillaEncoder {
+
+    private final BitBuffer buffer;
+
+    private int size;
+
+    private long firstTimestamp;
+
+    private long lastTimestamp;
+
+    private long lastDelta;
+
+    private long lastValue;
+
+    private int lastLeading = Integer.MAX_VALUE;
+
+    private int lastTrailing;
+
+    public GorillaEncoder() {
+        this(256);
+    }
+
+    public GorillaEncoder(int capacity) {
+        buffer = new BitBuffer(capacity);
+        // count placeholder, patched in toByteArray
+        buffer.writeBits(0, 32);
+    }
+
+    /**
+     * @return false if the timestamp is not after the last one and the sample was skipped
+     */
+    public boolean append(long timestamp, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        if (size == 0) {
+            buffer.writeBits(timestamp, 64);
+            buffer.writeBits(bits, 64);
+            firstTimestamp = timestamp;
+        } else {
+            if (timestamp <= lastTimestamp) {
+                return false;
+            }
+            long delta = timestamp - lastTimestamp;
+            writeTimestamp(delta - lastDelta);
+            writeValue(bits);
+            lastDelta = delta;
+        }
+        lastTimestamp = timestamp;
+        lastValue = bits;
+        size++;
+        return true;
+    }
+
+    private void writeTimestamp(long dod) {
+        if (dod == 0) {
+            buffer.writeBit(false);
+        } else if (dod >= -64 && dod <= 63) {
+            buffer.writeBits(0b10, 2);
+            buffer.writeBits(dod, 7);
+        } else if (dod >= -256 && dod <= 255) {
+            buffer.writeBits(0b110, 3);
+            buffer.writeBits(dod, 9);
+        } else if (dod >= -2048 && dod <= 2047) {
+            buffer.writeBits(0b1110, 4);
+            buffer.writeBits(dod, 12);
+        } else {
+            buffer.writeBits(0b1111, 4);
+            buffer.writeBits(dod, 64);
+        }
+    }
+
+    private void writeValue(long bits) {
+        long xor = bits ^ lastValue;
+        if (xor == 0) {
+            buffer.writeBit(false);
+            return;
+        }
+        buffer.writeBit(true);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeading != Integer.MAX_VALUE && leading >= lastLeading && trailing >= lastTrailing) {
+            buffer.writeBit(false);
+            buffer.writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            buffer.writeBit(true);
+            buffer.writeBits(leading, 5);
+            // 64 meaningful bits are written as 0
+            buffer.writeBits(meaningful & 63, 6);
+            buffer.writeBits(xor >>> trailing, meaningful);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = buffer.toByteArray();
+        bytes[0] = (byte) (size >>> 24);
+        bytes[1] = (byte) (size >>> 16);
+        bytes[2] = (byte) (size >>> 8);
+        bytes[3] = (byte) size;
+        return bytes;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * timestamps (epoch millis) and values of one series as primitive arrays, in time order
+ *
+ * @author yefei
+ */
+public class Samples {
+
+    private long[] timestamps;
+
+    private double[] values;
+
+    private int size;
+
+    public Samples() {
+        this(16);
+    }
+
+    public Samples(int capacity) {
+        this.timestamps = new long[Math.max(capacity, 1)];
+        this.values = new double[Math.max(capacity, 1)];
+    }
+
+    public Samples(long[] timestamps, double[] values, int size) {
+        this.timestamps = timestamps;
+        this.values = values;
+        this.size = size;
+    }
+
+    public void add(long timestamp, double value) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    public void addAll(Samples samples) {
+        for (int i = 0; i < samples.size; i++) {
+            add(samples.timestamps[i], samples.values[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestamp(int i) {
+        return timestamps[i];
+    }
+
+    public double value(int i) {
+        return values[i];
+    }
+
+    public long[] toTimestampArray() {
+        return Arrays.copyOf(timestamps, size);
+    }
+
+    public double[] toValueArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    public long lastTimestamp() {
+        return timestamps[size - 1];
+    }
+
+    /**
+     * samples within [start, end]
+     */
+    public Samples range(long start, long end) {
+        int from = 0;
+        while (from < size && timestamps[from] < start) {
+            from++;
+        }
+        int to = from;
+        while (to < size && timestamps[to] <= end) {
+            to++;
+        }
+        return new Samples(Arrays.copyOfRange(timestamps, from, Math.max(to, from + 1)),
+                Arrays.copyOfRange(values, from, Math.max(to, from + 1)), to - from);
+    }
+}
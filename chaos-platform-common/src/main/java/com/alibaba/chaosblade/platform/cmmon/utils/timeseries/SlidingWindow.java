@@ -0,0 +1,338 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Samples of the last {@code span} milliseconds of one series, in a ring of fixed capacity.
+ *
+ * <p>Besides the samples inside the span, the newest sample at or before its start is kept as
+ * an anchor, so {@link #covers()} tells whether the series is known for the whole span. Samples
+ * must arrive in time order, older ones are dropped. When the ring is full the oldest sample is
+ * evicted even if it is still inside the span, so the capacity should be at least
+ * {@code span / step + 2}.
+ *
+ * <p>Aggregates are maintained as samples come and go instead of being computed over the
+ * window: a running sum and count, monotonic queues for the minimum and maximum, and for the
+ * percentile two heaps split at it, built on its first use.
+ *
+ * @author yefei
+ */
+public class SlidingWindow {
+
+    private final static double P95 = 0.95;
+
+    private final long span;
+
+    private final long[] timestamps;
+
+    private final double[] values;
+
+    private int head;
+
+    private int size;
+
+    /**
+     * sequence number of the sample at head
+     */
+    private long first;
+
+    private double sum;
+
+    private int count;
+
+    private final MonotonicQueue min;
+
+    private final MonotonicQueue max;
+
+    private Percentile percentile;
+
+    public SlidingWindow(long span, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.span = span;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+        this.min = new MonotonicQueue(capacity, true);
+        this.max = new MonotonicQueue(capacity, false);
+    }
+
+    public void add(long timestamp, double value) {
+        if (size > 0 && timestamp <= lastTimestamp()) {
+            return;
+        }
+        // keep one sample at or before the start of the span
+        long start = timestamp - span;
+        while (size > 1 && timestamps[(head + 1) % timestamps.length] <= start) {
+            evict();
+        }
+        if (size == timestamps.length) {
+            evict();
+        }
+        int tail = (head + size) % timestamps.length;
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+        if (!Double.isNaN(value)) {
+            sum += value;
+            count++;
+            min.push(tail);
+            max.push(tail);
+            if (percentile != null) {
+                percentile.add(first + size - 1, value);
+            }
+        }
+    }
+
+    public void add(Samples samples) {
+        for (int i = 0; i < samples.size(); i++) {
+            add(samples.timestamp(i), samples.value(i));
+        }
+    }
+
+    /**
+     * whether the samples reach back over the whole span
+     */
+    public boolean covers() {
+        return size > 0 && lastTimestamp() - firstTimestamp() >= span;
+    }
+
+    /**
+     * NaN if the window holds no number
+     */
+    public double aggregate(Aggregation aggregation) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        switch (aggregation) {
+            case MIN:
+                return min.peek();
+            case MAX:
+                return max.peek();
+            case AVG:
+                return sum / count;
+            default:
+                if (percentile == null) {
+                    percentile = new Percentile(P95);
+                }
+                return percentile.peek();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long firstTimestamp() {
+        return timestamps[head];
+    }
+
+    public long lastTimestamp() {
+        return timestamps[(head + size - 1) % timestamps.length];
+    }
+
+    private void evict() {
+        int slot = head;
+        double value = values[slot];
+        head = (head + 1) % timestamps.length;
+        size--;
+        first++;
+        if (!Double.isNaN(value)) {
+            count--;
+            min.evict(slot);
+            max.evict(slot);
+            if (percentile != null) {
+                percentile.evict(slot);
+            }
+            if (head == 0) {
+                // the running sum drifts, recount it once per turn of the ring
+                sum = 0;
+                for (int i = 0; i < size; i++) {
+                    double v = values[(head + i) % values.length];
+                    if (!Double.isNaN(v)) {
+                        sum += v;
+                    }
+                }
+            } else {
+                sum -= value;
+            }
+        }
+    }
+
+    /**
+     * slots of the ring whose value is the minimum, or maximum, of the samples from them on
+     */
+    private final class MonotonicQueue {
+
+        private final int[] slots;
+
+        private final boolean ascending;
+
+        private int head;
+
+        private int size;
+
+        MonotonicQueue(int capacity, boolean ascending) {
+            this.slots = new int[capacity];
+            this.ascending = ascending;
+        }
+
+        void push(int slot) {
+            double value = values[slot];
+            while (size > 0) {
+                double last = values[slots[(head + size - 1) % slots.length]];
+                if (ascending ? last <= value : last >= value) {
+                    break;
+                }
+                size--;
+            }
+            slots[(head + size) % slots.length] = slot;
+            size++;
+        }
+
+        /**
+         * samples leave in ring order, so an evicted one still queued is at the front
+         */
+        void evict(int slot) {
+            if (size > 0 && slots[head] == slot) {
+                head = (head + 1) % slots.length;
+                size--;
+            }
+        }
+
+        double peek() {
+            return values[slots[head]];
+        }
+    }
+
+    /**
+     * the lower heap holds the smallest {@code ceil(quantile * count)} values, its top is the
+     * percentile; evicted samples are dropped from the heaps once they surface
+     */
+    private final class Percentile {
+
+        private final double quantile;
+
+        private final PriorityQueue<Entry> lower = new PriorityQueue<>(
+                Comparator.comparingDouble((Entry entry) -> entry.value).reversed());
+
+        private final PriorityQueue<Entry> upper = new PriorityQueue<>(
+                Comparator.comparingDouble((Entry entry) -> entry.value));
+
+        private final boolean[] inLower = new boolean[timestamps.length];
+
+        private int lowerSize;
+
+        private int upperSize;
+
+        Percentile(double quantile) {
+            this.quantile = quantile;
+            rebuild();
+        }
+
+        void add(long seq, double value) {
+            int slot = (int) (seq % timestamps.length);
+            boolean toLower = lowerSize > 0 ? value <= lower.peek().value
+                    : upperSize == 0 || value <= upper.peek().value;
+            if (toLower) {
+                lower.add(new Entry(value, seq));
+                lowerSize++;
+            } else {
+                upper.add(new Entry(value, seq));
+                upperSize++;
+            }
+            inLower[slot] = toLower;
+            balance();
+        }
+
+        void evict(int slot) {
+            if (inLower[slot]) {
+                lowerSize--;
+            } else {
+                upperSize--;
+            }
+            prune();
+            if (lower.size() + upper.size() > 2 * timestamps.length) {
+                rebuild();
+            } else {
+                balance();
+            }
+        }
+
+        double peek() {
+            return lower.peek().value;
+        }
+
+        private void balance() {
+            int target = (int) Math.ceil(quantile * (lowerSize + upperSize));
+            while (lowerSize > target) {
+                move(lower, upper, false);
+                lowerSize--;
+                upperSize++;
+            }
+            while (lowerSize < target) {
+                move(upper, lower, true);
+                upperSize--;
+                lowerSize++;
+            }
+        }
+
+        private void move(PriorityQueue<Entry> from, PriorityQueue<Entry> to, boolean toLower) {
+            Entry entry = from.poll();
+            to.add(entry);
+            inLower[(int) (entry.seq % timestamps.length)] = toLower;
+            prune();
+        }
+
+        private void prune() {
+            while (!lower.isEmpty() && lower.peek().seq < first) {
+                lower.poll();
+            }
+            while (!upper.isEmpty() && upper.peek().seq < first) {
+                upper.poll();
+            }
+        }
+
+        private void rebuild() {
+            lower.clear();
+            upper.clear();
+            lowerSize = 0;
+            upperSize = 0;
+            for (int i = 0; i < size; i++) {
+                double value = values[(head + i) % values.length];
+                if (!Double.isNaN(value)) {
+                    add(first + i, value);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final double value;
+
+        final long seq;
+
+        Entry(double value, long seq) {
+            this.value = value;
+            this.seq = seq;
+        }
+    }
+}
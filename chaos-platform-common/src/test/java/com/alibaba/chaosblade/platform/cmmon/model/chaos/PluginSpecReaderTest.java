@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.model.chaos;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author yefei
+ */
+public class PluginSpecReaderTest {
+
+    private final static String SPEC = "version: v1\n" +
+            "kind: plugin\n" +
+            "unknown:\n" +
+            "  nested: [1, 2]\n" +
+            "items:\n" +
+            "- target: cpu\n" +
+            "  shortDesc: Cpu experiment\n" +
+            "  scope: host\n" +
+            "  unknownField: x\n" +
+            "  actions:\n" +
+            "  - action: fullload\n" +
+            "    aliases: [fl, load]\n" +
+            "    categories: [system_cpu]\n" +
+            "    flags:\n" +
+            "    - name: cpu-percent\n" +
+            "      desc: percent of burn CPU\n" +
+            "    matchers: []\n" +
+            "- target: mem\n" +
+            "  actions:\n" +
+            "  - action: load\n";
+
+    @Test
+    public void streamsItems() {
+        List<ModelSpecBean> items = new ArrayList<>();
+        PluginSpecBean header = PluginSpecReader.read(
+                new ByteArrayInputStream(SPEC.getBytes(StandardCharsets.UTF_8)), items::add);
+
+        Assert.assertEquals("v1", header.getVersion());
+        Assert.assertEquals("plugin", header.getKind());
+        Assert.assertNull(header.getItems());
+        Assert.assertEquals(2, items.size());
+
+        ModelSpecBean cpu = items.get(0);
+        Assert.assertEquals("cpu", cpu.getTarget());
+        Assert.assertEquals("host", cpu.getScope());
+        ActionSpecBean fullload = cpu.getActions().get(0);
+        Assert.assertEquals("fullload", fullload.getAction());
+        Assert.assertArrayEquals(new String[]{"system_cpu"}, fullload.getCategories());
+        Assert.assertEquals("cpu-percent", fullload.getFlags().get(0).getName());
+        Assert.assertEquals("load", items.get(1).getActions().get(0).getAction());
+    }
+
+    @Test
+    public void headerAheadOfItems() {
+        List<String> versions = new ArrayList<>();
+        PluginSpecReader.readWithHeader(new ByteArrayInputStream(SPEC.getBytes(StandardCharsets.UTF_8)),
+                (header, item) -> versions.add(header.getVersion()));
+        Assert.assertEquals(Arrays.asList("v1", "v1"), versions);
+    }
+
+    @Test
+    public void emptyFile() {
+        List<ModelSpecBean> items = new ArrayList<>();
+        PluginSpecBean header = PluginSpecReader.read(new ByteArrayInputStream(new byte[0]), items::add);
+        Assert.assertNull(header.getVersion());
+        Assert.assertTrue(items.isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.bitmap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * @author yefei
+ */
+public class CompressedBitmapTest {
+
+    @Test
+    public void sparseAndDense() {
+        CompressedBitmap bitmap = CompressedBitmap.of(3, 70000, 1);
+        Assert.assertArrayEquals(new int[]{1, 3, 70000}, bitmap.toArray());
+        Assert.assertTrue(bitmap.contains(70000));
+        Assert.assertFalse(bitmap.contains(2));
+
+        for (int i = 0; i < 10000; i++) {
+            bitmap.add(i * 2);
+        }
+        Assert.assertEquals(10003, bitmap.cardinality());
+        for (int i = 0; i < 10000; i++) {
+            bitmap.remove(i * 2);
+        }
+        Assert.assertArrayEquals(new int[]{1, 3, 70000}, bitmap.toArray());
+        bitmap.remove(70000);
+        bitmap.remove(1);
+        bitmap.remove(3);
+        Assert.assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void operationsMatchBitSet() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            // mixes array and bitmap containers
+            int range = round % 2 == 0 ? 200_000 : 20_000;
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            BitSet x = new BitSet();
+            BitSet y = new BitSet();
+            for (int i = 0; i < 15_000; i++) {
+                int v = random.nextInt(range);
+                a.add(v);
+                x.set(v);
+                int w = random.nextInt(range / 2);
+                b.add(w);
+                y.set(w);
+            }
+
+            BitSet and = (BitSet) x.clone();
+            and.and(y);
+            BitSet or = (BitSet) x.clone();
+            or.or(y);
+            BitSet andNot = (BitSet) x.clone();
+            andNot.andNot(y);
+
+            Assert.assertArrayEquals(and.stream().toArray(), a.and(b).toArray());
+            Assert.assertArrayEquals(or.stream().toArray(), a.or(b).toArray());
+            Assert.assertArrayEquals(andNot.stream().toArray(), a.andNot(b).toArray());
+            Assert.assertEquals(x.cardinality(), a.copy().cardinality());
+        }
+    }
+}
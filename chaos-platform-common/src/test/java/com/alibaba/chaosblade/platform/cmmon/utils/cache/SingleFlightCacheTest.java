@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yefei
+ */
+public class SingleFlightCacheTest {
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(100, String::length);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> backend = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.getAsync("q", 0, () -> {
+            loads.incrementAndGet();
+            return backend;
+        });
+        CompletableFuture<String> second = cache.getAsync("q", 0, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        Assert.assertFalse(first.isDone());
+        backend.complete("value");
+
+        Assert.assertEquals("value", first.join());
+        Assert.assertEquals("value", second.join());
+        Assert.assertEquals("value", cache.get("q", 0, () -> "reloaded"));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void testFailureIsNotCached() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(100, String::length);
+        try {
+            cache.get("q", 0, () -> {
+                throw new IllegalStateException("down");
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("down", e.getMessage());
+        }
+        Assert.assertEquals("up", cache.get("q", 0, () -> "up"));
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(100, String::length);
+        cache.put("live", "a", 20);
+        cache.put("closed", "b", 0);
+        Thread.sleep(50);
+        Assert.assertNull(cache.getIfPresent("live"));
+        Assert.assertEquals("b", cache.getIfPresent("closed"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByWeight() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(10, String::length);
+        cache.put("a", "aaaa", 0);
+        cache.put("b", "bbbb", 0);
+        cache.getIfPresent("a");
+        cache.put("c", "cccc", 0);
+
+        Assert.assertEquals("aaaa", cache.getIfPresent("a"));
+        Assert.assertNull(cache.getIfPresent("b"));
+        Assert.assertEquals("cccc", cache.getIfPresent("c"));
+        Assert.assertEquals(8, cache.weight());
+        Assert.assertEquals(1, cache.evictionCount());
+
+        // larger than the whole cache, never kept
+        cache.put("d", "ddddddddddddddd", 0);
+        Assert.assertNull(cache.getIfPresent("d"));
+
+        cache.invalidateAll();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.weight());
+        Assert.assertNull(cache.getIfPresent("a"));
+    }
+}
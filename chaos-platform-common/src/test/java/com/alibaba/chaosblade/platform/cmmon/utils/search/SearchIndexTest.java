@@ -0,0 +1,81 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.search;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author yefei
+ */
+public class SearchIndexTest {
+
+    private SearchIndex hosts() {
+        SearchIndex index = new SearchIndex();
+        index.put(new SearchIndex.Document(1, 1).text("hostname", "web-01").text("ip", "10.0.0.1").term("status", 1));
+        index.put(new SearchIndex.Document(2, 2).text("hostname", "Web-02").text("ip", "10.0.0.2").term("status", 2));
+        index.put(new SearchIndex.Document(3, 3).text("hostname", "db-01").text("ip", "10.0.1.10").term("status", 1));
+        index.put(new SearchIndex.Document(4, 4).text("ip", "192.168.0.1").term("status", 1));
+        return index;
+    }
+
+    @Test
+    public void substring() {
+        SearchIndex index = hosts();
+        Assert.assertEquals(Arrays.asList(1L, 2L), index.search(new SearchIndex.Query().contains("hostname", "WEB"), 0, 10).getIds());
+        Assert.assertEquals(Arrays.asList(1L, 3L), index.search(new SearchIndex.Query().contains("hostname", "-01"), 0, 10).getIds());
+        Assert.assertEquals(Arrays.asList(3L), index.search(new SearchIndex.Query().contains("ip", "0.1.1"), 0, 10).getIds());
+        // all grams of "1.10" are in 10.0.0.1 too
+        Assert.assertEquals(Arrays.asList(3L), index.search(new SearchIndex.Query().contains("ip", "1.10"), 0, 10).getIds());
+        Assert.assertEquals(0, index.search(new SearchIndex.Query().contains("hostname", "cache"), 0, 10).getTotal());
+        Assert.assertEquals(4, index.search(new SearchIndex.Query().contains("hostname", ""), 0, 10).getTotal());
+    }
+
+    @Test
+    public void termsAndPaging() {
+        SearchIndex index = hosts();
+        SearchIndex.Result result = index.search(new SearchIndex.Query().eq("status", 1).descending(), 1, 1);
+        Assert.assertEquals(3, result.getTotal());
+        Assert.assertEquals(Collections.singletonList(3L), result.getIds());
+        Assert.assertEquals(Arrays.asList(1L), index.search(new SearchIndex.Query().eq("status", 1).contains("ip", "10.0.0"), 0, 10).getIds());
+        Assert.assertEquals(0, index.search(new SearchIndex.Query().eq("status", 3), 0, 10).getTotal());
+        Assert.assertEquals(3, index.search(new SearchIndex.Query().eq("status", (byte) 1), 0, 10).getTotal());
+        Assert.assertTrue(index.search(new SearchIndex.Query(), 10, 10).getIds().isEmpty());
+        // like the database queries, a blank string is no condition
+        Assert.assertEquals(4, index.search(new SearchIndex.Query().eq("hostname", " "), 0, 10).getTotal());
+    }
+
+    @Test
+    public void replaceAndRemove() {
+        SearchIndex index = hosts();
+        index.put(new SearchIndex.Document(1, 5).text("hostname", "cache-01").term("status", 2));
+        Assert.assertEquals(Arrays.asList(2L), index.search(new SearchIndex.Query().contains("hostname", "web"), 0, 10).getIds());
+        Assert.assertEquals(Arrays.asList(2L, 1L), index.search(new SearchIndex.Query().eq("status", 2), 0, 10).getIds());
+
+        index.remove(2);
+        index.put(new SearchIndex.Document(5, 0).text("hostname", "web-05"));
+        Assert.assertEquals(4, index.size());
+        Assert.assertTrue(index.contains(5));
+        Assert.assertFalse(new SearchIndex.Document(6, 6).text("hostname", null).hasFields());
+        Assert.assertFalse(index.contains(2));
+        Assert.assertEquals(Arrays.asList(5L), index.search(new SearchIndex.Query().contains("hostname", "web"), 0, 10).getIds());
+        Assert.assertEquals(0, index.search(new SearchIndex.Query().contains("ip", "10.0.0.2"), 0, 10).getTotal());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yefei
+ */
+public class DownsamplingTest {
+
+    @Test
+    public void lttbKeepsEndsAndPeaks() {
+        Samples samples = new Samples();
+        for (int i = 0; i < 10_000; i++) {
+            samples.add(i * 1000L, i == 5_000 ? 100 : Math.sin(i / 100.0));
+        }
+        Samples sampled = Downsampling.lttb(samples, 200);
+
+        Assert.assertEquals(200, sampled.size());
+        Assert.assertEquals(0, sampled.timestamp(0));
+        Assert.assertEquals(9_999_000L, sampled.lastTimestamp());
+        boolean peak = false;
+        for (int i = 0; i < sampled.size(); i++) {
+            if (i > 0) {
+                Assert.assertTrue(sampled.timestamp(i) > sampled.timestamp(i - 1));
+            }
+            peak |= sampled.value(i) == 100;
+        }
+        Assert.assertTrue(peak);
+    }
+
+    @Test
+    public void lttbBelowThreshold() {
+        Samples samples = new Samples();
+        samples.add(1, 1);
+        samples.add(2, 2);
+        Assert.assertSame(samples, Downsampling.lttb(samples, 10));
+    }
+
+    @Test
+    public void aggregate() {
+        Samples samples = new Samples();
+        // two 60s steps, the second with a NaN
+        for (int i = 0; i < 20; i++) {
+            samples.add(60_000L + i * 6_000L, i < 10 ? i + 1 : (i == 15 ? Double.NaN : 100));
+        }
+
+        Samples avg = Downsampling.aggregate(samples, 60_000, Aggregation.AVG);
+        Assert.assertEquals(2, avg.size());
+        Assert.assertEquals(60_000L, avg.timestamp(0));
+        Assert.assertEquals(5.5, avg.value(0), 1e-9);
+        Assert.assertEquals(100, avg.value(1), 1e-9);
+
+        Assert.assertEquals(1, Downsampling.aggregate(samples, 60_000, Aggregation.MIN).value(0), 0);
+        Assert.assertEquals(10, Downsampling.aggregate(samples, 60_000, Aggregation.MAX).value(0), 0);
+        Assert.assertEquals(10, Downsampling.aggregate(samples, 60_000, Aggregation.P95).value(0), 0);
+    }
+}
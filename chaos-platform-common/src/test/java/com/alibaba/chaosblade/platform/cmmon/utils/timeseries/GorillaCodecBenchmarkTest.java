@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Footprint and read cost of a chunk against the row per sample layout of
+ * t_chaos_metric_task, for a cpu like series sampled every 10s.
+ *
+ * @author yefei
+ */
+@Slf4j
+public class GorillaCodecBenchmarkTest {
+
+    private static final int SAMPLES = 120;
+
+    private static final int ROUNDS = 20_000;
+
+    @Test
+    public void footprintAndDecode() {
+        Random random = new Random(11);
+        List<String[]> rows = new ArrayList<>();
+        GorillaEncoder encoder = new GorillaEncoder();
+        long timestamp = System.currentTimeMillis();
+        double value = 30;
+        long rowBytes = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            timestamp += 10_000;
+            value = Math.max(0, Math.min(100, value + random.nextGaussian()));
+            double rounded = Math.round(value * 100) / 100.0;
+            encoder.append(timestamp, rounded);
+            String v = String.valueOf(rounded);
+            rows.add(new String[]{String.valueOf(timestamp), v});
+            // value varchar + datetime + id, task_id, device_id, category_id + two datetimes, without the text columns
+            rowBytes += v.getBytes(StandardCharsets.UTF_8).length + 1 + 5 + 8 * 4 + 5 * 2;
+        }
+        byte[] chunk = encoder.toByteArray();
+
+        long start = System.nanoTime();
+        double sum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            Samples samples = GorillaDecoder.decode(chunk);
+            sum += samples.value(samples.size() - 1);
+        }
+        long chunkNanos = (System.nanoTime() - start) / ROUNDS;
+
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (String[] row : rows) {
+                new Date(Long.parseLong(row[0]));
+                sum += Double.parseDouble(row[1]);
+            }
+        }
+        long rowNanos = (System.nanoTime() - start) / ROUNDS;
+
+        log.info("samples: {}, chunk: {} bytes, rows: {} bytes, decode chunk: {} ns, "
+                        + "parse rows (excluding the query): {} ns, checksum: {}",
+                SAMPLES, chunk.length, rowBytes, chunkNanos, rowNanos, sum);
+
+        Assert.assertTrue(chunk.length * 4 < rowBytes);
+    }
+}
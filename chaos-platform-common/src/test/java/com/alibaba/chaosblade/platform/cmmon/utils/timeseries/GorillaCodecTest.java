@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author yefei
+ */
+public class GorillaCodecTest {
+
+    @Test
+    public void roundTrip() {
+        Random random = new Random(7);
+        GorillaEncoder encoder = new GorillaEncoder();
+        long[] timestamps = new long[500];
+        double[] values = new double[500];
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < timestamps.length; i++) {
+            // regular 10s step with jitter and an occasional gap
+            timestamp += 10_000 + random.nextInt(50) - 25 + (i % 97 == 0 ? 3_600_000 : 0);
+            timestamps[i] = timestamp;
+            values[i] = i % 5 == 0 ? values[Math.max(i - 1, 0)] : random.nextDouble() * 100;
+            Assert.assertTrue(encoder.append(timestamps[i], values[i]));
+        }
+
+        Samples samples = GorillaDecoder.decode(encoder.toByteArray());
+        Assert.assertEquals(timestamps.length, samples.size());
+        for (int i = 0; i < timestamps.length; i++) {
+            Assert.assertEquals(timestamps[i], samples.timestamp(i));
+            Assert.assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(samples.value(i)));
+        }
+    }
+
+    @Test
+    public void specialValues() {
+        double[] values = {0, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE, -1, Double.POSITIVE_INFINITY, 1e-300, 42};
+        GorillaEncoder encoder = new GorillaEncoder();
+        for (int i = 0; i < values.length; i++) {
+            encoder.append(i * 1000L, values[i]);
+        }
+        Samples samples = GorillaDecoder.decode(encoder.toByteArray());
+        for (int i = 0; i < values.length; i++) {
+            Assert.assertEquals(i * 1000L, samples.timestamp(i));
+            Assert.assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(samples.value(i)));
+        }
+    }
+
+    @Test
+    public void skipNotIncreasing() {
+        GorillaEncoder encoder = new GorillaEncoder();
+        Assert.assertTrue(encoder.append(1000, 1));
+        Assert.assertFalse(encoder.append(1000, 2));
+        Assert.assertFalse(encoder.append(500, 3));
+        Assert.assertTrue(encoder.append(2000, 4));
+
+        Samples samples = GorillaDecoder.decode(encoder.toByteArray());
+        Assert.assertEquals(2, samples.size());
+        Assert.assertEquals(4, samples.value(1), 0);
+    }
+
+    @Test
+    public void empty() {
+        Assert.assertEquals(0, GorillaDecoder.decode(new GorillaEncoder().toByteArray()).size());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.cmmon.utils.timeseries;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author yefei
+ */
+public class SlidingWindowTest {
+
+    @Test
+    public void coversAfterSpan() {
+        SlidingWindow window = new SlidingWindow(30_000, 5);
+        window.add(0, 95);
+        window.add(10_000, 96);
+        window.add(20_000, 97);
+        Assert.assertFalse(window.covers());
+
+        window.add(30_000, 98);
+        Assert.assertTrue(window.covers());
+        Assert.assertEquals(4, window.size());
+        Assert.assertEquals(95, window.aggregate(Aggregation.MIN), 0);
+
+        // the sample at 0 is no longer needed as anchor
+        window.add(40_000, 50);
+        Assert.assertEquals(4, window.size());
+        Assert.assertEquals(10_000, window.firstTimestamp());
+        Assert.assertEquals(50, window.aggregate(Aggregation.MIN), 0);
+        Assert.assertEquals(98, window.aggregate(Aggregation.MAX), 0);
+        Assert.assertEquals(98, window.aggregate(Aggregation.P95), 0);
+    }
+
+    @Test
+    public void boundedMemory() {
+        SlidingWindow window = new SlidingWindow(30_000, 5);
+        for (int i = 0; i < 1000; i++) {
+            window.add(i * 1000L, i);
+        }
+        Assert.assertEquals(5, window.size());
+        Assert.assertEquals(999_000, window.lastTimestamp());
+        Assert.assertFalse(window.covers());
+        Assert.assertEquals(997, window.aggregate(Aggregation.AVG), 0);
+    }
+
+    @Test
+    public void dropsOutOfOrderAndNaN() {
+        SlidingWindow window = new SlidingWindow(10_000, 4);
+        window.add(10_000, 1);
+        window.add(5_000, 100);
+        window.add(20_000, Double.NaN);
+        Assert.assertEquals(2, window.size());
+        Assert.assertTrue(window.covers());
+        Assert.assertEquals(1, window.aggregate(Aggregation.MAX), 0);
+
+        SlidingWindow empty = new SlidingWindow(10_000, 4);
+        Assert.assertFalse(empty.covers());
+        Assert.assertTrue(Double.isNaN(empty.aggregate(Aggregation.AVG)));
+    }
+
+    @Test
+    public void incrementalMatchesRecomputed() {
+        Random random = new Random(7);
+        SlidingWindow window = new SlidingWindow(60_000, 8);
+        // the percentile heaps are built on first use, once from the start and once halfway
+        SlidingWindow late = new SlidingWindow(60_000, 8);
+        double[] history = new double[5000];
+        long timestamp = 0;
+        for (int i = 0; i < history.length; i++) {
+            timestamp += 1_000 + random.nextInt(20_000);
+            history[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(50);
+            window.add(timestamp, history[i]);
+            late.add(timestamp, history[i]);
+
+            // the window holds the last size() samples
+            for (Aggregation aggregation : Aggregation.values()) {
+                double expected = aggregation.apply(Arrays.copyOfRange(history, i + 1 - window.size(), i + 1),
+                        0, window.size());
+                Assert.assertEquals(aggregation + " at " + i, expected, window.aggregate(aggregation), 1e-9);
+                if (aggregation != Aggregation.P95 || i >= history.length / 2) {
+                    Assert.assertEquals(aggregation + " at " + i, expected, late.aggregate(aggregation), 1e-9);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published by repositories whose rows are mirrored in memory, right after the statement and
+ * before the surrounding transaction commits.
+ *
+ * @author yefei
+ */
+@Getter
+public class RepositoryWriteEvent extends ApplicationEvent {
+
+    public enum Kind {
+        /**
+         * rows carry all their fields
+         */
+        INSERT,
+        /**
+         * rows carry their id and the updated, non null fields
+         */
+        UPDATE,
+        /**
+         * rows changed in a way only a reload tells, e.g. upserts
+         */
+        CHANGE,
+        /**
+         * rows carry their id
+         */
+        DELETE
+    }
+
+    private final Class<?> type;
+
+    private final Kind kind;
+
+    private final List<?> rows;
+
+    public RepositoryWriteEvent(Object source, Class<?> type, Kind kind, List<?> rows) {
+        super(source);
+        this.type = type;
+        this.kind = kind;
+        this.rows = rows;
+    }
+}
@@ -18,12 +18,26 @@ package com.alibaba.chaosblade.platform.dao.mapper;
 
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * @author yefei
  */
 @Repository
 public interface ExperimentTaskLogMapper extends BaseMapper<ExperimentTaskLogDO> {
 
+    /**
+     * one multi-row insert, ids and times must be set by the caller
+     */
+    int insertBatch(@Param("list") List<ExperimentTaskLogDO> list);
+
+    /**
+     * tasks finished before the time which still have uncompacted log rows
+     */
+    List<Long> selectCompactableTaskIds(@Param("runStatus") byte runStatus, @Param("gmtEnd") Date gmtEnd,
+                                        @Param("limit") int limit);
 }
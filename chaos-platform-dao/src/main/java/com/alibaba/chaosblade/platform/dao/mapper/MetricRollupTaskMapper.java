@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.mapper;
+
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupTaskDO;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author yefei
+ */
+@Repository
+public interface MetricRollupTaskMapper extends BaseMapper<MetricRollupTaskDO> {
+
+    /**
+     * tasks finished before the time which have metrics but no rollups yet, in id order
+     */
+    List<Long> selectRollupPendingTaskIds(@Param("runStatus") byte runStatus, @Param("gmtEnd") Date gmtEnd,
+                                          @Param("limit") int limit);
+
+    /**
+     * rolled up tasks finished before the time whose raw samples are not purged yet
+     */
+    List<Long> selectPurgeableTaskIds(@Param("gmtEnd") Date gmtEnd, @Param("limit") int limit);
+}
@@ -18,12 +18,32 @@ package com.alibaba.chaosblade.platform.dao.mapper;
 
 import com.alibaba.chaosblade.platform.dao.model.MetricTaskDO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * @author yefei
  */
 @Repository
 public interface MetricTaskMapper extends BaseMapper<MetricTaskDO> {
 
+    /**
+     * range partition names of t_chaos_metric_task, empty if it is not partitioned
+     */
+    List<String> selectPartitions();
+
+    /**
+     * splits a partition ending before the day off the catch-all partition
+     */
+    void addPartition(@Param("name") String name, @Param("lessThan") String lessThan);
+
+    void dropPartition(@Param("name") String name);
+
+    /**
+     * whether samples before the time belong to tasks not rolled up yet
+     */
+    boolean existsNotRolledUpBefore(@Param("date") Date date);
 }
@@ -18,11 +18,20 @@ package com.alibaba.chaosblade.platform.dao.mapper;
 
 import com.alibaba.chaosblade.platform.dao.model.SceneDO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * @author yefei
  */
 @Repository
 public interface SceneMapper extends BaseMapper<SceneDO> {
+
+    /**
+     * multi-row insert, rows whose id exists update the fields owned by the scene spec,
+     * name, status and use count are kept
+     */
+    void upsertBatch(@Param("list") List<SceneDO> list);
 }
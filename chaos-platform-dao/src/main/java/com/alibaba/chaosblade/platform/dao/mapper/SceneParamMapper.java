@@ -18,12 +18,20 @@ package com.alibaba.chaosblade.platform.dao.mapper;
 
 import com.alibaba.chaosblade.platform.dao.model.SceneParamDO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * @author yefei
  */
 @Repository
 public interface SceneParamMapper extends BaseMapper<SceneParamDO> {
 
+    /**
+     * multi-row insert, rows whose id exists update the fields owned by the scene spec,
+     * default value and component are kept
+     */
+    void upsertBatch(@Param("list") List<SceneParamDO> list);
 }
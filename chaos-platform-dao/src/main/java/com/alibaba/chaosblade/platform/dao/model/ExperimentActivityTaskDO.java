@@ -67,4 +67,6 @@ public class ExperimentActivityTaskDO extends BaseDO {
 
     private Long appId;
 
+    private Long startSpread;
+
 }
@@ -63,4 +63,8 @@ public class ExperimentActivityTaskRecordDO extends BaseDO {
 
     private String phase;
 
+    private Byte reconcileStatus;
+
+    private Date gmtReconcile;
+
 }
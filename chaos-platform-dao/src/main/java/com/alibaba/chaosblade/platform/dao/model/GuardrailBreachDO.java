@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.model;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * t_chaos_guardrail_breach, a steady state guardrail that aborted an experiment task
+ *
+ * @author yefei
+ */
+@Data
+@TableName("t_chaos_guardrail_breach")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GuardrailBreachDO extends BaseDO {
+
+    private Long taskId;
+
+    private String categoryCode;
+
+    private Long deviceId;
+
+    private String metric;
+
+    /**
+     * rule expression, e.g. p95 > 90 for 30s
+     */
+    private String rule;
+
+    private Double value;
+
+    /**
+     * time of the last sample of the breaching window
+     */
+    private Date breachTime;
+
+    /**
+     * time the task stop was requested
+     */
+    private Date stopTime;
+
+    /**
+     * time the task finished recovering
+     */
+    private Date recoverTime;
+
+    /**
+     * milliseconds from breach to recover
+     */
+    private Long recoverMillis;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.model;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * t_chaos_metric_rollup, min, max and average of one series over one bucket
+ *
+ * @author yefei
+ */
+@Data
+@TableName("t_chaos_metric_rollup")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricRollupDO extends BaseDO {
+
+    private Long taskId;
+
+    private Long deviceId;
+
+    private String ip;
+
+    private String hostname;
+
+    private Long categoryId;
+
+    private String categoryCode;
+
+    private String metric;
+
+    /**
+     * bucket width in seconds
+     */
+    private Integer resolution;
+
+    private Date bucketTime;
+
+    private Double minValue;
+
+    private Double maxValue;
+
+    private Double avgValue;
+
+    private Integer sampleCount;
+}
@@ -33,6 +33,18 @@ public class PageUtils {
         THREAD_LOCAL.set(PageHelper.startPage(pageQuery.getPage(), pageQuery.getPageSize()));
     }
 
+    /**
+     * page of a result paged in memory, no statement is paged
+     */
+    public static void setPage(PageQuery pageQuery, long total) {
+        if (!pageQuery.isPaged()) {
+            return;
+        }
+        Page page = new Page(pageQuery.getPage(), pageQuery.getPageSize());
+        page.setTotal(total);
+        THREAD_LOCAL.set(page);
+    }
+
     public static Page getPage() {
         return THREAD_LOCAL.get();
     }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.DeviceContainerMapper;
+import com.alibaba.chaosblade.platform.dao.model.DeviceContainerDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class DeviceContainerRepository implements IRepository<Long, DeviceContainerDO> {
+
+    @Autowired
+    private DeviceContainerMapper deviceContainerMapper;
+
+    @Override
+    public Optional<DeviceContainerDO> selectById(Long aLong) {
+        return Optional.ofNullable(deviceContainerMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(DeviceContainerDO deviceContainerDO) {
+        deviceContainerMapper.insert(deviceContainerDO);
+        return deviceContainerDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, DeviceContainerDO deviceContainerDO) {
+        deviceContainerDO.setId(id);
+        return deviceContainerMapper.updateById(deviceContainerDO) == 1;
+    }
+
+    /**
+     * probes UNI_DEVICE_CONTAINER_NAME
+     */
+    public Optional<DeviceContainerDO> selectByName(String namespace, String podName, String containerName) {
+        QueryWrapper<DeviceContainerDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(DeviceContainerDO::getNamespace, namespace)
+                .eq(DeviceContainerDO::getPodName, podName)
+                .eq(DeviceContainerDO::getContainerName, containerName);
+        return Optional.ofNullable(deviceContainerMapper.selectOne(queryWrapper));
+    }
+
+    public List<DeviceContainerDO> selectByPodIds(Collection<Long> podIds) {
+        if (podIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QueryWrapper<DeviceContainerDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().in(DeviceContainerDO::getPodId, podIds);
+        return deviceContainerMapper.selectList(queryWrapper);
+    }
+
+    public boolean deleteById(Long id) {
+        return deviceContainerMapper.deleteById(id) == 1;
+    }
+}
@@ -18,6 +18,7 @@ package com.alibaba.chaosblade.platform.dao.repository;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
 import com.alibaba.chaosblade.platform.dao.mapper.DeviceNodeMapper;
 import com.alibaba.chaosblade.platform.dao.model.DeviceNodeDO;
@@ -25,6 +26,8 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -75,6 +78,28 @@ public class DeviceNodeRepository implements IRepository<Long, DeviceNodeDO> {
     }
 
 
+    /**
+     * nodes whose device has the status, any status if null, as one statement to be paged
+     */
+    public List<DeviceNodeDO> selectList(DeviceNodeDO deviceNodeDO, Byte deviceStatus) {
+        QueryWrapper<DeviceNodeDO> queryWrapper = QueryWrapperBuilder.build();
+        if (StrUtil.isNotBlank(deviceNodeDO.getClusterName())) {
+            queryWrapper.lambda().like(DeviceNodeDO::getClusterName, deviceNodeDO.getClusterName());
+        }
+        if (StrUtil.isNotBlank(deviceNodeDO.getNodeName())) {
+            queryWrapper.lambda().like(DeviceNodeDO::getNodeName, deviceNodeDO.getNodeName());
+        }
+        DeviceRepository.applyDeviceIn(queryWrapper, DeviceType.NODE, deviceStatus);
+        return deviceNodeMapper.selectList(queryWrapper);
+    }
+
+    public List<DeviceNodeDO> selectBatchIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return deviceNodeMapper.selectBatchIds(ids);
+    }
+
     public List<DeviceNodeDO> selectList(DeviceNodeDO deviceNodeDO) {
         QueryWrapper<DeviceNodeDO> queryWrapper = QueryWrapperBuilder.build();
         if (StrUtil.isNotBlank(deviceNodeDO.getClusterName())) {
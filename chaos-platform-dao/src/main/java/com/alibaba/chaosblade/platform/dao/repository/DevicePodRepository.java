@@ -18,6 +18,7 @@ package com.alibaba.chaosblade.platform.dao.repository;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
 import com.alibaba.chaosblade.platform.dao.mapper.DevicePodMapper;
 import com.alibaba.chaosblade.platform.dao.model.DeviceNodeDO;
@@ -89,6 +90,35 @@ public class DevicePodRepository implements IRepository<Long, DevicePodDO> {
         return devicePodMapper.selectList(queryWrapper);
     }
 
+    /**
+     * pods whose device has the status and whose node matches the cluster and node name, each
+     * condition skipped if null, as one statement to be paged
+     */
+    public List<DevicePodDO> selectList(DevicePodDO devicePodDO, Byte deviceStatus, String clusterName, String nodeName) {
+        QueryWrapper<DevicePodDO> queryWrapper = QueryWrapperBuilder.build();
+        if (StrUtil.isNotBlank(devicePodDO.getNamespace())) {
+            queryWrapper.lambda().like(DevicePodDO::getNamespace, devicePodDO.getNamespace());
+        }
+        if (StrUtil.isNotBlank(devicePodDO.getPodName())) {
+            queryWrapper.lambda().like(DevicePodDO::getPodName, devicePodDO.getPodName());
+        }
+        if (StrUtil.isNotBlank(devicePodDO.getPodIp())) {
+            queryWrapper.lambda().like(DevicePodDO::getPodIp, devicePodDO.getPodIp());
+        }
+        DeviceRepository.applyDeviceIn(queryWrapper, DeviceType.POD, deviceStatus);
+        if (StrUtil.isNotBlank(clusterName) || StrUtil.isNotBlank(nodeName)) {
+            StringBuilder sql = new StringBuilder("node_id in (select id from t_chaos_device_node where 1 = 1");
+            if (StrUtil.isNotBlank(clusterName)) {
+                sql.append(" and cluster_name like concat('%', {0}, '%')");
+            }
+            if (StrUtil.isNotBlank(nodeName)) {
+                sql.append(" and node_name like concat('%', {1}, '%')");
+            }
+            queryWrapper.apply(sql.append(")").toString(), clusterName, nodeName);
+        }
+        return devicePodMapper.selectList(queryWrapper);
+    }
+
     public Optional<DevicePodDO> selectByNameAndNamespace(String namespace,
                                                           String podName) {
         QueryWrapper<DevicePodDO> queryWrapper = QueryWrapperBuilder.build();
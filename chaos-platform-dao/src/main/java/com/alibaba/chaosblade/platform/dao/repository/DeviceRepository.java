@@ -20,14 +20,17 @@ import cn.hutool.core.util.StrUtil;
 import com.alibaba.chaosblade.platform.cmmon.enums.DeviceStatus;
 import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
 import com.alibaba.chaosblade.platform.dao.mapper.DeviceMapper;
 import com.alibaba.chaosblade.platform.dao.model.DeviceDO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Repository;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +43,9 @@ public class DeviceRepository implements IRepository<Long, DeviceDO> {
     @Autowired
     private DeviceMapper deviceMapper;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     /**
      *  deviceType hostName ip
      * @param deviceType
@@ -63,6 +69,27 @@ public class DeviceRepository implements IRepository<Long, DeviceDO> {
         return deviceMapper.selectCount(queryWrapper);
     }
 
+    public List<DeviceDO> selectAfterId(long afterId, int limit) {
+        QueryWrapper<DeviceDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().gt(DeviceDO::getId, afterId);
+        queryWrapper.lambda().orderByAsc(DeviceDO::getId);
+        queryWrapper.last("limit " + limit);
+        return deviceMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * restricts the device_id column of the wrapped table to devices of the type and status, any
+     * status if null, by a sub query so that the statement stays pageable
+     */
+    static void applyDeviceIn(QueryWrapper<?> queryWrapper, DeviceType deviceType, Byte deviceStatus) {
+        if (deviceStatus == null) {
+            queryWrapper.apply("device_id in (select id from t_chaos_device where type = {0})", deviceType.getCode());
+        } else {
+            queryWrapper.apply("device_id in (select id from t_chaos_device where type = {0} and status = {1})",
+                    deviceType.getCode(), deviceStatus);
+        }
+    }
+
     private QueryWrapper<DeviceDO> newQueryWrapper(DeviceDO deviceDO) {
         QueryWrapper<DeviceDO> queryWrapper = QueryWrapperBuilder.build();
         if (deviceDO.getType() != null) {
@@ -91,13 +118,16 @@ public class DeviceRepository implements IRepository<Long, DeviceDO> {
     @Override
     public Long insert(DeviceDO deviceDO) {
         deviceMapper.insert(deviceDO);
+        publish(RepositoryWriteEvent.Kind.INSERT, deviceDO);
         return deviceDO.getId();
     }
 
     @Override
     public boolean updateByPrimaryKey(Long id, DeviceDO deviceDO) {
         deviceDO.setId(id);
-        return deviceMapper.updateById(deviceDO) == 1;
+        boolean updated = deviceMapper.updateById(deviceDO) == 1;
+        publish(RepositoryWriteEvent.Kind.UPDATE, deviceDO);
+        return updated;
     }
 
     public List<DeviceDO> selectBatchIds(Collection<? extends Serializable> idList) {
@@ -116,4 +146,8 @@ public class DeviceRepository implements IRepository<Long, DeviceDO> {
         queryWrapper.lambda().eq(DeviceDO::getStatus, DeviceStatus.ONLINE.getStatus());
         return deviceMapper.selectCount(queryWrapper);
     }
+
+    private void publish(RepositoryWriteEvent.Kind kind, DeviceDO row) {
+        applicationContext.publishEvent(new RepositoryWriteEvent(this, DeviceDO.class, kind, Collections.singletonList(row)));
+    }
 }
@@ -25,6 +25,8 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -55,6 +57,21 @@ public class ExperimentActivityRepository extends ServiceImpl<ExperimentActivity
         return activityDOS;
     }
 
+    /**
+     * activities of the phase of all the experiments, without flow and order columns
+     */
+    public List<ExperimentActivityDO> selectByExperimentIds(Collection<Long> experimentIds, String phase) {
+        if (experimentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QueryWrapper<ExperimentActivityDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.select("id", "experiment_id", "activity_name", "phase", "scene_code", "activity_definition");
+        queryWrapper.lambda().in(ExperimentActivityDO::getExperimentId, experimentIds)
+                .eq(ExperimentActivityDO::getPhase, phase)
+                .orderByAsc(ExperimentActivityDO::getId);
+        return experimentActivityMapper.selectList(queryWrapper);
+    }
+
     @Override
     public Optional<ExperimentActivityDO> selectById(Long aLong) {
         return Optional.empty();
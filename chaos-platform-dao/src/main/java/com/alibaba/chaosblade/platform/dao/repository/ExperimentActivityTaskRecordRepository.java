@@ -23,6 +23,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -64,4 +65,39 @@ public class ExperimentActivityTaskRecordRepository implements IRepository<Long,
         queryWrapper.lambda().eq(ExperimentActivityTaskRecordDO::getExperimentTaskId, experimentTaskId);
         return experimentActivityTaskRecordMapper.selectList(queryWrapper);
     }
+
+    /**
+     * successful attack records of the tasks, paged by primary key
+     */
+    public List<ExperimentActivityTaskRecordDO> selectAttackRecords(Collection<Long> experimentTaskIds, String phase,
+                                                                    Long lastId, int limit) {
+        QueryWrapper<ExperimentActivityTaskRecordDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().in(ExperimentActivityTaskRecordDO::getExperimentTaskId, experimentTaskIds);
+        queryWrapper.lambda().eq(ExperimentActivityTaskRecordDO::getPhase, phase);
+        queryWrapper.lambda().eq(ExperimentActivityTaskRecordDO::getSuccess, true);
+        queryWrapper.lambda().isNotNull(ExperimentActivityTaskRecordDO::getResult);
+        queryWrapper.lambda().gt(ExperimentActivityTaskRecordDO::getId, lastId);
+        queryWrapper.lambda().orderByAsc(ExperimentActivityTaskRecordDO::getId);
+        queryWrapper.last("limit " + limit);
+        return experimentActivityTaskRecordMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * successful records of the phase on the devices of the tasks
+     */
+    public List<ExperimentActivityTaskRecordDO> selectSuccessRecords(Collection<Long> experimentTaskIds, String phase,
+                                                                     Collection<Long> deviceIds) {
+        QueryWrapper<ExperimentActivityTaskRecordDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().in(ExperimentActivityTaskRecordDO::getExperimentTaskId, experimentTaskIds);
+        queryWrapper.lambda().in(ExperimentActivityTaskRecordDO::getDeviceId, deviceIds);
+        queryWrapper.lambda().eq(ExperimentActivityTaskRecordDO::getPhase, phase);
+        queryWrapper.lambda().eq(ExperimentActivityTaskRecordDO::getSuccess, true);
+        return experimentActivityTaskRecordMapper.selectList(queryWrapper);
+    }
+
+    public int updateReconcileStatus(Collection<Long> ids, ExperimentActivityTaskRecordDO experimentActivityTaskRecordDO) {
+        QueryWrapper<ExperimentActivityTaskRecordDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().in(ExperimentActivityTaskRecordDO::getId, ids);
+        return experimentActivityTaskRecordMapper.update(experimentActivityTaskRecordDO, queryWrapper);
+    }
 }
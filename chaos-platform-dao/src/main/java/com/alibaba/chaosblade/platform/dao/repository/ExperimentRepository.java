@@ -17,12 +17,16 @@
 package com.alibaba.chaosblade.platform.dao.repository;
 
 import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
 import com.alibaba.chaosblade.platform.dao.mapper.ExperimentMapper;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentDO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +39,9 @@ public class ExperimentRepository implements IRepository<Long, ExperimentDO> {
     @Autowired
     private ExperimentMapper experimentMapper;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Override
     public Optional<ExperimentDO> selectById(Long aLong) {
         return Optional.ofNullable(experimentMapper.selectById(aLong));
@@ -43,13 +50,16 @@ public class ExperimentRepository implements IRepository<Long, ExperimentDO> {
     @Override
     public Long insert(ExperimentDO experimentDO) {
         experimentMapper.insert(experimentDO);
+        publish(RepositoryWriteEvent.Kind.INSERT, experimentDO);
         return experimentDO.getId();
     }
 
     @Override
     public boolean updateByPrimaryKey(Long id, ExperimentDO experimentDO) {
         experimentDO.setId(id);
-        return experimentMapper.updateById(experimentDO) == 1;
+        boolean updated = experimentMapper.updateById(experimentDO) == 1;
+        publish(RepositoryWriteEvent.Kind.UPDATE, experimentDO);
+        return updated;
     }
 
     public List<ExperimentDO> fuzzySelect(ExperimentDO experimentDO) {
@@ -61,7 +71,42 @@ public class ExperimentRepository implements IRepository<Long, ExperimentDO> {
         return experimentMapper.selectList(queryWrapper);
     }
 
+    /**
+     * like {@link #fuzzySelect(ExperimentDO)}, without description, dimension and metric
+     */
+    public List<ExperimentDO> fuzzySelectSummary(ExperimentDO experimentDO) {
+        QueryWrapper<ExperimentDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "gmt_create", "gmt_modified", "name", "task_id");
+        if (StrUtil.isNotBlank(experimentDO.getName())) {
+            queryWrapper.lambda().like(ExperimentDO::getName, experimentDO.getName());
+        }
+        queryWrapper.orderByDesc("gmt_modified");
+        return experimentMapper.selectList(queryWrapper);
+    }
+
+    public List<ExperimentDO> selectAfterId(long afterId, int limit) {
+        QueryWrapper<ExperimentDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.lambda().gt(ExperimentDO::getId, afterId);
+        queryWrapper.lambda().orderByAsc(ExperimentDO::getId);
+        queryWrapper.last("limit " + limit);
+        return experimentMapper.selectList(queryWrapper);
+    }
+
+    public List<ExperimentDO> selectByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return experimentMapper.selectBatchIds(ids);
+    }
+
     public void deleteById(Long id) {
         experimentMapper.deleteById(id);
+        ExperimentDO experimentDO = new ExperimentDO();
+        experimentDO.setId(id);
+        publish(RepositoryWriteEvent.Kind.DELETE, experimentDO);
+    }
+
+    private void publish(RepositoryWriteEvent.Kind kind, ExperimentDO row) {
+        applicationContext.publishEvent(new RepositoryWriteEvent(this, ExperimentDO.class, kind, Collections.singletonList(row)));
     }
 }
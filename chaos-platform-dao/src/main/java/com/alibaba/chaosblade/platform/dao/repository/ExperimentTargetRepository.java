@@ -0,0 +1,89 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.ExperimentTargetMapper;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTargetDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class ExperimentTargetRepository implements IRepository<Long, ExperimentTargetDO> {
+
+    private final static int BATCH_SIZE = 500;
+
+    @Autowired
+    private ExperimentTargetMapper experimentTargetMapper;
+
+    @Override
+    public Optional<ExperimentTargetDO> selectById(Long aLong) {
+        return Optional.ofNullable(experimentTargetMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(ExperimentTargetDO experimentTargetDO) {
+        experimentTargetMapper.insert(experimentTargetDO);
+        return experimentTargetDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, ExperimentTargetDO experimentTargetDO) {
+        experimentTargetDO.setId(id);
+        return experimentTargetMapper.updateById(experimentTargetDO) == 1;
+    }
+
+    /**
+     * multi-row inserts of at most {@link #BATCH_SIZE} rows, ids follow the list order
+     */
+    public void insertBatch(List<ExperimentTargetDO> list) {
+        Date now = new Date();
+        for (ExperimentTargetDO experimentTargetDO : list) {
+            experimentTargetDO.setId(IdWorker.getId());
+            experimentTargetDO.setGmtCreate(now);
+            experimentTargetDO.setGmtModified(now);
+        }
+        for (List<ExperimentTargetDO> batch : CollUtil.split(list, BATCH_SIZE)) {
+            experimentTargetMapper.insertBatch(batch);
+        }
+    }
+
+    /**
+     * targets of the group in insert order
+     */
+    public List<ExperimentTargetDO> selectByGroupId(Long groupId) {
+        QueryWrapper<ExperimentTargetDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTargetDO::getGroupId, groupId).orderByAsc(ExperimentTargetDO::getId);
+        return experimentTargetMapper.selectList(queryWrapper);
+    }
+
+    public void deleteByGroupId(Long groupId) {
+        QueryWrapper<ExperimentTargetDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTargetDO::getGroupId, groupId);
+        experimentTargetMapper.delete(queryWrapper);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.ExperimentTaskLogChunkMapper;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogChunkDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class ExperimentTaskLogChunkRepository implements IRepository<Long, ExperimentTaskLogChunkDO> {
+
+    @Autowired
+    private ExperimentTaskLogChunkMapper experimentTaskLogChunkMapper;
+
+    @Override
+    public Optional<ExperimentTaskLogChunkDO> selectById(Long aLong) {
+        return Optional.ofNullable(experimentTaskLogChunkMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(ExperimentTaskLogChunkDO experimentTaskLogChunkDO) {
+        experimentTaskLogChunkMapper.insert(experimentTaskLogChunkDO);
+        return experimentTaskLogChunkDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, ExperimentTaskLogChunkDO experimentTaskLogChunkDO) {
+        experimentTaskLogChunkDO.setId(id);
+        return experimentTaskLogChunkMapper.updateById(experimentTaskLogChunkDO) == 1;
+    }
+
+    /**
+     * chunks holding lines after the log id, in log order
+     */
+    public List<ExperimentTaskLogChunkDO> selectByTaskId(Long taskId, Long afterLogId) {
+        QueryWrapper<ExperimentTaskLogChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTaskLogChunkDO::getTaskId, taskId);
+        if (afterLogId != null) {
+            queryWrapper.lambda().gt(ExperimentTaskLogChunkDO::getLastLogId, afterLogId);
+        }
+        queryWrapper.lambda().orderByAsc(ExperimentTaskLogChunkDO::getFirstLogId);
+        return experimentTaskLogChunkMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * last log id already compacted of the task, 0 if none
+     */
+    public long selectLastLogId(Long taskId) {
+        QueryWrapper<ExperimentTaskLogChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.select("max(last_log_id) as last_log_id");
+        queryWrapper.lambda().eq(ExperimentTaskLogChunkDO::getTaskId, taskId);
+        ExperimentTaskLogChunkDO chunk = experimentTaskLogChunkMapper.selectOne(queryWrapper);
+        return chunk == null || chunk.getLastLogId() == null ? 0L : chunk.getLastLogId();
+    }
+}
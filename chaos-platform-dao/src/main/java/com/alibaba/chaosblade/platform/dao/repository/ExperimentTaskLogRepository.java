@@ -20,9 +20,11 @@ import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
 import com.alibaba.chaosblade.platform.dao.mapper.ExperimentTaskLogMapper;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,9 +54,49 @@ public class ExperimentTaskLogRepository implements IRepository<Long, Experiment
         return experimentTaskLogMapper.updateById(experimentTaskLogDO) == 1;
     }
 
+    public void insertBatch(List<ExperimentTaskLogDO> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        for (ExperimentTaskLogDO experimentTaskLogDO : list) {
+            experimentTaskLogDO.setId(IdWorker.getId());
+            experimentTaskLogDO.setGmtCreate(now);
+            experimentTaskLogDO.setGmtModified(now);
+        }
+        experimentTaskLogMapper.insertBatch(list);
+    }
+
     public List<ExperimentTaskLogDO> selectByTaskId(Long taskId) {
         QueryWrapper<ExperimentTaskLogDO> queryWrapper = QueryWrapperBuilder.build();
         queryWrapper.lambda().eq(ExperimentTaskLogDO::getTaskId, taskId);
         return experimentTaskLogMapper.selectList(queryWrapper);
     }
+
+    /**
+     * lines after the cursor in log order, or the newest lines after the cursor when desc
+     */
+    public List<ExperimentTaskLogDO> selectByTaskId(Long taskId, long afterId, int limit, boolean desc) {
+        QueryWrapper<ExperimentTaskLogDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTaskLogDO::getTaskId, taskId);
+        queryWrapper.lambda().gt(ExperimentTaskLogDO::getId, afterId);
+        if (desc) {
+            queryWrapper.lambda().orderByDesc(ExperimentTaskLogDO::getId);
+        } else {
+            queryWrapper.lambda().orderByAsc(ExperimentTaskLogDO::getId);
+        }
+        queryWrapper.last("limit " + limit);
+        return experimentTaskLogMapper.selectList(queryWrapper);
+    }
+
+    public int deleteByTaskId(Long taskId, long toId) {
+        QueryWrapper<ExperimentTaskLogDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTaskLogDO::getTaskId, taskId);
+        queryWrapper.lambda().le(ExperimentTaskLogDO::getId, toId);
+        return experimentTaskLogMapper.delete(queryWrapper);
+    }
+
+    public List<Long> selectCompactableTaskIds(byte runStatus, Date gmtEnd, int limit) {
+        return experimentTaskLogMapper.selectCompactableTaskIds(runStatus, gmtEnd, limit);
+    }
 }
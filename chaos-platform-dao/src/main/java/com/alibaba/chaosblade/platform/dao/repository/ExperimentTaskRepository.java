@@ -17,12 +17,17 @@
 package com.alibaba.chaosblade.platform.dao.repository;
 
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
 import com.alibaba.chaosblade.platform.dao.mapper.ExperimentTaskMapper;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +40,9 @@ public class ExperimentTaskRepository implements IRepository<Long, ExperimentTas
     @Autowired
     private ExperimentTaskMapper experimentTaskMapper;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Override
     public Optional<ExperimentTaskDO> selectById(Long aLong) {
         return Optional.ofNullable(experimentTaskMapper.selectById(aLong));
@@ -49,7 +57,10 @@ public class ExperimentTaskRepository implements IRepository<Long, ExperimentTas
     @Override
     public boolean updateByPrimaryKey(Long id, ExperimentTaskDO experimentTaskDO) {
         experimentTaskDO.setId(id);
-        return experimentTaskMapper.updateById(experimentTaskDO) == 1;
+        boolean updated = experimentTaskMapper.updateById(experimentTaskDO) == 1;
+        applicationContext.publishEvent(new RepositoryWriteEvent(this, ExperimentTaskDO.class,
+                RepositoryWriteEvent.Kind.UPDATE, Collections.singletonList(experimentTaskDO)));
+        return updated;
     }
 
     public ExperimentTaskDO selectLatestByExperimentId(Long experimentId) {
@@ -67,4 +78,37 @@ public class ExperimentTaskRepository implements IRepository<Long, ExperimentTas
         return experimentTaskMapper.selectList(queryWrapper);
     }
 
+    public List<ExperimentTaskDO> selectByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return experimentTaskMapper.selectBatchIds(ids);
+    }
+
+    /**
+     * status and times only, without hosts, result and metric
+     */
+    public List<ExperimentTaskDO> selectStatusByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QueryWrapper<ExperimentTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.select("id", "experiment_id", "run_status", "result_status", "gmt_start", "gmt_end");
+        queryWrapper.lambda().in(ExperimentTaskDO::getId, ids);
+        return experimentTaskMapper.selectList(queryWrapper);
+    }
+
+    public List<ExperimentTaskDO> selectByRunStatus(byte runStatus) {
+        QueryWrapper<ExperimentTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTaskDO::getRunStatus, runStatus);
+        return experimentTaskMapper.selectList(queryWrapper);
+    }
+
+    public List<ExperimentTaskDO> selectByRunStatusAndEndAfter(byte runStatus, Date gmtEnd) {
+        QueryWrapper<ExperimentTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(ExperimentTaskDO::getRunStatus, runStatus);
+        queryWrapper.lambda().ge(ExperimentTaskDO::getGmtEnd, gmtEnd);
+        return experimentTaskMapper.selectList(queryWrapper);
+    }
+
 }
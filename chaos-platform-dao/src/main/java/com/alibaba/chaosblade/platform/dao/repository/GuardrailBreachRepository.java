@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.GuardrailBreachMapper;
+import com.alibaba.chaosblade.platform.dao.model.GuardrailBreachDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class GuardrailBreachRepository implements IRepository<Long, GuardrailBreachDO> {
+
+    @Autowired
+    private GuardrailBreachMapper guardrailBreachMapper;
+
+    @Override
+    public Optional<GuardrailBreachDO> selectById(Long aLong) {
+        return Optional.ofNullable(guardrailBreachMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(GuardrailBreachDO guardrailBreachDO) {
+        guardrailBreachMapper.insert(guardrailBreachDO);
+        return guardrailBreachDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, GuardrailBreachDO guardrailBreachDO) {
+        guardrailBreachDO.setId(id);
+        return guardrailBreachMapper.updateById(guardrailBreachDO) == 1;
+    }
+
+    public List<GuardrailBreachDO> selectByTaskId(Long taskId) {
+        QueryWrapper<GuardrailBreachDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(GuardrailBreachDO::getTaskId, taskId);
+        return guardrailBreachMapper.selectList(queryWrapper);
+    }
+}
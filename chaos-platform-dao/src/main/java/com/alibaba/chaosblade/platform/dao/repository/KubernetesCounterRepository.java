@@ -0,0 +1,89 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.KubernetesCounterMapper;
+import com.alibaba.chaosblade.platform.dao.model.KubernetesCounterDO;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class KubernetesCounterRepository implements IRepository<Long, KubernetesCounterDO> {
+
+    @Autowired
+    private KubernetesCounterMapper kubernetesCounterMapper;
+
+    @Override
+    public Optional<KubernetesCounterDO> selectById(Long aLong) {
+        return Optional.ofNullable(kubernetesCounterMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(KubernetesCounterDO kubernetesCounterDO) {
+        kubernetesCounterMapper.insert(kubernetesCounterDO);
+        return kubernetesCounterDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, KubernetesCounterDO kubernetesCounterDO) {
+        kubernetesCounterDO.setId(id);
+        return kubernetesCounterMapper.updateById(kubernetesCounterDO) == 1;
+    }
+
+    /**
+     * atomically adds the deltas, null cluster name or namespace count as empty
+     */
+    public void increment(String clusterName, String namespace, long nodes, long pods, long containers) {
+        if (nodes == 0 && pods == 0 && containers == 0) {
+            return;
+        }
+        Date now = new Date();
+        KubernetesCounterDO counter = KubernetesCounterDO.builder()
+                .clusterName(StrUtil.nullToEmpty(clusterName))
+                .namespace(StrUtil.nullToEmpty(namespace))
+                .nodes(nodes)
+                .pods(pods)
+                .containers(containers)
+                .build();
+        counter.setId(IdWorker.getId());
+        counter.setGmtCreate(now);
+        counter.setGmtModified(now);
+        kubernetesCounterMapper.increment(counter);
+    }
+
+    /**
+     * replaces all counters by a recount, callers make sure no increment runs meanwhile
+     */
+    public void rebuild() {
+        kubernetesCounterMapper.deleteAll();
+        kubernetesCounterMapper.insertFromDevices();
+    }
+
+    public List<KubernetesCounterDO> selectAll() {
+        return kubernetesCounterMapper.selectList(QueryWrapperBuilder.build());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.MetricChunkMapper;
+import com.alibaba.chaosblade.platform.dao.model.MetricChunkDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class MetricChunkRepository implements IRepository<Long, MetricChunkDO> {
+
+    @Autowired
+    private MetricChunkMapper metricChunkMapper;
+
+    @Override
+    public Optional<MetricChunkDO> selectById(Long aLong) {
+        return Optional.ofNullable(metricChunkMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(MetricChunkDO metricChunkDO) {
+        metricChunkMapper.insert(metricChunkDO);
+        return metricChunkDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, MetricChunkDO metricChunkDO) {
+        metricChunkDO.setId(id);
+        return metricChunkMapper.updateById(metricChunkDO) == 1;
+    }
+
+    public Optional<MetricChunkDO> selectHead(Long taskId, Long deviceId, String categoryCode, String metric) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        queryWrapper.lambda().eq(MetricChunkDO::getDeviceId, deviceId);
+        queryWrapper.lambda().eq(MetricChunkDO::getCategoryCode, categoryCode);
+        queryWrapper.lambda().eq(MetricChunkDO::getMetric, metric);
+        queryWrapper.lambda().eq(MetricChunkDO::getSealed, false);
+        queryWrapper.last("limit 1");
+        return Optional.ofNullable(metricChunkMapper.selectOne(queryWrapper));
+    }
+
+    /**
+     * device id, metric and end time of the newest chunk of every series of the task
+     */
+    public List<MetricChunkDO> selectLastEndTimes(Long taskId, String categoryCode) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.select("device_id", "metric", "max(end_time) as end_time");
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        queryWrapper.lambda().eq(MetricChunkDO::getCategoryCode, categoryCode);
+        queryWrapper.groupBy("device_id", "metric");
+        return metricChunkMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * chunks overlapping [startTime, endTime], either bound may be null
+     */
+    public List<MetricChunkDO> selectByTaskId(Long taskId, String categoryCode, Long deviceId, Date startTime, Date endTime) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        if (categoryCode != null) {
+            queryWrapper.lambda().eq(MetricChunkDO::getCategoryCode, categoryCode);
+        }
+        if (deviceId != null) {
+            queryWrapper.lambda().eq(MetricChunkDO::getDeviceId, deviceId);
+        }
+        if (startTime != null) {
+            queryWrapper.lambda().ge(MetricChunkDO::getEndTime, startTime);
+        }
+        if (endTime != null) {
+            queryWrapper.lambda().le(MetricChunkDO::getStartTime, endTime);
+        }
+        queryWrapper.lambda().orderByAsc(MetricChunkDO::getStartTime);
+        return metricChunkMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * at most {@code limit} chunks of the task with an id above {@code afterId}, in id order
+     */
+    public List<MetricChunkDO> selectByTaskIdAfterId(Long taskId, long afterId, int limit) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        queryWrapper.lambda().gt(MetricChunkDO::getId, afterId);
+        queryWrapper.lambda().orderByAsc(MetricChunkDO::getId);
+        queryWrapper.last("limit " + limit);
+        return metricChunkMapper.selectList(queryWrapper);
+    }
+
+    public int countByTaskId(Long taskId) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        return metricChunkMapper.selectCount(queryWrapper);
+    }
+
+    public int sealByTaskId(Long taskId) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        queryWrapper.lambda().eq(MetricChunkDO::getSealed, false);
+        return metricChunkMapper.update(MetricChunkDO.builder().sealed(true).build(), queryWrapper);
+    }
+
+    public int deleteByTaskId(Long taskId) {
+        QueryWrapper<MetricChunkDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricChunkDO::getTaskId, taskId);
+        return metricChunkMapper.delete(queryWrapper);
+    }
+}
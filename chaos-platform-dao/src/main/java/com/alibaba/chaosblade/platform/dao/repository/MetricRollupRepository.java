@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.MetricRollupMapper;
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class MetricRollupRepository implements IRepository<Long, MetricRollupDO> {
+
+    @Autowired
+    private MetricRollupMapper metricRollupMapper;
+
+    @Override
+    public Optional<MetricRollupDO> selectById(Long aLong) {
+        return Optional.ofNullable(metricRollupMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(MetricRollupDO metricRollupDO) {
+        metricRollupMapper.insert(metricRollupDO);
+        return metricRollupDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, MetricRollupDO metricRollupDO) {
+        metricRollupDO.setId(id);
+        return metricRollupMapper.updateById(metricRollupDO) == 1;
+    }
+
+    public void insertBatch(List<MetricRollupDO> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        for (MetricRollupDO metricRollupDO : list) {
+            metricRollupDO.setId(IdWorker.getId());
+            metricRollupDO.setGmtCreate(now);
+            metricRollupDO.setGmtModified(now);
+        }
+        metricRollupMapper.insertBatch(list);
+    }
+
+    /**
+     * buckets of the task in (category, device, metric, bucket time) order, either bound may be null
+     */
+    public List<MetricRollupDO> selectByTaskId(Long taskId, int resolution, Date startTime, Date endTime) {
+        QueryWrapper<MetricRollupDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricRollupDO::getTaskId, taskId);
+        queryWrapper.lambda().eq(MetricRollupDO::getResolution, resolution);
+        if (startTime != null) {
+            queryWrapper.lambda().ge(MetricRollupDO::getBucketTime, startTime);
+        }
+        if (endTime != null) {
+            queryWrapper.lambda().le(MetricRollupDO::getBucketTime, endTime);
+        }
+        queryWrapper.lambda().orderByAsc(MetricRollupDO::getCategoryCode, MetricRollupDO::getDeviceId,
+                MetricRollupDO::getMetric, MetricRollupDO::getBucketTime);
+        return metricRollupMapper.selectList(queryWrapper);
+    }
+
+    public int deleteByTaskId(Long taskId) {
+        QueryWrapper<MetricRollupDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricRollupDO::getTaskId, taskId);
+        return metricRollupMapper.delete(queryWrapper);
+    }
+
+    /**
+     * deletes at most limit buckets of the resolution older than the time
+     */
+    public int deleteBefore(int resolution, Date bucketTime, int limit) {
+        QueryWrapper<MetricRollupDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricRollupDO::getResolution, resolution);
+        queryWrapper.lambda().lt(MetricRollupDO::getBucketTime, bucketTime);
+        queryWrapper.last("limit " + limit);
+        return metricRollupMapper.delete(queryWrapper);
+    }
+}
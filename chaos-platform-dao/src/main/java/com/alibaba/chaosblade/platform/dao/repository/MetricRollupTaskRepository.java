@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.dao.repository;
+
+import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.mapper.MetricRollupTaskMapper;
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupTaskDO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author yefei
+ */
+@Repository
+public class MetricRollupTaskRepository implements IRepository<Long, MetricRollupTaskDO> {
+
+    @Autowired
+    private MetricRollupTaskMapper metricRollupTaskMapper;
+
+    @Override
+    public Optional<MetricRollupTaskDO> selectById(Long aLong) {
+        return Optional.ofNullable(metricRollupTaskMapper.selectById(aLong));
+    }
+
+    @Override
+    public Long insert(MetricRollupTaskDO metricRollupTaskDO) {
+        metricRollupTaskMapper.insert(metricRollupTaskDO);
+        return metricRollupTaskDO.getId();
+    }
+
+    @Override
+    public boolean updateByPrimaryKey(Long id, MetricRollupTaskDO metricRollupTaskDO) {
+        metricRollupTaskDO.setId(id);
+        return metricRollupTaskMapper.updateById(metricRollupTaskDO) == 1;
+    }
+
+    public Optional<MetricRollupTaskDO> selectByTaskId(Long taskId) {
+        QueryWrapper<MetricRollupTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricRollupTaskDO::getTaskId, taskId);
+        return Optional.ofNullable(metricRollupTaskMapper.selectOne(queryWrapper));
+    }
+
+    public void markRolledUp(Long taskId) {
+        Optional<MetricRollupTaskDO> rollupTask = selectByTaskId(taskId);
+        if (rollupTask.isPresent()) {
+            updateByPrimaryKey(rollupTask.get().getId(), MetricRollupTaskDO.builder().rolledUp(true).build());
+        } else {
+            insert(MetricRollupTaskDO.builder().taskId(taskId).rolledUp(true).rawPurged(false).build());
+        }
+    }
+
+    public void markRawPurged(Long taskId) {
+        QueryWrapper<MetricRollupTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricRollupTaskDO::getTaskId, taskId);
+        metricRollupTaskMapper.update(MetricRollupTaskDO.builder().rawPurged(true).build(), queryWrapper);
+    }
+
+    public List<Long> selectRollupPendingTaskIds(byte runStatus, Date gmtEnd, int limit) {
+        return metricRollupTaskMapper.selectRollupPendingTaskIds(runStatus, gmtEnd, limit);
+    }
+
+    public List<Long> selectPurgeableTaskIds(Date gmtEnd, int limit) {
+        return metricRollupTaskMapper.selectPurgeableTaskIds(gmtEnd, limit);
+    }
+}
@@ -25,6 +25,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -74,4 +75,59 @@ public class MetricTaskRepository extends ServiceImpl<MetricTaskMapper, MetricTa
         }
         return metricTaskMapper.selectList(queryWrapper);
     }
+
+    /**
+     * all samples of the task in (category, device, metric, date) order
+     */
+    public List<MetricTaskDO> selectByTaskId(Long taskId, String startTime, String endTime) {
+        QueryWrapper<MetricTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricTaskDO::getTaskId, taskId);
+        if (StrUtil.isNotBlank(startTime)) {
+            queryWrapper.lambda().ge(MetricTaskDO::getDate, startTime);
+        }
+        if (StrUtil.isNotBlank(endTime)) {
+            queryWrapper.lambda().le(MetricTaskDO::getDate, endTime);
+        }
+        queryWrapper.lambda().orderByAsc(MetricTaskDO::getCategoryCode, MetricTaskDO::getDeviceId, MetricTaskDO::getMetric,
+                MetricTaskDO::getDate);
+        return metricTaskMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * a page of the task's samples in id order
+     */
+    public List<MetricTaskDO> selectByTaskIdAfterId(Long taskId, long afterId, int limit) {
+        QueryWrapper<MetricTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricTaskDO::getTaskId, taskId);
+        queryWrapper.lambda().gt(MetricTaskDO::getId, afterId);
+        queryWrapper.lambda().orderByAsc(MetricTaskDO::getId);
+        queryWrapper.last("limit " + limit);
+        return metricTaskMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * deletes at most limit samples of the task
+     */
+    public int deleteByTaskId(Long taskId, int limit) {
+        QueryWrapper<MetricTaskDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(MetricTaskDO::getTaskId, taskId);
+        queryWrapper.last("limit " + limit);
+        return metricTaskMapper.delete(queryWrapper);
+    }
+
+    public List<String> selectPartitions() {
+        return metricTaskMapper.selectPartitions();
+    }
+
+    public void addPartition(String name, String lessThan) {
+        metricTaskMapper.addPartition(name, lessThan);
+    }
+
+    public void dropPartition(String name) {
+        metricTaskMapper.dropPartition(name);
+    }
+
+    public boolean existsNotRolledUpBefore(Date date) {
+        return metricTaskMapper.existsNotRolledUpBefore(date);
+    }
 }
@@ -25,6 +25,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,6 +43,35 @@ public class SceneParamRepository extends ServiceImpl<SceneParamMapper, ScenePar
         saveBatch(collection);
     }
 
+    public List<SceneParamDO> selectBySceneIds(Collection<Long> sceneIds) {
+        if (sceneIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QueryWrapper<SceneParamDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().in(SceneParamDO::getSceneId, sceneIds);
+        return sceneParamMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * inserts or updates by id, {@code batchSize} rows per statement
+     */
+    public void upsertBatch(List<SceneParamDO> list, int batchSize) {
+        Date now = new Date();
+        for (SceneParamDO sceneParamDO : list) {
+            sceneParamDO.setGmtCreate(now);
+            sceneParamDO.setGmtModified(now);
+        }
+        for (int i = 0; i < list.size(); i += batchSize) {
+            sceneParamMapper.upsertBatch(list.subList(i, Math.min(i + batchSize, list.size())));
+        }
+    }
+
+    public void deleteByIds(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            sceneParamMapper.deleteBatchIds(ids);
+        }
+    }
+
     @Override
     public Optional<SceneParamDO> selectById(Long aLong) {
         return Optional.ofNullable(sceneParamMapper.selectById(aLong));
@@ -18,15 +18,20 @@ package com.alibaba.chaosblade.platform.dao.repository;
 
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
 import com.alibaba.chaosblade.platform.dao.mapper.SceneMapper;
 import com.alibaba.chaosblade.platform.dao.model.SceneDO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +44,9 @@ public class SceneRepository extends ServiceImpl<SceneMapper, SceneDO> implement
     @Autowired
     private SceneMapper sceneMapper;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     public List<SceneDO> selectList(SceneDO sceneDO) {
         QueryWrapper<SceneDO> queryWrapper = QueryWrapperBuilder.build();
         if (StrUtil.isNotBlank(sceneDO.getCategories())) {
@@ -72,8 +80,51 @@ public class SceneRepository extends ServiceImpl<SceneMapper, SceneDO> implement
         return Optional.ofNullable(sceneMapper.selectOne(queryWrapper));
     }
 
+    public List<SceneDO> selectByVersion(String version) {
+        QueryWrapper<SceneDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(SceneDO::getVersion, version);
+        return sceneMapper.selectList(queryWrapper);
+    }
+
+    public List<SceneDO> selectAfterId(long afterId, int limit) {
+        QueryWrapper<SceneDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().gt(SceneDO::getId, afterId);
+        queryWrapper.lambda().orderByAsc(SceneDO::getId);
+        queryWrapper.last("limit " + limit);
+        return sceneMapper.selectList(queryWrapper);
+    }
+
+    public List<SceneDO> selectByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return sceneMapper.selectBatchIds(ids);
+    }
+
+    public int selectCountByVersion(String version) {
+        QueryWrapper<SceneDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().eq(SceneDO::getVersion, version);
+        return sceneMapper.selectCount(queryWrapper);
+    }
+
+    /**
+     * inserts or updates by id, {@code batchSize} rows per statement
+     */
+    public void upsertBatch(List<SceneDO> list, int batchSize) {
+        Date now = new Date();
+        for (SceneDO sceneDO : list) {
+            sceneDO.setGmtCreate(now);
+            sceneDO.setGmtModified(now);
+        }
+        for (int i = 0; i < list.size(); i += batchSize) {
+            sceneMapper.upsertBatch(list.subList(i, Math.min(i + batchSize, list.size())));
+        }
+        publish(RepositoryWriteEvent.Kind.CHANGE, list);
+    }
+
     public void insertBatch(Collection<SceneDO> collection) {
         saveBatch(collection);
+        publish(RepositoryWriteEvent.Kind.INSERT, new ArrayList<>(collection));
     }
 
     @Override
@@ -84,13 +135,16 @@ public class SceneRepository extends ServiceImpl<SceneMapper, SceneDO> implement
     @Override
     public Long insert(SceneDO sceneDO) {
         sceneMapper.insert(sceneDO);
+        publish(RepositoryWriteEvent.Kind.INSERT, Collections.singletonList(sceneDO));
         return sceneDO.getId();
     }
 
     @Override
     public boolean updateByPrimaryKey(Long id, SceneDO sceneDO) {
         sceneDO.setId(id);
-        return sceneMapper.updateById(sceneDO) == 1;
+        boolean updated = sceneMapper.updateById(sceneDO) == 1;
+        publish(RepositoryWriteEvent.Kind.UPDATE, Collections.singletonList(sceneDO));
+        return updated;
     }
 
     public void incrementUseCount(Long sceneId) {
@@ -98,5 +152,12 @@ public class SceneRepository extends ServiceImpl<SceneMapper, SceneDO> implement
         updateWrapper.lambda().eq(SceneDO::getId, sceneId)
                 .setSql(true, "use_count = ifnull(use_count, 0) + 1");
         sceneMapper.update(null, updateWrapper);
+        SceneDO sceneDO = new SceneDO();
+        sceneDO.setId(sceneId);
+        publish(RepositoryWriteEvent.Kind.CHANGE, Collections.singletonList(sceneDO));
+    }
+
+    private void publish(RepositoryWriteEvent.Kind kind, List<SceneDO> rows) {
+        applicationContext.publishEvent(new RepositoryWriteEvent(this, SceneDO.class, kind, rows));
     }
 }
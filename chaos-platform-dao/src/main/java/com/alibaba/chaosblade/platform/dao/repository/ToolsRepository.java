@@ -23,6 +23,8 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,6 +60,15 @@ public class ToolsRepository implements IRepository<Long, ToolsDO> {
         return toolsMapper.selectList(queryWrapper);
     }
 
+    public List<ToolsDO> selectByDeviceIds(Collection<Long> deviceIds) {
+        if (deviceIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QueryWrapper<ToolsDO> queryWrapper = QueryWrapperBuilder.build();
+        queryWrapper.lambda().in(ToolsDO::getDeviceId, deviceIds);
+        return toolsMapper.selectList(queryWrapper);
+    }
+
     public Integer selectCountOfHost() {
         QueryWrapper<ToolsDO> queryWrapper = QueryWrapperBuilder.build();
         queryWrapper.lambda().eq(ToolsDO::getDeviceType, 0);
@@ -0,0 +1,153 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.invoker;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
+import com.alibaba.chaosblade.platform.cmmon.enums.ExperimentDimension;
+import com.alibaba.chaosblade.platform.cmmon.utils.SceneCodeParseUtil;
+
+import java.util.*;
+
+/**
+ * Immutable routing table of chaos invokers, compiled once from the {@link ChaosInvokerStrategy}
+ * of all registered invokers, routes are keyed by (device type, tools name, phase).
+ *
+ * @author yefei
+ */
+public final class ChaosInvokerRoutingTable {
+
+    private static final Map<String, DeviceType> SCOPES;
+
+    static {
+        Map<String, DeviceType> scopes = new HashMap<>();
+        for (ExperimentDimension dimension : ExperimentDimension.values()) {
+            if (dimension.getDeviceType() != null) {
+                scopes.put(dimension.name().toLowerCase(), dimension.getDeviceType());
+            }
+        }
+        SCOPES = Collections.unmodifiableMap(scopes);
+    }
+
+    /**
+     * scene code prefix -> invoker, matched before routes
+     */
+    private final Map<String, ChaosInvoker<RequestCommand, ResponseCommand>> sceneCodeRoutes;
+
+    /**
+     * device type -> tools name -> phase -> invoker
+     */
+    private final Map<DeviceType, Map<String, Map<String, ChaosInvoker<RequestCommand, ResponseCommand>>>> routes;
+
+    private ChaosInvokerRoutingTable(Map<String, ChaosInvoker<RequestCommand, ResponseCommand>> sceneCodeRoutes,
+                                     Map<DeviceType, Map<String, Map<String, ChaosInvoker<RequestCommand, ResponseCommand>>>> routes) {
+        this.sceneCodeRoutes = sceneCodeRoutes;
+        this.routes = routes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return invoker, null if no route matched
+     */
+    public ChaosInvoker<RequestCommand, ResponseCommand> route(String sceneCode, String scope, String phase) {
+        if (sceneCode == null || scope == null) {
+            return null;
+        }
+        if (!sceneCodeRoutes.isEmpty()) {
+            for (Map.Entry<String, ChaosInvoker<RequestCommand, ResponseCommand>> entry : sceneCodeRoutes.entrySet()) {
+                if (sceneCode.startsWith(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+
+        DeviceType deviceType = SCOPES.get(scope);
+        if (deviceType == null) {
+            deviceType = SCOPES.get(scope.toLowerCase());
+            if (deviceType == null) {
+                return null;
+            }
+        }
+        Map<String, Map<String, ChaosInvoker<RequestCommand, ResponseCommand>>> tools = routes.get(deviceType);
+        if (tools == null) {
+            return null;
+        }
+        Map<String, ChaosInvoker<RequestCommand, ResponseCommand>> phases = tools.get(SceneCodeParseUtil.getOriginal(sceneCode));
+        if (phases == null) {
+            return null;
+        }
+        ChaosInvoker<RequestCommand, ResponseCommand> invoker = phase == null ? null : phases.get(phase);
+        return invoker != null ? invoker : phases.get(ChaosConstant.PHASE_ALL);
+    }
+
+    public static class Builder {
+
+        private final Map<String, ChaosInvoker<RequestCommand, ResponseCommand>> sceneCodeRoutes = new LinkedHashMap<>();
+
+        private final Map<DeviceType, Map<String, Map<String, ChaosInvoker<RequestCommand, ResponseCommand>>>> routes = new EnumMap<>(DeviceType.class);
+
+        private Builder() {
+        }
+
+        /**
+         * strategies without scene code and phase, e.g. ping, are invoked directly and not routed
+         */
+        public Builder register(ChaosInvokerStrategy strategy, ChaosInvoker<RequestCommand, ResponseCommand> invoker) {
+            if (StrUtil.isNotBlank(strategy.sceneCode())) {
+                put(sceneCodeRoutes, strategy.sceneCode(), invoker);
+                return this;
+            }
+            for (DeviceType deviceType : strategy.deviceType()) {
+                for (String phase : strategy.phase()) {
+                    if (StrUtil.isBlank(phase)) {
+                        continue;
+                    }
+                    Map<String, ChaosInvoker<RequestCommand, ResponseCommand>> phases = routes
+                            .computeIfAbsent(deviceType, k -> new HashMap<>())
+                            .computeIfAbsent(strategy.value().getName(), k -> new HashMap<>());
+                    put(phases, phase, invoker);
+                }
+            }
+            return this;
+        }
+
+        private void put(Map<String, ChaosInvoker<RequestCommand, ResponseCommand>> map, String key,
+                         ChaosInvoker<RequestCommand, ResponseCommand> invoker) {
+            ChaosInvoker<RequestCommand, ResponseCommand> exists = map.putIfAbsent(key, invoker);
+            if (exists != null && exists != invoker) {
+                throw new IllegalStateException(String.format("duplicate chaos invoker route %s: %s, %s",
+                        key, exists.getClass().getName(), invoker.getClass().getName()));
+            }
+        }
+
+        public ChaosInvokerRoutingTable build() {
+            Map<DeviceType, Map<String, Map<String, ChaosInvoker<RequestCommand, ResponseCommand>>>> table = new EnumMap<>(DeviceType.class);
+            routes.forEach((deviceType, tools) -> {
+                Map<String, Map<String, ChaosInvoker<RequestCommand, ResponseCommand>>> toolsTable = new HashMap<>();
+                tools.forEach((name, phases) -> toolsTable.put(name, Collections.unmodifiableMap(new HashMap<>(phases))));
+                table.put(deviceType, Collections.unmodifiableMap(toolsTable));
+            });
+            return new ChaosInvokerRoutingTable(
+                    Collections.unmodifiableMap(new LinkedHashMap<>(sceneCodeRoutes)),
+                    Collections.unmodifiableMap(table));
+        }
+    }
+}
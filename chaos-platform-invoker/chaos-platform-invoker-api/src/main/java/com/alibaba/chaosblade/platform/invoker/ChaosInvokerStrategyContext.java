@@ -16,82 +16,62 @@
 
 package com.alibaba.chaosblade.platform.invoker;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.core.util.EnumUtil;
-import cn.hutool.core.util.StrUtil;
-import com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant;
-import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
-import com.alibaba.chaosblade.platform.cmmon.enums.ExperimentDimension;
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
-import com.alibaba.chaosblade.platform.cmmon.utils.Preconditions;
-import com.alibaba.chaosblade.platform.cmmon.utils.SceneCodeParseUtil;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author yefei
  */
 @Component
-public class ChaosInvokerStrategyContext implements ChaosInvoker<RequestCommand, ResponseCommand>, BeanPostProcessor {
+public class ChaosInvokerStrategyContext implements ChaosInvoker<RequestCommand, ResponseCommand>, BeanPostProcessor,
+        SmartInitializingSingleton {
 
-    private Map<ChaosInvokerStrategy, ChaosInvoker<RequestCommand, ResponseCommand>> strategies = new ConcurrentHashMap<>();
+    private final ChaosInvokerRoutingTable.Builder routingTableBuilder = ChaosInvokerRoutingTable.builder();
+
+    private volatile ChaosInvokerRoutingTable routingTable;
 
     @Override
     public Object postProcessBeforeInitialization(Object o, String s) throws BeansException {
         if (o instanceof ChaosInvoker) {
             ChaosInvokerStrategy strategy = o.getClass().getAnnotation(ChaosInvokerStrategy.class);
             if (strategy != null) {
-                strategies.put(strategy, (ChaosInvoker) o);
+                synchronized (routingTableBuilder) {
+                    routingTableBuilder.register(strategy, (ChaosInvoker) o);
+                }
             }
         }
         return o;
     }
 
     @Override
-    public CompletableFuture<ResponseCommand> invoke(RequestCommand requestCommand) {
-        String original = SceneCodeParseUtil.getOriginal(requestCommand.getSceneCode());
-        String scope = requestCommand.getScope();
-        String phase = requestCommand.getPhase();
+    public void afterSingletonsInstantiated() {
+        synchronized (routingTableBuilder) {
+            routingTable = routingTableBuilder.build();
+        }
+    }
 
-        ChaosInvoker<RequestCommand, ResponseCommand> invoker = null;
-        for (ChaosInvokerStrategy strategy : strategies.keySet()) {
-            if (StrUtil.isNotBlank(strategy.sceneCode()) && requestCommand.getSceneCode().startsWith(strategy.sceneCode())) {
-                invoker = strategies.get(strategy);
-                break;
-            }
-            if (strategy.value().getName().equals(original)) {
-                if (ArrayUtil.isEmpty(strategy.deviceType())) {
-                    continue;
-                }
-                for (DeviceType deviceType : strategy.deviceType()) {
-                    ExperimentDimension dimension = EnumUtil.fromString(ExperimentDimension.class, scope.toUpperCase());
-                    if (deviceType == dimension.getDeviceType()) {
-                        if (ArrayUtil.isEmpty(strategy.phase())) {
-                            continue;
-                        }
-                        for (String s : strategy.phase()) {
-                            if (s.equals(ChaosConstant.PHASE_ALL) || s.equals(phase)) {
-                                invoker = strategies.get(strategy);
-                                break;
-                            }
-                        }
-                        if (invoker != null) {
-                            break;
-                        }
-                    }
-                }
-                if (invoker != null) {
-                    break;
-                }
-            }
+    @Override
+    public CompletableFuture<ResponseCommand> invoke(RequestCommand requestCommand) {
+        ChaosInvokerRoutingTable table = routingTable;
+        if (table == null) {
+            afterSingletonsInstantiated();
+            table = routingTable;
+        }
+        ChaosInvoker<RequestCommand, ResponseCommand> invoker = table.route(requestCommand.getSceneCode(),
+                requestCommand.getScope(),
+                requestCommand.getPhase());
+        if (invoker == null) {
+            throw new BizException(ExceptionMessageEnum.INVOKER_NOT_EXISTS, String.format("sceneCode: %s, scope: %s, phase: %s",
+                    requestCommand.getSceneCode(),
+                    requestCommand.getScope(),
+                    requestCommand.getPhase()));
         }
-        Preconditions.checkNotNull(invoker, ExceptionMessageEnum.INVOKER_NOT_EXISTS);
         return invoker.invoke(requestCommand);
     }
 }
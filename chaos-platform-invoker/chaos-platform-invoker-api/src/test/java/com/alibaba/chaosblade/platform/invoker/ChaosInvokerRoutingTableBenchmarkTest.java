@@ -0,0 +1,193 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.invoker;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.EnumUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
+import com.alibaba.chaosblade.platform.cmmon.enums.ExperimentDimension;
+import com.alibaba.chaosblade.platform.cmmon.utils.SceneCodeParseUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routing table against the strategy scan it replaced, over the strategies the platform
+ * registers: both must pick the same invoker. The dispatch cost of each is only logged, wall
+ * clock timings are no assertion on a shared build machine.
+ *
+ * @author yefei
+ */
+@Slf4j
+public class ChaosInvokerRoutingTableBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+
+    private static final int ROUNDS = 100_000;
+
+    private static final String[][] REQUESTS = {
+            {"chaosblade.cpu.fullload", "host", ChaosConstant.PHASE_ATTACK},
+            {"chaosblade.cpu.fullload.stop", "host", ChaosConstant.PHASE_RECOVER},
+            {"chaosblade.mem.load", "host", ChaosConstant.PHASE_PREPARE},
+            {"chaosblade.cpu.fullload", "pod", ChaosConstant.PHASE_ATTACK},
+            {"chaosblade.network.delay", "node", ChaosConstant.PHASE_RECOVER},
+            {"litmuschaos.pod.delete", "pod", ChaosConstant.PHASE_ATTACK},
+            {"litmuschaos.pod.delete", "node", ChaosConstant.PHASE_RECOVER},
+            {"chasobalde.revoke", "host", ChaosConstant.PHASE_RECOVER},
+    };
+
+    @Test
+    public void routeAgainstScan() {
+        Map<ChaosInvokerStrategy, ChaosInvoker<RequestCommand, ResponseCommand>> strategies = new ConcurrentHashMap<>();
+        ChaosInvokerRoutingTable.Builder builder = ChaosInvokerRoutingTable.builder();
+        for (MockInvoker invoker : new MockInvoker[]{new HostAttack(), new HostRecover(), new HostPrepare(),
+                new HostPing(), new HostStatus(), new HostRevoke(), new KubernetesAttack(), new KubernetesRecover(),
+                new LitmusAttack(), new LitmusRecover()}) {
+            ChaosInvokerStrategy strategy = invoker.getClass().getAnnotation(ChaosInvokerStrategy.class);
+            strategies.put(strategy, invoker);
+            builder.register(strategy, invoker);
+        }
+        ChaosInvokerRoutingTable routingTable = builder.build();
+
+        for (String[] request : REQUESTS) {
+            Assert.assertSame(String.join(" ", request), scan(strategies, request[0], request[1], request[2]),
+                    routingTable.route(request[0], request[1], request[2]));
+        }
+
+        long scanNanos = 0;
+        long tableNanos = 0;
+        int checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            int rounds = round == 0 ? WARMUP : ROUNDS;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                String[] request = REQUESTS[i % REQUESTS.length];
+                checksum += scan(strategies, request[0], request[1], request[2]).hashCode();
+            }
+            scanNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                String[] request = REQUESTS[i % REQUESTS.length];
+                checksum += routingTable.route(request[0], request[1], request[2]).hashCode();
+            }
+            tableNanos = System.nanoTime() - start;
+        }
+
+        log.info("routes: {}, scan: {} ns/route, routing table: {} ns/route, checksum: {}", ROUNDS,
+                scanNanos / (double) ROUNDS, tableNanos / (double) ROUNDS, checksum);
+    }
+
+    /**
+     * the lookup of ChaosInvokerStrategyContext before the routing table
+     */
+    private static ChaosInvoker<RequestCommand, ResponseCommand> scan(
+            Map<ChaosInvokerStrategy, ChaosInvoker<RequestCommand, ResponseCommand>> strategies,
+            String sceneCode, String scope, String phase) {
+        String original = SceneCodeParseUtil.getOriginal(sceneCode);
+
+        ChaosInvoker<RequestCommand, ResponseCommand> invoker = null;
+        for (ChaosInvokerStrategy strategy : strategies.keySet()) {
+            if (StrUtil.isNotBlank(strategy.sceneCode()) && sceneCode.startsWith(strategy.sceneCode())) {
+                invoker = strategies.get(strategy);
+                break;
+            }
+            if (strategy.value().getName().equals(original)) {
+                if (ArrayUtil.isEmpty(strategy.deviceType())) {
+                    continue;
+                }
+                for (DeviceType deviceType : strategy.deviceType()) {
+                    ExperimentDimension dimension = EnumUtil.fromString(ExperimentDimension.class, scope.toUpperCase());
+                    if (deviceType == dimension.getDeviceType()) {
+                        if (ArrayUtil.isEmpty(strategy.phase())) {
+                            continue;
+                        }
+                        for (String s : strategy.phase()) {
+                            if (s.equals(ChaosConstant.PHASE_ALL) || s.equals(phase)) {
+                                invoker = strategies.get(strategy);
+                                break;
+                            }
+                        }
+                        if (invoker != null) {
+                            break;
+                        }
+                    }
+                }
+                if (invoker != null) {
+                    break;
+                }
+            }
+        }
+        return invoker;
+    }
+
+    private static class MockInvoker implements ChaosInvoker<RequestCommand, ResponseCommand> {
+
+        @Override
+        public CompletableFuture<ResponseCommand> invoke(RequestCommand requestCommand) {
+            return CompletableFuture.completedFuture(ResponseCommand.builder().success(true).build());
+        }
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, phase = ChaosConstant.PHASE_ATTACK)
+    private static class HostAttack extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, phase = ChaosConstant.PHASE_RECOVER)
+    private static class HostRecover extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, phase = ChaosConstant.PHASE_PREPARE)
+    private static class HostPrepare extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST)
+    private static class HostPing extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST)
+    private static class HostStatus extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, sceneCode = "chasobalde.revoke")
+    private static class HostRevoke extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = {DeviceType.NODE, DeviceType.POD}, phase = ChaosConstant.PHASE_ATTACK)
+    private static class KubernetesAttack extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = {DeviceType.NODE, DeviceType.POD}, phase = ChaosConstant.PHASE_RECOVER)
+    private static class KubernetesRecover extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(value = ChaosTools.LITMUS_CHAOS, deviceType = {DeviceType.NODE, DeviceType.POD},
+            phase = ChaosConstant.PHASE_ATTACK)
+    private static class LitmusAttack extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(value = ChaosTools.LITMUS_CHAOS, deviceType = {DeviceType.NODE, DeviceType.POD},
+            phase = ChaosConstant.PHASE_RECOVER)
+    private static class LitmusRecover extends MockInvoker {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.invoker;
+
+import com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author yefei
+ */
+public class ChaosInvokerRoutingTableTest {
+
+    private ChaosInvokerRoutingTable routingTable;
+
+    private final AttackInvoker attackInvoker = new AttackInvoker();
+    private final RecoverInvoker recoverInvoker = new RecoverInvoker();
+    private final KubernetesInvoker kubernetesInvoker = new KubernetesInvoker();
+    private final LitmusInvoker litmusInvoker = new LitmusInvoker();
+    private final RevokeInvoker revokeInvoker = new RevokeInvoker();
+    private final PingInvoker pingInvoker = new PingInvoker();
+
+    @Before
+    public void before() {
+        routingTable = ChaosInvokerRoutingTable.builder()
+                .register(strategy(attackInvoker), attackInvoker)
+                .register(strategy(recoverInvoker), recoverInvoker)
+                .register(strategy(kubernetesInvoker), kubernetesInvoker)
+                .register(strategy(litmusInvoker), litmusInvoker)
+                .register(strategy(revokeInvoker), revokeInvoker)
+                .register(strategy(pingInvoker), pingInvoker)
+                .build();
+    }
+
+    @Test
+    public void route() {
+        Assert.assertSame(attackInvoker, routingTable.route("chaosblade.cpu.fullload", "host", ChaosConstant.PHASE_ATTACK));
+        Assert.assertSame(recoverInvoker, routingTable.route("chaosblade.cpu.fullload.stop", "host", ChaosConstant.PHASE_RECOVER));
+        Assert.assertSame(kubernetesInvoker, routingTable.route("chaosblade.cpu.fullload", "pod", ChaosConstant.PHASE_ATTACK));
+        Assert.assertSame(kubernetesInvoker, routingTable.route("chaosblade.cpu.fullload", "container", ChaosConstant.PHASE_RECOVER));
+        Assert.assertSame(litmusInvoker, routingTable.route("litmuschaos.pod.delete", "NODE", ChaosConstant.PHASE_ATTACK));
+        Assert.assertSame(revokeInvoker, routingTable.route("chasobalde.revoke", "host", ChaosConstant.PHASE_RECOVER));
+    }
+
+    @Test
+    public void routeNotFound() {
+        Assert.assertNull(routingTable.route("chaosblade.cpu.fullload", "host", ChaosConstant.PHASE_PREPARE));
+        Assert.assertNull(routingTable.route("chaosblade.cpu.fullload", "application", ChaosConstant.PHASE_ATTACK));
+        Assert.assertNull(routingTable.route("litmuschaos.pod.delete", "host", ChaosConstant.PHASE_ATTACK));
+        Assert.assertNull(routingTable.route("chaosblade.cpu.fullload", "host", null));
+        Assert.assertNull(routingTable.route("chaosblade.cpu.fullload", "host", ""));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void duplicateRoute() {
+        AttackInvoker other = new AttackInvoker();
+        ChaosInvokerRoutingTable.builder()
+                .register(strategy(attackInvoker), attackInvoker)
+                .register(strategy(other), other);
+    }
+
+    private static ChaosInvokerStrategy strategy(Object invoker) {
+        return invoker.getClass().getAnnotation(ChaosInvokerStrategy.class);
+    }
+
+    private static class MockInvoker implements ChaosInvoker<RequestCommand, ResponseCommand> {
+
+        @Override
+        public CompletableFuture<ResponseCommand> invoke(RequestCommand requestCommand) {
+            return CompletableFuture.completedFuture(ResponseCommand.builder().success(true).build());
+        }
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, phase = ChaosConstant.PHASE_ATTACK)
+    private static class AttackInvoker extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, phase = ChaosConstant.PHASE_RECOVER)
+    private static class RecoverInvoker extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = {DeviceType.NODE, DeviceType.POD}, phase = ChaosConstant.PHASE_ALL)
+    private static class KubernetesInvoker extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(value = ChaosTools.LITMUS_CHAOS, deviceType = {DeviceType.NODE, DeviceType.POD},
+            phase = ChaosConstant.PHASE_ATTACK)
+    private static class LitmusInvoker extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST, sceneCode = "chasobalde.revoke")
+    private static class RevokeInvoker extends MockInvoker {
+    }
+
+    @ChaosInvokerStrategy(deviceType = DeviceType.HOST)
+    private static class PingInvoker extends MockInvoker {
+    }
+}
@@ -31,11 +31,8 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
-import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.util.EntityUtils;
-import org.springframework.beans.factory.DisposableBean;
-import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -47,23 +44,12 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 @Component
-public abstract class AbstractHttpInvoker implements ChaosInvoker<HttpChannelRequest, ResponseCommand>, InitializingBean, DisposableBean {
+public abstract class AbstractHttpInvoker implements ChaosInvoker<HttpChannelRequest, ResponseCommand> {
 
     public static final String CHAOSBLADE_HANDLER = "/chaosblade";
 
-    private CloseableHttpAsyncClient httpclient;
-
-    @Override
-    public void destroy() throws Exception {
-        httpclient.close();
-    }
-
-    @Override
-    public void afterPropertiesSet() {
-        RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(3000).setConnectTimeout(3000).build();
-        httpclient = HttpAsyncClients.custom().setDefaultRequestConfig(requestConfig).build();
-        httpclient.start();
-    }
+    @Autowired
+    private HttpClientFactory httpClientFactory;
 
     @Override
     public CompletableFuture<ResponseCommand> invoke(HttpChannelRequest requestCommand) {
@@ -89,7 +75,7 @@ public abstract class AbstractHttpInvoker implements ChaosInvoker<HttpChannelReq
         }
 
         CompletableFuture<ResponseCommand> completableFuture = new CompletableFuture<>();
-        httpclient.execute(httpPost, new FutureCallback<HttpResponse>() {
+        httpClientFactory.getHttpClient().execute(httpPost, new FutureCallback<HttpResponse>() {
             @Override
             public void completed(HttpResponse httpResponse) {
                 HttpEntity entity = httpResponse.getEntity();
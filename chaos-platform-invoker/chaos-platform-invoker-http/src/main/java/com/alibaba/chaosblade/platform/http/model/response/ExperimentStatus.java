@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.http.model.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * one entry of the agent `status --type create` result
+ *
+ * @author yefei
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExperimentStatus {
+
+    public static final String SUCCESS = "Success";
+
+    @JsonProperty("Uid")
+    private String uid;
+
+    @JsonProperty("Command")
+    private String command;
+
+    @JsonProperty("SubCommand")
+    private String subCommand;
+
+    @JsonProperty("Status")
+    private String status;
+
+    @JsonProperty("Error")
+    private String error;
+
+    public boolean isActive() {
+        return SUCCESS.equalsIgnoreCase(status);
+    }
+}
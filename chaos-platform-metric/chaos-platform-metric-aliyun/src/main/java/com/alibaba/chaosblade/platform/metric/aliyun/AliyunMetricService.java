@@ -18,10 +18,13 @@ package com.alibaba.chaosblade.platform.metric.aliyun;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.cmmon.utils.Preconditions;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
 import com.alibaba.chaosblade.platform.metric.*;
 import com.aliyuncs.DefaultAcsClient;
 import com.aliyuncs.IAcsClient;
@@ -29,119 +32,174 @@ import com.aliyuncs.cms.model.v20190101.DescribeMetricListRequest;
 import com.aliyuncs.cms.model.v20190101.DescribeMetricListResponse;
 import com.aliyuncs.exceptions.ClientException;
 import com.aliyuncs.profile.DefaultProfile;
-import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
+ * CloudMonitor metrics of ECS instances.
+ *
+ * <p>Devices are queried {@code batch-size} instance dimensions per {@code DescribeMetricList}
+ * call, batches run concurrently on a pool of {@code concurrency} threads, and clients are
+ * cached per region and key pair. The key pair is server configuration only, never taken
+ * from the metric params of an experiment. The datapoints of a call are decoded once into the
+ * Average, Minimum and Maximum series of every instance in it.
+ *
  * @author yefei
  */
 @Slf4j
 @Service
 @MetricStrategy(MetricSource.ALIYUN)
-public class AliyunMetricService implements MetricService, InitializingBean {
+public class AliyunMetricService implements MetricService, InitializingBean, DisposableBean {
 
     private final static String PARAM_REGION = "region";
 
+    private final static String NAMESPACE = "acs_ecs_dashboard";
+
+    private final static String PERIOD = "15";
+
+    private final static String LENGTH = "1000";
+
+    @Value("${chaos.metric.aliyun.ak:}")
     private String ak;
 
+    @Value("${chaos.metric.aliyun.sk:}")
     private String sk;
 
-    private IAcsClient client;
+    @Value("${chaos.metric.aliyun.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${chaos.metric.aliyun.concurrency:8}")
+    private int concurrency = 8;
+
+    private final Map<String, IAcsClient> clients = new ConcurrentHashMap<>();
+
+    private CloudMonitorFetcher fetcher = this::describeMetricList;
+
+    private ExecutorService executorService;
 
     @Override
     public CompletableFuture<List<MetricChartLineResponse>> selectChartLine(MetricChartLineRequest metricChartLineRequest) {
-        CompletableFuture<List<MetricChartLineResponse>> completableFuture = new CompletableFuture<>();
-
         Map<String, String> map = metricChartLineRequest.getParams();
         Preconditions.checkNotNull(map, new BizException("Aliyun Metric need param"));
         Preconditions.checkNotNull(map.get(PARAM_REGION), new BizException("region param url"));
 
-        List<MetricChartLineResponse> metricChartLineResponses = CollUtil.newArrayList();
-        for (DeviceMeta device : metricChartLineRequest.getDevices()) {
+        String region = map.get(PARAM_REGION);
 
-            DescribeMetricListRequest describeMetricListRequest = new DescribeMetricListRequest();
-            describeMetricListRequest.setDimensions("{\"instanceId\":\"" + device.getHostname() + "\"}");
-            describeMetricListRequest.setStartTime(DateUtil.date(metricChartLineRequest.getStartTime()).toStringDefaultTimeZone());
-            describeMetricListRequest.setEndTime(DateUtil.date(metricChartLineRequest.getEndTime()).toStringDefaultTimeZone());
-            describeMetricListRequest.setPeriod("15");
-            describeMetricListRequest.setNamespace("acs_ecs_dashboard");
-            String[] split = metricChartLineRequest.getCategoryCode().split("[.]");
-            describeMetricListRequest.setMetricName(split[2]);
-
-            DescribeMetricListResponse response = null;
-            try {
-                DefaultProfile profile = DefaultProfile.getProfile(map.get(PARAM_REGION), ak, sk);
-                response = client.getAcsResponse(describeMetricListRequest, profile);
-            } catch (ClientException e) {
-                completableFuture.completeExceptionally(e);
-            }
-            String datapoints = response.getDatapoints();
-            List<Map<String, String>> list = JsonUtils.readValue(new TypeReference<List<Map<String, String>>>() {
-            }, datapoints);
-
-            {
-                List<MetricChartLine> lines = list.stream().map(dot ->
-                        MetricChartLine.builder()
-                                .time(DateUtil.date(Long.parseLong(dot.get("timestamp"))))
-                                .value(dot.get("Average"))
-                                .build()
-                ).collect(Collectors.toList());
-
-                Metric metric = Metric.builder().instance(device.getHostname()).dimension("Average").build();
-                MetricChartLineResponse metricChartLineResponse = MetricChartLineResponse.builder().build();
-                metricChartLineResponse.setMetricChartLines(lines);
-                metricChartLineResponse.setMetric(JsonUtils.writeValueAsString(metric));
-                metricChartLineResponse.setDeviceMeta(device);
-                metricChartLineResponses.add(metricChartLineResponse);
+        // instance id -> device, the ecs instance id is the hostname
+        Map<String, DeviceMeta> devices = new LinkedHashMap<>();
+        for (DeviceMeta device : metricChartLineRequest.getDevices()) {
+            if (StrUtil.isNotBlank(device.getHostname())) {
+                devices.putIfAbsent(device.getHostname(), device);
             }
+        }
 
-            {
-                List<MetricChartLine> lines = list.stream().map(dot ->
-                        MetricChartLine.builder()
-                                .time(DateUtil.date(Long.parseLong(dot.get("timestamp"))))
-                                .value(dot.get("Minimum"))
-                                .build()
-                ).collect(Collectors.toList());
-
-                Metric metric = Metric.builder().instance(device.getHostname()).dimension("Minimum").build();
-                MetricChartLineResponse metricChartLineResponse = MetricChartLineResponse.builder().build();
-                metricChartLineResponse.setMetricChartLines(lines);
-                metricChartLineResponse.setMetric(JsonUtils.writeValueAsString(metric));
-                metricChartLineResponse.setDeviceMeta(device);
-                metricChartLineResponses.add(metricChartLineResponse);
-            }
+        List<CompletableFuture<Map<String, Samples[]>>> futures = new ArrayList<>();
+        for (List<String> instances : CollUtil.split(devices.keySet(), Math.max(batchSize, 1))) {
+            futures.add(CompletableFuture.supplyAsync(() -> fetch(region, ak, sk, instances,
+                    metricChartLineRequest), executorService));
+        }
 
-            {
-                List<MetricChartLine> lines = list.stream().map(dot ->
-                        MetricChartLine.builder()
-                                .time(DateUtil.date(Long.parseLong(dot.get("timestamp"))))
-                                .value(dot.get("Maximum"))
-                                .build()
-                ).collect(Collectors.toList());
-
-                Metric metric = Metric.builder().instance(device.getHostname()).dimension("Maximum").build();
-                MetricChartLineResponse metricChartLineResponse = MetricChartLineResponse.builder().build();
-                metricChartLineResponse.setMetricChartLines(lines);
-                metricChartLineResponse.setMetric(JsonUtils.writeValueAsString(metric));
-                metricChartLineResponse.setDeviceMeta(device);
-                metricChartLineResponses.add(metricChartLineResponse);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, Samples[]> series = new HashMap<>();
+            futures.forEach(future -> series.putAll(future.join()));
+
+            List<MetricChartLineResponse> metricChartLineResponses = CollUtil.newArrayList();
+            devices.forEach((instance, device) -> {
+                Samples[] samples = series.get(instance);
+                for (int i = 0; i < CloudMonitorDatapoints.DIMENSIONS.length; i++) {
+                    Metric metric = Metric.builder().instance(instance).dimension(CloudMonitorDatapoints.DIMENSIONS[i]).build();
+                    metricChartLineResponses.add(MetricChartLineResponse.builder()
+                            .metric(JsonUtils.writeValueAsString(metric))
+                            .deviceMeta(device)
+                            .samples(samples[i])
+                            .build());
+                }
+            });
+            return metricChartLineResponses;
+        });
+    }
+
+    /**
+     * one batch of instances, following next tokens until the window is complete
+     */
+    private Map<String, Samples[]> fetch(String region, String accessKey, String secretKey, List<String> instances,
+                                         MetricChartLineRequest metricChartLineRequest) {
+        Map<String, Samples[]> series = new HashMap<>();
+        for (String instance : instances) {
+            Samples[] samples = new Samples[CloudMonitorDatapoints.DIMENSIONS.length];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = new Samples();
             }
+            series.put(instance, samples);
         }
 
-        completableFuture.complete(metricChartLineResponses);
-        return completableFuture;
+        DescribeMetricListRequest describeMetricListRequest = new DescribeMetricListRequest();
+        describeMetricListRequest.setDimensions(JsonUtils.writeValueAsString(instances.stream()
+                .map(instance -> Collections.singletonMap("instanceId", instance))
+                .collect(Collectors.toList())));
+        describeMetricListRequest.setStartTime(DateUtil.date(metricChartLineRequest.getStartTime()).toStringDefaultTimeZone());
+        describeMetricListRequest.setEndTime(DateUtil.date(metricChartLineRequest.getEndTime()).toStringDefaultTimeZone());
+        describeMetricListRequest.setPeriod(PERIOD);
+        describeMetricListRequest.setNamespace(NAMESPACE);
+        describeMetricListRequest.setLength(LENGTH);
+        String[] split = metricChartLineRequest.getCategoryCode().split("[.]");
+        describeMetricListRequest.setMetricName(split[2]);
+
+        String defaultInstance = instances.size() == 1 ? instances.get(0) : null;
+        try {
+            String nextToken = null;
+            do {
+                describeMetricListRequest.setNextToken(nextToken);
+                DescribeMetricListResponse response = fetcher.fetch(region, accessKey, secretKey, describeMetricListRequest);
+                if (Boolean.FALSE.equals(response.getSuccess())) {
+                    throw new BizException("Aliyun Metric query failed: " + response.getCode() + " " + response.getMessage());
+                }
+                CloudMonitorDatapoints.decode(response.getDatapoints(), defaultInstance, series);
+                nextToken = response.getNextToken();
+            } while (StrUtil.isNotBlank(nextToken));
+        } catch (ClientException | IOException e) {
+            throw new BizException(e.getMessage(), e);
+        }
+        return series;
+    }
+
+    private DescribeMetricListResponse describeMetricList(String region, String accessKey, String secretKey,
+                                                          DescribeMetricListRequest request) throws ClientException {
+        // a rotated secret gets a new client
+        IAcsClient client = clients.computeIfAbsent(region + "/" + accessKey + "/" + DigestUtil.sha256Hex(secretKey),
+                k -> new DefaultAcsClient(DefaultProfile.getProfile(region, accessKey, secretKey)));
+        return client.getAcsResponse(request);
+    }
+
+    void setFetcher(CloudMonitorFetcher fetcher) {
+        this.fetcher = fetcher;
     }
 
     @Override
     public void afterPropertiesSet() {
-        client = new DefaultAcsClient();
+        AtomicInteger count = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(concurrency, 1), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("aliyun-metric-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.metric.aliyun;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Decodes the datapoints of a {@code DescribeMetricList} response in one pass into the
+ * Average, Minimum and Maximum series of each instance.
+ *
+ * @author yefei
+ */
+final class CloudMonitorDatapoints {
+
+    final static String[] DIMENSIONS = {"Average", "Minimum", "Maximum"};
+
+    private final static JsonFactory FACTORY = new JsonFactory();
+
+    private CloudMonitorDatapoints() {
+    }
+
+    /**
+     * @param defaultInstance instance of datapoints without an instanceId, may be null
+     * @param series          instanceId -> samples per {@link #DIMENSIONS} entry
+     */
+    static void decode(String datapoints, String defaultInstance, Map<String, Samples[]> series) throws IOException {
+        if (datapoints == null || datapoints.isEmpty()) {
+            return;
+        }
+        double[] values = new double[DIMENSIONS.length];
+        try (JsonParser parser = FACTORY.createParser(datapoints)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long timestamp = Long.MIN_VALUE;
+                String instance = defaultInstance;
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Double.NaN;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    if ("timestamp".equals(field)) {
+                        timestamp = parser.getValueAsLong(Long.MIN_VALUE);
+                    } else if ("instanceId".equals(field)) {
+                        instance = parser.getValueAsString();
+                    } else if (token.isScalarValue()) {
+                        int i = dimension(field);
+                        if (i >= 0) {
+                            values[i] = parser.getValueAsDouble(Double.NaN);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                Samples[] samples = instance == null ? null : series.get(instance);
+                if (samples == null || timestamp == Long.MIN_VALUE) {
+                    continue;
+                }
+                for (int i = 0; i < values.length; i++) {
+                    if (!Double.isNaN(values[i])) {
+                        samples[i].add(timestamp, values[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int dimension(String field) {
+        for (int i = 0; i < DIMENSIONS.length; i++) {
+            if (DIMENSIONS[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.metric.aliyun;
+
+import com.aliyuncs.cms.model.v20190101.DescribeMetricListRequest;
+import com.aliyuncs.cms.model.v20190101.DescribeMetricListResponse;
+import com.aliyuncs.exceptions.ClientException;
+
+/**
+ * Sends one {@code DescribeMetricList} call, replaced by a canned response in tests.
+ *
+ * @author yefei
+ */
+@FunctionalInterface
+interface CloudMonitorFetcher {
+
+    DescribeMetricListResponse fetch(String region, String accessKey, String secretKey,
+                                     DescribeMetricListRequest request) throws ClientException;
+}
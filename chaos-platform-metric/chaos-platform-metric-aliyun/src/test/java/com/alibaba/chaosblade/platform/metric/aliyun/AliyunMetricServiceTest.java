@@ -0,0 +1,119 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.metric.aliyun;
+
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
+import com.alibaba.chaosblade.platform.metric.Metric;
+import com.alibaba.chaosblade.platform.metric.MetricChartLineRequest;
+import com.alibaba.chaosblade.platform.metric.MetricChartLineResponse;
+import com.aliyuncs.cms.model.v20190101.DescribeMetricListResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs against a canned CloudMonitor response instead of the service.
+ *
+ * @author yefei
+ */
+public class AliyunMetricServiceTest {
+
+    private final AliyunMetricService aliyunMetricService = new AliyunMetricService();
+
+    private final List<String> dimensions = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        aliyunMetricService.afterPropertiesSet();
+        aliyunMetricService.setFetcher((region, accessKey, secretKey, request) -> {
+            dimensions.add(request.getDimensions());
+            DescribeMetricListResponse response = new DescribeMetricListResponse();
+            response.setSuccess(true);
+            if (request.getNextToken() == null) {
+                response.setDatapoints("[{\"timestamp\":1000,\"instanceId\":\"i-a\",\"Average\":1.5,\"Minimum\":1,\"Maximum\":2},"
+                        + "{\"timestamp\":1000,\"instanceId\":\"i-b\",\"Average\":3,\"Minimum\":3,\"Maximum\":3}]");
+                response.setNextToken("next");
+            } else {
+                response.setDatapoints("[{\"timestamp\":16000,\"instanceId\":\"i-a\",\"Average\":2.5,\"Minimum\":2,\"Maximum\":3}]");
+            }
+            return response;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        aliyunMetricService.destroy();
+    }
+
+    @Test
+    public void testSelectChartLine() throws Exception {
+        DeviceMeta a = DeviceMeta.builder().deviceId(1L).hostname("i-a").build();
+        DeviceMeta b = DeviceMeta.builder().deviceId(2L).hostname("i-b").build();
+
+        List<MetricChartLineResponse> responses = aliyunMetricService.selectChartLine(request(a, b)).get();
+
+        // both instances in one call, followed to the next token
+        Assert.assertEquals(2, dimensions.size());
+        Assert.assertEquals("[{\"instanceId\":\"i-a\"},{\"instanceId\":\"i-b\"}]", dimensions.get(0));
+
+        Assert.assertEquals(6, responses.size());
+        MetricChartLineResponse average = responses.get(0);
+        Assert.assertEquals(a, average.getDeviceMeta());
+        Assert.assertEquals(JsonUtils.writeValueAsString(Metric.builder().instance("i-a").dimension("Average").build()),
+                average.getMetric());
+        Assert.assertEquals(2, average.getSamples().size());
+        Assert.assertEquals(1.5, average.getSamples().value(0), 0);
+        Assert.assertEquals(16000, average.getSamples().timestamp(1));
+        Assert.assertEquals(3, responses.get(2).getSamples().value(1), 0);
+
+        MetricChartLineResponse minimum = responses.get(4);
+        Assert.assertEquals(b, minimum.getDeviceMeta());
+        Assert.assertEquals(1, minimum.getSamples().size());
+        Assert.assertEquals(3, minimum.getSamples().value(0), 0);
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testFailure() throws Exception {
+        aliyunMetricService.setFetcher((region, accessKey, secretKey, request) -> {
+            DescribeMetricListResponse response = new DescribeMetricListResponse();
+            response.setSuccess(false);
+            response.setCode("403");
+            response.setMessage("forbidden");
+            return response;
+        });
+        aliyunMetricService.selectChartLine(request(DeviceMeta.builder().hostname("i-a").build())).get();
+    }
+
+    private MetricChartLineRequest request(DeviceMeta... devices) {
+        return MetricChartLineRequest.builder()
+                .devices(Arrays.asList(devices))
+                .categoryCode("system.aliyun.cpu_total")
+                .startTime(new Date(0))
+                .endTime(new Date(60000))
+                .params(Collections.singletonMap("region", "cn-hangzhou"))
+                .build();
+    }
+}
@@ -43,5 +43,10 @@ public class MetricChartLineRequest {
 
     private Date endTime;
 
+    /**
+     * seconds between samples, backends use their own default if null
+     */
+    private Long step;
+
     private Map<String, String> params;
 }
@@ -17,6 +17,7 @@
 package com.alibaba.chaosblade.platform.metric;
 
 import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
 import lombok.Builder;
 import lombok.Data;
 
@@ -35,4 +36,9 @@ public class MetricChartLineResponse {
 
     private List<MetricChartLine> metricChartLines;
 
+    /**
+     * samples in primitive buffers, set instead of metricChartLines by sources that decode into them
+     */
+    private Samples samples;
+
 }
@@ -16,11 +16,18 @@
 
 package com.alibaba.chaosblade.platform.metric;
 
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
 import com.alibaba.chaosblade.platform.cmmon.utils.Preconditions;
+import com.alibaba.chaosblade.platform.cmmon.utils.cache.SingleFlightCache;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -32,12 +39,60 @@ import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEn
  * @author yefei
  */
 @Service("metricService")
-public class MetricStrategyContext implements MetricService, BeanPostProcessor {
+public class MetricStrategyContext implements MetricService, BeanPostProcessor, InitializingBean {
 
     private final Map<MetricSource, MetricService> strategies = new ConcurrentHashMap<>();
 
+    /**
+     * windows ending before the live edge are closed, their results never change
+     */
+    @Value("${chaos.metric.cache.live-edge:60}")
+    private long liveEdge;
+
+    @Value("${chaos.metric.cache.live-ttl:5}")
+    private long liveTtl;
+
+    @Value("${chaos.metric.cache.max-samples:1000000}")
+    private long maxSamples;
+
+    private SingleFlightCache<QueryKey, List<MetricChartLineResponse>> cache;
+
+    @Override
+    public void afterPropertiesSet() {
+        cache = new SingleFlightCache<>(maxSamples, MetricStrategyContext::weigh);
+    }
+
+    /**
+     * identical queries share one backend call and its cached result, callers must not modify it.
+     * The window is floored to the step, or to the second without one, so that queries a few
+     * milliseconds apart are identical.
+     */
     @Override
     public CompletableFuture<List<MetricChartLineResponse>> selectChartLine(MetricChartLineRequest metricChartLineRequest) {
+        if (metricChartLineRequest.getStartTime() == null || metricChartLineRequest.getEndTime() == null) {
+            return select(metricChartLineRequest);
+        }
+        long unit = metricChartLineRequest.getStep() != null && metricChartLineRequest.getStep() > 0
+                ? metricChartLineRequest.getStep() * 1000L : 1000L;
+        MetricChartLineRequest aligned = MetricChartLineRequest.builder()
+                .devices(metricChartLineRequest.getDevices())
+                .categoryCode(metricChartLineRequest.getCategoryCode())
+                .startTime(new Date(Math.floorDiv(metricChartLineRequest.getStartTime().getTime(), unit) * unit))
+                .endTime(new Date(Math.floorDiv(metricChartLineRequest.getEndTime().getTime(), unit) * unit))
+                .step(metricChartLineRequest.getStep())
+                .params(metricChartLineRequest.getParams())
+                .build();
+        QueryKey key = new QueryKey(aligned.getCategoryCode(),
+                aligned.getParams(),
+                aligned.getDevices(),
+                aligned.getStep(),
+                aligned.getStartTime().getTime(),
+                aligned.getEndTime().getTime());
+        boolean closed = key.getEnd() < System.currentTimeMillis() - liveEdge * 1000;
+        return cache.getAsync(key, closed ? 0 : liveTtl * 1000, () -> select(aligned));
+    }
+
+    private CompletableFuture<List<MetricChartLineResponse>> select(MetricChartLineRequest metricChartLineRequest) {
         try {
             String category = metricChartLineRequest.getCategoryCode();
             String[] split = category.split("[.]");
@@ -51,6 +106,19 @@ public class MetricStrategyContext implements MetricService, BeanPostProcessor {
         }
     }
 
+    private static long weigh(List<MetricChartLineResponse> responses) {
+        long weight = 0;
+        for (MetricChartLineResponse response : responses) {
+            if (response.getSamples() != null) {
+                weight += response.getSamples().size();
+            } else if (response.getMetricChartLines() != null) {
+                weight += response.getMetricChartLines().size();
+            }
+            weight++;
+        }
+        return weight;
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object o, String s) throws BeansException {
         if (o instanceof MetricService) {
@@ -60,4 +128,14 @@ public class MetricStrategyContext implements MetricService, BeanPostProcessor {
         return o;
     }
 
+    @Data
+    @AllArgsConstructor
+    public static class QueryKey {
+        private String categoryCode;
+        private Map<String, String> params;
+        private List<DeviceMeta> devices;
+        private Long step;
+        private long start;
+        private long end;
+    }
 }
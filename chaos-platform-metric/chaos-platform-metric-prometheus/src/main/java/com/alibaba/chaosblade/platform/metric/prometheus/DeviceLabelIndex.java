@@ -0,0 +1,81 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.metric.prometheus;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Label value to device index of one query. A series resolves to the first device, in request
+ * order, owning any of its label values; an {@code instance} label also matches without its port.
+ *
+ * @author yefei
+ */
+final class DeviceLabelIndex {
+
+    private final List<DeviceMeta> devices;
+
+    private final Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * @param ipToInstance instance label values of device ips, from the {@code rule} param
+     */
+    DeviceLabelIndex(List<DeviceMeta> devices, Map<String, String> ipToInstance) {
+        this.devices = devices;
+        for (int i = 0; i < devices.size(); i++) {
+            DeviceMeta device = devices.get(i);
+            put(device.getIp(), i);
+            put(device.getHostname(), i);
+            put(device.getNamespace(), i);
+            put(device.getNodeName(), i);
+            put(device.getPodName(), i);
+            put(device.getContainerName(), i);
+            if (device.getIp() != null) {
+                put(ipToInstance.get(device.getIp()), i);
+            }
+        }
+    }
+
+    DeviceMeta resolve(Map<String, String> labels) {
+        int found = Integer.MAX_VALUE;
+        for (String value : labels.values()) {
+            if (StrUtil.isBlank(value)) {
+                continue;
+            }
+            found = Math.min(found, lookup(value));
+            int port = value.lastIndexOf(':');
+            if (port > 0) {
+                found = Math.min(found, lookup(value.substring(0, port)));
+            }
+        }
+        return found == Integer.MAX_VALUE ? null : devices.get(found);
+    }
+
+    private int lookup(String value) {
+        return index.getOrDefault(value, Integer.MAX_VALUE);
+    }
+
+    private void put(String value, int i) {
+        if (StrUtil.isNotBlank(value)) {
+            index.putIfAbsent(value, i);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.metric.prometheus;
+
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming decoder of a {@code query_range} response, samples go straight from the token
+ * stream into primitive buffers without building a tree.
+ *
+ * @author yefei
+ */
+final class PrometheusResponseDecoder {
+
+    private final static JsonFactory FACTORY = new JsonFactory();
+
+    private PrometheusResponseDecoder() {
+    }
+
+    static List<Series> decode(InputStream inputStream) throws IOException {
+        List<Series> series = new ArrayList<>();
+        String status = null;
+        String error = null;
+        try (JsonParser parser = FACTORY.createParser(inputStream)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("status".equals(field)) {
+                    status = parser.getValueAsString();
+                } else if ("error".equals(field)) {
+                    error = parser.getValueAsString();
+                } else if ("data".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    readData(parser, series);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (status != null && !"success".equals(status)) {
+            throw new BizException("Prometheus query failed: " + error);
+        }
+        return series;
+    }
+
+    private static void readData(JsonParser parser, List<Series> series) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("result".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    series.add(readSeries(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Series readSeries(JsonParser parser) throws IOException {
+        Map<String, String> labels = new LinkedHashMap<>();
+        Samples samples = new Samples();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("metric".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String label = parser.getCurrentName();
+                    parser.nextToken();
+                    labels.put(label, parser.getValueAsString());
+                }
+            } else if ("values".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_ARRAY) {
+                    readSample(parser, samples);
+                }
+            } else if ("value".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                readSample(parser, samples);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Series(labels, samples);
+    }
+
+    /**
+     * [unix seconds, "value"], values that are not numbers are dropped
+     */
+    private static void readSample(JsonParser parser, Samples samples) throws IOException {
+        parser.nextToken();
+        long timestamp = (long) parser.getValueAsDouble() * 1000;
+        parser.nextToken();
+        String value = parser.getValueAsString();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        if (value == null) {
+            return;
+        }
+        try {
+            samples.add(timestamp, Double.parseDouble(value));
+        } catch (NumberFormatException ignored) {
+            // +Inf, -Inf
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected prometheus response token " + actual);
+        }
+    }
+
+    static class Series {
+
+        private final Map<String, String> labels;
+
+        private final Samples samples;
+
+        Series(Map<String, String> labels, Samples samples) {
+            this.labels = labels;
+            this.samples = samples;
+        }
+
+        Map<String, String> getLabels() {
+            return labels;
+        }
+
+        Samples getSamples() {
+            return samples;
+        }
+    }
+}
@@ -16,16 +16,14 @@
 
 package com.alibaba.chaosblade.platform.metric.prometheus;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.cmmon.utils.Preconditions;
 import com.alibaba.chaosblade.platform.metric.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
@@ -35,15 +33,12 @@ import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.message.BasicNameValuePair;
-import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
@@ -78,6 +73,9 @@ public class PrometheusService implements MetricService, InitializingBean, Dispo
         Preconditions.checkNotNull(query, new BizException("Prometheus need param query"));
 
         String step = map.get(PARAM_STEP);
+        if (step == null && metricChartLineRequest.getStep() != null) {
+            step = String.valueOf(metricChartLineRequest.getStep());
+        }
         if (step == null) {
             step = "14";
         }
@@ -98,13 +96,8 @@ public class PrometheusService implements MetricService, InitializingBean, Dispo
         client.execute(httpPost, new FutureCallback<HttpResponse>() {
             @Override
             public void completed(HttpResponse httpResponse) {
-                try {
-                    HttpEntity entity = httpResponse.getEntity();
-
-                    ByteArrayInputStream inputStream = new ByteArrayInputStream(EntityUtils.toByteArray(entity));
-                    JsonNode jsonNode = JsonUtils.reader().readTree(inputStream);
-
-                    ArrayNode result = (ArrayNode) jsonNode.get("data").get("result");
+                try (InputStream inputStream = httpResponse.getEntity().getContent()) {
+                    List<PrometheusResponseDecoder.Series> result = PrometheusResponseDecoder.decode(inputStream);
 
                     String rule = map.get(PARAM_RULE);
                     Map<String, String> ipToInstance = new HashMap<>();
@@ -116,51 +109,21 @@ public class PrometheusService implements MetricService, InitializingBean, Dispo
                         }
                     }
 
-                    List<MetricChartLineResponse> metricChartLineResponses = CollUtil.newArrayList();
-                    if (CollUtil.isNotEmpty(result)) {
-                        for (JsonNode node : result) {
-
-                            String metric = node.get("metric").toString();
-                            MetricChartLineResponse metricChartLineResponse = MetricChartLineResponse.builder().metric(metric)
-                                    .build();
-                            // values
-                            ArrayNode values = (ArrayNode) node.get("values");
-                            List<MetricChartLine> metricChartLines = new ArrayList<>();
-                            for (JsonNode dot : values) {
-                                String date = dot.get(0).asText();
-                                String value = dot.get(1).asText();
-                                metricChartLines.add(MetricChartLine.builder()
-                                        .time(DateUtil.date(new BigDecimal(date).longValue() * 1000))
-                                        .value(value)
-                                        .build());
-                            }
-
-                            metricChartLineRequest.getDevices().stream().filter(deviceMeta -> {
-                                if (StrUtil.contains(metric, deviceMeta.getIp()) ||
-                                        StrUtil.contains(metric, deviceMeta.getHostname()) ||
-                                        StrUtil.contains(metric, deviceMeta.getNamespace()) ||
-                                        StrUtil.contains(metric, deviceMeta.getNodeName()) ||
-                                        StrUtil.contains(metric, deviceMeta.getPodName()) ||
-                                        StrUtil.contains(metric, deviceMeta.getContainerName())
-                                ) {
-                                    return true;
-                                }
-                                String value = ipToInstance.get(deviceMeta.getIp());
-                                if (value != null) {
-                                    return metric.contains(value);
-                                }
-                                return false;
-                            }).findFirst().ifPresent(deviceMeta -> {
-                                metricChartLineResponse.setMetricChartLines(metricChartLines);
-                                metricChartLineResponse.setDeviceMeta(deviceMeta);
-                                metricChartLineResponses.add(metricChartLineResponse);
-                            });
+                    // one index per query, each series resolves by its label values
+                    DeviceLabelIndex deviceLabelIndex = new DeviceLabelIndex(metricChartLineRequest.getDevices(), ipToInstance);
+                    List<MetricChartLineResponse> metricChartLineResponses = new ArrayList<>(result.size());
+                    for (PrometheusResponseDecoder.Series series : result) {
+                        DeviceMeta deviceMeta = deviceLabelIndex.resolve(series.getLabels());
+                        if (deviceMeta != null) {
+                            metricChartLineResponses.add(MetricChartLineResponse.builder()
+                                    .metric(JsonUtils.writeValueAsString(series.getLabels()))
+                                    .deviceMeta(deviceMeta)
+                                    .samples(series.getSamples())
+                                    .build());
                         }
-                        future.complete(metricChartLineResponses);
-                    } else {
-                        future.complete(Collections.emptyList());
                     }
-                } catch (IOException e) {
+                    future.complete(metricChartLineResponses);
+                } catch (Exception e) {
                     future.completeExceptionally(e);
                 }
             }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.metric.prometheus;
+
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author yefei
+ */
+public class PrometheusResponseDecoderTest {
+
+    private final static String RESPONSE = "{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":["
+            + "{\"metric\":{\"__name__\":\"node_load1\",\"instance\":\"192.168.0.2:9100\"},"
+            + "\"values\":[[1612088040,\"0.5\"],[1612088054.5,\"NaN\"],[1612088068,\"+Inf\"],[1612088082,\"1.25\"]]},"
+            + "{\"metric\":{\"pod\":\"nginx-0\",\"namespace\":\"default\"},\"values\":[[1612088040,\"3\"]]}"
+            + "]}}";
+
+    @Test
+    public void testDecode() throws Exception {
+        List<PrometheusResponseDecoder.Series> series = decode(RESPONSE);
+        Assert.assertEquals(2, series.size());
+
+        PrometheusResponseDecoder.Series first = series.get(0);
+        Assert.assertEquals("192.168.0.2:9100", first.getLabels().get("instance"));
+        Samples samples = first.getSamples();
+        Assert.assertEquals(3, samples.size());
+        Assert.assertEquals(1612088040000L, samples.timestamp(0));
+        Assert.assertEquals(0.5, samples.value(0), 0);
+        Assert.assertEquals(1612088054000L, samples.timestamp(1));
+        Assert.assertTrue(Double.isNaN(samples.value(1)));
+        Assert.assertEquals(1612088082000L, samples.timestamp(2));
+        Assert.assertEquals(1.25, samples.value(2), 0);
+
+        Assert.assertEquals(1, series.get(1).getSamples().size());
+    }
+
+    @Test
+    public void testEmptyResult() throws Exception {
+        Assert.assertTrue(decode("{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[]}}").isEmpty());
+    }
+
+    @Test(expected = BizException.class)
+    public void testError() throws Exception {
+        decode("{\"status\":\"error\",\"errorType\":\"bad_data\",\"error\":\"parse error\"}");
+    }
+
+    @Test
+    public void testResolveDevice() throws Exception {
+        DeviceMeta host = DeviceMeta.builder().deviceId(1L).ip("192.168.0.2").hostname("node-2").build();
+        DeviceMeta pod = DeviceMeta.builder().deviceId(2L).ip("10.0.0.3").podName("nginx-0").build();
+        DeviceMeta other = DeviceMeta.builder().deviceId(3L).ip("192.168.0.9").build();
+        Map<String, String> ipToInstance = new HashMap<>();
+        ipToInstance.put("192.168.0.9", "exporter-9");
+        DeviceLabelIndex index = new DeviceLabelIndex(Arrays.asList(host, pod, other), ipToInstance);
+
+        List<PrometheusResponseDecoder.Series> series = decode(RESPONSE);
+        Assert.assertEquals(host, index.resolve(series.get(0).getLabels()));
+        Assert.assertEquals(pod, index.resolve(series.get(1).getLabels()));
+        Assert.assertEquals(other, index.resolve(Collections.singletonMap("instance", "exporter-9")));
+        Assert.assertNull(index.resolve(Collections.singletonMap("instance", "192.168.0.7:9100")));
+    }
+
+    private List<PrometheusResponseDecoder.Series> decode(String response) throws Exception {
+        return PrometheusResponseDecoder.decode(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -76,6 +76,13 @@ public interface DeviceService {
      */
     DeviceResponse getMachinesById(DeviceRequest deviceRequest);
 
+    /**
+     * devices of deviceIds in request order, with their tools
+     *
+     * @param deviceRequest
+     */
+    List<DeviceResponse> getMachinesByIds(DeviceRequest deviceRequest);
+
     /**
      *
      * @return
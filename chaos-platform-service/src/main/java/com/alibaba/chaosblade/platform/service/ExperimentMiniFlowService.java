@@ -42,4 +42,12 @@ public interface ExperimentMiniFlowService {
      * @return
      */
     List<DeviceMeta> selectExperimentDevice(Long experimentId);
+
+    /**
+     * replaces the targets of the group
+     *
+     * @param experimentMiniFlowGroupDO
+     * @param deviceMetas
+     */
+    void saveExperimentDevice(ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO, List<DeviceMeta> deviceMetas);
 }
@@ -20,6 +20,7 @@ import com.alibaba.chaosblade.platform.service.model.experiment.*;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricTaskResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author yefei
@@ -60,6 +61,25 @@ public interface ExperimentTaskService {
      */
     List<String> queryTaskLog(ExperimentTaskRequest experimentRequest);
 
+    /**
+     *
+     * @param experimentRequest
+     * @return
+     */
+    ExperimentTaskLogResponse queryTaskLogPage(ExperimentTaskRequest experimentRequest);
+
+    /**
+     * push the lines after the cursor, then every new line of the task, the last response
+     * is marked finished once the task finished
+     *
+     * @param experimentRequest
+     * @param consumer
+     * @param disconnect called when the subscriber falls too far behind and was dropped
+     * @return unsubscribe action
+     */
+    Runnable subscribeTaskLog(ExperimentTaskRequest experimentRequest, Consumer<ExperimentTaskLogResponse> consumer,
+                              Runnable disconnect);
+
     /**
      *
      * @param experimentRequest
@@ -16,6 +16,7 @@
 
 package com.alibaba.chaosblade.platform.service;
 
+import com.alibaba.chaosblade.platform.service.model.scene.SceneCatalogStatistics;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneRequest;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneResponse;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneImportRequest;
@@ -55,6 +56,16 @@ public interface SceneService {
      */
     SceneImportResponse importScenarios(SceneImportRequest sceneImportRequest);
 
+    /**
+     * streams a scene file and imports its scenes as active
+     *
+     * @param name        tools name
+     * @param version     tools version
+     * @param inputStream scene file
+     * @return
+     */
+    SceneImportResponse importScenarios(String name, String version, InputStream inputStream);
+
     /**
      *
      * @param sceneRequest
@@ -62,6 +73,13 @@ public interface SceneService {
      */
     SceneResponse getScenarioById(SceneRequest sceneRequest);
 
+    /**
+     * size and hit rate of the scene catalog cache
+     *
+     * @return statistics
+     */
+    SceneCatalogStatistics getSceneCatalogStatistics();
+
     /**
      *
      * @param sceneRequest
@@ -17,12 +17,15 @@
 package com.alibaba.chaosblade.platform.service;
 
 import com.alibaba.chaosblade.platform.service.model.device.DeviceResponse;
+import com.alibaba.chaosblade.platform.cmmon.model.chaos.ModelSpecBean;
 import com.alibaba.chaosblade.platform.cmmon.model.chaos.PluginSpecBean;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsOverview;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsRequest;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsStatisticsResponse;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsVersion;
 
+import java.util.function.Consumer;
+
 /**
  * @author yefei
  */
@@ -76,4 +79,33 @@ public interface ToolsService {
      * @return
      */
     PluginSpecBean toolsScene(String toolsName, String version, String sceneName);
+
+    /**
+     * streams the items of the scene file
+     *
+     * @param toolsName
+     * @param version
+     * @param sceneName
+     * @param consumer  called with every item
+     * @return version and kind of the scene file
+     */
+    PluginSpecBean toolsScene(String toolsName, String version, String sceneName, Consumer<ModelSpecBean> consumer);
+
+    /**
+     * raw content of a scene file
+     *
+     * @param toolsName
+     * @param version
+     * @param sceneName
+     * @return
+     */
+    byte[] toolsSceneContent(String toolsName, String version, String sceneName);
+
+    /**
+     * raw content of a file of the tools market
+     *
+     * @param path relative to the market, e.g. chaosblade/overview.yaml
+     * @return
+     */
+    byte[] toolsFile(String path);
 }
@@ -19,9 +19,9 @@ package com.alibaba.chaosblade.platform.service.collect;
 import cn.hutool.core.date.DateField;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.EnumUtil;
+import cn.hutool.core.util.StrUtil;
 import com.alibaba.chaosblade.platform.cmmon.enums.DeviceStatus;
 import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
-import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.collector.*;
 import com.alibaba.chaosblade.platform.collector.model.Container;
 import com.alibaba.chaosblade.platform.collector.model.Node;
@@ -29,13 +29,11 @@ import com.alibaba.chaosblade.platform.collector.model.Pod;
 import com.alibaba.chaosblade.platform.collector.model.Query;
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
 import com.alibaba.chaosblade.platform.dao.mapper.DeviceMapper;
+import com.alibaba.chaosblade.platform.dao.model.DeviceContainerDO;
 import com.alibaba.chaosblade.platform.dao.model.DeviceDO;
 import com.alibaba.chaosblade.platform.dao.model.DeviceNodeDO;
 import com.alibaba.chaosblade.platform.dao.model.DevicePodDO;
-import com.alibaba.chaosblade.platform.dao.repository.DeviceNodeRepository;
-import com.alibaba.chaosblade.platform.dao.repository.DevicePodRepository;
-import com.alibaba.chaosblade.platform.dao.repository.DeviceRepository;
-import com.alibaba.chaosblade.platform.service.model.device.ContainerBO;
+import com.alibaba.chaosblade.platform.dao.repository.*;
 import com.alibaba.chaosblade.platform.service.task.TimerFactory;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import lombok.extern.slf4j.Slf4j;
@@ -46,7 +44,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -75,6 +75,12 @@ public class CollectorTimer implements BeanPostProcessor, InitializingBean {
     @Autowired
     private DevicePodRepository devicePodRepository;
 
+    @Autowired
+    private DeviceContainerRepository deviceContainerRepository;
+
+    @Autowired
+    private KubernetesCounterRepository kubernetesCounterRepository;
+
     @Value("${chaos.collector.type}")
     private String collectorType;
 
@@ -141,6 +147,7 @@ public class CollectorTimer implements BeanPostProcessor, InitializingBean {
                                             .nodeIp(node.getIp())
                                             .nodeName(node.getName())
                                             .build());
+                                    kubernetesCounterRepository.increment(null, null, 1, 0, 0);
                                     return aDo;
                                 });
 
@@ -199,6 +206,7 @@ public class CollectorTimer implements BeanPostProcessor, InitializingBean {
                                                 .podIp(pod.getIp())
                                                 .deviceId(id)
                                                 .build());
+                                        kubernetesCounterRepository.increment(node.getClusterName(), pod.getNamespace(), 0, 1, 0);
                                         return id;
                                     });
 
@@ -223,6 +231,8 @@ public class CollectorTimer implements BeanPostProcessor, InitializingBean {
     private void containerCollect(ContainerCollector collector) {
         timerFactory.getTimer().newTimeout(timeout -> {
             try {
+                Map<Long, DeviceNodeDO> nodes = deviceNodeRepository.selectList(DeviceNodeDO.builder().build()).stream()
+                        .collect(Collectors.toMap(DeviceNodeDO::getId, node -> node));
                 List<DevicePodDO> devicePods = devicePodRepository.selectList(DevicePodDO.builder().build());
                 for (DevicePodDO devicePod : devicePods) {
                     CompletableFuture<List<Container>> future = collector.collect(Query.builder()
@@ -232,15 +242,8 @@ public class CollectorTimer implements BeanPostProcessor, InitializingBean {
                             log.error("collect container fail!", e);
                             return null;
                         }
-                        List<ContainerBO> list = containers.stream().map(container ->
-                                ContainerBO.builder()
-                                        .containerId(container.getContainerId())
-                                        .containerName(container.getName())
-                                        .build()
-                        ).collect(Collectors.toList());
-
-                        devicePodRepository.updateByPrimaryKey(devicePod.getId(),
-                                DevicePodDO.builder().containers(JsonUtils.writeValueAsString(list)).build());
+                        DeviceNodeDO node = nodes.get(devicePod.getNodeId());
+                        saveContainers(devicePod, node == null ? null : node.getClusterName(), containers);
                         return null;
                     });
                 }
@@ -251,8 +254,56 @@ public class CollectorTimer implements BeanPostProcessor, InitializingBean {
         }, period, TimeUnit.SECONDS);
     }
 
+    /**
+     * replaces the containers of the pod by the collected ones, by container name, and counts
+     * the rows inserted and deleted with one increment, also when a write fails part way
+     */
+    private void saveContainers(DevicePodDO devicePod, String clusterName, List<Container> containers) {
+        Map<String, DeviceContainerDO> existing = deviceContainerRepository.selectByPodIds(
+                Collections.singleton(devicePod.getId())).stream()
+                .collect(Collectors.toMap(DeviceContainerDO::getContainerName, container -> container));
+
+        int delta = 0;
+        try {
+            for (Container container : containers) {
+                if (StrUtil.isBlank(container.getName())) {
+                    continue;
+                }
+                DeviceContainerDO deviceContainerDO = existing.remove(container.getName());
+                if (deviceContainerDO == null) {
+                    deviceContainerRepository.insert(DeviceContainerDO.builder()
+                            .podId(devicePod.getId())
+                            .namespace(StrUtil.nullToEmpty(devicePod.getNamespace()))
+                            .podName(devicePod.getPodName())
+                            .containerId(container.getContainerId())
+                            .containerName(container.getName())
+                            .build());
+                    delta++;
+                } else if (!StrUtil.equals(deviceContainerDO.getContainerId(), container.getContainerId())) {
+                    deviceContainerRepository.updateByPrimaryKey(deviceContainerDO.getId(), DeviceContainerDO.builder()
+                            .containerId(container.getContainerId())
+                            .build());
+                }
+            }
+            for (DeviceContainerDO deviceContainerDO : existing.values()) {
+                if (deviceContainerRepository.deleteById(deviceContainerDO.getId())) {
+                    delta--;
+                }
+            }
+        } finally {
+            kubernetesCounterRepository.increment(clusterName, devicePod.getNamespace(), 0, 0, delta);
+        }
+    }
+
     @Override
     public void afterPropertiesSet() {
+        // counters are only maintained incrementally by the collector, recount before it starts
+        try {
+            kubernetesCounterRepository.rebuild();
+        } catch (Exception e) {
+            log.error("rebuild kubernetes counters fail!", e);
+        }
+
         ScheduledExecutorService scheduledExecutorService = new ScheduledThreadPoolExecutor(1);
 
         scheduledExecutorService.scheduleAtFixedRate(() -> {
@@ -28,9 +28,6 @@ import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
 import com.alibaba.chaosblade.platform.cmmon.enums.ProbesInstallModel;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
-import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
-import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
-import com.alibaba.chaosblade.platform.dao.mapper.DevicePodMapper;
 import com.alibaba.chaosblade.platform.dao.model.*;
 import com.alibaba.chaosblade.platform.dao.page.PageUtils;
 import com.alibaba.chaosblade.platform.dao.repository.*;
@@ -39,17 +36,15 @@ import com.alibaba.chaosblade.platform.service.model.device.*;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsResponse;
 import com.alibaba.chaosblade.platform.service.probes.ProbesInstallSuccessEvent;
 import com.alibaba.chaosblade.platform.service.probes.heartbeats.Heartbeats;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.alibaba.chaosblade.platform.service.search.DeviceSearchIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum.DEVICE_NOT_FOUNT;
 
@@ -85,11 +80,17 @@ public class DeviceServiceImpl implements DeviceService {
     private ToolsRepository toolsRepository;
 
     @Autowired
-    private DevicePodMapper devicePodMapper;
+    private DeviceContainerRepository deviceContainerRepository;
+
+    @Autowired
+    private KubernetesCounterRepository kubernetesCounterRepository;
 
     @Autowired
     private Heartbeats heartbeats;
 
+    @Autowired
+    private DeviceSearchIndex deviceSearchIndex;
+
     @Autowired
     private ApplicationContext applicationContext;
 
@@ -215,28 +216,47 @@ public class DeviceServiceImpl implements DeviceService {
             ProbesDO probesDO = probesRepository.selectById(deviceRequest.getProbeId())
                     .orElseThrow(() -> new BizException(ExceptionMessageEnum.PROBES_NO_FOUND));
             return deviceRepository.selectById(probesDO.getDeviceId())
-                    .map(deviceDO -> CollUtil.newArrayList(covert(deviceDO)))
+                    .map(deviceDO -> covert(CollUtil.newArrayList(deviceDO)))
                     .orElse(new ArrayList<>());
         }
 
-        PageUtils.startPage(deviceRequest);
-
-        List<DeviceDO> devices = deviceRepository.selectMachines(DeviceDO.builder()
+        DeviceDO condition = DeviceDO.builder()
                 .ip(deviceRequest.getIp())
                 .hostname(deviceRequest.getHostname())
                 .isExperimented(deviceRequest.getChaosed())
                 .status(deviceRequest.getStatus())
                 .type(DeviceType.HOST.getCode())
-                .build());
+                .build();
+        List<DeviceDO> devices;
+        if (deviceSearchIndex.isReady()) {
+            devices = deviceSearchIndex.search(DeviceSearchIndex.query(condition), deviceRequest);
+        } else {
+            PageUtils.startPage(deviceRequest);
+            devices = deviceRepository.selectMachines(condition);
+        }
 
         if (CollectionUtil.isEmpty(devices)) {
             return Collections.emptyList();
         }
 
-        return devices.stream().map(deviceDO -> covert(deviceDO)).collect(Collectors.toList());
+        return covert(devices);
     }
 
-    public DeviceResponse covert(DeviceDO deviceDO) {
+    /**
+     * one tools lookup for all the devices
+     */
+    private List<DeviceResponse> covert(List<DeviceDO> devices) {
+        Map<Long, List<ToolsResponse>> tools = toolsRepository.selectByDeviceIds(devices.stream().map(DeviceDO::getId)
+                .collect(Collectors.toSet())).stream().collect(Collectors.groupingBy(ToolsDO::getDeviceId,
+                Collectors.mapping(toolsDO -> ToolsResponse.builder()
+                        .name(toolsDO.getName())
+                        .version(toolsDO.getVersion())
+                        .build(), Collectors.toList())));
+        return devices.stream().map(deviceDO -> covert(deviceDO, tools.getOrDefault(deviceDO.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private DeviceResponse covert(DeviceDO deviceDO, List<ToolsResponse> tools) {
         DeviceResponse deviceResponse = new DeviceResponse();
         deviceResponse.setVersion(deviceDO.getVersion())
                 .setDeviceId(deviceDO.getId())
@@ -248,12 +268,7 @@ public class DeviceServiceImpl implements DeviceService {
                 .setHeartbeatTime(deviceDO.getLastOnlineTime())
                 .setChaosTime(deviceDO.getLastExperimentTime())
                 .setTaskId(deviceDO.getLastTaskId())
-                .setChaostools(toolsRepository.selectByDeviceId(deviceDO.getId()).stream().map(toolsDO ->
-                        ToolsResponse.builder()
-                                .name(toolsDO.getName())
-                                .version(toolsDO.getVersion())
-                                .build()
-                ).collect(Collectors.toList()))
+                .setChaostools(tools)
                 .setTaskStatus(deviceDO.getLastTaskStatus());
 
         return deviceResponse;
@@ -261,46 +276,25 @@ public class DeviceServiceImpl implements DeviceService {
 
     @Override
     public KubernetesStatisticsResponse getKubernetesTotalStatistics() {
+        // one row per cluster and namespace, maintained by the collector
+        List<KubernetesCounterDO> counters = kubernetesCounterRepository.selectAll();
         return KubernetesStatisticsResponse.builder()
-                .nodes(deviceRepository.selectHostCount(DeviceDO.builder()
-                        .type(DeviceType.NODE.getCode())
-                        .build()))
-                .pods(deviceRepository.selectHostCount(DeviceDO.builder()
-                        .type(DeviceType.POD.getCode())
-                        .build()))
-                .namespaces(devicePodMapper.selectList(QueryWrapperBuilder.<DevicePodDO>build()
-                        .groupBy("namespace")).size())
-                .containers(devicePodRepository.selectList(DevicePodDO.builder().build()).stream().flatMap(devicePodDO ->
-                        Optional.ofNullable(devicePodDO.getContainers()).map(
-                                containers -> {
-                                    try {
-                                        return Stream.of(JsonUtils.reader(ContainerBO[].class).readValue(containers));
-                                    } catch (IOException e) {
-                                        return Stream.empty();
-                                    }
-                                }
-                        ).orElse(Stream.empty())
-                ).count())
+                .nodes(counters.stream().mapToLong(KubernetesCounterDO::getNodes).sum())
+                .pods(counters.stream().mapToLong(KubernetesCounterDO::getPods).sum())
+                .namespaces(counters.stream().filter(counter -> counter.getPods() > 0)
+                        .map(KubernetesCounterDO::getNamespace).distinct().count())
+                .containers(counters.stream().mapToLong(KubernetesCounterDO::getContainers).sum())
                 .build();
     }
 
     @Override
     public List<DeviceNodeResponse> getMachinesForNode(DeviceNodeRequest deviceNodeRequest) {
 
-        List<Long> deviceIds = deviceRepository.selectMachines(DeviceDO.builder().status(deviceNodeRequest.getStatus())
-                    .type(DeviceType.NODE.getCode())
-                    .build()).stream().map(DeviceDO::getId).collect(Collectors.toList());
-
         PageUtils.startPage(deviceNodeRequest);
-
-        if (CollUtil.isEmpty(deviceIds)) {
-            return Collections.emptyList();
-        }
-
         List<DeviceNodeDO> deviceNodeDOS = deviceNodeRepository.selectList(DeviceNodeDO.builder()
                 .clusterName(deviceNodeRequest.getClusterName())
                 .nodeName(deviceNodeRequest.getNode())
-                .build(), deviceIds);
+                .build(), deviceNodeRequest.getStatus());
 
         if (CollUtil.isEmpty(deviceNodeDOS)) {
             return Collections.emptyList();
@@ -335,48 +329,38 @@ public class DeviceServiceImpl implements DeviceService {
     @Override
     public List<DevicePodResponse> getMachinesForPod(DevicePodRequest devicePodRequest) {
 
-        List<Long> deviceIds = deviceRepository.selectMachines(DeviceDO.builder().status(devicePodRequest.getStatus())
-                .type(DeviceType.POD.getCode())
-                .build()).stream().map(DeviceDO::getId).collect(Collectors.toList());
-
-        List<DeviceNodeDO> deviceNodeDOS = deviceNodeRepository.selectList(DeviceNodeDO.builder()
-                .clusterName(devicePodRequest.getClusterName())
-                .nodeName(devicePodRequest.getNode())
-                .build()
-        );
-
         PageUtils.startPage(devicePodRequest);
-
-        if (CollUtil.isEmpty(deviceIds) || CollUtil.isEmpty(deviceNodeDOS)) {
-            return Collections.emptyList();
-        }
-
-        Map<Long, DeviceNodeDO> nodeMap = deviceNodeDOS.stream().collect(Collectors.toMap(DeviceNodeDO::getId, v -> v));
         List<DevicePodDO> devicePodDOS = devicePodRepository.selectList(DevicePodDO.builder()
                 .namespace(devicePodRequest.getNamespace())
                 .podName(devicePodRequest.getPod())
                 .podIp(devicePodRequest.getIp())
-                .build(), deviceIds, deviceNodeDOS.stream().map(DeviceNodeDO::getId).collect(Collectors.toList())
+                .build(), devicePodRequest.getStatus(), devicePodRequest.getClusterName(), devicePodRequest.getNode()
         );
         if (CollUtil.isEmpty(devicePodDOS)) {
             return Collections.emptyList();
         }
 
+        Map<Long, DeviceNodeDO> nodeMap = deviceNodeRepository.selectBatchIds(devicePodDOS.stream().map(DevicePodDO::getNodeId)
+                .collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(DeviceNodeDO::getId, v -> v));
+
         Map<Long, DeviceDO> deviceDOMap = deviceRepository.selectBatchIds(devicePodDOS.stream().map(DevicePodDO::getDeviceId)
                 .collect(Collectors.toList()))
                 .stream().collect(Collectors.toMap(DeviceDO::getId, u -> u));
 
+        Map<Long, List<ContainerBO>> containerMap = deviceContainerRepository.selectByPodIds(devicePodDOS.stream()
+                .map(DevicePodDO::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(DeviceContainerDO::getPodId, Collectors.mapping(container ->
+                        ContainerBO.builder()
+                                .containerId(container.getContainerId())
+                                .containerName(container.getContainerName())
+                                .build(), Collectors.toList())));
+
         return devicePodDOS.stream().map(devicePodDO ->
                 {
                     DevicePodResponse devicePodResponse = new DevicePodResponse();
 
-                    List<ContainerBO> containers;
-                    if (StrUtil.isBlank(devicePodDO.getContainers())) {
-                        containers = Collections.emptyList();
-                    } else {
-                        containers = JsonUtils.readValue(new TypeReference<List<ContainerBO>>() {
-                        }, devicePodDO.getContainers());
-                    }
+                    List<ContainerBO> containers = containerMap.getOrDefault(devicePodDO.getId(), Collections.emptyList());
 
                     devicePodResponse.setClusterName(nodeMap.get(devicePodDO.getNodeId()).getClusterName())
                             .setNodeName(nodeMap.get(devicePodDO.getNodeId()).getNodeName())
@@ -435,31 +419,24 @@ public class DeviceServiceImpl implements DeviceService {
                 () -> new BizException(DEVICE_NOT_FOUNT)
         );
 
-        List<ToolsDO> toolsDOS = toolsRepository.selectByDeviceId(deviceRequest.getDeviceId());
-        List<ToolsResponse> tools = toolsDOS.stream().map(toolsDO ->
-                ToolsResponse.builder()
-                        .name(toolsDO.getName())
-                        .version(toolsDO.getVersion())
-                        .build()
-        ).collect(Collectors.toList());
-
-        DeviceResponse deviceResponse = new DeviceResponse();
-        deviceResponse.setVersion(deviceDO.getVersion())
-                .setDeviceId(deviceDO.getId())
-                .setIp(deviceDO.getIp())
-                .setHostname(deviceDO.getHostname())
-                .setStatus(deviceDO.getStatus())
-                .setChaosed(deviceDO.getIsExperimented())
-                .setCreateTime(deviceDO.getGmtCreate())
-                .setHeartbeatTime(deviceDO.getLastOnlineTime())
-                .setChaosTime(deviceDO.getLastExperimentTime())
-                .setTaskId(deviceDO.getLastTaskId())
-                .setTaskStatus(deviceDO.getLastTaskStatus())
-                .setOriginal(deviceRequest.getOriginal())
-                .setChaostools(tools);
+        DeviceResponse deviceResponse = covert(CollUtil.newArrayList(deviceDO)).get(0);
+        deviceResponse.setOriginal(deviceRequest.getOriginal());
         return deviceResponse;
     }
 
+    @Override
+    public List<DeviceResponse> getMachinesByIds(DeviceRequest deviceRequest) {
+        if (CollUtil.isEmpty(deviceRequest.getDeviceIds())) {
+            return Collections.emptyList();
+        }
+        Map<Long, DeviceDO> devices = deviceRepository.selectBatchIds(new HashSet<>(deviceRequest.getDeviceIds())).stream()
+                .collect(Collectors.toMap(DeviceDO::getId, deviceDO -> deviceDO));
+
+        // request order, unknown ids are left out
+        return covert(deviceRequest.getDeviceIds().stream().distinct().map(devices::get).filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
     @Override
     public HostStatisticsResponse getHostTotalStatistics() {
         return HostStatisticsResponse.builder()
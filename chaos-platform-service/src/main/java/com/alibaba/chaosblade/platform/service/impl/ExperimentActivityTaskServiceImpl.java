@@ -16,7 +16,6 @@
 
 package com.alibaba.chaosblade.platform.service.impl;
 
-import cn.hutool.core.date.DateField;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.EnumUtil;
 import cn.hutool.core.util.StrUtil;
@@ -30,10 +29,9 @@ import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
 import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.dao.model.*;
 import com.alibaba.chaosblade.platform.dao.repository.*;
-import com.alibaba.chaosblade.platform.metric.MetricChartLineRequest;
-import com.alibaba.chaosblade.platform.metric.MetricService;
 import com.alibaba.chaosblade.platform.service.ExperimentActivityTaskService;
 import com.alibaba.chaosblade.platform.service.ExperimentMiniFlowService;
+import com.alibaba.chaosblade.platform.service.metric.MetricPoller;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricModel;
 import com.alibaba.chaosblade.platform.service.task.*;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -42,9 +40,10 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import static com.alibaba.chaosblade.platform.cmmon.enums.RunStatus.FINISHED;
 import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum.EXPERIMENT_TASK_NOT_FOUNT;
@@ -63,13 +62,7 @@ public class ExperimentActivityTaskServiceImpl implements ExperimentActivityTask
     private ExperimentMiniFlowService experimentMiniFlowService;
 
     @Autowired
-    private TimerFactory timerFactory;
-
-    @Autowired
-    private MetricService metricService;
-
-    @Autowired
-    private MetricTaskRepository metricTaskRepository;
+    private MetricPoller metricPoller;
 
     @Autowired
     private DeviceRepository deviceRepository;
@@ -97,9 +90,12 @@ public class ExperimentActivityTaskServiceImpl implements ExperimentActivityTask
         ExperimentDO experimentDO = experimentRepository.selectById(experimentTaskDO.getExperimentId())
                 .orElseThrow(() -> new BizException(ExceptionMessageEnum.EXPERIMENT_NOT_FOUNT));
 
+        // targets are resolved once per flow and shared read-only by its activities
+        Map<Long, List<DeviceMeta>> flowDeviceMetas = new HashMap<>();
         for (ExperimentActivityTaskDO experimentActivityTask : experimentActivityTasks) {
 
-            List<DeviceMeta> deviceMetas = experimentMiniFlowService.selectExperimentDeviceByFlowId(experimentActivityTask.getFlowId());
+            List<DeviceMeta> deviceMetas = flowDeviceMetas.computeIfAbsent(experimentActivityTask.getFlowId(), flowId ->
+                    Collections.unmodifiableList(experimentMiniFlowService.selectExperimentDeviceByFlowId(flowId)));
             String activityDefinition = experimentActivityTask.getRunParam();
 
             ActivityTask activityTask = JsonUtils.readValue(ActivityTask.class, activityDefinition);
@@ -238,50 +234,8 @@ public class ExperimentActivityTaskServiceImpl implements ExperimentActivityTask
     }
 
     private void metric(ActivityTaskExecuteContext context, MetricModel metricModel, ActivityTask activityTask) {
-        Logger logger = context.getContextLogger();
-        timerFactory.getTimer().newTimeout(timeout -> {
-
-            metricService.selectChartLine(MetricChartLineRequest.builder()
-                    .devices(activityTask.getDeviceMetas())
-                    .startTime(DateUtil.date())
-                    .endTime(DateUtil.date().offset(DateField.SECOND, +10))
-                    .categoryCode(metricModel.getCode())
-                    .params(metricModel.getParams())
-                    .build())
-                    .handleAsync((r, e) -> {
-                        if (e != null) {
-                            logger.error("获取监控数据失败, 任务ID：{}, 机器信息：{}, 异常: {}",
-                                    activityTask.getExperimentTaskId(),
-                                    JsonUtils.writeValueAsString(activityTask.getDeviceMetas()),
-                                    e.getMessage());
-                        } else {
-                            metricTaskRepository.saveBatch(
-                                    r.stream().flatMap(v -> v.getMetricChartLines().stream().map(metricChartLine ->
-                                            MetricTaskDO.builder()
-                                                    .ip(v.getDeviceMeta().getIp())
-                                                    .deviceId(v.getDeviceMeta().getDeviceId())
-                                                    .hostname(v.getDeviceMeta().getHostname())
-                                                    .categoryId(metricModel.getCategoryId())
-                                                    .categoryCode(metricModel.getCode())
-                                                    .date(metricChartLine.getTime())
-                                                    .value(metricChartLine.getValue())
-                                                    .taskId(activityTask.getExperimentTaskId())
-                                                    .metric(v.getMetric())
-                                                    .build()
-                                    )).collect(Collectors.toList()));
-                        }
-                        return null;
-                    }, context.executor());
-
-
-            Byte status = experimentTaskRepository.selectById(activityTask.getExperimentTaskId())
-                    .map(ExperimentTaskDO::getRunStatus)
-                    .orElseThrow(() -> new BizException(EXPERIMENT_TASK_NOT_FOUNT));
-            RunStatus runStatus = RunStatus.parse(status);
-            if (runStatus != FINISHED) {
-                metric(context, metricModel, activityTask);
-            }
-        }, 10, TimeUnit.SECONDS);
+        metricPoller.subscribe(activityTask.getExperimentTaskId(), metricModel, activityTask.getDeviceMetas(),
+                context.getContextLogger());
     }
 
 }
@@ -16,12 +16,15 @@
 
 package com.alibaba.chaosblade.platform.service.impl;
 
+import cn.hutool.core.util.StrUtil;
 import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentMiniFlowGroupDO;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTargetDO;
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentMiniFlowGroupRepository;
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentMiniFlowRepository;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTargetRepository;
 import com.alibaba.chaosblade.platform.service.ExperimentMiniFlowService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum.FLOW_GROUP_NOT_EXISTS;
 
@@ -44,6 +48,9 @@ public class ExperimentMiniFlowServiceImpl implements ExperimentMiniFlowService
     @Autowired
     private ExperimentMiniFlowRepository experimentMiniFlowRepository;
 
+    @Autowired
+    private ExperimentTargetRepository experimentTargetRepository;
+
     @Override
     public ExperimentMiniFlowGroupDO selectByFlowId(Long flowId) {
         return experimentMiniFlowRepository.selectById(flowId)
@@ -55,18 +62,11 @@ public class ExperimentMiniFlowServiceImpl implements ExperimentMiniFlowService
 
     @Override
     public List<DeviceMeta> selectExperimentDeviceByFlowId(Long flowId) {
-        ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO = experimentMiniFlowRepository.selectById(flowId)
-                .map(experimentMiniFlowDO ->
-                        experimentMiniFlowGroupRepository.selectById(experimentMiniFlowDO.getGroupId()).orElseThrow(
-                                () -> new BizException(FLOW_GROUP_NOT_EXISTS)))
-                .orElse(null);
-
+        ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO = selectByFlowId(flowId);
         if (experimentMiniFlowGroupDO == null) {
             return Collections.emptyList();
         }
-        String host = experimentMiniFlowGroupDO.getHosts();
-        return JsonUtils.readValue(new TypeReference<List<DeviceMeta>>() {
-        }, host);
+        return selectExperimentDevice(experimentMiniFlowGroupDO);
     }
 
     @Override
@@ -75,9 +75,43 @@ public class ExperimentMiniFlowServiceImpl implements ExperimentMiniFlowService
         // TODO
         ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO = experimentMiniFlowGroupRepository
                 .selectByExperiment(experimentId).get(0);
-        String host = experimentMiniFlowGroupDO.getHosts();
+        return selectExperimentDevice(experimentMiniFlowGroupDO);
+    }
+
+    @Override
+    public void saveExperimentDevice(ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO, List<DeviceMeta> deviceMetas) {
+        experimentTargetRepository.deleteByGroupId(experimentMiniFlowGroupDO.getId());
+        experimentTargetRepository.insertBatch(deviceMetas.stream().map(deviceMeta -> ExperimentTargetDO.builder()
+                .experimentId(experimentMiniFlowGroupDO.getExperimentId())
+                .groupId(experimentMiniFlowGroupDO.getId())
+                .deviceId(deviceMeta.getDeviceId())
+                .deviceType(deviceMeta.getDeviceType())
+                .hostname(deviceMeta.getHostname())
+                .ip(deviceMeta.getIp())
+                .nodeName(deviceMeta.getNodeName())
+                .namespace(deviceMeta.getNamespace())
+                .podName(deviceMeta.getPodName())
+                .containerName(deviceMeta.getContainerName())
+                .build()
+        ).collect(Collectors.toList()));
+    }
 
-        return JsonUtils.readValue(new TypeReference<List<DeviceMeta>>() {
-        }, host);
+    private List<DeviceMeta> selectExperimentDevice(ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO) {
+        // groups saved before targets had their own table
+        if (StrUtil.isNotBlank(experimentMiniFlowGroupDO.getHosts())) {
+            return JsonUtils.readValue(new TypeReference<List<DeviceMeta>>() {
+            }, experimentMiniFlowGroupDO.getHosts());
+        }
+        return experimentTargetRepository.selectByGroupId(experimentMiniFlowGroupDO.getId()).stream().map(target ->
+                DeviceMeta.builder().deviceId(target.getDeviceId())
+                        .deviceType(target.getDeviceType())
+                        .hostname(target.getHostname())
+                        .ip(target.getIp())
+                        .nodeName(target.getNodeName())
+                        .namespace(target.getNamespace())
+                        .podName(target.getPodName())
+                        .containerName(target.getContainerName())
+                        .build()
+        ).collect(Collectors.toList());
     }
 }
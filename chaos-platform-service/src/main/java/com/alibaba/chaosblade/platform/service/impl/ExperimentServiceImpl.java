@@ -31,13 +31,16 @@ import com.alibaba.chaosblade.platform.cmmon.utils.Preconditions;
 import com.alibaba.chaosblade.platform.cmmon.utils.SceneCodeParseUtil;
 import com.alibaba.chaosblade.platform.dao.QueryWrapperBuilder;
 import com.alibaba.chaosblade.platform.dao.mapper.ExperimentMapper;
+import com.alibaba.chaosblade.platform.dao.model.DeviceDO;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentActivityDO;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentDO;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentMiniFlowDO;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentMiniFlowGroupDO;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
 import com.alibaba.chaosblade.platform.dao.page.PageUtils;
 import com.alibaba.chaosblade.platform.dao.repository.*;
 import com.alibaba.chaosblade.platform.service.ExperimentActivityService;
+import com.alibaba.chaosblade.platform.service.ExperimentMiniFlowService;
 import com.alibaba.chaosblade.platform.service.ExperimentService;
 import com.alibaba.chaosblade.platform.service.ExperimentTaskService;
 import com.alibaba.chaosblade.platform.service.SceneService;
@@ -46,20 +49,24 @@ import com.alibaba.chaosblade.platform.service.model.device.DeviceRequest;
 import com.alibaba.chaosblade.platform.service.model.experiment.*;
 import com.alibaba.chaosblade.platform.service.model.experiment.activity.ExperimentActivity;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricModel;
+import com.alibaba.chaosblade.platform.service.model.scene.SceneCategoryResponse;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneRequest;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneResponse;
 import com.alibaba.chaosblade.platform.service.model.scene.param.SceneParamResponse;
 import com.alibaba.chaosblade.platform.service.model.scene.prepare.JavaAgentPrepare;
+import com.alibaba.chaosblade.platform.service.scene.SceneCatalog;
+import com.alibaba.chaosblade.platform.service.search.ExperimentSearchIndex;
+import com.alibaba.chaosblade.platform.service.target.TargetIndex;
+import com.alibaba.chaosblade.platform.service.target.TargetSelector;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant.CHAOS_DEFAULT_NA;
@@ -90,6 +97,12 @@ public class ExperimentServiceImpl implements ExperimentService {
     @Autowired
     private ExperimentMiniFlowRepository experimentMiniFlowRepository;
 
+    @Autowired
+    private SceneCatalog sceneCatalog;
+
+    @Autowired
+    private ExperimentSearchIndex experimentSearchIndex;
+
     @Autowired
     private SceneService sceneService;
 
@@ -102,6 +115,18 @@ public class ExperimentServiceImpl implements ExperimentService {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private DeviceContainerRepository deviceContainerRepository;
+
+    @Autowired
+    private DevicePodRepository devicePodRepository;
+
+    @Autowired
+    private TargetIndex targetIndex;
+
+    @Autowired
+    private ExperimentMiniFlowService experimentMiniFlowService;
+
     @Override
     @Transactional
     public ExperimentResponse createExperiment(CreateExperimentRequest createExperimentRequest) throws Exception {
@@ -116,11 +141,13 @@ public class ExperimentServiceImpl implements ExperimentService {
 
         List<DeviceMeta> deviceMetas = getDeviceMetas(createExperimentRequest);
 
-        Long flowGroupId = experimentMiniFlowGroupRepository.insert(ExperimentMiniFlowGroupDO.builder()
+        ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO = ExperimentMiniFlowGroupDO.builder()
                 .groupName(CHAOS_DEFAULT_NA)
-                .hosts(JsonUtils.writeValueAsString(deviceMetas))
+                .hosts(StrUtil.EMPTY)
                 .experimentId(experimentId)
-                .build());
+                .build();
+        Long flowGroupId = experimentMiniFlowGroupRepository.insert(experimentMiniFlowGroupDO);
+        experimentMiniFlowService.saveExperimentDevice(experimentMiniFlowGroupDO, deviceMetas);
 
         // default mini flow
         Long flowId = experimentMiniFlowRepository.insert(ExperimentMiniFlowDO.builder()
@@ -137,6 +164,9 @@ public class ExperimentServiceImpl implements ExperimentService {
     }
 
     private List<DeviceMeta> getDeviceMetas(CreateExperimentRequest createExperimentRequest) {
+        if (StrUtil.isNotBlank(createExperimentRequest.getSelector())) {
+            return resolveTargets(TargetSelector.parse(createExperimentRequest.getSelector()));
+        }
         ExperimentDimension dimension = EnumUtil.fromString(ExperimentDimension.class, createExperimentRequest.getDimension().toUpperCase());
         List<DeviceMeta> deviceMetas = new ArrayList<>();
         switch (dimension) {
@@ -144,16 +174,21 @@ public class ExperimentServiceImpl implements ExperimentService {
                 Preconditions.checkArgument(CollUtil.isEmpty(createExperimentRequest.getMachines()), EXPERIMENT_DEVICE_IS_NULL);
                 // default mini flow group
                 List<DeviceRequest> machines = createExperimentRequest.getMachines();
-                return machines.stream().map(machine -> deviceRepository.selectById(machine.getDeviceId()).map(deviceDO ->
+                Map<Long, DeviceDO> devices = deviceRepository.selectBatchIds(machines.stream().map(DeviceRequest::getDeviceId)
+                        .collect(Collectors.toSet())).stream().collect(Collectors.toMap(DeviceDO::getId, deviceDO -> deviceDO));
+                return machines.stream().map(machine -> Optional.ofNullable(devices.get(machine.getDeviceId())).map(deviceDO ->
                                 DeviceMeta.builder().deviceId(deviceDO.getId())
                                         .deviceType(deviceDO.getType())
                                         .hostname(deviceDO.getHostname())
                                         .ip(deviceDO.getIp()).build()
                         ).orElseThrow(() -> new BizException(DEVICE_NOT_FOUNT))
                 ).collect(Collectors.toList());
+            case CONTAINER:
+                return createExperimentRequest.getMachines().stream().filter(
+                        machine -> !StrUtil.isAllBlank(machine.getNodeName(), machine.getPodName(), machine.getContainerName())
+                ).map(this::containerMeta).collect(Collectors.toList());
             case NODE:
             case POD:
-            case CONTAINER:
                 return createExperimentRequest.getMachines().stream().filter(
                         machine -> !StrUtil.isAllBlank(machine.getNodeName(), machine.getPodName(), machine.getContainerName())
                 ).map(machine ->
@@ -166,7 +201,43 @@ public class ExperimentServiceImpl implements ExperimentService {
                                 .build()
                 ).collect(Collectors.toList());
             case APPLICATION:
-                // todo
+                Preconditions.checkArgument(StrUtil.isBlank(createExperimentRequest.getApplicationName()), EXPERIMENT_DEVICE_IS_NULL);
+                TargetSelector selector = new TargetSelector().eq(TargetSelector.APP, createExperimentRequest.getApplicationName());
+                if (StrUtil.isNotBlank(createExperimentRequest.getGroupName())) {
+                    selector.eq(TargetSelector.GROUP, createExperimentRequest.getGroupName());
+                }
+                return resolveTargets(selector);
+        }
+        return deviceMetas;
+    }
+
+    /**
+     * the container is looked up by namespace, pod and name to fill in the device of its pod,
+     * containers the collector does not know, e.g. of a cluster it does not watch, are kept as
+     * requested
+     */
+    private DeviceMeta containerMeta(DeviceRequest machine) {
+        DeviceMeta deviceMeta = DeviceMeta.builder().deviceId(machine.getDeviceId())
+                .deviceType(ExperimentDimension.CONTAINER.getDeviceType().getCode())
+                .nodeName(machine.getNodeName())
+                .namespace(machine.getNamespace())
+                .podName(machine.getPodName())
+                .containerName(machine.getContainerName())
+                .build();
+        if (deviceMeta.getDeviceId() == null && StrUtil.isNotBlank(machine.getPodName())
+                && StrUtil.isNotBlank(machine.getContainerName())) {
+            deviceContainerRepository.selectByName(StrUtil.nullToEmpty(machine.getNamespace()), machine.getPodName(),
+                    machine.getContainerName())
+                    .flatMap(container -> devicePodRepository.selectById(container.getPodId()))
+                    .ifPresent(pod -> deviceMeta.setDeviceId(pod.getDeviceId()));
+        }
+        return deviceMeta;
+    }
+
+    private List<DeviceMeta> resolveTargets(TargetSelector selector) {
+        List<DeviceMeta> deviceMetas = targetIndex.resolve(selector);
+        if (deviceMetas.isEmpty()) {
+            throw new BizException(EXPERIMENT_DEVICE_IS_NULL);
         }
         return deviceMetas;
     }
@@ -211,6 +282,7 @@ public class ExperimentServiceImpl implements ExperimentService {
                 .target(SceneCodeParseUtil.getTarget(scenario.getCode()))
                 .action(SceneCodeParseUtil.getAction(scenario.getCode()))
                 .arguments(createExperimentRequest.getParameters())
+                .synchronizedStart(createExperimentRequest.getSynchronizedStart())
                 .build();
 
         if (CollUtil.isNotEmpty(metricModels)) {
@@ -284,14 +356,17 @@ public class ExperimentServiceImpl implements ExperimentService {
                     experimentResponse.setLastTaskResult(experimentTaskDO.getResultStatus());
                 });
 
-        List<ExperimentMiniFlowGroupDO> groupDOS = experimentMiniFlowGroupRepository.selectByExperiment(experimentDO.getId());
-
-        // todo
-        ExperimentMiniFlowGroupDO experimentMiniFlowGroupDO = groupDOS.get(0);
-        String hosts = experimentMiniFlowGroupDO.getHosts();
-
-        List<MachineResponse> machineResponses = JsonUtils.readValue(new TypeReference<List<MachineResponse>>() {
-        }, hosts);
+        List<MachineResponse> machineResponses = experimentMiniFlowService.selectExperimentDevice(experimentDO.getId()).stream()
+                .map(deviceMeta -> new MachineResponse()
+                        .setDeviceId(deviceMeta.getDeviceId())
+                        .setDeviceType(deviceMeta.getDeviceType() == null ? null : deviceMeta.getDeviceType().toString())
+                        .setHostname(deviceMeta.getHostname())
+                        .setIp(deviceMeta.getIp())
+                        .setNodeName(deviceMeta.getNodeName())
+                        .setNamespace(deviceMeta.getNamespace())
+                        .setPodName(deviceMeta.getPodName())
+                        .setContainerName(deviceMeta.getContainerName())
+                ).collect(Collectors.toList());
         experimentResponse.setMachines(machineResponses);
 
         List<ExperimentActivity> experimentActivities = experimentActivityService.selectAttackByExperimentId(experimentDO.getId());
@@ -332,13 +407,14 @@ public class ExperimentServiceImpl implements ExperimentService {
         List<DeviceMeta> deviceMetas = getDeviceMetas(createExperimentRequest);
 
         experimentMiniFlowGroupRepository.updateByExperimentId(experimentId, ExperimentMiniFlowGroupDO.builder()
-                .hosts(JsonUtils.writeValueAsString(deviceMetas))
+                .hosts(StrUtil.EMPTY)
                 .build());
 
         experimentMiniFlowRepository.deleteByExperimentId(experimentId);
 
         List<ExperimentMiniFlowGroupDO> experimentMiniFlowGroup = experimentMiniFlowGroupRepository.selectByExperiment(experimentId);
         Long flowGroupId = experimentMiniFlowGroup.get(0).getId();
+        experimentMiniFlowService.saveExperimentDevice(experimentMiniFlowGroup.get(0), deviceMetas);
 
         // default mini flow
         Long flowId = experimentMiniFlowRepository.insert(ExperimentMiniFlowDO.builder()
@@ -370,11 +446,16 @@ public class ExperimentServiceImpl implements ExperimentService {
     public List<ExperimentResponse> getExperimentsPageable(ExperimentRequest experimentRequest) {
 
         List<ExperimentDO> experimentDOS;
-        PageUtils.startPage(experimentRequest);
-        if (experimentRequest.getLastTaskStatus() == null && experimentRequest.getLastTaskResult() == null) {
-            experimentDOS = experimentRepository.fuzzySelect(
+        boolean byName = experimentRequest.getLastTaskStatus() == null && experimentRequest.getLastTaskResult() == null;
+        if (byName && experimentSearchIndex.isReady()) {
+            experimentDOS = experimentSearchIndex.search(ExperimentSearchIndex.query(
+                    ExperimentDO.builder().name(experimentRequest.getExperimentName()).build()), experimentRequest);
+        } else if (byName) {
+            PageUtils.startPage(experimentRequest);
+            experimentDOS = experimentRepository.fuzzySelectSummary(
                     ExperimentDO.builder().name(experimentRequest.getExperimentName()).build());
         } else {
+            PageUtils.startPage(experimentRequest);
             if (experimentRequest.getLastTaskStatus() == -1) {
                 experimentRequest.setLastTaskStatus(null);
             }
@@ -391,6 +472,26 @@ public class ExperimentServiceImpl implements ExperimentService {
         if (CollectionUtil.isEmpty(experimentDOS)) {
             return Collections.emptyList();
         }
+
+        // one query per relation for the whole page
+        Map<Long, ExperimentTaskDO> tasks = experimentTaskRepository.selectStatusByIds(experimentDOS.stream()
+                .map(ExperimentDO::getTaskId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(ExperimentTaskDO::getId, t -> t));
+
+        Map<Long, List<ExperimentActivityDO>> activities = experimentActivityRepository.selectByExperimentIds(
+                experimentDOS.stream().map(ExperimentDO::getId).collect(Collectors.toList()), ChaosConstant.PHASE_ATTACK)
+                .stream().collect(Collectors.groupingBy(ExperimentActivityDO::getExperimentId));
+        Map<Long, ActivityDefinition> definitions = new HashMap<>();
+        activities.values().forEach(list -> list.forEach(activity -> definitions.put(activity.getId(),
+                JsonUtils.readValue(ActivityDefinition.class, activity.getActivityDefinition()))));
+
+        Map<Long, List<SceneCategoryResponse>> sceneCategories = selectSceneCategories(definitions.values().stream()
+                .map(ActivityDefinition::getSceneId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
         return experimentDOS.stream().map(experimentDO -> {
 
             ExperimentResponse experimentResponse = ExperimentResponse.builder()
@@ -400,41 +501,56 @@ public class ExperimentServiceImpl implements ExperimentService {
                     .modifyTime(experimentDO.getGmtModified())
                     .build();
 
-            experimentTaskRepository.selectById(experimentDO.getTaskId())
-                    .ifPresent(experimentTaskDO -> {
-                        experimentResponse.setLastTaskId(experimentTaskDO.getId());
-                        experimentResponse.setLastTaskStartTime(experimentTaskDO.getGmtStart());
-                        experimentResponse.setLastTaskEndTime(experimentTaskDO.getGmtEnd());
-                        experimentResponse.setLastTaskStatus(experimentTaskDO.getRunStatus());
-                        experimentResponse.setLastTaskResult(experimentTaskDO.getResultStatus());
-                    });
-
-            List<ExperimentActivity> experimentActivities = experimentActivityService.selectAttackByExperimentId(experimentDO.getId());
+            ExperimentTaskDO experimentTaskDO = tasks.get(experimentDO.getTaskId());
+            if (experimentTaskDO != null) {
+                experimentResponse.setLastTaskId(experimentTaskDO.getId());
+                experimentResponse.setLastTaskStartTime(experimentTaskDO.getGmtStart());
+                experimentResponse.setLastTaskEndTime(experimentTaskDO.getGmtEnd());
+                experimentResponse.setLastTaskStatus(experimentTaskDO.getRunStatus());
+                experimentResponse.setLastTaskResult(experimentTaskDO.getResultStatus());
+            }
 
-            experimentResponse.setScenarios(experimentActivities.stream().map(experimentActivity ->
-                    {
-                        ActivityTask activityTask = JsonUtils.readValue(ActivityTask.class, experimentActivity.getActivityDefinition());
+            experimentResponse.setScenarios(activities.getOrDefault(experimentDO.getId(), Collections.emptyList()).stream()
+                    .map(experimentActivity -> {
+                        ActivityDefinition definition = definitions.get(experimentActivity.getId());
                         return SceneResponse.builder()
                                 .code(experimentActivity.getSceneCode())
                                 .name(experimentActivity.getActivityName())
-                                .scenarioId(activityTask.getSceneId())
-                                .categories(
-                                        sceneService.getScenarioById(SceneRequest.builder().scenarioId(activityTask.getSceneId()).build())
-                                                .getCategories()
-                                )
-                                .parameters(activityTask.getArguments()
+                                .scenarioId(definition.getSceneId())
+                                .categories(sceneCategories.getOrDefault(definition.getSceneId(), Collections.emptyList()))
+                                .parameters(Optional.ofNullable(definition.getArguments()).orElse(Collections.emptyMap())
                                         .entrySet().stream().map(entry -> SceneParamResponse.builder()
                                                 .name(entry.getKey())
                                                 .value(entry.getValue())
                                                 .build()).collect(Collectors.toList())
                                 )
                                 .build();
-                    }
-            ).collect(Collectors.toList()));
+                    }).collect(Collectors.toList()));
             return experimentResponse;
         }).collect(Collectors.toList());
     }
 
+    /**
+     * categories by scene id, from the scene catalog
+     */
+    private Map<Long, List<SceneCategoryResponse>> selectSceneCategories(Set<Long> sceneIds) {
+        Map<Long, List<SceneCategoryResponse>> sceneCategories = new HashMap<>();
+        for (Long sceneId : sceneIds) {
+            sceneCatalog.getScene(sceneId)
+                    .map(SceneCatalog.CatalogScene::getScene)
+                    .filter(sceneDO -> StrUtil.isNotBlank(sceneDO.getCategories()))
+                    .ifPresent(sceneDO -> sceneCategories.put(sceneId, sceneCatalog.getCategories(
+                            JsonUtils.readValue(new TypeReference<List<Long>>() {
+                            }, sceneDO.getCategories())).stream()
+                            .map(sceneCategoryDO -> SceneCategoryResponse.builder()
+                                    .categoryId(sceneCategoryDO.getId())
+                                    .categoryName(sceneCategoryDO.getName())
+                                    .build())
+                            .collect(Collectors.toList())));
+        }
+        return sceneCategories;
+    }
+
     @Override
     public ExperimentStatisticsResponse getExperimentTotalStatistics() {
 
@@ -447,4 +563,16 @@ public class ExperimentServiceImpl implements ExperimentService {
                 .finished(experimentMapper.selectFinishedCount())
                 .build();
     }
+
+    /**
+     * the fields of an activity definition the listing needs, devices are skipped
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class ActivityDefinition {
+
+        private Long sceneId;
+
+        private Map<String, String> arguments;
+    }
 }
@@ -31,7 +31,10 @@ import com.alibaba.chaosblade.platform.service.ExperimentActivityTaskService;
 import com.alibaba.chaosblade.platform.service.ExperimentMiniFlowService;
 import com.alibaba.chaosblade.platform.service.ExperimentTaskService;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentDevice;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogChunkCodec;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogPublisher;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentRequest;
+import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentTaskLogResponse;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentTaskRequest;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentTaskResponse;
 import com.alibaba.chaosblade.platform.service.model.experiment.activity.ExperimentActivity;
@@ -40,11 +43,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum.*;
@@ -55,6 +58,10 @@ import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEn
 @Service
 public class ExperimentTaskServiceImpl implements ExperimentTaskService {
 
+    private static final int DEFAULT_LOG_LIMIT = 500;
+
+    private static final int MAX_LOG_LIMIT = 5000;
+
     @Autowired
     private ExperimentRepository experimentRepository;
 
@@ -64,6 +71,12 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
     @Autowired
     private ExperimentTaskLogRepository experimentTaskLogRepository;
 
+    @Autowired
+    private ExperimentTaskLogChunkRepository experimentTaskLogChunkRepository;
+
+    @Autowired
+    private TaskLogPublisher taskLogPublisher;
+
     @Autowired
     private ExperimentActivityService experimentActivityService;
 
@@ -250,11 +263,168 @@ public class ExperimentTaskServiceImpl implements ExperimentTaskService {
 
     @Override
     public List<String> queryTaskLog(ExperimentTaskRequest experimentRequest) {
-        List<ExperimentTaskLogDO> experimentTaskLogs = experimentTaskLogRepository.selectByTaskId(experimentRequest.getTaskId());
+        // without a limit the whole log is returned, as existing callers expect
+        int limit = experimentRequest.getLimit() == null ? Integer.MAX_VALUE : logLimit(experimentRequest);
+        List<ExperimentTaskLogDO> experimentTaskLogs = selectTaskLog(experimentRequest.getTaskId(),
+                logCursor(experimentRequest), limit, Boolean.TRUE.equals(experimentRequest.getTail()));
         return experimentTaskLogs.stream().map(ExperimentTaskLogDO::getContent)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public ExperimentTaskLogResponse queryTaskLogPage(ExperimentTaskRequest experimentRequest) {
+        long cursor = logCursor(experimentRequest);
+        int limit = logLimit(experimentRequest);
+        List<ExperimentTaskLogDO> experimentTaskLogs = selectTaskLog(experimentRequest.getTaskId(), cursor, limit,
+                Boolean.TRUE.equals(experimentRequest.getTail()));
+        return toTaskLogResponse(experimentRequest.getTaskId(), experimentTaskLogs, cursor,
+                experimentTaskLogs.size() < limit);
+    }
+
+    @Override
+    public Runnable subscribeTaskLog(ExperimentTaskRequest experimentRequest, Consumer<ExperimentTaskLogResponse> consumer,
+                                     Runnable disconnect) {
+        Long taskId = experimentRequest.getTaskId();
+        AtomicLong cursor = new AtomicLong(logCursor(experimentRequest));
+        AtomicBoolean finished = new AtomicBoolean();
+        Object lock = new Object();
+
+        // subscribe before reading the backlog so no line falls in between, duplicates are dropped by id
+        Runnable unsubscribe = taskLogPublisher.subscribe(taskId, new TaskLogPublisher.Subscriber() {
+            @Override
+            public void onLogs(List<ExperimentTaskLogDO> logs) {
+                synchronized (lock) {
+                    if (finished.get()) {
+                        return;
+                    }
+                    List<ExperimentTaskLogDO> newer = logs.stream()
+                            .filter(log -> log.getId() > cursor.get())
+                            .collect(Collectors.toList());
+                    if (!newer.isEmpty()) {
+                        cursor.set(newer.get(newer.size() - 1).getId());
+                        consumer.accept(ExperimentTaskLogResponse.builder()
+                                .logs(newer.stream().map(ExperimentTaskLogDO::getContent).collect(Collectors.toList()))
+                                .cursor(cursor.get())
+                                .finished(false)
+                                .build());
+                    }
+                }
+            }
+
+            @Override
+            public void onFinished() {
+                synchronized (lock) {
+                    if (!finished.get()) {
+                        sendTaskLog(taskId, cursor, finished, consumer);
+                        if (!finished.get()) {
+                            finished.set(true);
+                            consumer.accept(toTaskLogResponse(taskId, Collections.emptyList(), cursor.get(), true));
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void onOverflow() {
+                disconnect.run();
+            }
+        });
+        synchronized (lock) {
+            sendTaskLog(taskId, cursor, finished, consumer);
+            if (!finished.get()) {
+                // finished before subscribing, no update will follow
+                ExperimentTaskLogResponse response = toTaskLogResponse(taskId, Collections.emptyList(), cursor.get(), true);
+                if (response.getFinished()) {
+                    finished.set(true);
+                    consumer.accept(response);
+                }
+            }
+        }
+        return unsubscribe;
+    }
+
+    /**
+     * pushes the stored lines after the cursor page by page
+     */
+    private void sendTaskLog(Long taskId, AtomicLong cursor, AtomicBoolean finished,
+                             Consumer<ExperimentTaskLogResponse> consumer) {
+        List<ExperimentTaskLogDO> logs;
+        do {
+            logs = selectTaskLog(taskId, cursor.get(), MAX_LOG_LIMIT, false);
+            if (!logs.isEmpty()) {
+                ExperimentTaskLogResponse response = toTaskLogResponse(taskId, logs, cursor.get(),
+                        logs.size() < MAX_LOG_LIMIT);
+                cursor.set(response.getCursor());
+                finished.set(response.getFinished());
+                consumer.accept(response);
+            }
+        } while (logs.size() == MAX_LOG_LIMIT);
+    }
+
+    private long logCursor(ExperimentTaskRequest experimentRequest) {
+        return experimentRequest.getCursor() == null ? 0L : experimentRequest.getCursor();
+    }
+
+    private int logLimit(ExperimentTaskRequest experimentRequest) {
+        if (experimentRequest.getLimit() == null) {
+            return DEFAULT_LOG_LIMIT;
+        }
+        return Math.min(Math.max(experimentRequest.getLimit(), 1), MAX_LOG_LIMIT);
+    }
+
+    private ExperimentTaskLogResponse toTaskLogResponse(Long taskId, List<ExperimentTaskLogDO> logs, long cursor, boolean drained) {
+        boolean finished = drained && experimentTaskRepository.selectById(taskId)
+                .map(experimentTaskDO -> experimentTaskDO.getRunStatus() == RunStatus.FINISHED.getValue())
+                .orElse(true);
+        return ExperimentTaskLogResponse.builder()
+                .logs(logs.stream().map(ExperimentTaskLogDO::getContent).collect(Collectors.toList()))
+                .cursor(logs.isEmpty() ? cursor : logs.get(logs.size() - 1).getId())
+                .finished(finished)
+                .build();
+    }
+
+    /**
+     * lines after the cursor from the compressed chunks of a finished task and the rows not yet compacted;
+     * tail takes the newest lines after the cursor instead of the next ones
+     */
+    private List<ExperimentTaskLogDO> selectTaskLog(Long taskId, long cursor, int limit, boolean tail) {
+        long compacted = experimentTaskLogChunkRepository.selectLastLogId(taskId);
+        long rowCursor = Math.max(cursor, compacted);
+
+        if (!tail) {
+            List<ExperimentTaskLogDO> logs = new ArrayList<>();
+            if (cursor < compacted) {
+                for (ExperimentTaskLogChunkDO chunk : experimentTaskLogChunkRepository.selectByTaskId(taskId, cursor)) {
+                    for (ExperimentTaskLogDO log : TaskLogChunkCodec.decode(chunk)) {
+                        if (log.getId() > cursor) {
+                            logs.add(log);
+                            if (logs.size() == limit) {
+                                return logs;
+                            }
+                        }
+                    }
+                }
+            }
+            logs.addAll(experimentTaskLogRepository.selectByTaskId(taskId, rowCursor, limit - logs.size(), false));
+            return logs;
+        }
+
+        LinkedList<ExperimentTaskLogDO> logs = new LinkedList<>();
+        experimentTaskLogRepository.selectByTaskId(taskId, rowCursor, limit, true).forEach(logs::addFirst);
+        if (logs.size() < limit && cursor < compacted) {
+            List<ExperimentTaskLogChunkDO> chunks = experimentTaskLogChunkRepository.selectByTaskId(taskId, cursor);
+            for (int i = chunks.size() - 1; i >= 0 && logs.size() < limit; i--) {
+                List<ExperimentTaskLogDO> lines = TaskLogChunkCodec.decode(chunks.get(i));
+                for (int j = lines.size() - 1; j >= 0 && logs.size() < limit; j--) {
+                    if (lines.get(j).getId() > cursor) {
+                        logs.addFirst(lines.get(j));
+                    }
+                }
+            }
+        }
+        return logs;
+    }
+
     @Override
     public ExperimentTaskResponse failRetryExperiment(ExperimentTaskRequest experimentRequest) {
         Long taskId = experimentRequest.getTask().getTaskId();
@@ -17,31 +17,51 @@
 package com.alibaba.chaosblade.platform.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
 import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+import com.alibaba.chaosblade.platform.cmmon.enums.RunStatus;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricModel;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricParam;
 import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
+import com.alibaba.chaosblade.platform.cmmon.utils.cache.SingleFlightCache;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
 import com.alibaba.chaosblade.platform.dao.model.MetricCategoryDO;
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupDO;
 import com.alibaba.chaosblade.platform.dao.model.MetricTaskDO;
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskRepository;
 import com.alibaba.chaosblade.platform.dao.repository.MetricCategoryRepository;
+import com.alibaba.chaosblade.platform.dao.repository.MetricRollupRepository;
 import com.alibaba.chaosblade.platform.dao.repository.MetricTaskRepository;
 import com.alibaba.chaosblade.platform.service.ExperimentMiniFlowService;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Aggregation;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Downsampling;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
 import com.alibaba.chaosblade.platform.service.MetricTaskService;
+import com.alibaba.chaosblade.platform.service.metric.MetricChunkStore;
+import com.alibaba.chaosblade.platform.service.metric.MetricRetentionJob;
+import com.alibaba.chaosblade.platform.service.metric.MetricSeries;
+import com.alibaba.chaosblade.platform.service.metric.MetricWatermarks;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricCategoryResponse;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricTask;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricTaskRequest;
 import com.alibaba.chaosblade.platform.service.model.metric.MetricTaskResponse;
 import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -49,7 +69,7 @@ import java.util.stream.Collectors;
  * @author yefei
  */
 @Service
-public class MetricTaskServiceImpl implements MetricTaskService {
+public class MetricTaskServiceImpl implements MetricTaskService, InitializingBean {
 
     @Autowired
     private MetricTaskRepository metricTaskRepository;
@@ -63,18 +83,79 @@ public class MetricTaskServiceImpl implements MetricTaskService {
     @Autowired
     private MetricCategoryRepository metricCategoryRepository;
 
+    @Autowired
+    private MetricChunkStore metricChunkStore;
+
+    @Autowired
+    private MetricWatermarks metricWatermarks;
+
+    @Autowired
+    private MetricRollupRepository metricRollupRepository;
+
+    @Value("${chaos.metric.max-points:1000}")
+    private int maxPoints;
+
+    @Value("${chaos.metric.cache.live-ttl:5}")
+    private long liveTtl;
+
+    @Value("${chaos.metric.cache.max-samples:1000000}")
+    private long maxSamples;
+
+    private SingleFlightCache<MetricTaskRequest, List<MetricCategoryResponse>> cache;
+
+    @Override
+    public void afterPropertiesSet() {
+        cache = new SingleFlightCache<>(maxSamples, MetricTaskServiceImpl::weigh);
+    }
+
     @Override
     public List<MetricCategoryResponse> selectByTaskId(MetricTaskRequest metricTaskRequest) {
 
         ExperimentTaskDO experimentTaskDO = experimentTaskRepository.selectById(metricTaskRequest.getTaskId())
                 .orElseThrow(() -> new BizException(ExceptionMessageEnum.EXPERIMENT_TASK_NOT_FOUNT));
 
+        // finished tasks are sealed, their views never change
+        boolean finished = RunStatus.parse(experimentTaskDO.getRunStatus()) == RunStatus.FINISHED;
+        MetricTaskRequest aligned = align(metricTaskRequest);
+        return cache.get(aligned, finished ? 0 : liveTtl * 1000, () -> selectByTask(experimentTaskDO, aligned));
+    }
+
+    /**
+     * the request with its window floored to the step, or to the second without one, so that
+     * requests a few milliseconds apart query and cache the same window
+     */
+    static MetricTaskRequest align(MetricTaskRequest metricTaskRequest) {
+        long unit = metricTaskRequest.getStep() != null && metricTaskRequest.getStep() > 0
+                ? metricTaskRequest.getStep() * 1000L : 1000L;
+        MetricTaskRequest aligned = new MetricTaskRequest();
+        aligned.setTaskId(metricTaskRequest.getTaskId());
+        aligned.setStartTime(align(metricTaskRequest.getStartTime(), unit));
+        aligned.setEndTime(align(metricTaskRequest.getEndTime(), unit));
+        aligned.setPoints(metricTaskRequest.getPoints());
+        aligned.setStep(metricTaskRequest.getStep());
+        aligned.setAggregation(metricTaskRequest.getAggregation());
+        aligned.setCompact(metricTaskRequest.getCompact());
+        return aligned;
+    }
+
+    private static String align(String time, long unit) {
+        if (StrUtil.isBlank(time)) {
+            return null;
+        }
+        long millis = DateUtil.parse(time).getTime();
+        return DateUtil.formatDateTime(new Date(Math.floorDiv(millis, unit) * unit));
+    }
+
+    private List<MetricCategoryResponse> selectByTask(ExperimentTaskDO experimentTaskDO, MetricTaskRequest metricTaskRequest) {
         String metric = experimentTaskDO.getMetric();
         List<MetricModel> metricModels = JsonUtils.readValue(new TypeReference<List<MetricModel>>() {
         }, metric);
 
         List<DeviceMeta> deviceMetas = experimentMiniFlowService.selectExperimentDevice(experimentTaskDO.getExperimentId());
 
+        // one scan for the whole task, grouped by category and device
+        Map<String, Map<Long, List<MetricSeries>>> seriesMap = selectSeries(metricTaskRequest);
+
         return metricModels.stream().map(metricModel ->
                 MetricCategoryResponse.builder()
                         .categoryId(metricModel.getCategoryId())
@@ -86,34 +167,159 @@ public class MetricTaskServiceImpl implements MetricTaskService {
                                         .value(metricModel.getParams().get(k))
                                         .build()
                         ).collect(Collectors.toList()))
-                        .metricTask(deviceMetas.stream().flatMap(deviceMeta -> {
-                                    List<MetricTaskDO> metricTaskDOS = metricTaskRepository
-                                            .selectByTaskIdAndCategory(metricTaskRequest.getTaskId(),
-                                                    deviceMeta.getDeviceId(),
-                                                    metricModel.getCode(),
-                                                    metricTaskRequest.getStartTime(),
-                                                    metricTaskRequest.getEndTime());
-
-                                    return metricTaskDOS.stream().collect(Collectors.groupingBy(MetricTaskDO::getMetric))
-                                            .entrySet()
-                                            .stream()
-                                            .map(e -> MetricTaskResponse.builder()
-                                                    .hostname(deviceMeta.getHostname())
-                                                    .ip(deviceMeta.getIp())
-                                                    .taskId(metricTaskRequest.getTaskId())
-                                                    .metric(e.getKey())
-                                                    .metrics(e.getValue().stream().map(metricTaskDO -> MetricTask.builder()
-                                                            .date(metricTaskDO.getDate())
-                                                            .value(metricTaskDO.getValue())
-                                                            .build()).collect(Collectors.toList()))
-                                                    .build());
-
-                                }
+                        .metricTask(deviceMetas.stream().flatMap(deviceMeta ->
+                                seriesMap.getOrDefault(metricModel.getCode(), Collections.emptyMap())
+                                        .getOrDefault(deviceMeta.getDeviceId(), Collections.emptyList())
+                                        .stream()
+                                        .map(series -> toMetricTaskResponse(series, deviceMeta, metricTaskRequest))
                         ).collect(Collectors.toList()))
                         .build()
         ).collect(Collectors.toList());
     }
 
+    /**
+     * category code -> device id -> series of the task, tasks recorded before the chunk store read their rows
+     */
+    private Map<String, Map<Long, List<MetricSeries>>> selectSeries(MetricTaskRequest metricTaskRequest) {
+        Long taskId = metricTaskRequest.getTaskId();
+        Map<String, Map<Long, List<MetricSeries>>> seriesMap = new HashMap<>();
+        if (metricChunkStore.exists(taskId)) {
+            Date startTime = StrUtil.isNotBlank(metricTaskRequest.getStartTime()) ? DateUtil.parse(metricTaskRequest.getStartTime()) : null;
+            Date endTime = StrUtil.isNotBlank(metricTaskRequest.getEndTime()) ? DateUtil.parse(metricTaskRequest.getEndTime()) : null;
+            for (MetricSeries series : metricChunkStore.select(taskId, null, null, startTime, endTime)) {
+                seriesMap.computeIfAbsent(series.getCategoryCode(), k -> new HashMap<>())
+                        .computeIfAbsent(series.getDeviceId(), k -> new ArrayList<>())
+                        .add(series);
+            }
+            return seriesMap;
+        }
+
+        // rows come ordered by category, device, metric and date, a new series starts whenever the key changes
+        MetricSeries current = null;
+        for (MetricTaskDO metricTaskDO : metricTaskRepository.selectByTaskId(taskId,
+                metricTaskRequest.getStartTime(), metricTaskRequest.getEndTime())) {
+            current = seriesOf(seriesMap, current, taskId, metricTaskDO.getDeviceId(), metricTaskDO.getIp(),
+                    metricTaskDO.getHostname(), metricTaskDO.getCategoryId(), metricTaskDO.getCategoryCode(),
+                    metricTaskDO.getMetric());
+            if (metricTaskDO.getDate() != null && NumberUtil.isNumber(metricTaskDO.getValue())) {
+                current.getSamples().add(metricTaskDO.getDate().getTime(), Double.parseDouble(metricTaskDO.getValue()));
+            }
+        }
+        if (!seriesMap.isEmpty()) {
+            return seriesMap;
+        }
+
+        // raw samples purged by retention, the finest rollup left stands in
+        Date startTime = StrUtil.isNotBlank(metricTaskRequest.getStartTime()) ? DateUtil.parse(metricTaskRequest.getStartTime()) : null;
+        Date endTime = StrUtil.isNotBlank(metricTaskRequest.getEndTime()) ? DateUtil.parse(metricTaskRequest.getEndTime()) : null;
+        List<MetricRollupDO> rollups = metricRollupRepository.selectByTaskId(taskId, MetricRetentionJob.MINUTE, startTime, endTime);
+        if (rollups.isEmpty()) {
+            rollups = metricRollupRepository.selectByTaskId(taskId, MetricRetentionJob.TEN_MINUTES, startTime, endTime);
+        }
+        Aggregation aggregation = Aggregation.parse(metricTaskRequest.getAggregation());
+        for (MetricRollupDO rollup : rollups) {
+            current = seriesOf(seriesMap, current, taskId, rollup.getDeviceId(), rollup.getIp(), rollup.getHostname(),
+                    rollup.getCategoryId(), rollup.getCategoryCode(), rollup.getMetric());
+            double value = aggregation == Aggregation.MIN ? rollup.getMinValue()
+                    : aggregation == Aggregation.MAX ? rollup.getMaxValue() : rollup.getAvgValue();
+            current.getSamples().add(rollup.getBucketTime().getTime(), value);
+        }
+        return seriesMap;
+    }
+
+    /**
+     * the current series if the key is unchanged, otherwise a new one registered in the map
+     */
+    private MetricSeries seriesOf(Map<String, Map<Long, List<MetricSeries>>> seriesMap, MetricSeries current, Long taskId,
+                                  Long deviceId, String ip, String hostname, Long categoryId, String categoryCode,
+                                  String metric) {
+        if (current != null
+                && Objects.equals(current.getCategoryCode(), categoryCode)
+                && Objects.equals(current.getDeviceId(), deviceId)
+                && Objects.equals(current.getMetric(), metric)) {
+            return current;
+        }
+        MetricSeries series = MetricSeries.builder()
+                .taskId(taskId)
+                .deviceId(deviceId)
+                .ip(ip)
+                .hostname(hostname)
+                .categoryId(categoryId)
+                .categoryCode(categoryCode)
+                .metric(metric)
+                .samples(new Samples())
+                .build();
+        seriesMap.computeIfAbsent(categoryCode, k -> new HashMap<>())
+                .computeIfAbsent(deviceId, k -> new ArrayList<>())
+                .add(series);
+        return series;
+    }
+
+    private MetricTaskResponse toMetricTaskResponse(MetricSeries series, DeviceMeta deviceMeta,
+                                                    MetricTaskRequest metricTaskRequest) {
+        Samples samples = downsample(series.getSamples(), metricTaskRequest);
+        MetricTaskResponse.MetricTaskResponseBuilder builder = MetricTaskResponse.builder()
+                .hostname(deviceMeta.getHostname())
+                .ip(deviceMeta.getIp())
+                .taskId(metricTaskRequest.getTaskId())
+                .metric(series.getMetric())
+                .lag(metricWatermarks.lag(series.getTaskId(), series.getCategoryCode(), series.getDeviceId(),
+                        series.getMetric()));
+        if (Boolean.TRUE.equals(metricTaskRequest.getCompact())) {
+            return builder.timestamps(samples.toTimestampArray())
+                    .values(samples.toValueArray())
+                    .build();
+        }
+        return builder.metrics(toMetricTasks(samples)).build();
+    }
+
+    /**
+     * aggregate per step if a step is given, or to the point count if only an aggregation is,
+     * then keep at most the point count with LTTB
+     */
+    private Samples downsample(Samples samples, MetricTaskRequest metricTaskRequest) {
+        int points = metricTaskRequest.getPoints() != null && metricTaskRequest.getPoints() > 0
+                ? metricTaskRequest.getPoints() : maxPoints;
+        Aggregation aggregation = Optional.ofNullable(Aggregation.parse(metricTaskRequest.getAggregation()))
+                .orElse(Aggregation.AVG);
+        if (samples.isEmpty()) {
+            return samples;
+        }
+        if (metricTaskRequest.getStep() != null && metricTaskRequest.getStep() > 0) {
+            samples = Downsampling.aggregate(samples, metricTaskRequest.getStep() * 1000L, aggregation);
+        } else if (metricTaskRequest.getAggregation() != null && samples.size() > points) {
+            long range = samples.lastTimestamp() - samples.timestamp(0);
+            samples = Downsampling.aggregate(samples, Math.max(range / points + 1, 1), aggregation);
+        }
+        return Downsampling.lttb(samples, points);
+    }
+
+    private List<MetricTask> toMetricTasks(Samples samples) {
+        List<MetricTask> metricTasks = new ArrayList<>(samples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            metricTasks.add(MetricTask.builder()
+                    .date(new Date(samples.timestamp(i)))
+                    .value(NumberUtil.toStr(samples.value(i)))
+                    .build());
+        }
+        return metricTasks;
+    }
+
+    private static long weigh(List<MetricCategoryResponse> responses) {
+        long weight = 0;
+        for (MetricCategoryResponse response : responses) {
+            for (MetricTaskResponse metricTaskResponse : response.getMetricTask()) {
+                if (metricTaskResponse.getMetrics() != null) {
+                    weight += metricTaskResponse.getMetrics().size();
+                } else if (metricTaskResponse.getValues() != null) {
+                    weight += metricTaskResponse.getValues().length;
+                }
+                weight++;
+            }
+        }
+        return weight;
+    }
+
     @Override
     public List<MetricCategoryResponse> queryMetricCategory() {
 
@@ -18,13 +18,14 @@ package com.alibaba.chaosblade.platform.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
 import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.dao.mapper.SceneCategoryMapper;
 import com.alibaba.chaosblade.platform.dao.model.SceneCategoryDO;
-import com.alibaba.chaosblade.platform.dao.repository.SceneCategoryRepository;
 import com.alibaba.chaosblade.platform.service.SceneCategoryService;
 import com.alibaba.chaosblade.platform.service.model.scene.categroy.SceneCategoryRequest;
 import com.alibaba.chaosblade.platform.service.model.scene.categroy.SceneCategoryResponse;
+import com.alibaba.chaosblade.platform.service.scene.SceneCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -43,11 +44,12 @@ public class SceneCategoryServiceImpl implements SceneCategoryService {
     private SceneCategoryMapper sceneCategoryMapper;
 
     @Autowired
-    private SceneCategoryRepository sceneCategoryRepository;
+    private SceneCatalog sceneCatalog;
 
     @Override
     public void importSceneCategory(List<SceneCategoryResponse> sceneCategoryResponse) {
         insert(sceneCategoryResponse);
+        sceneCatalog.invalidate();
     }
 
     private void insert(List<SceneCategoryResponse> sceneCategoryResponse) {
@@ -68,9 +70,11 @@ public class SceneCategoryServiceImpl implements SceneCategoryService {
 
     @Override
     public List<SceneCategoryResponse> selectSceneCategory(SceneCategoryRequest sceneCategoryRequest) {
-        List<SceneCategoryDO> sceneCategoryDOS = sceneCategoryRepository.selectList(SceneCategoryDO.builder()
-                .supportScope(sceneCategoryRequest.getScopeType())
-                .build());
+        String scopeType = sceneCategoryRequest.getScopeType();
+        List<SceneCategoryDO> sceneCategoryDOS = sceneCatalog.getCategories().stream()
+                .filter(sceneCategoryDO -> StrUtil.isBlank(scopeType)
+                        || StrUtil.containsIgnoreCase(sceneCategoryDO.getSupportScope(), scopeType))
+                .collect(Collectors.toList());
 
         if (CollectionUtil.isEmpty(sceneCategoryDOS)) {
             return Collections.emptyList();
@@ -17,19 +17,17 @@
 package com.alibaba.chaosblade.platform.service.impl;
 
 import cn.hutool.core.collection.CollectionUtil;
-import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
 import com.alibaba.chaosblade.platform.dao.model.SceneParamDO;
 import com.alibaba.chaosblade.platform.dao.repository.SceneParamRepository;
 import com.alibaba.chaosblade.platform.service.SceneParamService;
-import com.alibaba.chaosblade.platform.service.model.scene.param.Component;
 import com.alibaba.chaosblade.platform.service.model.scene.param.SceneParamRequest;
 import com.alibaba.chaosblade.platform.service.model.scene.param.SceneParamResponse;
+import com.alibaba.chaosblade.platform.service.scene.SceneCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -41,6 +39,9 @@ public class SceneParamServiceImpl implements SceneParamService {
     @Autowired
     private SceneParamRepository sceneParamRepository;
 
+    @Autowired
+    private SceneCatalog sceneCatalog;
+
     @Override
     public List<SceneParamResponse> selectSceneParam(SceneParamRequest sceneParamRequest) {
 
@@ -63,26 +64,6 @@ public class SceneParamServiceImpl implements SceneParamService {
 
     @Override
     public List<SceneParamResponse> selectSceneParamBySceneId(Long sceneId) {
-
-        List<SceneParamDO> sceneParamDOS = sceneParamRepository.selectList(SceneParamDO.builder()
-                .sceneId(sceneId)
-                .build());
-
-        if (CollectionUtil.isEmpty(sceneParamDOS)) {
-            return Collections.emptyList();
-        }
-        return sceneParamDOS.stream().map(sceneParamDO -> SceneParamResponse.builder()
-                .parameterId(sceneParamDO.getSceneId())
-                .alias(sceneParamDO.getAlias())
-                .paramName(sceneParamDO.getParamName())
-                .name(sceneParamDO.getParamName())
-                .defaultValue(sceneParamDO.getDefaultValue())
-                .description(sceneParamDO.getDescription())
-                .required(sceneParamDO.getIsRequired())
-                .component(Optional.ofNullable(sceneParamDO.getComponent())
-                        .map(component -> JsonUtils.readValue(Component.class, component))
-                        .orElse(null))
-                .build()
-        ).collect(Collectors.toList());
+        return sceneCatalog.getSceneParams(sceneId);
     }
 }
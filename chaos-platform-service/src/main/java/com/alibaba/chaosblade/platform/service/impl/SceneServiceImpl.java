@@ -34,9 +34,7 @@ import com.alibaba.chaosblade.platform.dao.page.PageUtils;
 import com.alibaba.chaosblade.platform.dao.repository.SceneCategoryRepository;
 import com.alibaba.chaosblade.platform.dao.repository.SceneParamRepository;
 import com.alibaba.chaosblade.platform.dao.repository.SceneRepository;
-import com.alibaba.chaosblade.platform.service.SceneParamService;
 import com.alibaba.chaosblade.platform.service.SceneService;
-import com.alibaba.chaosblade.platform.service.ToolsService;
 import com.alibaba.chaosblade.platform.service.model.device.KubernetesDevice;
 import com.alibaba.chaosblade.platform.service.model.scene.*;
 import com.alibaba.chaosblade.platform.service.model.scene.Action;
@@ -46,19 +44,19 @@ import com.alibaba.chaosblade.platform.service.model.scene.SceneImportResponse;
 import com.alibaba.chaosblade.platform.service.model.scene.param.Component;
 import com.alibaba.chaosblade.platform.service.model.scene.param.SceneParamRequest;
 import com.alibaba.chaosblade.platform.service.model.scene.param.SceneParamResponse;
-import com.alibaba.chaosblade.platform.service.model.tools.ToolsOverview;
-import com.alibaba.chaosblade.platform.service.model.tools.ToolsVersion;
+import com.alibaba.chaosblade.platform.service.scene.SceneCatalog;
+import com.alibaba.chaosblade.platform.service.scene.SceneImportPlan;
+import com.alibaba.chaosblade.platform.service.search.SceneSearchIndex;
 import com.fasterxml.jackson.core.type.TypeReference;
-import org.springframework.beans.factory.InitializingBean;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.yaml.snakeyaml.Yaml;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant.DEFAULT_TOOLS;
@@ -66,8 +64,9 @@ import static com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant.DEFA
 /**
  * @author yefei
  */
+@Slf4j
 @Service
-public class SceneServiceImpl implements SceneService, InitializingBean {
+public class SceneServiceImpl implements SceneService {
 
     @Autowired
     private SceneRepository sceneRepository;
@@ -79,89 +78,105 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
     private SceneCategoryRepository sceneCategoryRepository;
 
     @Autowired
-    private SceneParamService sceneParamService;
+    private SceneCatalog sceneCatalog;
 
     @Autowired
-    private ToolsService toolsService;
-
-    @Value("${chaos.scene.import}")
-    private boolean autoImport;
-
-    @Override
-    public void afterPropertiesSet() {
-        if (autoImport) {
-            ToolsOverview toolsOverview = toolsService.toolsOverview(DEFAULT_TOOLS);
-            ToolsVersion toolsVersion = toolsService.toolsVersion(toolsOverview.getName(), toolsOverview.getLatest());
-            List<String> scenarioFiles = toolsVersion.getScenarioFiles();
-            for (String scenarioFile : scenarioFiles) {
-                PluginSpecBean pluginSpecBean = toolsService.toolsScene(toolsOverview.getName(), toolsOverview.getLatest(), scenarioFile);
-                List<Scene> scenes = pluginSpecBean.getItems().stream().map(
-                        item -> Scene.builder().actions(
-                                item.getActions().stream().map(
-                                        actionSpecBean -> Action.builder()
-                                                .name(actionSpecBean.getAction())
-                                                .desc(actionSpecBean.getLongDesc())
-                                                .flags(actionSpecBean.getFlags() == null ? CollUtil.newArrayList() : actionSpecBean.getFlags().stream().map(
-                                                        flagSpecBean -> Flag.builder()
-                                                                .name(flagSpecBean.getName())
-                                                                .desc(flagSpecBean.getDesc())
-                                                                .defaultValue(flagSpecBean.isNoArgs() ? "true" : null)
-                                                                .required(flagSpecBean.isRequired())
-                                                                .build()
-                                                ).collect(Collectors.toList()))
-                                                .matchers(actionSpecBean.getMatchers() == null ? CollUtil.newArrayList() : actionSpecBean.getMatchers().stream().map(
-                                                        matcherSpecBean -> Matcher.builder()
-                                                                .name(matcherSpecBean.getName())
-                                                                .desc(matcherSpecBean.getDesc())
-                                                                .defaultValue(matcherSpecBean.isNoArgs() ? "true" : null)
-                                                                .required(matcherSpecBean.isRequired())
-                                                                .build()
-                                                ).collect(Collectors.toList()))
-                                                .categories(CollUtil.newArrayList(actionSpecBean.getCategories()))
+    private SceneSearchIndex sceneSearchIndex;
+
+    @Value("${chaos.scene.batch-size:500}")
+    private int batchSize;
+
+    private Scene toScene(ModelSpecBean item) {
+        return Scene.builder().actions(
+                item.getActions().stream().map(
+                        actionSpecBean -> Action.builder()
+                                .name(actionSpecBean.getAction())
+                                .desc(actionSpecBean.getLongDesc())
+                                .flags(actionSpecBean.getFlags() == null ? CollUtil.newArrayList() : actionSpecBean.getFlags().stream().map(
+                                        flagSpecBean -> Flag.builder()
+                                                .name(flagSpecBean.getName())
+                                                .desc(flagSpecBean.getDesc())
+                                                .defaultValue(flagSpecBean.isNoArgs() ? "true" : null)
+                                                .required(flagSpecBean.isRequired())
                                                 .build()
-                                ).collect(Collectors.toList())
-                        ).prepare(
-                                item.getPrepare() == null ? null :
-                                        Prepare.builder().required(item.getPrepare().isRequired())
-                                                .flags(item.getPrepare().getFlags().stream().map(
-                                                        flagSpecBean -> Flag.builder()
-                                                                .name(flagSpecBean.getName())
-                                                                .desc(flagSpecBean.getDesc())
-                                                                .defaultValue(flagSpecBean.isNoArgs() ? "true" : null)
-                                                                .required(flagSpecBean.isRequired())
-                                                                .build()
-                                                ).collect(Collectors.toList()))
-                                                .type(item.getPrepare().getType())
+                                ).collect(Collectors.toList()))
+                                .matchers(actionSpecBean.getMatchers() == null ? CollUtil.newArrayList() : actionSpecBean.getMatchers().stream().map(
+                                        matcherSpecBean -> Matcher.builder()
+                                                .name(matcherSpecBean.getName())
+                                                .desc(matcherSpecBean.getDesc())
+                                                .defaultValue(matcherSpecBean.isNoArgs() ? "true" : null)
+                                                .required(matcherSpecBean.isRequired())
                                                 .build()
-                        ).target(item.getTarget())
-                                .scope(item.getScope())
+                                ).collect(Collectors.toList()))
+                                .categories(CollUtil.newArrayList(actionSpecBean.getCategories()))
                                 .build()
-                ).collect(Collectors.toList());
-
-                try {
-                    importScenarios(SceneImportRequest.builder()
-                            .name(toolsOverview.getName())
-                            .version(toolsOverview.getLatest())
-                            .active(true)
-                            .scenarios(scenes).build());
-                } catch (BizException e) {
-                    // ignore
-                }
-            }
-        }
+                ).collect(Collectors.toList())
+        ).prepare(
+                item.getPrepare() == null ? null :
+                        Prepare.builder().required(item.getPrepare().isRequired())
+                                .flags(item.getPrepare().getFlags().stream().map(
+                                        flagSpecBean -> Flag.builder()
+                                                .name(flagSpecBean.getName())
+                                                .desc(flagSpecBean.getDesc())
+                                                .defaultValue(flagSpecBean.isNoArgs() ? "true" : null)
+                                                .required(flagSpecBean.isRequired())
+                                                .build()
+                                ).collect(Collectors.toList()))
+                                .type(item.getPrepare().getType())
+                                .build()
+        ).target(item.getTarget())
+                .scope(item.getScope())
+                .build();
     }
 
     @Override
     @Transactional
     public SceneImportResponse importScenarios(SceneImportRequest sceneImportRequest) {
-        String version = sceneImportRequest.getVersion();
-        String source = sceneImportRequest.getName();
+        SceneImport sceneImport = new SceneImport(sceneImportRequest.getName(), sceneImportRequest.getVersion(),
+                sceneImportRequest.isActive());
+        sceneImportRequest.getScenarios().forEach(sceneImport::add);
+        return sceneImport.finish();
+    }
+
+    /**
+     * Import of the scenes of one version. Scenes are diffed as they come, the rows staged are
+     * written whenever {@code batchSize} of them piled up, so a spec streamed in is never held
+     * as a whole.
+     */
+    private class SceneImport {
+
+        private final long begin = System.currentTimeMillis();
+
+        private final String source;
+
+        private final String version;
+
+        private final boolean active;
 
-        long count = 0L;
+        private final SceneImportPlan plan;
 
-        for (Scene scenario : sceneImportRequest.getScenarios()) {
+        private final Map<String, Long> categoryIds;
+
+        private long count;
+
+        private int paramsWritten;
+
+        SceneImport(String source, String version, boolean active) {
+            this.source = source;
+            this.version = version;
+            this.active = active;
+            // the scenes of the version and the categories are diffed in memory
+            List<SceneDO> existingScenes = sceneRepository.selectByVersion(version);
+            this.plan = new SceneImportPlan(existingScenes, sceneParamRepository.selectBySceneIds(
+                    existingScenes.stream().map(SceneDO::getId).collect(Collectors.toList())));
+            this.categoryIds = sceneCatalog.getCategories().stream()
+                    .filter(sceneCategoryDO -> sceneCategoryDO.getCategoryCode() != null)
+                    .collect(Collectors.toMap(SceneCategoryDO::getCategoryCode, SceneCategoryDO::getId, (a, b) -> a));
+        }
+
+        void add(Scene scenario) {
             if (CollUtil.isEmpty(scenario.getActions())) {
-                continue;
+                return;
             }
 
             Long prepareId = null;
@@ -173,31 +188,14 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
                         ChaosConstant.DOT,
                         prepare.getType()).toString();
 
-                prepareId = sceneRepository.selectByCodeAndVersion(sconeCode, version).map(SceneDO::getId)
-                        .orElseGet(() -> {
-                            SceneDO sceneDO = SceneDO.builder()
-                                    .sceneName(sconeCode)
-                                    .sceneCode(sconeCode)
-                                    .version(version)
-                                    .original(source)
-                                    .build();
-                            sceneRepository.insert(sceneDO);
-                            return sceneDO.getId();
-                        });
-
-                if (CollUtil.isNotEmpty(prepare.getFlags())) {
-                    Long finalPrepareId = prepareId;
-                    prepare.getFlags().forEach(flag -> {
-
-                        sceneParamRepository.insert(SceneParamDO.builder()
-                                .sceneId(finalPrepareId)
-                                .alias(flag.getName())
-                                .paramName(flag.getName())
-                                .description(flag.getDesc())
-                                .isRequired(flag.isRequired())
-                                .build());
-                    });
-                }
+                prepareId = plan.stage(SceneDO.builder()
+                                .sceneName(sconeCode)
+                                .sceneCode(sconeCode)
+                                .version(version)
+                                .status(SceneStatus.SOLD_OUT.getCode())
+                                .original(source)
+                                .build(),
+                        toSceneParams(Collections.emptyList(), prepare.getFlags()));
             }
 
             for (Action action : scenario.getActions()) {
@@ -212,7 +210,7 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
                             ChaosConstant.DOT, action.getName()).toString();
                 }
 
-                if (sceneRepository.selectByCodeAndVersion(sconeCode, version).isPresent()) {
+                if (plan.isStaged(sconeCode)) {
                     throw new BizException(ExceptionMessageEnum.SCENE_EXISTS, sconeCode + ":" + version);
                 }
 
@@ -222,130 +220,129 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
                         .description(action.getDesc())
                         .preSceneId(prepareId)
                         .version(version)
+                        .status(active ? SceneStatus.ACTIVE.getCode() : SceneStatus.SOLD_OUT.getCode())
                         .supportScope("[\"" + scenario.getScope() + "\"]")
                         .original(source)
                         .build();
 
-                if (sceneImportRequest.isActive()) {
-                    sceneDO.setStatus(SceneStatus.ACTIVE.getCode());
-                }
                 if (CollUtil.isNotEmpty(action.getCategories())) {
-                    List<Long> categories = sceneCategoryRepository.selectListByCodes(action.getCategories()).stream()
-                            .map(SceneCategoryDO::getId).collect(Collectors.toList());
+                    List<Long> categories = action.getCategories().stream()
+                            .map(categoryIds::get)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
                     sceneDO.setCategories(JsonUtils.writeValueAsString(categories));
                 }
-                sceneRepository.insert(sceneDO);
+                plan.stage(sceneDO, toSceneParams(action.getMatchers(), action.getFlags()));
                 count++;
+            }
 
-                if (CollUtil.isNotEmpty(action.getMatchers())) {
-                    action.getMatchers().forEach(matcher -> {
-
-                        sceneParamRepository.insert(SceneParamDO.builder()
-                                .sceneId(sceneDO.getId())
-                                .alias(matcher.getName())
-                                .paramName(matcher.getName())
-                                .description(matcher.getDesc())
-                                .isRequired(matcher.isRequired())
-                                .build());
-                    });
-                }
-                if (CollUtil.isNotEmpty(action.getFlags())) {
-                    action.getFlags().forEach(flag -> {
-
-                        sceneParamRepository.insert(SceneParamDO.builder()
-                                .sceneId(sceneDO.getId())
-                                .alias(flag.getName())
-                                .paramName(flag.getName())
-                                .description(flag.getDesc())
-                                .isRequired(flag.isRequired())
-                                .build());
-                    });
-                }
+            if (plan.getScenes().size() + plan.getParams().size() + plan.getStaleParamIds().size() >= batchSize) {
+                flush();
             }
         }
 
-        return SceneImportResponse.builder().scenarioCount(count).build();
+        private void flush() {
+            sceneRepository.upsertBatch(plan.getScenes(), batchSize);
+            sceneParamRepository.upsertBatch(plan.getParams(), batchSize);
+            sceneParamRepository.deleteByIds(plan.getStaleParamIds());
+            paramsWritten += plan.getParams().size();
+            plan.clear();
+        }
+
+        SceneImportResponse finish() {
+            flush();
+            sceneCatalog.invalidate();
+
+            long elapsed = Math.max(System.currentTimeMillis() - begin, 1);
+            int total = plan.getInserted() + plan.getUpdated() + plan.getUnchanged();
+            double throughput = total * 1000.0 / elapsed;
+            log.info("scene import {}:{} finished, inserted: {}, updated: {}, unchanged: {}, parameters written: {}, cost: {}ms, {} scenes/s",
+                    source, version, plan.getInserted(), plan.getUpdated(), plan.getUnchanged(), paramsWritten,
+                    elapsed, String.format("%.1f", throughput));
+            return SceneImportResponse.builder()
+                    .scenarioCount(count)
+                    .inserted(plan.getInserted())
+                    .updated(plan.getUpdated())
+                    .unchanged(plan.getUnchanged())
+                    .parameters(paramsWritten)
+                    .elapsed(elapsed)
+                    .throughput(throughput)
+                    .build();
+        }
+    }
+
+    /**
+     * matchers first, then flags
+     */
+    private List<SceneParamDO> toSceneParams(List<Matcher> matchers, List<Flag> flags) {
+        List<SceneParamDO> sceneParams = new ArrayList<>();
+        if (CollUtil.isNotEmpty(matchers)) {
+            matchers.forEach(matcher -> sceneParams.add(SceneParamDO.builder()
+                    .alias(matcher.getName())
+                    .paramName(matcher.getName())
+                    .description(matcher.getDesc())
+                    .isRequired(matcher.isRequired())
+                    .build()));
+        }
+        if (CollUtil.isNotEmpty(flags)) {
+            flags.forEach(flag -> sceneParams.add(SceneParamDO.builder()
+                    .alias(flag.getName())
+                    .paramName(flag.getName())
+                    .description(flag.getDesc())
+                    .isRequired(flag.isRequired())
+                    .build()));
+        }
+        return sceneParams;
     }
 
     @Override
     @Transactional
-    public void inputScene(InputStream inputStream) {
-        Yaml yaml = new Yaml();
-        PluginSpecBean pluginSpecBean = yaml.loadAs(inputStream, PluginSpecBean.class);
-        Map<String, SceneDO> sceneDOMap = new HashMap<>();
-        Map<String, List<SceneParamDO>> map = new HashMap<>();
-
-        List<SceneCategoryDO> sceneCategories = sceneCategoryRepository.selectList(SceneCategoryDO.builder().build());
-        sceneCategories.stream().map(sceneCategory -> Optional.ofNullable(null)
-                .map(codes -> {
-                    try {
-                        return JsonUtils.reader(List.class).readValue("null");
-                    } catch (IOException e) {
-                        return Collections.emptyList();
-                    }
-                })
-                .orElse(Collections.emptyList()).stream())
-                .collect(Collectors.toList());
+    public SceneImportResponse importScenarios(String name, String version, InputStream inputStream) {
+        SceneImport sceneImport = new SceneImport(name, version, true);
+        PluginSpecReader.read(inputStream, item -> sceneImport.add(toScene(item)));
+        return sceneImport.finish();
+    }
 
-        for (ModelSpecBean item : pluginSpecBean.getItems()) {
-            for (ActionSpecBean action : item.getActions()) {
-                String sceneCode = ChaosConstant.CHAOS_PREFIX + item.getTarget() + ChaosConstant.DOT + action.getAction();
-                sceneDOMap.put(sceneCode, SceneDO.builder()
-                        .sceneName(item.getShortDesc())
-                        .sceneCode(sceneCode)
-                        .description(item.getLongDesc())
-                        .version(pluginSpecBean.getVersion())
-                        .build());
-
-                List<SceneParamDO> sceneParamDOS;
-                if (map.containsKey(sceneCode)) {
-                    sceneParamDOS = map.get(sceneCode);
-                } else {
-                    sceneParamDOS = new ArrayList<>();
-                    map.put(sceneCode, sceneParamDOS);
-                }
-                for (FlagSpecBean flag : action.getFlags()) {
-                    sceneParamDOS.add(SceneParamDO.builder()
-                            .alias(flag.getName())
-                            .paramName(flag.getName())
-                            .description(flag.getDesc())
-                            .build());
-                }
-                for (MatcherSpecBean matcher : action.getMatchers()) {
-                    sceneParamDOS.add(SceneParamDO.builder()
-                            .alias(matcher.getName())
-                            .paramName(matcher.getName())
-                            .description(matcher.getDesc())
-                            .isRequired(matcher.isRequired())
-                            .build());
-                }
+    @Override
+    @Transactional
+    public void inputScene(InputStream inputStream) {
+        // the version is taken from the spec, items ahead of it wait for the end of the file
+        AtomicReference<SceneImport> sceneImport = new AtomicReference<>();
+        List<Scene> pending = new ArrayList<>();
+        PluginSpecBean pluginSpecBean = PluginSpecReader.readWithHeader(inputStream, (header, item) -> {
+            if (sceneImport.get() == null && header.getVersion() != null) {
+                sceneImport.set(new SceneImport(DEFAULT_TOOLS, header.getVersion(), false));
             }
-        }
-
-        if (CollectionUtil.isNotEmpty(sceneDOMap)) {
-            sceneRepository.insertBatch(sceneDOMap.values());
-        }
-        for (Map.Entry<String, SceneDO> entry : sceneDOMap.entrySet()) {
-            String sceneCode = entry.getKey();
-            List<SceneParamDO> sceneParamDOS = map.get(sceneCode);
-            for (SceneParamDO sceneParamDO : sceneParamDOS) {
-                sceneParamDO.setSceneId(entry.getValue().getId());
+            if (sceneImport.get() == null) {
+                pending.add(toScene(item));
+            } else {
+                sceneImport.get().add(toScene(item));
             }
-            sceneParamRepository.saveBatch(sceneParamDOS);
+        });
+        if (sceneImport.get() == null) {
+            sceneImport.set(new SceneImport(DEFAULT_TOOLS, pluginSpecBean.getVersion(), false));
         }
+        pending.forEach(sceneImport.get()::add);
+        sceneImport.get().finish();
     }
 
     @Override
     public List<SceneResponse> getScenariosPageable(SceneRequest sceneRequest) {
-        PageUtils.startPage(sceneRequest);
-        List<SceneDO> sceneDOS = sceneRepository.selectList(SceneDO.builder()
+        SceneDO condition = SceneDO.builder()
                 .sceneCode(sceneRequest.getCode())
                 .categories(sceneRequest.getCategoryId())
                 .sceneName(sceneRequest.getName())
                 .version(sceneRequest.getVersion())
                 .status(sceneRequest.getStatus())
                 .supportScope(sceneRequest.getScopeType())
-                .build());
+                .build();
+        List<SceneDO> sceneDOS;
+        if (sceneSearchIndex.isReady()) {
+            sceneDOS = sceneSearchIndex.search(SceneSearchIndex.query(condition), sceneRequest);
+        } else {
+            PageUtils.startPage(sceneRequest);
+            sceneDOS = sceneRepository.selectList(condition);
+        }
         if (CollectionUtil.isEmpty(sceneDOS)) {
             return Collections.emptyList();
         }
@@ -360,19 +357,9 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
                 .createTime(scene.getGmtCreate())
                 .modifyTime(scene.getGmtModified())
                 .original(scene.getOriginal())
-                .categories(
-                        Optional.ofNullable(scene.getCategories()).map(s ->
-                                sceneCategoryRepository.selectByIds(JsonUtils.readValue(new TypeReference<List<Long>>() {
-                                }, s)).stream().map(sceneCategoryDO ->
-                                        SceneCategoryResponse.builder()
-                                                .categoryId(sceneCategoryDO.getId())
-                                                .categoryName(sceneCategoryDO.getName())
-                                                .build()
-                                ).collect(Collectors.toList())
-                        ).orElse(Collections.emptyList())
-                )
+                .categories(categoriesOf(scene))
                 .parameters(
-                        sceneParamService.selectSceneParamBySceneId(scene.getId()).stream().map(
+                        sceneCatalog.getSceneParams(scene.getId()).stream().map(
                                 sceneParamResponse -> sceneParamCover(sceneParamResponse, sceneRequest)
                         ).collect(Collectors.toList())
                 )
@@ -405,12 +392,13 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
                 );
             }
         }
+        sceneCatalog.invalidate();
         return getScenarioById(sceneRequest);
     }
 
     @Override
     public SceneResponse getScenarioById(SceneRequest sceneRequest) {
-        Optional<SceneDO> sceneDO = sceneRepository.selectById(sceneRequest.getScenarioId());
+        Optional<SceneDO> sceneDO = sceneCatalog.getScene(sceneRequest.getScenarioId()).map(SceneCatalog.CatalogScene::getScene);
 
         return sceneDO.map(scene ->
                 SceneResponse.builder()
@@ -425,20 +413,10 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
                                 .orElse(Collections.emptyList()))
                         .createTime(scene.getGmtCreate())
                         .modifyTime(scene.getGmtModified())
-                        .categories(
-                                Optional.ofNullable(scene.getCategories()).map(s ->
-                                        sceneCategoryRepository.selectByIds(JsonUtils.readValue(new TypeReference<List<Long>>() {
-                                        }, s)).stream().map(sceneCategoryDO ->
-                                                SceneCategoryResponse.builder()
-                                                        .categoryId(sceneCategoryDO.getId())
-                                                        .categoryName(sceneCategoryDO.getName())
-                                                        .build()
-                                        ).collect(Collectors.toList())
-                                ).orElse(Collections.emptyList())
-                        )
+                        .categories(categoriesOf(scene))
                         .requiredJavaAgent(scene.getRequiredJavaAgent())
                         .parameters(
-                                sceneParamService.selectSceneParamBySceneId(scene.getId()).stream().map(
+                                sceneCatalog.getSceneParams(scene.getId()).stream().map(
                                         sceneParamResponse -> sceneParamCover(sceneParamResponse, sceneRequest)
                                 ).collect(Collectors.toList())
                         )
@@ -448,6 +426,24 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
         ).orElseThrow(() -> new BizException(ExceptionMessageEnum.SCENE_IS_NULL));
     }
 
+    @Override
+    public SceneCatalogStatistics getSceneCatalogStatistics() {
+        return sceneCatalog.getStatistics();
+    }
+
+    private List<SceneCategoryResponse> categoriesOf(SceneDO scene) {
+        if (StrUtil.isBlank(scene.getCategories())) {
+            return Collections.emptyList();
+        }
+        return sceneCatalog.getCategories(JsonUtils.readValue(new TypeReference<List<Long>>() {
+        }, scene.getCategories())).stream().map(sceneCategoryDO ->
+                SceneCategoryResponse.builder()
+                        .categoryId(sceneCategoryDO.getId())
+                        .categoryName(sceneCategoryDO.getName())
+                        .build()
+        ).collect(Collectors.toList());
+    }
+
     // todo
     private SceneParamResponse sceneParamCover(SceneParamResponse sceneParamResponse, SceneRequest sceneRequest) {
         if (StrUtil.isBlank(sceneRequest.getDimension())) {
@@ -504,6 +500,7 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
         sceneRepository.updateByPrimaryKey(sceneRequest.getScenarioId(),
                 SceneDO.builder().status(SceneStatus.SOLD_OUT.getCode()).build()
         );
+        sceneCatalog.invalidate();
         return getScenarioById(sceneRequest);
     }
 
@@ -512,6 +509,7 @@ public class SceneServiceImpl implements SceneService, InitializingBean {
         sceneRepository.updateByPrimaryKey(sceneRequest.getScenarioId(),
                 SceneDO.builder().status(SceneStatus.ACTIVE.getCode()).build()
         );
+        sceneCatalog.invalidate();
         return getScenarioById(sceneRequest);
     }
 }
@@ -16,9 +16,6 @@
 
 package com.alibaba.chaosblade.platform.service.impl;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
-import cn.hutool.http.HttpUtil;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
 import com.alibaba.chaosblade.platform.dao.model.DeviceDO;
@@ -29,11 +26,14 @@ import com.alibaba.chaosblade.platform.service.DeviceService;
 import com.alibaba.chaosblade.platform.service.ToolsService;
 import com.alibaba.chaosblade.platform.service.model.device.DeviceRequest;
 import com.alibaba.chaosblade.platform.service.model.device.DeviceResponse;
+import com.alibaba.chaosblade.platform.cmmon.model.chaos.ModelSpecBean;
 import com.alibaba.chaosblade.platform.cmmon.model.chaos.PluginSpecBean;
+import com.alibaba.chaosblade.platform.cmmon.model.chaos.PluginSpecReader;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsOverview;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsRequest;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsStatisticsResponse;
 import com.alibaba.chaosblade.platform.service.model.tools.ToolsVersion;
+import com.alibaba.chaosblade.platform.service.tools.ToolsCatalog;
 import com.alibaba.chaosblade.platform.toolsmgr.api.ChannelType;
 import com.alibaba.chaosblade.platform.toolsmgr.api.ChaosToolsMgrStrategyContext;
 import com.alibaba.chaosblade.platform.toolsmgr.api.Request;
@@ -45,6 +45,9 @@ import org.yaml.snakeyaml.introspector.Property;
 import org.yaml.snakeyaml.introspector.PropertyUtils;
 import org.yaml.snakeyaml.representer.Representer;
 
+import java.io.ByteArrayInputStream;
+import java.util.function.Consumer;
+
 import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum.*;
 
 /**
@@ -65,6 +68,9 @@ public class ToolsServiceImpl implements ToolsService {
     @Autowired
     private ChaosToolsMgrStrategyContext chaosToolsMgrStrategyContext;
 
+    @Autowired
+    private ToolsCatalog toolsCatalog;
+
     @Override
     public ToolsStatisticsResponse getChaostoolsDeployedStatistics(ToolsRequest toolsRequest) {
         return ToolsStatisticsResponse.builder()
@@ -149,42 +155,52 @@ public class ToolsServiceImpl implements ToolsService {
 
     @Override
     public ToolsOverview toolsOverview(String toolsName) {
-        HttpRequest request = HttpUtil.createGet(
-                String.format("https://chaosblade.oss-cn-hangzhou.aliyuncs.com/platform/market/chaostools/%s/overview.yaml", toolsName));
-        HttpResponse execute = request.execute();
-        Representer representer = new Representer();
-        representer.getPropertyUtils().setSkipMissingProperties(true);
-        return new Yaml(representer).loadAs(execute.bodyStream(), ToolsOverview.class);
+        return toolsCatalog.get(String.format("%s/overview.yaml", toolsName), ToolsOverview.class, inputStream -> {
+            Representer representer = new Representer();
+            representer.getPropertyUtils().setSkipMissingProperties(true);
+            return new Yaml(representer).loadAs(inputStream, ToolsOverview.class);
+        });
     }
 
     @Override
     public ToolsVersion toolsVersion(String toolsName, String version) {
-
-        HttpRequest request = HttpUtil.createGet(
-                String.format("https://chaosblade.oss-cn-hangzhou.aliyuncs.com/platform/market/chaostools/%s/%s/version.yaml", toolsName, version));
-        HttpResponse execute = request.execute();
-        Representer representer = new Representer();
-        representer.setPropertyUtils(new PropertyUtils() {
-            @Override
-            public Property getProperty(Class<? extends Object> type, String name) {
-                if (name.indexOf('-') > -1) {
-                    name = name.replace('-', '_');
+        return toolsCatalog.get(String.format("%s/%s/version.yaml", toolsName, version), ToolsVersion.class, inputStream -> {
+            Representer representer = new Representer();
+            representer.setPropertyUtils(new PropertyUtils() {
+                @Override
+                public Property getProperty(Class<? extends Object> type, String name) {
+                    if (name.indexOf('-') > -1) {
+                        name = name.replace('-', '_');
+                    }
+                    return super.getProperty(type, name);
                 }
-                return super.getProperty(type, name);
-            }
+            });
+            representer.getPropertyUtils().setSkipMissingProperties(true);
+            return new Yaml(representer).loadAs(inputStream, ToolsVersion.class);
         });
-        representer.getPropertyUtils().setSkipMissingProperties(true);
-
-        return new Yaml(representer).loadAs(execute.bodyStream(), ToolsVersion.class);
     }
 
     @Override
     public PluginSpecBean toolsScene(String toolsName, String version, String sceneFileName) {
-        HttpRequest request = HttpUtil.createGet(
-                String.format("https://chaosblade.oss-cn-hangzhou.aliyuncs.com/platform/market/chaostools/%s/%s/%s", toolsName, version, sceneFileName));
-        HttpResponse execute = request.execute();
-        Representer representer = new Representer();
-        representer.getPropertyUtils().setSkipMissingProperties(true);
-        return new Yaml(representer).loadAs(execute.bodyStream(), PluginSpecBean.class);
+        return toolsCatalog.get(String.format("%s/%s/%s", toolsName, version, sceneFileName), PluginSpecBean.class, inputStream -> {
+            Representer representer = new Representer();
+            representer.getPropertyUtils().setSkipMissingProperties(true);
+            return new Yaml(representer).loadAs(inputStream, PluginSpecBean.class);
+        });
+    }
+
+    @Override
+    public PluginSpecBean toolsScene(String toolsName, String version, String sceneFileName, Consumer<ModelSpecBean> consumer) {
+        return PluginSpecReader.read(new ByteArrayInputStream(toolsSceneContent(toolsName, version, sceneFileName)), consumer);
+    }
+
+    @Override
+    public byte[] toolsSceneContent(String toolsName, String version, String sceneFileName) {
+        return toolsCatalog.getContent(String.format("%s/%s/%s", toolsName, version, sceneFileName));
+    }
+
+    @Override
+    public byte[] toolsFile(String path) {
+        return toolsCatalog.getContent(path);
     }
 }
@@ -22,20 +22,25 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import ch.qos.logback.core.status.InfoStatus;
 import ch.qos.logback.core.status.StatusManager;
-import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.util.ArrayUtil;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
-import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskLogRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
+ * Hands the events of {@code @TaskLogRecord} classes to the shared {@link TaskLogWriter},
+ * the task id is read from MDC key {@link #MDC_TASK_ID}.
+ *
  * @author yefei
  */
 @Slf4j
 public class DBLoggerAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
 
+    public final static String MDC_TASK_ID = "taskId";
+
     private final static String LONGS_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS}, %green(%-5level), %red([%thread]) %boldMagenta(%logger{72}) - %msg%n";
 
     private final static String APPENDER_NAME = "DBLoggerAppender";
@@ -50,34 +55,61 @@ public class DBLoggerAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
         encoder.start();
     }
 
-    private static ApplicationContext applicationContext;
+    private static volatile TaskLogWriter writer;
+
+    private static volatile Consumer<List<ExperimentTaskLogDO>> listener;
 
     @Override
     public void append(ILoggingEvent iLoggingEvent) {
-        String message = new String(encoder.encode(iLoggingEvent));
-
-        ExperimentTaskLogRepository logRepository = applicationContext.getBean(ExperimentTaskLogRepository.class);
-        if (logRepository == null) {
-            log.warn("record experiment task id fail");
+        // message, MDC and thread name are captured here, encoding is left to the writer
+        TaskLogWriter w = writer;
+        if (w == null) {
+            return;
         }
+        iLoggingEvent.prepareForDeferredProcessing();
+        w.offer(iLoggingEvent);
+    }
 
-        Long taskId = null;
-        Object[] argumentArray = iLoggingEvent.getArgumentArray();
-        if (ArrayUtil.isNotEmpty(argumentArray)) {
-            if (argumentArray[0] instanceof Long) {
-                taskId = (Long) argumentArray[0];
-            }
+    @Override
+    public void stop() {
+        super.stop();
+        TaskLogWriter w = writer;
+        if (w != null) {
+            w.stop();
         }
-        // insert db
-        logRepository.insert(ExperimentTaskLogDO.builder()
-                .taskId(taskId)
-                .logDate(DateUtil.date())
-                .content(message)
-                .build());
+    }
+
+    /**
+     * notified on the writer thread with every batch written
+     */
+    public static void setListener(Consumer<List<ExperimentTaskLogDO>> listener) {
+        DBLoggerAppender.listener = listener;
+    }
+
+    static Consumer<List<ExperimentTaskLogDO>> getListener() {
+        return listener;
+    }
+
+    public static long getDroppedCount() {
+        TaskLogWriter w = writer;
+        return w == null ? 0 : w.getDropped();
+    }
+
+    public static long getWrittenCount() {
+        TaskLogWriter w = writer;
+        return w == null ? 0 : w.getWritten();
     }
 
     public static void configure(LoggerContext lc, Class<?> clazz, ApplicationContext applicationContext) {
-        DBLoggerAppender.applicationContext = applicationContext;
+        if (writer == null) {
+            synchronized (DBLoggerAppender.class) {
+                if (writer == null) {
+                    TaskLogWriter w = new TaskLogWriter(encoder, applicationContext);
+                    w.start();
+                    writer = w;
+                }
+            }
+        }
 
         StatusManager sm = lc.getStatusManager();
         if (sm != null) {
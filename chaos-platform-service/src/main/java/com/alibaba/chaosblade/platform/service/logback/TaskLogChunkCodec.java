@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.AnyThrow;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogChunkDO;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip of (count, [id, log date, content length, content]...), lines in log id order
+ *
+ * @author yefei
+ */
+public class TaskLogChunkCodec {
+
+    public static ExperimentTaskLogChunkDO encode(Long taskId, List<ExperimentTaskLogDO> logs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(logs.size());
+            for (ExperimentTaskLogDO log : logs) {
+                byte[] content = log.getContent().getBytes(StandardCharsets.UTF_8);
+                out.writeLong(log.getId());
+                out.writeLong(log.getLogDate() == null ? 0L : log.getLogDate().getTime());
+                out.writeInt(content.length);
+                out.write(content);
+            }
+        } catch (IOException e) {
+            AnyThrow.throwUnchecked(e);
+        }
+        return ExperimentTaskLogChunkDO.builder()
+                .taskId(taskId)
+                .firstLogId(logs.get(0).getId())
+                .lastLogId(logs.get(logs.size() - 1).getId())
+                .lineCount(logs.size())
+                .content(bytes.toByteArray())
+                .build();
+    }
+
+    public static List<ExperimentTaskLogDO> decode(ExperimentTaskLogChunkDO chunk) {
+        List<ExperimentTaskLogDO> logs = new ArrayList<>(chunk.getLineCount());
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(chunk.getContent())))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long logDate = in.readLong();
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                ExperimentTaskLogDO log = ExperimentTaskLogDO.builder()
+                        .taskId(chunk.getTaskId())
+                        .logDate(new Date(logDate))
+                        .content(new String(content, StandardCharsets.UTF_8))
+                        .build();
+                log.setId(id);
+                logs.add(log);
+            }
+        } catch (IOException e) {
+            AnyThrow.throwUnchecked(e);
+        }
+        return logs;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import cn.hutool.core.date.DateField;
+import cn.hutool.core.date.DateUtil;
+import com.alibaba.chaosblade.platform.cmmon.enums.RunStatus;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskLogChunkRepository;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskLogRepository;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the log rows of finished tasks into compressed chunks. A chunk is inserted before
+ * its rows are deleted and readers skip rows already covered by a chunk, so an interrupted
+ * round only leaves rows to be picked up by the next one.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class TaskLogCompactor implements InitializingBean, DisposableBean {
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Autowired
+    private ExperimentTaskLogRepository experimentTaskLogRepository;
+
+    @Autowired
+    private ExperimentTaskLogChunkRepository experimentTaskLogChunkRepository;
+
+    @Value("${chaos.task-log.compact.enable:true}")
+    private boolean enable;
+
+    @Value("${chaos.task-log.compact.period:60}")
+    private int period;
+
+    @Value("${chaos.task-log.compact.delay:60}")
+    private int delay;
+
+    @Value("${chaos.task-log.compact.chunk-size:1000}")
+    private int chunkSize;
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enable) {
+            return;
+        }
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("TASK-LOG-COMPACTOR");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void schedule() {
+        timerFactory.getTimer().newTimeout(timeout -> executorService.execute(() -> {
+            try {
+                List<Long> taskIds = experimentTaskLogRepository.selectCompactableTaskIds(RunStatus.FINISHED.getValue(),
+                        DateUtil.date().offset(DateField.SECOND, -delay), 100);
+                taskIds.forEach(this::compact);
+            } catch (Exception e) {
+                log.error("compact experiment task log fail!", e);
+            }
+            schedule();
+        }), period, TimeUnit.SECONDS);
+    }
+
+    public void compact(Long taskId) {
+        long lastLogId = experimentTaskLogChunkRepository.selectLastLogId(taskId);
+        int lines = 0;
+        int chunks = 0;
+        List<ExperimentTaskLogDO> logs;
+        do {
+            logs = experimentTaskLogRepository.selectByTaskId(taskId, lastLogId, chunkSize, false);
+            if (logs.isEmpty()) {
+                break;
+            }
+            experimentTaskLogChunkRepository.insert(TaskLogChunkCodec.encode(taskId, logs));
+            lastLogId = logs.get(logs.size() - 1).getId();
+            experimentTaskLogRepository.deleteByTaskId(taskId, lastLogId);
+            lines += logs.size();
+            chunks++;
+        } while (logs.size() == chunkSize);
+
+        // rows left behind by an interrupted round
+        experimentTaskLogRepository.deleteByTaskId(taskId, lastLogId);
+        log.info("compact experiment task log, task ID: {}, lines: {}, chunks: {}", taskId, lines, chunks);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Carries the MDC of the registering thread, and with it the task id read by
+ * {@link DBLoggerAppender}, into callbacks completed on other threads.
+ *
+ * @author yefei
+ */
+public final class TaskLogContext {
+
+    private TaskLogContext() {
+    }
+
+    /**
+     * runs with the task id in MDC, the previous MDC is restored afterwards
+     */
+    public static void run(Long taskId, Runnable runnable) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        MDC.put(DBLoggerAppender.MDC_TASK_ID, String.valueOf(taskId));
+        try {
+            runnable.run();
+        } finally {
+            setContextMap(previous);
+        }
+    }
+
+    public static Runnable wrap(Runnable runnable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> call(context, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public static <T, U, R> BiFunction<T, U, R> wrap(BiFunction<T, U, R> function) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return (t, u) -> call(context, () -> function.apply(t, u));
+    }
+
+    public static <T, U> BiConsumer<T, U> wrap(BiConsumer<T, U> consumer) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return (t, u) -> call(context, () -> {
+            consumer.accept(t, u);
+            return null;
+        });
+    }
+
+    private static <R> R call(Map<String, String> context, Supplier<R> supplier) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        setContextMap(context);
+        try {
+            return supplier.get();
+        } finally {
+            setContextMap(previous);
+        }
+    }
+
+    private static void setContextMap(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
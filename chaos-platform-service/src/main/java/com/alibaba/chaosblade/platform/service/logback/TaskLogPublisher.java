@@ -0,0 +1,230 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import com.alibaba.chaosblade.platform.cmmon.enums.RunStatus;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fans the written task log batches out to the subscribers of each task. Every subscriber
+ * has a bounded queue drained in write order on a small pool, so a slow client never holds
+ * up the writer or the other clients; a subscriber whose queue overflows is dropped.
+ *
+ * <p>Once a task is updated to {@link RunStatus#FINISHED} its subscribers are told so after
+ * one more flush interval of the writer, behind the batches already queued.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class TaskLogPublisher implements InitializingBean, DisposableBean {
+
+    public interface Subscriber {
+
+        void onLogs(List<ExperimentTaskLogDO> logs);
+
+        /**
+         * the task finished, lines written since the last batch are read back from the table
+         */
+        void onFinished();
+
+        /**
+         * dropped by the publisher, the client has to resume from its cursor
+         */
+        void onOverflow();
+    }
+
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Value("${chaos.task-log.publisher.threads:2}")
+    private int threads;
+
+    @Value("${chaos.task-log.publisher.queue-size:64}")
+    private int queueSize;
+
+    @Value("${chaos.task-log.flush-interval:200}")
+    private long flushInterval;
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        AtomicInteger index = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r);
+            thread.setName("TASK-LOG-PUBLISHER-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        DBLoggerAppender.setListener(this::publish);
+    }
+
+    @Override
+    public void destroy() {
+        DBLoggerAppender.setListener(null);
+        executorService.shutdownNow();
+    }
+
+    /**
+     * @return unsubscribe action
+     */
+    public Runnable subscribe(Long taskId, Subscriber subscriber) {
+        Subscription subscription = new Subscription(taskId, subscriber);
+        subscribers.computeIfAbsent(taskId, k -> new CopyOnWriteArraySet<>()).add(subscription);
+        return subscription::close;
+    }
+
+    @EventListener
+    public void onWrite(RepositoryWriteEvent event) {
+        if (event.getType() != ExperimentTaskDO.class) {
+            return;
+        }
+        List<Long> finished = event.getRows().stream()
+                .map(row -> (ExperimentTaskDO) row)
+                .filter(task -> task.getRunStatus() != null && task.getRunStatus() == RunStatus.FINISHED.getValue())
+                .map(ExperimentTaskDO::getId)
+                .filter(subscribers::containsKey)
+                .collect(Collectors.toList());
+        if (finished.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    finish(finished);
+                }
+            });
+        } else {
+            finish(finished);
+        }
+    }
+
+    private void finish(List<Long> taskIds) {
+        // lines logged just before the update may still wait in the writer
+        timerFactory.getTimer().newTimeout(timeout -> taskIds.forEach(taskId -> {
+            Set<Subscription> set = subscribers.get(taskId);
+            if (set != null) {
+                set.forEach(subscription -> subscription.offer(subscription.subscriber::onFinished));
+            }
+        }), flushInterval * 2, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish(List<ExperimentTaskLogDO> logs) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ExperimentTaskLogDO>> byTask = logs.stream()
+                .filter(log -> log.getTaskId() != null && subscribers.containsKey(log.getTaskId()))
+                .collect(Collectors.groupingBy(ExperimentTaskLogDO::getTaskId));
+        byTask.forEach((taskId, taskLogs) -> {
+            Set<Subscription> set = subscribers.get(taskId);
+            if (set != null) {
+                set.forEach(subscription -> subscription.offer(() -> subscription.subscriber.onLogs(taskLogs)));
+            }
+        });
+    }
+
+    private class Subscription {
+
+        private final Long taskId;
+
+        private final Subscriber subscriber;
+
+        private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueSize);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        Subscription(Long taskId, Subscriber subscriber) {
+            this.taskId = taskId;
+            this.subscriber = subscriber;
+        }
+
+        void offer(Runnable delivery) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(delivery)) {
+                log.warn("experiment task log subscriber overflow, task ID: {}, queue size: {}", taskId, queueSize);
+                close();
+                queue.clear();
+                executorService.execute(() -> deliver(subscriber::onOverflow));
+                return;
+            }
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.computeIfPresent(taskId, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executorService.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Runnable delivery;
+            while (!closed && (delivery = queue.poll()) != null) {
+                deliver(delivery);
+            }
+            scheduled.set(false);
+            // an offer may have seen the flag still set
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void deliver(Runnable delivery) {
+            try {
+                delivery.run();
+            } catch (Exception e) {
+                log.warn("publish experiment task log fail, task ID: {}, error: {}", taskId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Background writer of the experiment task log, events are taken from the ring buffer
+ * and written with one multi-row insert when the batch is full or the flush interval passed.
+ * Events without a numeric task id in MDC belong to no task and are not kept.
+ *
+ * @author yefei
+ */
+@Slf4j
+class TaskLogWriter implements Runnable {
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RingBuffer<ILoggingEvent> ringBuffer;
+
+    private final PatternLayoutEncoder encoder;
+
+    private final ApplicationContext applicationContext;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final boolean block;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    private volatile boolean waiting;
+
+    private ExperimentTaskLogRepository logRepository;
+
+    private Thread thread;
+
+    TaskLogWriter(PatternLayoutEncoder encoder, ApplicationContext applicationContext) {
+        this.encoder = encoder;
+        this.applicationContext = applicationContext;
+        this.ringBuffer = new RingBuffer<>(applicationContext.getEnvironment()
+                .getProperty("chaos.task-log.buffer-size", Integer.class, 8192));
+        this.batchSize = applicationContext.getEnvironment()
+                .getProperty("chaos.task-log.batch-size", Integer.class, 200);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(applicationContext.getEnvironment()
+                .getProperty("chaos.task-log.flush-interval", Long.class, 200L));
+        this.block = "block".equalsIgnoreCase(applicationContext.getEnvironment()
+                .getProperty("chaos.task-log.overflow", "drop"));
+    }
+
+    void start() {
+        thread = new Thread(this);
+        thread.setName("TASK-LOG-WRITER");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void offer(ILoggingEvent event) {
+        if (taskId(event) == null) {
+            return;
+        }
+        if (ringBuffer.offer(event)) {
+            signal();
+            return;
+        }
+        if (!block) {
+            dropped.incrementAndGet();
+            return;
+        }
+        while (running && !ringBuffer.offer(event)) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        signal();
+    }
+
+    private void signal() {
+        if (waiting) {
+            waiting = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * parks until an offer signals or the timeout passed, the buffer is checked again after
+     * the flag is raised so that an offer racing with it is not missed
+     */
+    private void await(long nanos) {
+        waiting = true;
+        if (ringBuffer.isEmpty() && running) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        waiting = false;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getWritten() {
+        return written.get();
+    }
+
+    @Override
+    public void run() {
+        List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+        long firstAt = 0;
+        long reportedDropped = 0;
+        while (running) {
+            int n = ringBuffer.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty() && firstAt == 0) {
+                firstAt = System.nanoTime();
+            }
+            if (batch.size() >= batchSize
+                    || (!batch.isEmpty() && System.nanoTime() - firstAt >= flushIntervalNanos)) {
+                flush(batch);
+                firstAt = 0;
+            } else if (n == 0) {
+                // idle until the next offer, or until the pending batch is due
+                await(batch.isEmpty() ? IDLE_WAIT_NANOS : firstAt + flushIntervalNanos - System.nanoTime());
+            }
+
+            long d = dropped.get();
+            if (d != reportedDropped) {
+                log.warn("experiment task log buffer overflow, dropped: {}", d);
+                reportedDropped = d;
+            }
+        }
+        while (ringBuffer.drainTo(batch, batchSize - batch.size()) > 0 || !batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<ILoggingEvent> batch) {
+        List<ExperimentTaskLogDO> logs = new ArrayList<>(batch.size());
+        for (ILoggingEvent event : batch) {
+            logs.add(ExperimentTaskLogDO.builder()
+                    .taskId(taskId(event))
+                    .logDate(new Date(event.getTimeStamp()))
+                    .content(new String(encoder.encode(event)))
+                    .build());
+        }
+        batch.clear();
+        try {
+            if (logRepository == null) {
+                logRepository = applicationContext.getBean(ExperimentTaskLogRepository.class);
+            }
+            logRepository.insertBatch(logs);
+            written.addAndGet(logs.size());
+        } catch (Exception e) {
+            log.warn("write experiment task log fail, size: {}, error: {}", logs.size(), e.getMessage());
+            return;
+        }
+        Consumer<List<ExperimentTaskLogDO>> listener = DBLoggerAppender.getListener();
+        if (listener != null) {
+            try {
+                listener.accept(logs);
+            } catch (Exception e) {
+                log.warn("notify experiment task log fail, error: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the task id set into MDC by {@link TaskLogContext}, or null if it is missing or
+     * not a number
+     */
+    static Long taskId(ILoggingEvent event) {
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc == null) {
+            return null;
+        }
+        String taskId = mdc.get(DBLoggerAppender.MDC_TASK_ID);
+        if (StrUtil.isBlank(taskId)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(taskId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
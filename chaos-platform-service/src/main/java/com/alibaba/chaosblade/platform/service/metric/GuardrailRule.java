@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Aggregation;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Steady state rule of a metric, e.g. {@code p95(cpu) > 90% for 30s}.
+ *
+ * <p>The rule breaches when the aggregation over the last {@code duration} of one series
+ * compares true with the threshold. The name in parentheses is only a label, the rule applies
+ * to every series of the metric it is declared on, and the threshold is in the unit of the
+ * metric, a trailing {@code %} is ignored. Without {@code for} a single sample breaches.
+ *
+ * @author yefei
+ */
+@Getter
+public class GuardrailRule {
+
+    private final static Pattern PATTERN = Pattern.compile(
+            "^\\s*(min|max|avg|p95)\\s*(?:\\([^)]*\\))?\\s*(>=|<=|>|<)\\s*(-?\\d+(?:\\.\\d+)?)\\s*%?"
+                    + "\\s*(?:for\\s+(\\d+)\\s*(s|m)?)?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String expression;
+
+    private final Aggregation aggregation;
+
+    private final Operator operator;
+
+    private final double threshold;
+
+    /**
+     * milliseconds
+     */
+    private final long duration;
+
+    private GuardrailRule(String expression, Aggregation aggregation, Operator operator, double threshold, long duration) {
+        this.expression = expression;
+        this.aggregation = aggregation;
+        this.operator = operator;
+        this.threshold = threshold;
+        this.duration = duration;
+    }
+
+    public static GuardrailRule parse(String expression) {
+        Matcher matcher = PATTERN.matcher(expression == null ? "" : expression);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("illegal guardrail rule: " + expression);
+        }
+        long duration = 0;
+        if (matcher.group(4) != null) {
+            duration = "m".equalsIgnoreCase(matcher.group(5))
+                    ? TimeUnit.MINUTES.toMillis(Long.parseLong(matcher.group(4)))
+                    : TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(4)));
+        }
+        return new GuardrailRule(expression.trim(),
+                Aggregation.parse(matcher.group(1)),
+                Operator.parse(matcher.group(2)),
+                Double.parseDouble(matcher.group(3)),
+                duration);
+    }
+
+    /**
+     * false for NaN
+     */
+    public boolean breached(double value) {
+        return operator.test(value, threshold);
+    }
+
+    public enum Operator {
+
+        GT(">"),
+
+        GE(">="),
+
+        LT("<"),
+
+        LE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator parse(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("illegal operator: " + symbol);
+        }
+
+        boolean test(double value, double threshold) {
+            switch (this) {
+                case GT:
+                    return value > threshold;
+                case GE:
+                    return value >= threshold;
+                case LT:
+                    return value < threshold;
+                default:
+                    return value <= threshold;
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.GorillaDecoder;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.GorillaEncoder;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+import com.alibaba.chaosblade.platform.dao.model.MetricChunkDO;
+import com.alibaba.chaosblade.platform.dao.repository.MetricChunkRepository;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Chunked time series store of experiment metrics, one gorilla encoded blob row per chunk
+ * of {@code chaos.metric.chunk-size} samples.
+ *
+ * <p>The head chunk of every series is kept in memory; a full head is written sealed and a
+ * new one started, an open head is written every {@code chaos.metric.chunk-flush-interval}
+ * seconds if it changed, so a restart loses at most one interval. Queries merge the unwritten
+ * heads in and see the live edge. Heads of a finished task are written and dropped by {@link #seal(Long)}.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class MetricChunkStore implements InitializingBean, DisposableBean {
+
+    @Autowired
+    private MetricChunkRepository metricChunkRepository;
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Value("${chaos.metric.chunk-size:120}")
+    private int chunkSize;
+
+    @Value("${chaos.metric.chunk-flush-interval:30}")
+    private int flushInterval;
+
+    private final Map<SeriesKey, Head> heads = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("METRIC-CHUNK-FLUSH");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+        flush();
+    }
+
+    private void schedule() {
+        timerFactory.getTimer().newTimeout(timeout -> executorService.execute(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("flush metric chunks fail!", e);
+            }
+            schedule();
+        }), flushInterval, TimeUnit.SECONDS);
+    }
+
+    public void append(MetricSeries series) {
+        Samples samples = series.getSamples();
+        if (samples == null || samples.isEmpty()) {
+            return;
+        }
+        SeriesKey key = new SeriesKey(series.getTaskId(), series.getDeviceId(), series.getCategoryCode(), series.getMetric());
+        Head head = heads.computeIfAbsent(key, k -> loadHead(series));
+        synchronized (head) {
+            for (int i = 0; i < samples.size(); i++) {
+                long timestamp = samples.timestamp(i);
+                if (timestamp <= head.lastTimestamp) {
+                    continue;
+                }
+                if (head.encoder.size() >= chunkSize) {
+                    write(head, true);
+                    head.id = null;
+                    head.encoder = new GorillaEncoder();
+                }
+                head.encoder.append(timestamp, samples.value(i));
+                head.lastTimestamp = timestamp;
+                head.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * series of the task overlapping [startTime, endTime], either bound may be null
+     */
+    public List<MetricSeries> select(Long taskId, String categoryCode, Long deviceId, Date startTime, Date endTime) {
+        Map<SeriesKey, MetricSeries> series = new LinkedHashMap<>();
+        for (MetricChunkDO chunk : metricChunkRepository.selectByTaskId(taskId, categoryCode, deviceId, startTime, endTime)) {
+            SeriesKey key = new SeriesKey(chunk.getTaskId(), chunk.getDeviceId(), chunk.getCategoryCode(), chunk.getMetric());
+            MetricSeries metricSeries = series.computeIfAbsent(key, k -> MetricSeries.builder()
+                    .taskId(chunk.getTaskId())
+                    .deviceId(chunk.getDeviceId())
+                    .ip(chunk.getIp())
+                    .hostname(chunk.getHostname())
+                    .categoryId(chunk.getCategoryId())
+                    .categoryCode(chunk.getCategoryCode())
+                    .metric(chunk.getMetric())
+                    .samples(new Samples(chunkSize))
+                    .build());
+            // a chunk started after a restart may overlap the sealed one before it
+            merge(metricSeries.getSamples(), GorillaDecoder.decode(chunk.getData()));
+        }
+
+        // heads not written yet, their stored rows if any hold a prefix of them
+        heads.forEach((key, head) -> {
+            if (!key.getTaskId().equals(taskId)
+                    || (categoryCode != null && !categoryCode.equals(key.getCategoryCode()))
+                    || (deviceId != null && !deviceId.equals(key.getDeviceId()))) {
+                return;
+            }
+            Samples decoded;
+            synchronized (head) {
+                if (!head.dirty) {
+                    return;
+                }
+                decoded = GorillaDecoder.decode(head.encoder.toByteArray());
+            }
+            MetricSeries metricSeries = series.computeIfAbsent(key, k -> describe(head.series, new Samples(chunkSize)));
+            merge(metricSeries.getSamples(), decoded);
+        });
+
+        if (startTime != null || endTime != null) {
+            long start = startTime == null ? Long.MIN_VALUE : startTime.getTime();
+            long end = endTime == null ? Long.MAX_VALUE : endTime.getTime();
+            series.values().forEach(s -> s.setSamples(s.getSamples().range(start, end)));
+        }
+        return new ArrayList<>(series.values());
+    }
+
+    /**
+     * stored chunks of the task in id order, {@code pageSize} at a time, each as a series of its
+     * own. Samples a chunk shares with an earlier chunk of its series are left out. Heads not
+     * written yet are not seen, the task is meant to be sealed.
+     */
+    public void scan(Long taskId, int pageSize, Consumer<MetricSeries> consumer) {
+        Map<SeriesKey, Long> lastTimestamps = new HashMap<>();
+        long lastId = 0;
+        List<MetricChunkDO> page;
+        do {
+            page = metricChunkRepository.selectByTaskIdAfterId(taskId, lastId, pageSize);
+            for (MetricChunkDO chunk : page) {
+                SeriesKey key = new SeriesKey(chunk.getTaskId(), chunk.getDeviceId(), chunk.getCategoryCode(), chunk.getMetric());
+                Samples samples = new Samples(chunkSize);
+                Long last = lastTimestamps.get(key);
+                Samples decoded = GorillaDecoder.decode(chunk.getData());
+                for (int i = 0; i < decoded.size(); i++) {
+                    if (last == null || decoded.timestamp(i) > last) {
+                        samples.add(decoded.timestamp(i), decoded.value(i));
+                    }
+                }
+                if (!samples.isEmpty()) {
+                    lastTimestamps.put(key, samples.lastTimestamp());
+                    consumer.accept(MetricSeries.builder()
+                            .taskId(chunk.getTaskId())
+                            .deviceId(chunk.getDeviceId())
+                            .ip(chunk.getIp())
+                            .hostname(chunk.getHostname())
+                            .categoryId(chunk.getCategoryId())
+                            .categoryCode(chunk.getCategoryCode())
+                            .metric(chunk.getMetric())
+                            .samples(samples)
+                            .build());
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    public boolean exists(Long taskId) {
+        return heads.keySet().stream().anyMatch(key -> key.getTaskId().equals(taskId))
+                || metricChunkRepository.countByTaskId(taskId) > 0;
+    }
+
+    /**
+     * last stored timestamp of every series of the task, by device id and metric
+     */
+    public Map<Long, Map<String, Long>> lastTimestamps(Long taskId, String categoryCode) {
+        Map<Long, Map<String, Long>> timestamps = new HashMap<>();
+        for (MetricChunkDO chunk : metricChunkRepository.selectLastEndTimes(taskId, categoryCode)) {
+            timestamps.computeIfAbsent(chunk.getDeviceId(), k -> new HashMap<>())
+                    .put(chunk.getMetric(), chunk.getEndTime().getTime());
+        }
+        heads.forEach((key, head) -> {
+            if (key.getTaskId().equals(taskId) && key.getCategoryCode().equals(categoryCode)) {
+                synchronized (head) {
+                    if (head.lastTimestamp != Long.MIN_VALUE) {
+                        timestamps.computeIfAbsent(key.getDeviceId(), k -> new HashMap<>())
+                                .merge(key.getMetric(), head.lastTimestamp, Math::max);
+                    }
+                }
+            }
+        });
+        return timestamps;
+    }
+
+    public void seal(Long taskId) {
+        Iterator<Map.Entry<SeriesKey, Head>> iterator = heads.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SeriesKey, Head> entry = iterator.next();
+            if (entry.getKey().getTaskId().equals(taskId)) {
+                iterator.remove();
+                Head head = entry.getValue();
+                synchronized (head) {
+                    if (head.dirty) {
+                        write(head, false);
+                    }
+                }
+            }
+        }
+        metricChunkRepository.sealByTaskId(taskId);
+    }
+
+    /**
+     * writes every changed head
+     */
+    void flush() {
+        heads.values().forEach(head -> {
+            synchronized (head) {
+                if (head.dirty) {
+                    try {
+                        write(head, false);
+                    } catch (Exception e) {
+                        log.warn("write metric chunk fail, task ID: {}, metric: {}, error: {}",
+                                head.series.getTaskId(), head.series.getMetric(), e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    private static MetricSeries describe(MetricSeries series, Samples samples) {
+        return MetricSeries.builder()
+                .taskId(series.getTaskId())
+                .deviceId(series.getDeviceId())
+                .ip(series.getIp())
+                .hostname(series.getHostname())
+                .categoryId(series.getCategoryId())
+                .categoryCode(series.getCategoryCode())
+                .metric(series.getMetric())
+                .samples(samples)
+                .build();
+    }
+
+    private static void merge(Samples samples, Samples decoded) {
+        for (int i = 0; i < decoded.size(); i++) {
+            if (samples.isEmpty() || decoded.timestamp(i) > samples.lastTimestamp()) {
+                samples.add(decoded.timestamp(i), decoded.value(i));
+            }
+        }
+    }
+
+    private Head loadHead(MetricSeries series) {
+        Head head = new Head();
+        head.series = describe(series, null);
+        head.encoder = new GorillaEncoder();
+        metricChunkRepository.selectHead(series.getTaskId(), series.getDeviceId(), series.getCategoryCode(), series.getMetric())
+                .ifPresent(chunk -> {
+                    Samples samples = GorillaDecoder.decode(chunk.getData());
+                    for (int i = 0; i < samples.size(); i++) {
+                        head.encoder.append(samples.timestamp(i), samples.value(i));
+                    }
+                    head.id = chunk.getId();
+                    head.lastTimestamp = head.encoder.size() > 0 ? head.encoder.lastTimestamp() : Long.MIN_VALUE;
+                });
+        return head;
+    }
+
+    private void write(Head head, boolean sealed) {
+        GorillaEncoder encoder = head.encoder;
+        MetricChunkDO chunk = MetricChunkDO.builder()
+                .startTime(new Date(encoder.firstTimestamp()))
+                .endTime(new Date(encoder.lastTimestamp()))
+                .sampleCount(encoder.size())
+                .sealed(sealed)
+                .data(encoder.toByteArray())
+                .build();
+        if (head.id == null) {
+            MetricSeries series = head.series;
+            chunk.setTaskId(series.getTaskId());
+            chunk.setDeviceId(series.getDeviceId());
+            chunk.setIp(series.getIp());
+            chunk.setHostname(series.getHostname());
+            chunk.setCategoryId(series.getCategoryId());
+            chunk.setCategoryCode(series.getCategoryCode());
+            chunk.setMetric(series.getMetric());
+            head.id = metricChunkRepository.insert(chunk);
+        } else {
+            metricChunkRepository.updateByPrimaryKey(head.id, chunk);
+        }
+        head.dirty = false;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class SeriesKey {
+        private Long taskId;
+        private Long deviceId;
+        private String categoryCode;
+        private String metric;
+    }
+
+    private static class Head {
+        Long id;
+        MetricSeries series;
+        GorillaEncoder encoder;
+        long lastTimestamp = Long.MIN_VALUE;
+        boolean dirty;
+    }
+}
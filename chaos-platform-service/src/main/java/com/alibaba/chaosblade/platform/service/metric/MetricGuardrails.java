@@ -0,0 +1,223 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.SlidingWindow;
+import com.alibaba.chaosblade.platform.dao.model.GuardrailBreachDO;
+import com.alibaba.chaosblade.platform.dao.repository.GuardrailBreachRepository;
+import com.alibaba.chaosblade.platform.service.ExperimentTaskService;
+import com.alibaba.chaosblade.platform.service.model.metric.MetricModel;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Evaluates the guardrail rules of running tasks on the samples delivered by {@link MetricPoller}.
+ *
+ * <p>Every rule keeps one {@link SlidingWindow} per series, sized by the rule duration and
+ * the poll step, and is checked on every new sample. The first breach of a task stops it and
+ * is recorded, the time it takes the task to finish recovering is filled in when the task is
+ * finished. Stopping and recording run in order on a thread of their own, so a slow stop
+ * never holds up the poller.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class MetricGuardrails implements InitializingBean, DisposableBean {
+
+    private final static int MAX_CAPACITY = 10_000;
+
+    @Lazy
+    @Autowired
+    private ExperimentTaskService experimentTaskService;
+
+    @Autowired
+    private GuardrailBreachRepository guardrailBreachRepository;
+
+    private final Map<Long, Guard> guards = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("METRIC-GUARDRAIL");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdown();
+    }
+
+    /**
+     * @param step poll step of the metric, milliseconds
+     */
+    public void register(Long taskId, MetricModel metricModel, long step, Logger logger) {
+        if (CollUtil.isEmpty(metricModel.getGuardrails())) {
+            return;
+        }
+        List<GuardrailRule> rules = new ArrayList<>();
+        for (String expression : metricModel.getGuardrails()) {
+            try {
+                rules.add(GuardrailRule.parse(expression));
+            } catch (IllegalArgumentException e) {
+                logger.error("稳态规则无效, 任务ID：{}, 规则：{}", taskId, expression);
+            }
+        }
+        if (rules.isEmpty()) {
+            return;
+        }
+        guards.computeIfAbsent(taskId, k -> new Guard(taskId, logger))
+                .metrics.put(metricModel.getCode(), new MetricRules(rules, Math.max(step, 1)));
+    }
+
+    /**
+     * checks the new samples of one series, stops the task on the first breach
+     */
+    public void accept(Long taskId, String categoryCode, Long deviceId, String metric, Samples samples) {
+        Guard guard = guards.get(taskId);
+        if (guard == null || samples.isEmpty()) {
+            return;
+        }
+        MetricRules metricRules = guard.metrics.get(categoryCode);
+        if (metricRules == null) {
+            return;
+        }
+        synchronized (guard) {
+            if (guard.breach != null) {
+                return;
+            }
+            for (int i = 0; i < metricRules.rules.size(); i++) {
+                GuardrailRule rule = metricRules.rules.get(i);
+                SlidingWindow window = metricRules.windows.computeIfAbsent(i + "/" + deviceId + "/" + metric,
+                        k -> new SlidingWindow(rule.getDuration(), capacity(rule.getDuration(), metricRules.step)));
+                for (int j = 0; j < samples.size(); j++) {
+                    window.add(samples.timestamp(j), samples.value(j));
+                    if (!window.covers()) {
+                        continue;
+                    }
+                    double value = window.aggregate(rule.getAggregation());
+                    if (rule.breached(value)) {
+                        breach(guard, rule, categoryCode, deviceId, metric, value, window.lastTimestamp());
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * forgets the task, recording its recovery if a guardrail stopped it
+     *
+     * @param recoverTime end of the task, now if null
+     */
+    public void finish(Long taskId, Date recoverTime) {
+        Guard guard = guards.remove(taskId);
+        if (guard == null || guard.breach == null) {
+            return;
+        }
+        Date end = recoverTime == null ? new Date() : recoverTime;
+        GuardrailBreachDO breach = guard.breach;
+        long recoverMillis = end.getTime() - breach.getBreachTime().getTime();
+        guard.logger.info("稳态规则触发后演练已恢复, 任务ID：{}, 规则：{}, 恢复耗时：{}ms", taskId, breach.getRule(), recoverMillis);
+        // after the insert queued by the breach
+        executorService.execute(() -> {
+            try {
+                guardrailBreachRepository.updateByPrimaryKey(breach.getId(), GuardrailBreachDO.builder()
+                        .recoverTime(end)
+                        .recoverMillis(recoverMillis)
+                        .build());
+            } catch (Exception e) {
+                log.error("update guardrail breach failed, taskId: {}", taskId, e);
+            }
+        });
+    }
+
+    private void breach(Guard guard, GuardrailRule rule, String categoryCode, Long deviceId, String metric,
+                        double value, long breachTime) {
+        GuardrailBreachDO breach = GuardrailBreachDO.builder()
+                .taskId(guard.taskId)
+                .categoryCode(categoryCode)
+                .deviceId(deviceId)
+                .metric(metric)
+                .rule(rule.getExpression())
+                .value(value)
+                .breachTime(new Date(breachTime))
+                .stopTime(new Date())
+                .build();
+        guard.breach = breach;
+        guard.logger.warn("稳态规则触发, 终止演练, 任务ID：{}, 规则：{}, 机器ID：{}, 指标：{}, 当前值：{}",
+                guard.taskId, rule.getExpression(), deviceId, metric, value);
+
+        executorService.execute(() -> {
+            // stop first, the record must not delay the abort
+            try {
+                experimentTaskService.stopExperimentTask(guard.taskId);
+            } catch (Exception e) {
+                guard.logger.warn("终止演练失败, 任务ID：{}, 异常: {}", guard.taskId, e.getMessage());
+            }
+            try {
+                guardrailBreachRepository.insert(breach);
+            } catch (Exception e) {
+                log.error("insert guardrail breach failed, taskId: {}", guard.taskId, e);
+            }
+        });
+    }
+
+    private int capacity(long duration, long step) {
+        return (int) Math.min(duration / step + 2, MAX_CAPACITY);
+    }
+
+    private static class Guard {
+        final Long taskId;
+        final Logger logger;
+        final Map<String, MetricRules> metrics = new ConcurrentHashMap<>();
+        volatile GuardrailBreachDO breach;
+
+        Guard(Long taskId, Logger logger) {
+            this.taskId = taskId;
+            this.logger = logger;
+        }
+    }
+
+    private static class MetricRules {
+        final List<GuardrailRule> rules;
+        final long step;
+        final Map<String, SlidingWindow> windows = new HashMap<>();
+
+        MetricRules(List<GuardrailRule> rules, long step) {
+            this.rules = rules;
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+import com.alibaba.chaosblade.platform.cmmon.enums.RunStatus;
+import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskRepository;
+import com.alibaba.chaosblade.platform.metric.MetricChartLine;
+import com.alibaba.chaosblade.platform.metric.MetricChartLineRequest;
+import com.alibaba.chaosblade.platform.metric.MetricChartLineResponse;
+import com.alibaba.chaosblade.platform.metric.MetricService;
+import com.alibaba.chaosblade.platform.service.ExperimentMiniFlowService;
+import com.alibaba.chaosblade.platform.service.model.metric.MetricModel;
+import com.alibaba.chaosblade.platform.service.task.ActivityTaskExecuteContext;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Polls the metrics of all running experiment tasks on one scheduler.
+ *
+ * <p>Every tick collects the subscriptions whose next window is complete and groups them by
+ * (category, params, step). Each group is one backend request over the union of its devices
+ * and of its pending windows, from the oldest watermark to the latest window end, and the
+ * result is fanned out to the subscriptions by device and cut to each window, so the same
+ * metric of the same host is fetched once however many tasks watch it, also while some of
+ * them catch up. At most {@code concurrency} requests are in flight per backend, a group
+ * without a permit waits for the next tick. Delivered samples are checked against the
+ * guardrails of the task right away, see {@link MetricGuardrails}.
+ *
+ * <p>A subscription resumes the series already stored for its task, and the metric models of
+ * tasks still running are subscribed again on startup, so a restart leaves no gap.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class MetricPoller implements InitializingBean, DisposableBean {
+
+    private final static String PARAM_URL = "url";
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Autowired
+    private MetricService metricService;
+
+    @Autowired
+    private MetricChunkStore metricChunkStore;
+
+    @Autowired
+    private MetricWatermarks metricWatermarks;
+
+    @Autowired
+    private MetricGuardrails metricGuardrails;
+
+    @Autowired
+    private ExperimentTaskRepository experimentTaskRepository;
+
+    @Autowired
+    private ExperimentMiniFlowService experimentMiniFlowService;
+
+    @Autowired
+    private ActivityTaskExecuteContext activityTaskExecuteContext;
+
+    @Value("${chaos.metric.poll.tick:1}")
+    private int tick;
+
+    @Value("${chaos.metric.poll.concurrency:4}")
+    private int concurrency;
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final Map<String, Semaphore> backends = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        AtomicInteger count = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(concurrency, 1), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("metric-poller-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.execute(this::resume);
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * polls the metric model for the devices of the task until the task is finished
+     */
+    public void subscribe(Long taskId, MetricModel metricModel, List<DeviceMeta> devices, Logger logger) {
+        MetricWatermark watermark = metricWatermarks.register(taskId, metricModel.getCode(), metricModel.getParams(),
+                System.currentTimeMillis());
+        metricChunkStore.lastTimestamps(taskId, metricModel.getCode()).forEach((deviceId, metrics) ->
+                metrics.forEach((metric, last) -> watermark.resume(deviceId, metric, last)));
+        metricGuardrails.register(taskId, metricModel, watermark.getStep(), logger);
+        subscriptions.put(key(taskId, metricModel.getCode()), new Subscription(taskId, metricModel, devices, logger, watermark));
+    }
+
+    /**
+     * stops polling the task and seals its series
+     */
+    public void unsubscribe(Long taskId) {
+        metricGuardrails.finish(taskId, null);
+        subscriptions.values().removeIf(subscription -> {
+            if (subscription.taskId.equals(taskId)) {
+                metricWatermarks.remove(taskId, subscription.metricModel.getCode());
+                return true;
+            }
+            return false;
+        });
+        metricChunkStore.seal(taskId);
+    }
+
+    /**
+     * subscribes the metric models of the tasks left running by the previous run
+     */
+    private void resume() {
+        for (ExperimentTaskDO task : experimentTaskRepository.selectByRunStatus(RunStatus.RUNNING.getValue())) {
+            if (StrUtil.isBlank(task.getMetric())) {
+                continue;
+            }
+            try {
+                List<MetricModel> metricModels = JsonUtils.readValue(new TypeReference<List<MetricModel>>() {
+                }, task.getMetric());
+                List<DeviceMeta> devices = experimentMiniFlowService.selectExperimentDevice(task.getExperimentId());
+                Logger logger = activityTaskExecuteContext.getContextLogger();
+                for (MetricModel metricModel : metricModels) {
+                    if (!subscriptions.containsKey(key(task.getId(), metricModel.getCode()))) {
+                        subscribe(task.getId(), metricModel, devices, logger);
+                    }
+                }
+                log.info("resume metric polling, task ID: {}, metrics: {}", task.getId(), metricModels.size());
+            } catch (Exception e) {
+                log.warn("resume metric polling fail, task ID: {}, error: {}", task.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void schedule() {
+        timerFactory.getTimer().newTimeout(timeout -> executorService.execute(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                log.error("metric poll failed", e);
+            } finally {
+                schedule();
+            }
+        }), tick, TimeUnit.SECONDS);
+    }
+
+    private void poll() {
+        long now = System.currentTimeMillis();
+        List<Subscription> due = subscriptions.values().stream()
+                .filter(subscription -> !subscription.inFlight)
+                .filter(subscription -> subscription.watermark.nextWindow(now) != null)
+                .collect(Collectors.toList());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // one status lookup for every task about to be polled
+        Set<Long> taskIds = due.stream().map(subscription -> subscription.taskId).collect(Collectors.toSet());
+        Map<Long, ExperimentTaskDO> tasks = experimentTaskRepository.selectByIds(taskIds).stream()
+                .collect(Collectors.toMap(ExperimentTaskDO::getId, t -> t));
+        for (Long taskId : taskIds) {
+            ExperimentTaskDO task = tasks.get(taskId);
+            if (task == null || RunStatus.parse(task.getRunStatus()) == RunStatus.FINISHED) {
+                metricGuardrails.finish(taskId, task == null ? null : task.getGmtEnd());
+                unsubscribe(taskId);
+            }
+        }
+
+        Map<QueryKey, Query> queries = new LinkedHashMap<>();
+        for (Subscription subscription : due) {
+            if (!subscriptions.containsKey(key(subscription.taskId, subscription.metricModel.getCode()))) {
+                continue;
+            }
+            long[] window = subscription.watermark.nextWindow(now);
+            if (window == null) {
+                continue;
+            }
+            subscription.window = window;
+            QueryKey queryKey = new QueryKey(subscription.metricModel.getCode(), subscription.metricModel.getParams(),
+                    subscription.watermark.getStep());
+            Query query = queries.computeIfAbsent(queryKey, k -> new Query(window[0], window[1]));
+            query.start = Math.min(query.start, window[0]);
+            query.end = Math.max(query.end, window[1]);
+            for (DeviceMeta device : subscription.devices) {
+                query.devices.putIfAbsent(deviceKey(device), device);
+            }
+            query.subscriptions.add(subscription);
+        }
+
+        queries.forEach(this::execute);
+    }
+
+    private void execute(QueryKey queryKey, Query query) {
+        Semaphore permits = backends.computeIfAbsent(backend(queryKey), k -> new Semaphore(concurrency));
+        if (!permits.tryAcquire()) {
+            return;
+        }
+        query.subscriptions.forEach(subscription -> subscription.inFlight = true);
+
+        CompletableFuture<List<MetricChartLineResponse>> future;
+        try {
+            future = metricService.selectChartLine(MetricChartLineRequest.builder()
+                    .devices(new ArrayList<>(query.devices.values()))
+                    .startTime(new Date(query.start))
+                    .endTime(new Date(query.end))
+                    .step(queryKey.step / 1000)
+                    .categoryCode(queryKey.categoryCode)
+                    .params(queryKey.params)
+                    .build());
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenCompleteAsync((r, e) -> {
+            permits.release();
+            for (Subscription subscription : query.subscriptions) {
+                try {
+                    if (e != null) {
+                        subscription.logger.error("获取监控数据失败, 任务ID：{}, 机器信息：{}, 异常: {}",
+                                subscription.taskId,
+                                JsonUtils.writeValueAsString(subscription.devices),
+                                e.getMessage());
+                    } else {
+                        deliver(subscription, r);
+                    }
+                } catch (Exception ex) {
+                    subscription.logger.error("保存监控数据失败, 任务ID：{}, 异常: {}", subscription.taskId, ex.getMessage());
+                } finally {
+                    subscription.inFlight = false;
+                }
+            }
+        }, executorService);
+    }
+
+    private void deliver(Subscription subscription, List<MetricChartLineResponse> responses) {
+        if (subscriptions.get(key(subscription.taskId, subscription.metricModel.getCode())) != subscription) {
+            // unsubscribed and sealed meanwhile
+            return;
+        }
+        long[] window = subscription.window;
+        Set<String> devices = subscription.devices.stream().map(this::deviceKey).collect(Collectors.toSet());
+        for (MetricChartLineResponse response : responses) {
+            DeviceMeta device = response.getDeviceMeta();
+            if (device == null || !devices.contains(deviceKey(device))) {
+                continue;
+            }
+            // a coalesced query may span more than this subscription's window
+            Samples samples = subscription.watermark.accept(device.getDeviceId(), response.getMetric(),
+                    (response.getSamples() != null ? response.getSamples() : toSamples(response.getMetricChartLines()))
+                            .range(window[0] + 1, window[1]));
+            metricChunkStore.append(MetricSeries.builder()
+                    .taskId(subscription.taskId)
+                    .deviceId(device.getDeviceId())
+                    .ip(device.getIp())
+                    .hostname(device.getHostname())
+                    .categoryId(subscription.metricModel.getCategoryId())
+                    .categoryCode(subscription.metricModel.getCode())
+                    .metric(response.getMetric())
+                    .samples(samples)
+                    .build());
+            metricGuardrails.accept(subscription.taskId, subscription.metricModel.getCode(), device.getDeviceId(),
+                    response.getMetric(), samples);
+        }
+        subscription.watermark.advance(window[1]);
+    }
+
+    private Samples toSamples(List<MetricChartLine> metricChartLines) {
+        if (metricChartLines == null) {
+            return new Samples(0);
+        }
+        Samples samples = new Samples(metricChartLines.size());
+        for (MetricChartLine metricChartLine : metricChartLines) {
+            try {
+                samples.add(metricChartLine.getTime().getTime(), Double.parseDouble(metricChartLine.getValue()));
+            } catch (NumberFormatException | NullPointerException ignored) {
+                // not a sample
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * metric source plus endpoint, e.g. {@code prometheus@http://...}
+     */
+    private String backend(QueryKey queryKey) {
+        String[] split = queryKey.categoryCode.split("[.]");
+        String source = split.length > 1 ? split[1] : queryKey.categoryCode;
+        String url = queryKey.params == null ? null : queryKey.params.get(PARAM_URL);
+        return url == null ? source : source + "@" + url;
+    }
+
+    private String deviceKey(DeviceMeta device) {
+        return device.getDeviceId() != null ? String.valueOf(device.getDeviceId()) : device.getIp();
+    }
+
+    private String key(Long taskId, String categoryCode) {
+        return taskId + "/" + categoryCode;
+    }
+
+    private static class Subscription {
+        final Long taskId;
+        final MetricModel metricModel;
+        final List<DeviceMeta> devices;
+        final Logger logger;
+        final MetricWatermark watermark;
+        volatile boolean inFlight;
+        volatile long[] window;
+
+        Subscription(Long taskId, MetricModel metricModel, List<DeviceMeta> devices, Logger logger, MetricWatermark watermark) {
+            this.taskId = taskId;
+            this.metricModel = metricModel;
+            this.devices = devices;
+            this.logger = logger;
+            this.watermark = watermark;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class QueryKey {
+        private String categoryCode;
+        private Map<String, String> params;
+        private long step;
+    }
+
+    private static class Query {
+        long start;
+        long end;
+        final Map<String, DeviceMeta> devices = new LinkedHashMap<>();
+        final List<Subscription> subscriptions = new ArrayList<>();
+
+        Query(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateField;
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.NumberUtil;
+import com.alibaba.chaosblade.platform.cmmon.enums.RunStatus;
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupDO;
+import com.alibaba.chaosblade.platform.dao.model.MetricTaskDO;
+import com.alibaba.chaosblade.platform.dao.repository.MetricChunkRepository;
+import com.alibaba.chaosblade.platform.dao.repository.MetricRollupRepository;
+import com.alibaba.chaosblade.platform.dao.repository.MetricRollupTaskRepository;
+import com.alibaba.chaosblade.platform.dao.repository.MetricTaskRepository;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolls the metrics of finished tasks up into 1 minute and 10 minute buckets and expires
+ * old samples.
+ *
+ * <p>Each round rolls up at most {@code tasks-per-round} tasks in id order, reading chunks and
+ * raw rows {@code page-size} at a time. A task's rollups are rewritten from scratch and the task is
+ * marked done afterwards, so an interrupted round is simply redone by the next one. Raw rows
+ * and chunks of rolled up tasks are deleted after {@code raw-days}, 1 minute buckets after
+ * {@code minute-days}, both in batches of {@code page-size} rows; 10 minute buckets are kept.
+ *
+ * <p>With {@code partition.enable}, t_chaos_metric_task must be range partitioned by day
+ * (sql/chaos-platform-metric-partition.sql). Partitions are then created {@code partition.ahead}
+ * days in advance, and expired ones are dropped whole once all their tasks are rolled up.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class MetricRetentionJob implements InitializingBean, DisposableBean {
+
+    public final static int MINUTE = 60;
+
+    public final static int TEN_MINUTES = 600;
+
+    private final static String PARTITION_PREFIX = "p";
+
+    private final static String PARTITION_FORMAT = "yyyyMMdd";
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Autowired
+    private MetricChunkStore metricChunkStore;
+
+    @Autowired
+    private MetricChunkRepository metricChunkRepository;
+
+    @Autowired
+    private MetricTaskRepository metricTaskRepository;
+
+    @Autowired
+    private MetricRollupRepository metricRollupRepository;
+
+    @Autowired
+    private MetricRollupTaskRepository metricRollupTaskRepository;
+
+    @Value("${chaos.metric.retention.enable:true}")
+    private boolean enable;
+
+    @Value("${chaos.metric.retention.period:300}")
+    private int period;
+
+    @Value("${chaos.metric.retention.delay:300}")
+    private int delay;
+
+    @Value("${chaos.metric.retention.tasks-per-round:10}")
+    private int tasksPerRound;
+
+    @Value("${chaos.metric.retention.page-size:1000}")
+    private int pageSize;
+
+    @Value("${chaos.metric.retention.raw-days:7}")
+    private int rawDays;
+
+    @Value("${chaos.metric.retention.minute-days:30}")
+    private int minuteDays;
+
+    @Value("${chaos.metric.retention.partition.enable:false}")
+    private boolean partitionEnable;
+
+    @Value("${chaos.metric.retention.partition.ahead:3}")
+    private int partitionAhead;
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enable) {
+            return;
+        }
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("METRIC-RETENTION");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void schedule() {
+        timerFactory.getTimer().newTimeout(timeout -> executorService.execute(() -> {
+            try {
+                metricRollupTaskRepository.selectRollupPendingTaskIds(RunStatus.FINISHED.getValue(),
+                        DateUtil.date().offset(DateField.SECOND, -delay), tasksPerRound).forEach(this::rollup);
+                purge();
+                if (partitionEnable) {
+                    maintainPartitions();
+                }
+            } catch (Exception e) {
+                log.error("metric retention fail!", e);
+            }
+            schedule();
+        }), period, TimeUnit.SECONDS);
+    }
+
+    public void rollup(Long taskId) {
+        // leftovers of an interrupted round
+        metricRollupRepository.deleteByTaskId(taskId);
+
+        MetricRollup rollup = new MetricRollup();
+        metricChunkStore.scan(taskId, pageSize, series -> {
+            for (int i = 0; i < series.getSamples().size(); i++) {
+                rollup.add(series.getDeviceId(), series.getIp(), series.getHostname(), series.getCategoryId(),
+                        series.getCategoryCode(), series.getMetric(), series.getSamples().timestamp(i),
+                        series.getSamples().value(i));
+            }
+        });
+
+        long lastId = 0;
+        List<MetricTaskDO> page;
+        do {
+            page = metricTaskRepository.selectByTaskIdAfterId(taskId, lastId, pageSize);
+            for (MetricTaskDO metricTaskDO : page) {
+                if (metricTaskDO.getDate() != null && NumberUtil.isNumber(metricTaskDO.getValue())) {
+                    rollup.add(metricTaskDO.getDeviceId(), metricTaskDO.getIp(), metricTaskDO.getHostname(),
+                            metricTaskDO.getCategoryId(), metricTaskDO.getCategoryCode(), metricTaskDO.getMetric(),
+                            metricTaskDO.getDate().getTime(), Double.parseDouble(metricTaskDO.getValue()));
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+
+        List<MetricRollupDO> rollups = rollup.toRollups(taskId);
+        for (List<MetricRollupDO> batch : CollUtil.split(rollups, pageSize)) {
+            metricRollupRepository.insertBatch(batch);
+        }
+        metricRollupTaskRepository.markRolledUp(taskId);
+        log.info("rollup metric, task ID: {}, samples: {}, buckets: {}", taskId, rollup.getSamples(), rollups.size());
+    }
+
+    private void purge() {
+        DateTime rawCutoff = DateUtil.beginOfDay(DateUtil.date()).offset(DateField.DAY_OF_YEAR, -rawDays);
+        for (Long taskId : metricRollupTaskRepository.selectPurgeableTaskIds(rawCutoff, tasksPerRound)) {
+            int rows = 0;
+            int deleted;
+            do {
+                deleted = metricTaskRepository.deleteByTaskId(taskId, pageSize);
+                rows += deleted;
+            } while (deleted == pageSize);
+            int chunks = metricChunkRepository.deleteByTaskId(taskId);
+            metricRollupTaskRepository.markRawPurged(taskId);
+            log.info("purge raw metric, task ID: {}, rows: {}, chunks: {}", taskId, rows, chunks);
+        }
+
+        DateTime minuteCutoff = DateUtil.beginOfDay(DateUtil.date()).offset(DateField.DAY_OF_YEAR, -minuteDays);
+        int deleted;
+        do {
+            deleted = metricRollupRepository.deleteBefore(MINUTE, minuteCutoff, pageSize);
+        } while (deleted == pageSize);
+    }
+
+    private void maintainPartitions() {
+        List<String> partitions = metricTaskRepository.selectPartitions();
+        if (partitions.isEmpty()) {
+            log.warn("t_chaos_metric_task is not partitioned, see sql/chaos-platform-metric-partition.sql");
+            return;
+        }
+        TreeMap<Date, String> days = new TreeMap<>();
+        for (String partition : partitions) {
+            try {
+                days.put(DateUtil.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_FORMAT), partition);
+            } catch (Exception ignored) {
+                // p_max
+            }
+        }
+
+        // each partition holds the day before its name
+        DateTime today = DateUtil.beginOfDay(DateUtil.date());
+        Date last = days.isEmpty() ? today : days.lastKey();
+        for (int i = 1; i <= partitionAhead + 1; i++) {
+            DateTime day = DateUtil.offsetDay(today, i);
+            if (day.after(last)) {
+                metricTaskRepository.addPartition(PARTITION_PREFIX + day.toString(PARTITION_FORMAT),
+                        day.toString("yyyy-MM-dd"));
+                log.info("add metric partition, less than: {}", day.toString("yyyy-MM-dd"));
+            }
+        }
+
+        DateTime cutoff = today.offsetNew(DateField.DAY_OF_YEAR, -rawDays);
+        for (Map.Entry<Date, String> entry : days.headMap(cutoff, true).entrySet()) {
+            if (metricTaskRepository.existsNotRolledUpBefore(entry.getKey())) {
+                log.warn("metric partition {} still has samples not rolled up", entry.getValue());
+                break;
+            }
+            metricTaskRepository.dropPartition(entry.getValue());
+            log.info("drop metric partition {}", entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupDO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.*;
+
+/**
+ * 1 minute and 10 minute buckets of the samples of one task, bucket times are floored to the
+ * bucket width since the epoch.
+ *
+ * @author yefei
+ */
+class MetricRollup {
+
+    private final Map<BucketKey, Bucket> buckets = new HashMap<>();
+
+    private int samples;
+
+    /**
+     * NaN and infinite values are left out
+     */
+    void add(Long deviceId, String ip, String hostname, Long categoryId, String categoryCode, String metric,
+             long timestamp, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        for (int resolution : new int[]{MetricRetentionJob.MINUTE, MetricRetentionJob.TEN_MINUTES}) {
+            long width = resolution * 1000L;
+            BucketKey key = new BucketKey(deviceId, categoryCode, metric, resolution, Math.floorDiv(timestamp, width) * width);
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(ip, hostname, categoryId));
+            bucket.min = Math.min(bucket.min, value);
+            bucket.max = Math.max(bucket.max, value);
+            bucket.sum += value;
+            bucket.count++;
+        }
+        samples++;
+    }
+
+    int getSamples() {
+        return samples;
+    }
+
+    List<MetricRollupDO> toRollups(Long taskId) {
+        List<MetricRollupDO> rollups = new ArrayList<>(buckets.size());
+        buckets.forEach((key, bucket) -> rollups.add(MetricRollupDO.builder()
+                .taskId(taskId)
+                .deviceId(key.getDeviceId())
+                .ip(bucket.ip)
+                .hostname(bucket.hostname)
+                .categoryId(bucket.categoryId)
+                .categoryCode(key.getCategoryCode())
+                .metric(key.getMetric())
+                .resolution(key.getResolution())
+                .bucketTime(new Date(key.getBucketTime()))
+                .minValue(bucket.min)
+                .maxValue(bucket.max)
+                .avgValue(bucket.sum / bucket.count)
+                .sampleCount(bucket.count)
+                .build()));
+        return rollups;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class BucketKey {
+        private Long deviceId;
+        private String categoryCode;
+        private String metric;
+        private int resolution;
+        private long bucketTime;
+    }
+
+    private static class Bucket {
+        final String ip;
+        final String hostname;
+        final Long categoryId;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum;
+        int count;
+
+        Bucket(String ip, String hostname, Long categoryId) {
+            this.ip = ip;
+            this.hostname = hostname;
+            this.categoryId = categoryId;
+        }
+    }
+}
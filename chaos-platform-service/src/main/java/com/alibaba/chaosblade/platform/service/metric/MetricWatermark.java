@@ -0,0 +1,134 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.timeseries.Samples;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingestion progress of one metric model of an experiment task.
+ *
+ * <p>Polls cover {@code (watermark, end]} windows aligned to the step, so every poll asks the
+ * backend for the same evaluation timestamps and nothing is fetched twice or skipped. The
+ * watermark only moves once a window has been stored, a failed or late poll is caught up by
+ * the next ones, at most {@code maxWindow} at a time. Each series also keeps the timestamp of
+ * its last stored sample, older samples are dropped before writing.
+ *
+ * @author yefei
+ */
+public class MetricWatermark {
+
+    private final long step;
+
+    private final long maxWindow;
+
+    private final long grace;
+
+    private long watermark;
+
+    private final Map<String, Long> series = new ConcurrentHashMap<>();
+
+    /**
+     * @param start     first timestamp to ingest, epoch millis
+     * @param step      millis between samples
+     * @param maxWindow the longest window a single poll fetches
+     * @param grace     millis the backend needs before a timestamp is complete
+     */
+    public MetricWatermark(long start, long step, long maxWindow, long grace) {
+        this.step = step;
+        this.maxWindow = Math.max(maxWindow - maxWindow % step, step);
+        this.grace = grace;
+        this.watermark = align(start) - step;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * continues a series stored before, e.g. by the previous run of the server: its older
+     * samples are dropped and the watermark moves back to its last one
+     */
+    public synchronized void resume(Long deviceId, String metric, long lastTimestamp) {
+        series.merge(deviceId + "/" + metric, lastTimestamp, Math::max);
+        watermark = Math.min(watermark, align(lastTimestamp));
+    }
+
+    /**
+     * next window to poll as {start, end}, null if no step has completed since the last one
+     */
+    public synchronized long[] nextWindow(long now) {
+        long end = Math.min(align(now - grace), watermark + maxWindow);
+        if (end <= watermark) {
+            return null;
+        }
+        return new long[]{watermark, end};
+    }
+
+    /**
+     * the window ending at {@code end} has been stored
+     */
+    public synchronized void advance(long end) {
+        watermark = Math.max(watermark, end);
+    }
+
+    /**
+     * millis until the next poll, zero while catching up
+     */
+    public synchronized long delay(long now) {
+        long next = watermark + step + grace;
+        return Math.max(next - now, 0);
+    }
+
+    /**
+     * samples of the series newer than its last stored one
+     */
+    public Samples accept(Long deviceId, String metric, Samples samples) {
+        String key = deviceId + "/" + metric;
+        Long last = series.get(key);
+        Samples accepted = new Samples(samples.size());
+        long previous = last == null ? Long.MIN_VALUE : last;
+        for (int i = 0; i < samples.size(); i++) {
+            if (samples.timestamp(i) > previous) {
+                accepted.add(samples.timestamp(i), samples.value(i));
+                previous = samples.timestamp(i);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            series.put(key, accepted.lastTimestamp());
+        }
+        return accepted;
+    }
+
+    /**
+     * millis between now and the last stored sample of the series, null if none was stored
+     */
+    public Long lag(Long deviceId, String metric, long now) {
+        Long last = series.get(deviceId + "/" + metric);
+        return last == null ? null : Math.max(now - last, 0);
+    }
+
+    private long align(long timestamp) {
+        return Math.floorDiv(timestamp, step) * step;
+    }
+}
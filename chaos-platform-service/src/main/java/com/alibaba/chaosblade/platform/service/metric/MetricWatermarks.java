@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import cn.hutool.core.util.NumberUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watermarks of the metric models polled for running experiment tasks.
+ *
+ * @author yefei
+ */
+@Component
+public class MetricWatermarks {
+
+    private final static String PARAM_STEP = "step";
+
+    @Value("${chaos.metric.poll.step:10}")
+    private long step;
+
+    @Value("${chaos.metric.poll.max-window:300}")
+    private long maxWindow;
+
+    @Value("${chaos.metric.poll.grace:2}")
+    private long grace;
+
+    private final Map<String, MetricWatermark> watermarks = new ConcurrentHashMap<>();
+
+    /**
+     * @param params metric model params, a {@code step} in seconds overrides the default
+     */
+    public MetricWatermark register(Long taskId, String categoryCode, Map<String, String> params, long start) {
+        long stepSeconds = step;
+        String value = params == null ? null : params.get(PARAM_STEP);
+        if (NumberUtil.isLong(value) && Long.parseLong(value) > 0) {
+            stepSeconds = Long.parseLong(value);
+        }
+        MetricWatermark watermark = new MetricWatermark(start, stepSeconds * 1000, maxWindow * 1000, grace * 1000);
+        watermarks.put(key(taskId, categoryCode), watermark);
+        return watermark;
+    }
+
+    public void remove(Long taskId, String categoryCode) {
+        watermarks.remove(key(taskId, categoryCode));
+    }
+
+    /**
+     * ingestion lag of a series in millis, null when it is not being polled
+     */
+    public Long lag(Long taskId, String categoryCode, Long deviceId, String metric) {
+        MetricWatermark watermark = watermarks.get(key(taskId, categoryCode));
+        return watermark == null ? null : watermark.lag(deviceId, metric, System.currentTimeMillis());
+    }
+
+    private String key(Long taskId, String categoryCode) {
+        return taskId + "/" + categoryCode;
+    }
+}
@@ -23,6 +23,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * @author yefei
  */
@@ -37,6 +39,9 @@ public class DeviceRequest extends PageQuery {
     @JsonProperty("machineId")
     private Long deviceId;
 
+    @JsonProperty("machineIds")
+    private List<Long> deviceIds;
+
     @JsonProperty("machineType")
     private String deviceType;
 
@@ -45,6 +45,11 @@ public class CreateExperimentRequest {
 
     private List<DeviceRequest> machines;
 
+    /**
+     * target expression, e.g. app=mall and status=online and sample 10%, overrides machines
+     */
+    private String selector;
+
     private Long categoryId;
 
     private Long scenarioId;
@@ -57,4 +62,6 @@ public class CreateExperimentRequest {
 
     private String experimentName;
 
+    private Boolean synchronizedStart;
+
 }
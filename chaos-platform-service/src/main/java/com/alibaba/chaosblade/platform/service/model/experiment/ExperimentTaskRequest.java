@@ -28,4 +28,16 @@ public class ExperimentTaskRequest {
 
     private ExperimentTaskRequest task;
 
+    /**
+     * id of the last log line seen
+     */
+    private Long cursor;
+
+    private Integer limit;
+
+    /**
+     * newest lines after the cursor instead of the next ones
+     */
+    private Boolean tail;
+
 }
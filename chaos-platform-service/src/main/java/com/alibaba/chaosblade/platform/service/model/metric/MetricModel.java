@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,4 +49,9 @@ public class MetricModel {
     @JsonSerialize(using = MapToArgumentsDeserializer.class)
     private Map<String, String> params;
 
+    /**
+     * steady state rules aborting the experiment, e.g. p95(cpu) > 90% for 30s, see GuardrailRule
+     */
+    private List<String> guardrails;
+
 }
@@ -29,4 +29,24 @@ public class MetricTaskRequest {
     private String startTime;
 
     private String endTime;
+
+    /**
+     * target point count of every series
+     */
+    private Integer points;
+
+    /**
+     * aggregation step, seconds
+     */
+    private Long step;
+
+    /**
+     * min, max, avg or p95, avg by default
+     */
+    private String aggregation;
+
+    /**
+     * series as timestamps and values arrays instead of metrics
+     */
+    private Boolean compact;
 }
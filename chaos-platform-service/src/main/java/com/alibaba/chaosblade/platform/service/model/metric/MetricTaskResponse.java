@@ -40,4 +40,16 @@ public class MetricTaskResponse {
 
     private List<MetricTask> metrics;
 
+    /**
+     * epoch millis, filled instead of metrics for compact requests
+     */
+    private long[] timestamps;
+
+    private double[] values;
+
+    /**
+     * millis since the last ingested sample, null once the task is no longer polled
+     */
+    private Long lag;
+
 }
@@ -31,5 +31,26 @@ import lombok.NoArgsConstructor;
 public class SceneImportResponse {
 
     private Long scenarioCount;
+
+    private Integer inserted;
+
+    private Integer updated;
+
+    private Integer unchanged;
+
+    /**
+     * parameter rows inserted or updated
+     */
+    private Integer parameters;
+
+    /**
+     * milliseconds
+     */
+    private Long elapsed;
+
+    /**
+     * scenes per second
+     */
+    private Double throughput;
 }
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.scene;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
+import com.alibaba.chaosblade.platform.dao.repository.SceneRepository;
+import com.alibaba.chaosblade.platform.service.SceneService;
+import com.alibaba.chaosblade.platform.service.ToolsService;
+import com.alibaba.chaosblade.platform.service.model.scene.SceneImportResponse;
+import com.alibaba.chaosblade.platform.service.model.tools.ToolsOverview;
+import com.alibaba.chaosblade.platform.service.model.tools.ToolsVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant.DEFAULT_TOOLS;
+
+/**
+ * Imports the scene catalog of the default tools in the background, so startup neither waits
+ * for nor depends on the remote market.
+ *
+ * <p>The catalog is kept as content addressed snapshots under {@code snapshot.dir}, the file
+ * {@code CURRENT} names the latest one. Without a snapshot on disk the one bundled under
+ * {@code snapshot.bundled} on the class path is used. The current snapshot is imported first;
+ * with {@code snapshot.refresh} the latest version is fetched afterwards and imported if its
+ * content differs. The hash of the last imported snapshot is kept in {@code IMPORTED}, an
+ * import is skipped while it matches and the scenes of the version are still there. It is only
+ * written once every file of the snapshot imported, a failed file is retried on the next run.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class SceneAutoImporter implements InitializingBean, DisposableBean {
+
+    private final static String CURRENT = "CURRENT";
+
+    private final static String IMPORTED = "IMPORTED";
+
+    @Autowired
+    private SceneService sceneService;
+
+    @Autowired
+    private ToolsService toolsService;
+
+    @Autowired
+    private SceneRepository sceneRepository;
+
+    @Value("${chaos.scene.import}")
+    private boolean autoImport;
+
+    @Value("${chaos.scene.snapshot.dir:${user.home}/.chaosblade/scene-catalog}")
+    private String dir;
+
+    @Value("${chaos.scene.snapshot.bundled:scene-catalog}")
+    private String bundled;
+
+    @Value("${chaos.scene.snapshot.refresh:true}")
+    private boolean refresh;
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!autoImport) {
+            return;
+        }
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("SCENE-IMPORT");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.execute(() -> {
+            try {
+                run();
+            } catch (Exception e) {
+                log.error("scene auto import fail!", e);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void run() throws IOException {
+        File root = FileUtil.mkdir(dir);
+
+        SceneCatalogSnapshot current = current(root);
+        if (current != null) {
+            importIfChanged(root, current);
+        }
+
+        if (refresh) {
+            SceneCatalogSnapshot latest;
+            try {
+                latest = fetch();
+            } catch (Exception e) {
+                log.warn("fetch scene catalog fail, keep snapshot {}", current == null ? null : current.getHash(), e);
+                return;
+            }
+            if (current == null || !current.getHash().equals(latest.getHash())) {
+                latest.write(root);
+                writeMarker(root, CURRENT, latest.getHash());
+                prune(root, latest.getHash());
+                importIfChanged(root, latest);
+            }
+        }
+    }
+
+    private SceneCatalogSnapshot current(File root) throws IOException {
+        String hash = readMarker(root, CURRENT);
+        if (hash != null) {
+            SceneCatalogSnapshot snapshot = SceneCatalogSnapshot.read(new File(root, hash));
+            if (snapshot != null) {
+                return snapshot;
+            }
+            log.warn("scene catalog snapshot {} is missing or corrupt", hash);
+        }
+
+        SceneCatalogSnapshot snapshot = SceneCatalogSnapshot.readBundled(getClass().getClassLoader(), bundled);
+        if (snapshot != null) {
+            snapshot.write(root);
+            writeMarker(root, CURRENT, snapshot.getHash());
+        }
+        return snapshot;
+    }
+
+    private SceneCatalogSnapshot fetch() {
+        ToolsOverview toolsOverview = toolsService.toolsOverview(DEFAULT_TOOLS);
+        ToolsVersion toolsVersion = toolsService.toolsVersion(toolsOverview.getName(), toolsOverview.getLatest());
+        LinkedHashMap<String, byte[]> files = new LinkedHashMap<>();
+        for (String scenarioFile : toolsVersion.getScenarioFiles()) {
+            files.put(scenarioFile, toolsService.toolsSceneContent(toolsOverview.getName(), toolsOverview.getLatest(), scenarioFile));
+        }
+        return new SceneCatalogSnapshot(toolsOverview.getName(), toolsOverview.getLatest(), files);
+    }
+
+    private void importIfChanged(File root, SceneCatalogSnapshot snapshot) throws IOException {
+        if (snapshot.getHash().equals(readMarker(root, IMPORTED))
+                && sceneRepository.selectCountByVersion(snapshot.getVersion()) > 0) {
+            log.info("scene catalog {}:{} unchanged, snapshot {}", snapshot.getName(), snapshot.getVersion(), snapshot.getHash());
+            return;
+        }
+
+        boolean complete = true;
+        for (Map.Entry<String, byte[]> file : snapshot.getFiles().entrySet()) {
+            try {
+                SceneImportResponse response = sceneService.importScenarios(snapshot.getName(), snapshot.getVersion(),
+                        new ByteArrayInputStream(file.getValue()));
+                log.info("scene file {} imported, scenarios: {}", file.getKey(), response.getScenarioCount());
+            } catch (BizException e) {
+                log.warn("scene file {} import fail, {}", file.getKey(), e.getMessage());
+                complete = false;
+            }
+        }
+        if (!complete) {
+            log.warn("scene catalog {}:{} partially imported, snapshot {}", snapshot.getName(), snapshot.getVersion(), snapshot.getHash());
+            return;
+        }
+        writeMarker(root, IMPORTED, snapshot.getHash());
+    }
+
+    /**
+     * removes the snapshots other than {@code keep}
+     */
+    private void prune(File root, String keep) {
+        File[] files = root.listFiles(File::isDirectory);
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.getName().equals(keep) && !file.getName().startsWith(".")) {
+                FileUtil.del(file);
+            }
+        }
+    }
+
+    private String readMarker(File root, String name) {
+        File file = new File(root, name);
+        return file.isFile() ? StrUtil.trimToNull(FileUtil.readUtf8String(file)) : null;
+    }
+
+    private void writeMarker(File root, String name, String hash) throws IOException {
+        File tmp = new File(root, "." + name + ".tmp");
+        FileUtil.writeUtf8String(hash, tmp);
+        Files.move(tmp.toPath(), new File(root, name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.scene;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
+import com.alibaba.chaosblade.platform.cmmon.utils.cache.SingleFlightCache;
+import com.alibaba.chaosblade.platform.dao.model.SceneCategoryDO;
+import com.alibaba.chaosblade.platform.dao.model.SceneDO;
+import com.alibaba.chaosblade.platform.dao.model.SceneParamDO;
+import com.alibaba.chaosblade.platform.dao.repository.SceneCategoryRepository;
+import com.alibaba.chaosblade.platform.dao.repository.SceneParamRepository;
+import com.alibaba.chaosblade.platform.dao.repository.SceneRepository;
+import com.alibaba.chaosblade.platform.service.model.scene.SceneCatalogStatistics;
+import com.alibaba.chaosblade.platform.service.model.scene.param.Component;
+import com.alibaba.chaosblade.platform.service.model.scene.param.SceneParamResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of the scene catalog: scenes with their parameters, and all categories.
+ *
+ * <p>Entries are keyed by the catalog version. Imports and edits call {@link #invalidate()},
+ * which moves to a new version right away and once more after the surrounding transaction
+ * commits, so a reader racing the change can only fill entries of a version nobody asks for
+ * any longer. Loads of one key are single-flight, cached reads query nothing.
+ *
+ * @author yefei
+ */
+@org.springframework.stereotype.Component
+public class SceneCatalog implements InitializingBean {
+
+    @Autowired
+    private SceneRepository sceneRepository;
+
+    @Autowired
+    private SceneParamRepository sceneParamRepository;
+
+    @Autowired
+    private SceneCategoryRepository sceneCategoryRepository;
+
+    @Value("${chaos.scene.catalog.max-size:10000}")
+    private long maxSize;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private SingleFlightCache<VersionKey, CatalogScene> scenes;
+
+    private final SingleFlightCache<Long, Categories> categories = new SingleFlightCache<>(1, c -> 1);
+
+    @Override
+    public void afterPropertiesSet() {
+        scenes = new SingleFlightCache<>(maxSize, s -> 1);
+    }
+
+    public Optional<CatalogScene> getScene(Long sceneId) {
+        if (sceneId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(scenes.get(new VersionKey(version.get(), sceneId), 0, () ->
+                sceneRepository.selectById(sceneId)
+                        .map(sceneDO -> new CatalogScene(sceneDO, Collections.unmodifiableList(
+                                sceneParamRepository.selectList(SceneParamDO.builder().sceneId(sceneId).build()))))
+                        .orElse(null)));
+    }
+
+    /**
+     * new parameter responses of the scene, callers may modify them
+     */
+    public List<SceneParamResponse> getSceneParams(Long sceneId) {
+        return getScene(sceneId)
+                .map(scene -> scene.getParams().stream().map(this::toSceneParamResponse).collect(Collectors.toList()))
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * all categories in table order
+     */
+    public List<SceneCategoryDO> getCategories() {
+        return loadCategories().list;
+    }
+
+    /**
+     * the categories of the ids which exist, in the order of the ids
+     */
+    public List<SceneCategoryDO> getCategories(Collection<Long> categoryIds) {
+        Map<Long, SceneCategoryDO> byId = loadCategories().byId;
+        return categoryIds.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * drops the catalog, call on every change of scenes, parameters or categories
+     */
+    public void invalidate() {
+        bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump();
+                }
+            });
+        }
+    }
+
+    /**
+     * drops one scene, e.g. after its use count changed
+     */
+    public void invalidate(Long sceneId) {
+        scenes.invalidate(new VersionKey(version.get(), sceneId));
+    }
+
+    public SceneCatalogStatistics getStatistics() {
+        return SceneCatalogStatistics.builder()
+                .version(version.get())
+                .scenes(scenes.size())
+                .hits(scenes.hitCount() + categories.hitCount())
+                .misses(scenes.missCount() + categories.missCount())
+                .evictions(scenes.evictionCount())
+                .build();
+    }
+
+    private Categories loadCategories() {
+        return categories.get(version.get(), 0, () -> {
+            List<SceneCategoryDO> list = sceneCategoryRepository.selectList(SceneCategoryDO.builder().build());
+            return new Categories(Collections.unmodifiableList(list),
+                    list.stream().collect(Collectors.toMap(SceneCategoryDO::getId, Function.identity())));
+        });
+    }
+
+    private void bump() {
+        version.incrementAndGet();
+        scenes.invalidateAll();
+        categories.invalidateAll();
+    }
+
+    private SceneParamResponse toSceneParamResponse(SceneParamDO sceneParamDO) {
+        return SceneParamResponse.builder()
+                .parameterId(sceneParamDO.getSceneId())
+                .alias(sceneParamDO.getAlias())
+                .paramName(sceneParamDO.getParamName())
+                .name(sceneParamDO.getParamName())
+                .defaultValue(sceneParamDO.getDefaultValue())
+                .description(sceneParamDO.getDescription())
+                .required(sceneParamDO.getIsRequired())
+                .component(Optional.ofNullable(sceneParamDO.getComponent())
+                        .map(component -> JsonUtils.readValue(Component.class, component))
+                        .orElse(null))
+                .build();
+    }
+
+    /**
+     * cached rows of one scene, must not be modified
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CatalogScene {
+
+        private final SceneDO scene;
+
+        private final List<SceneParamDO> params;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class VersionKey {
+        private long version;
+        private Long id;
+    }
+
+    @AllArgsConstructor
+    private static class Categories {
+        final List<SceneCategoryDO> list;
+        final Map<Long, SceneCategoryDO> byId;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.scene;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Scene files of one tools version, addressed by the SHA-256 of their content.
+ *
+ * <p>On disk a snapshot is a directory named after its hash, holding the scene files and a
+ * {@code manifest.properties} with {@code name}, {@code version} and the comma separated
+ * {@code files} in import order. The hash covers all of them, so a snapshot read back whose
+ * content does not match its name is rejected. File names are plain names in that directory,
+ * names with a path separator or {@code ..} are rejected, wherever the snapshot comes from.
+ *
+ * @author yefei
+ */
+@Getter
+public class SceneCatalogSnapshot {
+
+    public final static String MANIFEST = "manifest.properties";
+
+    private final String name;
+
+    private final String version;
+
+    private final LinkedHashMap<String, byte[]> files;
+
+    private final String hash;
+
+    public SceneCatalogSnapshot(String name, String version, LinkedHashMap<String, byte[]> files) {
+        for (String file : files.keySet()) {
+            if (!isFileName(file)) {
+                throw new IllegalArgumentException("illegal scene file name: " + file);
+            }
+        }
+        this.name = name;
+        this.version = version;
+        this.files = files;
+        this.hash = hash(name, version, files);
+    }
+
+    /**
+     * writes the snapshot to {@code root/hash}, a no-op if it is there already
+     *
+     * @return the snapshot directory
+     */
+    public File write(File root) throws IOException {
+        File dir = new File(root, hash);
+        if (dir.isDirectory()) {
+            return dir;
+        }
+        File tmp = new File(root, "." + hash + ".tmp");
+        FileUtil.del(tmp);
+        FileUtil.mkdir(tmp);
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            FileUtil.writeBytes(file.getValue(), new File(tmp, file.getKey()));
+        }
+        Properties manifest = new Properties();
+        manifest.setProperty("name", name);
+        manifest.setProperty("version", version);
+        manifest.setProperty("files", String.join(",", files.keySet()));
+        try (OutputStream outputStream = Files.newOutputStream(new File(tmp, MANIFEST).toPath())) {
+            manifest.store(outputStream, null);
+        }
+        try {
+            Files.move(tmp.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // written concurrently
+            FileUtil.del(tmp);
+            if (!dir.isDirectory()) {
+                throw e;
+            }
+        }
+        return dir;
+    }
+
+    /**
+     * @return the snapshot in {@code dir}, or null if it is missing or does not match its name
+     */
+    public static SceneCatalogSnapshot read(File dir) throws IOException {
+        File manifestFile = new File(dir, MANIFEST);
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        SceneCatalogSnapshot snapshot;
+        try (InputStream inputStream = Files.newInputStream(manifestFile.toPath())) {
+            snapshot = read(inputStream, file -> {
+                File f = new File(dir, file);
+                return f.isFile() ? Files.newInputStream(f.toPath()) : null;
+            });
+        }
+        return snapshot != null && snapshot.getHash().equals(dir.getName()) ? snapshot : null;
+    }
+
+    /**
+     * reads a snapshot bundled under {@code location} of the class path
+     *
+     * @return the snapshot, or null if none is bundled
+     */
+    public static SceneCatalogSnapshot readBundled(ClassLoader classLoader, String location) throws IOException {
+        String prefix = StrUtil.removeSuffix(location, "/") + "/";
+        InputStream manifest = classLoader.getResourceAsStream(prefix + MANIFEST);
+        if (manifest == null) {
+            return null;
+        }
+        try (InputStream inputStream = manifest) {
+            return read(inputStream, file -> classLoader.getResourceAsStream(prefix + file));
+        }
+    }
+
+    private static SceneCatalogSnapshot read(InputStream manifestStream, FileOpener opener) throws IOException {
+        Properties manifest = new Properties();
+        manifest.load(manifestStream);
+        String name = manifest.getProperty("name");
+        String version = manifest.getProperty("version");
+        if (StrUtil.isBlank(name) || StrUtil.isBlank(version)) {
+            return null;
+        }
+        LinkedHashMap<String, byte[]> files = new LinkedHashMap<>();
+        for (String file : StrUtil.splitTrim(manifest.getProperty("files", ""), ',')) {
+            if (!isFileName(file)) {
+                return null;
+            }
+            InputStream inputStream = opener.open(file);
+            if (inputStream == null) {
+                return null;
+            }
+            try (InputStream in = inputStream) {
+                files.put(file, IoUtil.readBytes(in, false));
+            }
+        }
+        return new SceneCatalogSnapshot(name, version, files);
+    }
+
+    /**
+     * @return whether {@code file} names a file directly in the snapshot directory
+     */
+    static boolean isFileName(String file) {
+        return StrUtil.isNotBlank(file)
+                && !file.contains("/")
+                && !file.contains("\\")
+                && !file.contains("..")
+                && !file.contains(",")
+                && !file.equals(MANIFEST);
+    }
+
+    private static String hash(String name, String version, LinkedHashMap<String, byte[]> files) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, name.getBytes(StandardCharsets.UTF_8));
+        update(digest, version.getBytes(StandardCharsets.UTF_8));
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            update(digest, file.getKey().getBytes(StandardCharsets.UTF_8));
+            update(digest, file.getValue());
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * length prefixed, so that moving bytes between fields changes the hash
+     */
+    private static void update(MessageDigest digest, byte[] bytes) {
+        int length = bytes.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        digest.update(bytes);
+    }
+
+    private interface FileOpener {
+        InputStream open(String file) throws IOException;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.scene;
+
+import com.alibaba.chaosblade.platform.dao.model.SceneDO;
+import com.alibaba.chaosblade.platform.dao.model.SceneParamDO;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Diff of imported scenes against the scenes of the same version, by scene code.
+ *
+ * <p>New scenes and parameters get fresh ids, known ones keep theirs, so both can be
+ * written by multi-row upserts on the primary key. Unchanged rows are left out, parameters
+ * of staged scenes which the import no longer declares are collected for deletion.
+ *
+ * <p>The rows staged may be written and {@link #clear() cleared} as the import goes, the ids
+ * of the scenes staged and the counts are kept.
+ *
+ * <p>A matcher and a flag may share a name, so the stored parameters of a name are matched
+ * to the declared ones in parameter order, and every stored row left over is stale.
+ *
+ * @author yefei
+ */
+@Getter
+public class SceneImportPlan {
+
+    private final List<SceneDO> scenes = new ArrayList<>();
+
+    private final List<SceneParamDO> params = new ArrayList<>();
+
+    private final List<Long> staleParamIds = new ArrayList<>();
+
+    private int inserted;
+
+    private int updated;
+
+    private int unchanged;
+
+    private final Map<String, SceneDO> existing;
+
+    private final Map<Long, Map<String, List<SceneParamDO>>> existingParams;
+
+    private final Map<String, Long> staged = new HashMap<>();
+
+    public SceneImportPlan(List<SceneDO> existingScenes, List<SceneParamDO> existingParams) {
+        this.existing = existingScenes.stream()
+                .collect(Collectors.toMap(SceneDO::getSceneCode, s -> s, (a, b) -> a));
+        this.existingParams = existingParams.stream()
+                .sorted(Comparator.comparing(SceneParamDO::getParamOrder, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.groupingBy(SceneParamDO::getSceneId,
+                        Collectors.groupingBy(SceneParamDO::getParamName)));
+    }
+
+    public boolean isStaged(String sceneCode) {
+        return staged.containsKey(sceneCode);
+    }
+
+    /**
+     * adds the scene with its parameters in order, a scene staged before is kept as is
+     *
+     * @return id of the scene
+     */
+    public Long stage(SceneDO scene, List<SceneParamDO> sceneParams) {
+        Long stagedId = staged.get(scene.getSceneCode());
+        if (stagedId != null) {
+            return stagedId;
+        }
+
+        SceneDO current = existing.get(scene.getSceneCode());
+        boolean changed;
+        if (current == null) {
+            scene.setId(IdWorker.getId());
+            changed = true;
+        } else {
+            scene.setId(current.getId());
+            changed = !sameScene(current, scene);
+        }
+        if (changed) {
+            scenes.add(scene);
+        }
+        staged.put(scene.getSceneCode(), scene.getId());
+
+        Map<String, Deque<SceneParamDO>> currentParams = new HashMap<>();
+        existingParams.getOrDefault(scene.getId(), Collections.emptyMap())
+                .forEach((name, rows) -> currentParams.put(name, new ArrayDeque<>(rows)));
+        for (int i = 0; i < sceneParams.size(); i++) {
+            SceneParamDO param = sceneParams.get(i);
+            param.setSceneId(scene.getId());
+            param.setParamOrder(i);
+            Deque<SceneParamDO> rows = currentParams.get(param.getParamName());
+            SceneParamDO currentParam = rows == null ? null : rows.poll();
+            if (currentParam == null) {
+                param.setId(IdWorker.getId());
+            } else if (sameParam(currentParam, param)) {
+                continue;
+            } else {
+                param.setId(currentParam.getId());
+            }
+            params.add(param);
+            changed = true;
+        }
+        for (Deque<SceneParamDO> rows : currentParams.values()) {
+            for (SceneParamDO stale : rows) {
+                staleParamIds.add(stale.getId());
+                changed = true;
+            }
+        }
+
+        if (current == null) {
+            inserted++;
+        } else if (changed) {
+            updated++;
+        } else {
+            unchanged++;
+        }
+        return scene.getId();
+    }
+
+    /**
+     * drops the staged rows once they are written
+     */
+    public void clear() {
+        scenes.clear();
+        params.clear();
+        staleParamIds.clear();
+    }
+
+    private boolean sameScene(SceneDO a, SceneDO b) {
+        return Objects.equals(a.getCategories(), b.getCategories())
+                && Objects.equals(a.getPreSceneId(), b.getPreSceneId())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getOriginal(), b.getOriginal())
+                && Objects.equals(a.getSupportScope(), b.getSupportScope());
+    }
+
+    private boolean sameParam(SceneParamDO a, SceneParamDO b) {
+        return Objects.equals(a.getAlias(), b.getAlias())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getParamOrder(), b.getParamOrder())
+                && Objects.equals(a.getIsRequired(), b.getIsRequired());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.search;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.search.SearchIndex;
+import com.alibaba.chaosblade.platform.dao.model.DeviceDO;
+import com.alibaba.chaosblade.platform.dao.repository.DeviceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Searches devices like {@link DeviceRepository#selectMachines(DeviceDO)}, in id order.
+ *
+ * @author yefei
+ */
+@Component
+public class DeviceSearchIndex extends EntitySearchIndex<DeviceDO> {
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    public DeviceSearchIndex() {
+        super(DeviceDO.class);
+    }
+
+    public static SearchIndex.Query query(DeviceDO deviceDO) {
+        return new SearchIndex.Query()
+                .contains("hostname", deviceDO.getHostname())
+                .contains("ip", deviceDO.getIp())
+                .eq("type", deviceDO.getType())
+                .eq("isExperimented", deviceDO.getIsExperimented())
+                .eq("status", deviceDO.getStatus());
+    }
+
+    @Override
+    protected List<DeviceDO> selectAfterId(long afterId, int limit) {
+        return deviceRepository.selectAfterId(afterId, limit);
+    }
+
+    @Override
+    protected List<DeviceDO> selectByIds(Collection<Long> ids) {
+        return deviceRepository.selectBatchIds(ids);
+    }
+
+    @Override
+    protected SearchIndex.Document document(DeviceDO deviceDO) {
+        return new SearchIndex.Document(deviceDO.getId(), deviceDO.getId())
+                .text("hostname", deviceDO.getHostname())
+                .text("ip", deviceDO.getIp())
+                .term("type", deviceDO.getType())
+                .term("isExperimented", deviceDO.getIsExperimented())
+                .term("status", deviceDO.getStatus());
+    }
+}
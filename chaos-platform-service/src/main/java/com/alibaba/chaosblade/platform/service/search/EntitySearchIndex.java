@@ -0,0 +1,235 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.search;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.search.SearchIndex;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
+import com.alibaba.chaosblade.platform.dao.model.BaseDO;
+import com.alibaba.chaosblade.platform.dao.page.PageQuery;
+import com.alibaba.chaosblade.platform.dao.page.PageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SearchIndex} over the rows of one table, so that the paged searches of the UI only
+ * select the rows of the page by primary key.
+ *
+ * <p>Only the indexed fields of a row are kept, as its {@link SearchIndex.Document}. The table
+ * is loaded in the background at startup, {@link #isReady()} stays false until then and callers
+ * query the database meanwhile. Afterwards the index follows the {@link RepositoryWriteEvent}s
+ * of the repository once their transaction commits: inserts are taken as they are, updated and
+ * changed rows are reloaded, since an update carries only the fields it sets. Updates setting
+ * no indexed field are ignored. Writes are applied in order on the thread of the index, after
+ * the load, so writers never wait for it and searches may briefly lag behind.
+ *
+ * @author yefei
+ */
+@Slf4j
+public abstract class EntitySearchIndex<T extends BaseDO> implements InitializingBean, DisposableBean {
+
+    private final Class<T> type;
+
+    private final SearchIndex index = new SearchIndex();
+
+    private volatile boolean ready;
+
+    private ExecutorService executorService;
+
+    @Value("${chaos.search.enable:true}")
+    private boolean enable;
+
+    @Value("${chaos.search.load-size:1000}")
+    private int loadSize;
+
+    protected EntitySearchIndex(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * at most {@code limit} rows with an id above {@code afterId}, in id order
+     */
+    protected abstract List<T> selectAfterId(long afterId, int limit);
+
+    protected abstract List<T> selectByIds(Collection<Long> ids);
+
+    protected abstract SearchIndex.Document document(T row);
+
+    /**
+     * @return whether the update, carrying only the fields it sets, may change the document
+     */
+    protected boolean indexes(T update) {
+        return document(update).hasFields();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enable) {
+            return;
+        }
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("SEARCH-INDEX-" + type.getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.execute(this::load);
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * rows of the requested page, and the page with the total set into {@link PageUtils}
+     */
+    public List<T> search(SearchIndex.Query query, PageQuery pageQuery) {
+        SearchIndex.Result result;
+        if (pageQuery.isPaged()) {
+            result = index.search(query, Math.max(pageQuery.getPage() - 1, 0) * pageQuery.getPageSize(), pageQuery.getPageSize());
+            PageUtils.setPage(pageQuery, result.getTotal());
+        } else {
+            result = index.search(query, 0, Integer.MAX_VALUE);
+        }
+        List<Long> ids = result.getIds();
+        Map<Long, T> rows = new HashMap<>(ids.size());
+        for (int i = 0; i < ids.size(); i += loadSize) {
+            selectByIds(ids.subList(i, Math.min(i + loadSize, ids.size()))).forEach(row -> rows.put(row.getId(), row));
+        }
+        // rows deleted since are left out
+        return ids.stream().map(rows::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onWrite(RepositoryWriteEvent event) {
+        if (executorService == null || event.getType() != type) {
+            return;
+        }
+        List<T> written = ((List<T>) event.getRows()).stream()
+                .filter(row -> event.getKind() != RepositoryWriteEvent.Kind.UPDATE || indexes(row))
+                .collect(Collectors.toList());
+        if (written.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(event.getKind(), written);
+                }
+            });
+        } else {
+            submit(event.getKind(), written);
+        }
+    }
+
+    private void submit(RepositoryWriteEvent.Kind kind, List<T> written) {
+        try {
+            executorService.execute(() -> apply(kind, written));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    private void apply(RepositoryWriteEvent.Kind kind, List<T> written) {
+        try {
+            List<Long> reload = new ArrayList<>();
+            for (T row : written) {
+                switch (kind) {
+                    case INSERT:
+                        put(row);
+                        break;
+                    case UPDATE:
+                    case CHANGE:
+                        reload.add(row.getId());
+                        break;
+                    case DELETE:
+                        remove(row.getId());
+                        break;
+                    default:
+                }
+            }
+            reload(reload);
+        } catch (Exception e) {
+            log.error("apply {} of {} to search index fail!", kind, type.getSimpleName(), e);
+        }
+    }
+
+    private void load() {
+        long begin = System.currentTimeMillis();
+        try {
+            long lastId = 0;
+            List<T> page;
+            do {
+                page = selectAfterId(lastId, loadSize);
+                // writes committed meanwhile are applied once the load is done
+                page.forEach(this::put);
+                if (!page.isEmpty()) {
+                    lastId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == loadSize);
+
+            ready = true;
+            log.info("search index of {} loaded, rows: {}, cost: {}ms", type.getSimpleName(), index.size(),
+                    System.currentTimeMillis() - begin);
+        } catch (Exception e) {
+            log.error("load search index of {} fail, searching the database", type.getSimpleName(), e);
+        }
+    }
+
+    private void reload(List<Long> ids) {
+        for (int i = 0; i < ids.size(); i += loadSize) {
+            List<Long> chunk = ids.subList(i, Math.min(i + loadSize, ids.size()));
+            Set<Long> missing = new HashSet<>(chunk);
+            for (T row : selectByIds(chunk)) {
+                put(row);
+                missing.remove(row.getId());
+            }
+            missing.forEach(this::remove);
+        }
+    }
+
+    private void put(T row) {
+        index.put(document(row));
+    }
+
+    private void remove(Long id) {
+        index.remove(id);
+    }
+}
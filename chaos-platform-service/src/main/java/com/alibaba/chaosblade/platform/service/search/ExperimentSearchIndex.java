@@ -0,0 +1,74 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.search;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.search.SearchIndex;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentDO;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Searches experiments by name like {@link ExperimentRepository#fuzzySelect(ExperimentDO)},
+ * latest modified first.
+ *
+ * @author yefei
+ */
+@Component
+public class ExperimentSearchIndex extends EntitySearchIndex<ExperimentDO> {
+
+    @Autowired
+    private ExperimentRepository experimentRepository;
+
+    public ExperimentSearchIndex() {
+        super(ExperimentDO.class);
+    }
+
+    public static SearchIndex.Query query(ExperimentDO experimentDO) {
+        return new SearchIndex.Query()
+                .contains("name", experimentDO.getName())
+                .descending();
+    }
+
+    @Override
+    protected List<ExperimentDO> selectAfterId(long afterId, int limit) {
+        return experimentRepository.selectAfterId(afterId, limit);
+    }
+
+    @Override
+    protected List<ExperimentDO> selectByIds(Collection<Long> ids) {
+        return experimentRepository.selectByIds(ids);
+    }
+
+    /**
+     * every update sets gmt_modified, the sort key
+     */
+    @Override
+    protected boolean indexes(ExperimentDO update) {
+        return true;
+    }
+
+    @Override
+    protected SearchIndex.Document document(ExperimentDO experimentDO) {
+        return new SearchIndex.Document(experimentDO.getId(),
+                experimentDO.getGmtModified() == null ? 0 : experimentDO.getGmtModified().getTime())
+                .text("name", experimentDO.getName());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.search;
+
+import com.alibaba.chaosblade.platform.cmmon.utils.search.SearchIndex;
+import com.alibaba.chaosblade.platform.dao.model.SceneDO;
+import com.alibaba.chaosblade.platform.dao.repository.SceneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Searches scenes like {@link SceneRepository#selectList(SceneDO)}, in id order.
+ *
+ * @author yefei
+ */
+@Component
+public class SceneSearchIndex extends EntitySearchIndex<SceneDO> {
+
+    @Autowired
+    private SceneRepository sceneRepository;
+
+    public SceneSearchIndex() {
+        super(SceneDO.class);
+    }
+
+    public static SearchIndex.Query query(SceneDO sceneDO) {
+        return new SearchIndex.Query()
+                .contains("categories", sceneDO.getCategories())
+                .contains("sceneName", sceneDO.getSceneName())
+                .contains("supportScope", sceneDO.getSupportScope())
+                .contains("sceneCode", sceneDO.getSceneCode())
+                .eq("version", sceneDO.getVersion())
+                .eq("original", sceneDO.getOriginal())
+                .eq("status", sceneDO.getStatus());
+    }
+
+    @Override
+    protected List<SceneDO> selectAfterId(long afterId, int limit) {
+        return sceneRepository.selectAfterId(afterId, limit);
+    }
+
+    @Override
+    protected List<SceneDO> selectByIds(Collection<Long> ids) {
+        return sceneRepository.selectByIds(ids);
+    }
+
+    @Override
+    protected SearchIndex.Document document(SceneDO sceneDO) {
+        return new SearchIndex.Document(sceneDO.getId(), sceneDO.getId())
+                .text("categories", sceneDO.getCategories())
+                .text("sceneName", sceneDO.getSceneName())
+                .text("supportScope", sceneDO.getSupportScope())
+                .text("sceneCode", sceneDO.getSceneCode())
+                .term("version", sceneDO.getVersion())
+                .term("original", sceneDO.getOriginal())
+                .term("status", sceneDO.getStatus());
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.target;
+
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.DeviceMeta;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceStatus;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
+import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
+import com.alibaba.chaosblade.platform.cmmon.utils.bitmap.CompressedBitmap;
+import com.alibaba.chaosblade.platform.dao.event.RepositoryWriteEvent;
+import com.alibaba.chaosblade.platform.dao.model.*;
+import com.alibaba.chaosblade.platform.dao.repository.ApplicationDeviceRepository;
+import com.alibaba.chaosblade.platform.dao.repository.DeviceNodeRepository;
+import com.alibaba.chaosblade.platform.dao.repository.DevicePodRepository;
+import com.alibaba.chaosblade.platform.dao.repository.DeviceRepository;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resolves {@link TargetSelector}s against compressed bitmaps of device ordinals, one per
+ * value of application, group, type, status, cluster, namespace and node.
+ *
+ * <p>The bitmaps are rebuilt from the device, node, pod and application device tables in the
+ * background every {@code refresh} seconds. In between, device inserts and updates move
+ * devices between the type and status bitmaps once their transaction commits; new devices get
+ * their application and topology attributes with the next rebuild.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class TargetIndex implements InitializingBean, DisposableBean {
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceNodeRepository deviceNodeRepository;
+
+    @Autowired
+    private DevicePodRepository devicePodRepository;
+
+    @Autowired
+    private ApplicationDeviceRepository applicationDeviceRepository;
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Value("${chaos.target.refresh:60}")
+    private int refresh;
+
+    @Value("${chaos.target.load-size:1000}")
+    private int loadSize;
+
+    @Value("${chaos.target.wait-timeout:30}")
+    private int waitTimeout;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * device writes seen while a rebuild runs, applied again on its result
+     */
+    private List<DeviceDO> pending;
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("TARGET-INDEX");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.execute(this::rebuild);
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    private void schedule() {
+        timerFactory.getTimer().newTimeout(timeout -> executorService.execute(() -> {
+            rebuild();
+            schedule();
+        }), refresh, TimeUnit.SECONDS);
+    }
+
+    /**
+     * devices matching the selector, in ordinal order; waits for the first build
+     */
+    public List<DeviceMeta> resolve(TargetSelector selector) {
+        try {
+            if (!loaded.await(waitTimeout, TimeUnit.SECONDS)) {
+                throw new BizException(ExceptionMessageEnum.ERROR, "target index is loading");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BizException(ExceptionMessageEnum.ERROR, "target index is loading");
+        }
+
+        int[] ordinals;
+        List<DeviceMeta> metas = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            CompressedBitmap result = snapshot.all;
+            for (TargetSelector.Clause clause : selector.getClauses()) {
+                CompressedBitmap values = new CompressedBitmap();
+                for (String value : clause.getValues()) {
+                    CompressedBitmap bitmap = snapshot.get(clause.getKey(), normalize(clause.getKey(), value));
+                    if (bitmap != null) {
+                        values = values.or(bitmap);
+                    }
+                }
+                result = clause.getOperator() == TargetSelector.Operator.NE ? result.andNot(values) : result.and(values);
+            }
+            ordinals = sample(result.toArray(), selector.getSample());
+            for (int ordinal : ordinals) {
+                DeviceMeta meta = snapshot.metas.get(ordinal);
+                metas.add(DeviceMeta.builder()
+                        .deviceId(meta.getDeviceId())
+                        .deviceType(meta.getDeviceType())
+                        .hostname(meta.getHostname())
+                        .ip(meta.getIp())
+                        .nodeName(meta.getNodeName())
+                        .namespace(meta.getNamespace())
+                        .podName(meta.getPodName())
+                        .build());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return metas;
+    }
+
+    @EventListener
+    public void onWrite(RepositoryWriteEvent event) {
+        if (event.getType() != DeviceDO.class) {
+            return;
+        }
+        List<DeviceDO> rows = new ArrayList<>();
+        event.getRows().forEach(row -> rows.add((DeviceDO) row));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(rows);
+                }
+            });
+        } else {
+            apply(rows);
+        }
+    }
+
+    private void apply(List<DeviceDO> rows) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.addAll(rows);
+            }
+            rows.forEach(snapshot::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        long begin = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Snapshot build = new Snapshot();
+            long lastId = 0;
+            List<DeviceDO> page;
+            do {
+                page = deviceRepository.selectAfterId(lastId, loadSize);
+                page.forEach(build::put);
+                if (!page.isEmpty()) {
+                    lastId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == loadSize);
+
+            Map<Long, DeviceNodeDO> nodes = new HashMap<>();
+            for (DeviceNodeDO node : deviceNodeRepository.selectList(DeviceNodeDO.builder().build())) {
+                nodes.put(node.getId(), node);
+                build.topology(node.getDeviceId(), node, null);
+            }
+            for (DevicePodDO pod : devicePodRepository.selectList(DevicePodDO.builder().build())) {
+                build.topology(pod.getDeviceId(), nodes.get(pod.getNodeId()), pod);
+            }
+            for (ApplicationDeviceDO applicationDevice : applicationDeviceRepository.selectList(ApplicationDeviceDO.builder().build())) {
+                build.attribute(applicationDevice.getDeviceId(), TargetSelector.APP, applicationDevice.getAppName());
+                build.attribute(applicationDevice.getDeviceId(), TargetSelector.GROUP, applicationDevice.getGroupName());
+                build.attribute(applicationDevice.getDeviceId(), TargetSelector.NAMESPACE, applicationDevice.getNamespace());
+            }
+
+            lock.writeLock().lock();
+            try {
+                pending.forEach(build::put);
+                snapshot = build;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded.countDown();
+            log.debug("target index rebuilt, devices: {}, cost: {}ms", build.metas.size(), System.currentTimeMillis() - begin);
+        } catch (Exception e) {
+            log.error("rebuild target index fail!", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static int[] sample(int[] ordinals, Double percent) {
+        if (percent == null || ordinals.length == 0) {
+            return ordinals;
+        }
+        int k = Math.max(1, (int) Math.ceil(ordinals.length * percent / 100));
+        if (k >= ordinals.length) {
+            return ordinals;
+        }
+        // partial Fisher-Yates, the first k are a uniform sample
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(ordinals.length - i);
+            int t = ordinals[i];
+            ordinals[i] = ordinals[j];
+            ordinals[j] = t;
+        }
+        int[] sample = Arrays.copyOf(ordinals, k);
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    /**
+     * type and status are posted by enum name, and taken by name or code
+     */
+    private static String normalize(String key, String value) {
+        if (TargetSelector.TYPE.equals(key)) {
+            if (NumberUtil.isInteger(value)) {
+                return Arrays.stream(DeviceType.values()).filter(t -> t.getCode() == Integer.parseInt(value))
+                        .map(DeviceType::name).findFirst().orElse(value);
+            }
+            return value.toUpperCase(Locale.ROOT);
+        }
+        if (TargetSelector.STATUS.equals(key)) {
+            if (NumberUtil.isInteger(value)) {
+                return Arrays.stream(DeviceStatus.values()).filter(s -> s.getStatus() == Integer.parseInt(value))
+                        .map(DeviceStatus::name).findFirst().orElse(value);
+            }
+            return value.toUpperCase(Locale.ROOT);
+        }
+        return value;
+    }
+
+    private static class Snapshot {
+
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+
+        private final List<DeviceMeta> metas = new ArrayList<>();
+
+        private final CompressedBitmap all = new CompressedBitmap();
+
+        private final Map<String, Map<String, CompressedBitmap>> attributes = new HashMap<>();
+
+        CompressedBitmap get(String key, String value) {
+            return attributes.getOrDefault(key, Collections.emptyMap()).get(value);
+        }
+
+        /**
+         * adds the device or applies a partial update of it
+         */
+        void put(DeviceDO deviceDO) {
+            Integer ordinal = ordinals.get(deviceDO.getId());
+            DeviceMeta meta;
+            if (ordinal == null) {
+                if (deviceDO.getType() == null) {
+                    return;
+                }
+                ordinal = metas.size();
+                ordinals.put(deviceDO.getId(), ordinal);
+                meta = DeviceMeta.builder().deviceId(deviceDO.getId()).build();
+                metas.add(meta);
+                all.add(ordinal);
+            } else {
+                meta = metas.get(ordinal);
+            }
+            if (deviceDO.getType() != null) {
+                DeviceType deviceType = DeviceType.transByCode(deviceDO.getType());
+                replace(ordinal, TargetSelector.TYPE, deviceType == null ? deviceDO.getType().toString() : deviceType.name());
+                meta.setDeviceType(deviceDO.getType());
+            }
+            if (deviceDO.getStatus() != null) {
+                replace(ordinal, TargetSelector.STATUS, normalize(TargetSelector.STATUS, deviceDO.getStatus().toString()));
+            }
+            if (deviceDO.getHostname() != null) {
+                meta.setHostname(deviceDO.getHostname());
+            }
+            if (deviceDO.getIp() != null) {
+                meta.setIp(deviceDO.getIp());
+            }
+        }
+
+        void topology(Long deviceId, DeviceNodeDO node, DevicePodDO pod) {
+            Integer ordinal = ordinals.get(deviceId);
+            if (ordinal == null) {
+                return;
+            }
+            DeviceMeta meta = metas.get(ordinal);
+            if (node != null) {
+                meta.setNodeName(node.getNodeName());
+                attribute(deviceId, TargetSelector.NODE, node.getNodeName());
+                attribute(deviceId, TargetSelector.CLUSTER, node.getClusterName());
+                if (!StrUtil.equals(node.getClusterId(), node.getClusterName())) {
+                    attribute(deviceId, TargetSelector.CLUSTER, node.getClusterId());
+                }
+            }
+            if (pod != null) {
+                meta.setNamespace(pod.getNamespace());
+                meta.setPodName(pod.getPodName());
+                attribute(deviceId, TargetSelector.NAMESPACE, pod.getNamespace());
+            }
+        }
+
+        void attribute(Long deviceId, String key, String value) {
+            Integer ordinal = ordinals.get(deviceId);
+            if (ordinal != null && StrUtil.isNotBlank(value)) {
+                attributes.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(value, v -> new CompressedBitmap()).add(ordinal);
+            }
+        }
+
+        /**
+         * single valued attributes
+         */
+        private void replace(int ordinal, String key, String value) {
+            Map<String, CompressedBitmap> values = attributes.computeIfAbsent(key, k -> new HashMap<>());
+            values.values().forEach(bitmap -> bitmap.remove(ordinal));
+            values.computeIfAbsent(value, v -> new CompressedBitmap()).add(ordinal);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.target;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
+import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Devices an experiment targets, as clauses joined by AND, e.g.
+ * {@code app=mall AND namespace=prod AND status=ONLINE AND sample 10%}.
+ *
+ * <p>A clause is {@code key=value}, {@code key!=value} or {@code key in (a, b)} over the keys
+ * {@link #KEYS}; values may be quoted, type and status are also taken by name.
+ * {@code sample N%} keeps N percent of the matches, at least one, chosen at random.
+ *
+ * @author yefei
+ */
+@Getter
+public class TargetSelector {
+
+    public final static String APP = "app";
+
+    public final static String GROUP = "group";
+
+    public final static String TYPE = "type";
+
+    public final static String STATUS = "status";
+
+    public final static String CLUSTER = "cluster";
+
+    public final static String NAMESPACE = "namespace";
+
+    public final static String NODE = "node";
+
+    public final static Set<String> KEYS = new HashSet<>(Arrays.asList(APP, GROUP, TYPE, STATUS, CLUSTER, NAMESPACE, NODE));
+
+    private final static Pattern AND = Pattern.compile("\\s+and\\s+", Pattern.CASE_INSENSITIVE);
+
+    private final static Pattern SAMPLE = Pattern.compile("sample\\s+(\\d+(?:\\.\\d+)?)\\s*%", Pattern.CASE_INSENSITIVE);
+
+    private final static Pattern IN = Pattern.compile("(\\w+)\\s+in\\s*\\((.*)\\)", Pattern.CASE_INSENSITIVE);
+
+    private final static Pattern COMPARE = Pattern.compile("(\\w+)\\s*(!=|=)\\s*(.+)");
+
+    public enum Operator {
+        EQ, NE, IN
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Clause {
+
+        private final String key;
+
+        private final Operator operator;
+
+        private final List<String> values;
+    }
+
+    private final List<Clause> clauses = new ArrayList<>();
+
+    /**
+     * percent of the matches kept, null keeps all
+     */
+    private Double sample;
+
+    public static TargetSelector parse(String expression) {
+        TargetSelector selector = new TargetSelector();
+        if (StrUtil.isBlank(expression)) {
+            throw new BizException(ExceptionMessageEnum.EXPERIMENT_TARGET_ILLEGAL, expression);
+        }
+        for (String term : AND.split(expression.trim())) {
+            term = term.trim();
+            Matcher matcher;
+            if ((matcher = SAMPLE.matcher(term)).matches()) {
+                selector.sample(Double.parseDouble(matcher.group(1)));
+            } else if ((matcher = IN.matcher(term)).matches()) {
+                selector.clause(matcher.group(1), Operator.IN, StrUtil.splitTrim(matcher.group(2), ',').stream()
+                        .map(TargetSelector::unquote).collect(Collectors.toList()));
+            } else if ((matcher = COMPARE.matcher(term)).matches()) {
+                selector.clause(matcher.group(1), "=".equals(matcher.group(2)) ? Operator.EQ : Operator.NE,
+                        Collections.singletonList(unquote(matcher.group(3).trim())));
+            } else {
+                throw new BizException(ExceptionMessageEnum.EXPERIMENT_TARGET_ILLEGAL, term);
+            }
+        }
+        return selector;
+    }
+
+    public TargetSelector eq(String key, String value) {
+        return clause(key, Operator.EQ, Collections.singletonList(value));
+    }
+
+    public TargetSelector sample(double percent) {
+        if (percent <= 0 || percent > 100) {
+            throw new BizException(ExceptionMessageEnum.EXPERIMENT_TARGET_ILLEGAL, "sample " + percent + "%");
+        }
+        this.sample = percent;
+        return this;
+    }
+
+    private TargetSelector clause(String key, Operator operator, List<String> values) {
+        String k = key.toLowerCase(Locale.ROOT);
+        if (!KEYS.contains(k) || values.isEmpty()) {
+            throw new BizException(ExceptionMessageEnum.EXPERIMENT_TARGET_ILLEGAL, key);
+        }
+        clauses.add(new Clause(k, operator, values));
+        return this;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
@@ -69,10 +69,16 @@ public class ActivityTask {
 
     private Long waitOfAfter;
 
+    private Boolean synchronizedStart;
+
     private Map<String, String> arguments;
 
     private ExperimentDimension experimentDimension;
 
+    /**
+     * shared by all activities of the flow, loaded from the experiment targets at run time
+     */
+    @JsonIgnore
     private List<DeviceMeta> deviceMetas;
 
     public boolean isRecoverPhase() {
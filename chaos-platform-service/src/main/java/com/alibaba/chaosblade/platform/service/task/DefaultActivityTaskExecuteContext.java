@@ -20,6 +20,7 @@ import cn.hutool.core.collection.CollUtil;
 import com.alibaba.chaosblade.platform.cmmon.executor.ExecutorFactory;
 import com.alibaba.chaosblade.platform.cmmon.executor.ThreadPoolExecutorFactory;
 import com.alibaba.chaosblade.platform.cmmon.TaskLogRecord;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogContext;
 import com.alibaba.chaosblade.platform.service.task.listener.ExperimentTaskCompleteListener;
 import com.alibaba.chaosblade.platform.service.task.listener.ExperimentTaskStartListener;
 import com.alibaba.chaosblade.platform.service.task.stateless.ActivityTaskHandlerStrategyContext;
@@ -124,7 +125,8 @@ public class DefaultActivityTaskExecuteContext implements ActivityTaskExecuteCon
                 && taskCompleteListenerMap.get(activityTaskExecutePipeline) != null) {
             ExperimentTaskCompleteListener experimentTaskCompleteListener = taskCompleteListenerMap.get(activityTaskExecutePipeline);
             CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handleAsync((r, e) -> {
-                experimentTaskCompleteListener.notify(this, activityTask, e);
+                TaskLogContext.run(activityTask.getExperimentTaskId(),
+                        () -> experimentTaskCompleteListener.notify(this, activityTask, e));
                 return null;
             }, executor);
         }
@@ -161,14 +163,16 @@ public class DefaultActivityTaskExecuteContext implements ActivityTaskExecuteCon
     }
 
     public void executeActivityTask0(ActivityTask activityTask) {
-        try {
-            boolean b = activityTaskHandlerStrategyContext.preHandle(activityTask);
-            if (b) {
-                activityTaskHandlerStrategyContext.handle(activityTask);
+        TaskLogContext.run(activityTask.getExperimentTaskId(), () -> {
+            try {
+                boolean b = activityTaskHandlerStrategyContext.preHandle(activityTask);
+                if (b) {
+                    activityTaskHandlerStrategyContext.handle(activityTask);
+                }
+            } catch (Exception e) {
+                activityTaskHandlerStrategyContext.postHandle(activityTask, e);
             }
-        } catch (Exception e) {
-            activityTaskHandlerStrategyContext.postHandle(activityTask, e);
-        }
+        });
     }
 
     @Override
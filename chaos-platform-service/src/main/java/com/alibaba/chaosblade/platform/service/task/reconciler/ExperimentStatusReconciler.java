@@ -0,0 +1,345 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.task.reconciler;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateField;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.chaosblade.platform.cmmon.constants.ChaosConstant;
+import com.alibaba.chaosblade.platform.cmmon.enums.DeviceType;
+import com.alibaba.chaosblade.platform.cmmon.enums.ReconcileStatus;
+import com.alibaba.chaosblade.platform.cmmon.enums.RunStatus;
+import com.alibaba.chaosblade.platform.cmmon.utils.JsonUtils;
+import com.alibaba.chaosblade.platform.dao.model.DeviceDO;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentActivityTaskRecordDO;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
+import com.alibaba.chaosblade.platform.dao.repository.DeviceRepository;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentActivityTaskRecordRepository;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskRepository;
+import com.alibaba.chaosblade.platform.http.ChaosBladeDestroyHttpInvoker;
+import com.alibaba.chaosblade.platform.http.ChaosBladeStatusHttpInvoker;
+import com.alibaba.chaosblade.platform.http.model.reuest.HttpChannelRequest;
+import com.alibaba.chaosblade.platform.http.model.response.ExperimentStatus;
+import com.alibaba.chaosblade.platform.invoker.ResponseCommand;
+import com.alibaba.chaosblade.platform.service.task.TimerFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Confirms successful attack records against the agents.
+ *
+ * <p>Each round loads the attack records of running tasks and of tasks finished within
+ * the orphan window, page by page, and asks every involved host once for all of its
+ * experiments ({@code status --type create}), with at most {@code concurrency} requests
+ * in flight. A running task whose attack is gone on the agent without a successful recover record
+ * is marked {@link ReconcileStatus#DIVERGENT}, a finished task whose attack is still active is
+ * marked {@link ReconcileStatus#ORPHANED} and, if enabled, destroyed again.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class ExperimentStatusReconciler implements InitializingBean, DisposableBean {
+
+    private static final String TYPE_CREATE = "create";
+
+    private static final String SCENE_STOP_SUFFIX = ".stop";
+
+    @Autowired
+    private TimerFactory timerFactory;
+
+    @Autowired
+    private ExperimentTaskRepository experimentTaskRepository;
+
+    @Autowired
+    private ExperimentActivityTaskRecordRepository experimentActivityTaskRecordRepository;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private ChaosBladeStatusHttpInvoker chaosBladeStatusHttpInvoker;
+
+    @Autowired
+    private ChaosBladeDestroyHttpInvoker chaosBladeDestroyHttpInvoker;
+
+    @Value("${chaos.agent.port}")
+    private int chaosAgentPort;
+
+    @Value("${chaos.reconciler.enable:true}")
+    private boolean enable;
+
+    @Value("${chaos.reconciler.period:60}")
+    private int period;
+
+    @Value("${chaos.reconciler.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${chaos.reconciler.concurrency:64}")
+    private int concurrency;
+
+    @Value("${chaos.reconciler.orphan-window:600}")
+    private int orphanWindow;
+
+    @Value("${chaos.reconciler.destroy-orphans:false}")
+    private boolean destroyOrphans;
+
+    private ExecutorService executorService;
+
+    private Semaphore permits;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enable) {
+            return;
+        }
+        executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        permits = new Semaphore(concurrency);
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void schedule() {
+        timerFactory.getTimer().newTimeout(timeout -> executorService.execute(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                log.error("reconcile experiment status fail!", e);
+            }
+            schedule();
+        }), period, TimeUnit.SECONDS);
+    }
+
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+
+        Set<Long> running = experimentTaskRepository.selectByRunStatus(RunStatus.RUNNING.getValue())
+                .stream().map(ExperimentTaskDO::getId).collect(Collectors.toSet());
+        Set<Long> finished = experimentTaskRepository.selectByRunStatusAndEndAfter(RunStatus.FINISHED.getValue(),
+                DateUtil.date().offset(DateField.SECOND, -orphanWindow))
+                .stream().map(ExperimentTaskDO::getId).collect(Collectors.toSet());
+        if (running.isEmpty() && finished.isEmpty()) {
+            return;
+        }
+        Set<Long> taskIds = new HashSet<>(running);
+        taskIds.addAll(finished);
+
+        // one status request per host and round, shared by all pages
+        Map<String, CompletableFuture<Set<String>>> hosts = new HashMap<>();
+        Map<ReconcileStatus, List<Long>> changes = new EnumMap<>(ReconcileStatus.class);
+        List<CompletableFuture<?>> destroys = new ArrayList<>();
+        int total = 0;
+
+        long lastId = 0L;
+        List<ExperimentActivityTaskRecordDO> records;
+        do {
+            records = experimentActivityTaskRecordRepository.selectAttackRecords(taskIds,
+                    ChaosConstant.PHASE_ATTACK, lastId, batchSize);
+            if (records.isEmpty()) {
+                break;
+            }
+            lastId = records.get(records.size() - 1).getId();
+
+            List<ExperimentActivityTaskRecordDO> hostRecords = filterHostRecords(records);
+            total += hostRecords.size();
+            hostRecords.forEach(record -> hosts.computeIfAbsent(record.getIp(), this::queryActiveUids));
+            Set<String> recovered = selectRecovered(hostRecords);
+
+            for (ExperimentActivityTaskRecordDO record : hostRecords) {
+                Set<String> activeUids;
+                try {
+                    activeUids = hosts.get(record.getIp()).join();
+                } catch (CompletionException e) {
+                    // agent unreachable, state unknown
+                    continue;
+                }
+                boolean active = activeUids.contains(record.getResult());
+                ReconcileStatus status;
+                if (running.contains(record.getExperimentTaskId())) {
+                    status = active || recovered.contains(recoverKey(record.getExperimentTaskId(),
+                            record.getDeviceId(), record.getSceneCode() + SCENE_STOP_SUFFIX))
+                            ? ReconcileStatus.CONSISTENT : ReconcileStatus.DIVERGENT;
+                } else if (active) {
+                    status = ReconcileStatus.ORPHANED;
+                    if (destroyOrphans) {
+                        destroys.add(destroy(record));
+                    }
+                } else if (record.getReconcileStatus() != null
+                        && record.getReconcileStatus() == ReconcileStatus.ORPHANED.getValue()) {
+                    status = ReconcileStatus.DESTROYED;
+                } else {
+                    status = ReconcileStatus.CONSISTENT;
+                }
+                if (record.getReconcileStatus() == null || record.getReconcileStatus() != status.getValue()) {
+                    changes.computeIfAbsent(status, k -> new ArrayList<>()).add(record.getId());
+                }
+            }
+        } while (records.size() == batchSize);
+
+        changes.forEach((status, ids) -> CollUtil.split(ids, batchSize).forEach(batch ->
+                experimentActivityTaskRecordRepository.updateReconcileStatus(batch,
+                        ExperimentActivityTaskRecordDO.builder()
+                                .reconcileStatus(status.getValue())
+                                .gmtReconcile(DateUtil.date())
+                                .build())));
+
+        CompletableFuture.allOf(destroys.toArray(new CompletableFuture[0])).handle((r, e) -> null).join();
+
+        log.info("reconcile experiment status, records: {}, hosts: {}, divergent: {}, orphaned: {}, destroyed: {}, cost: {}ms",
+                total,
+                hosts.size(),
+                changes.getOrDefault(ReconcileStatus.DIVERGENT, Collections.emptyList()).size(),
+                changes.getOrDefault(ReconcileStatus.ORPHANED, Collections.emptyList()).size(),
+                destroys.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * only host agents answer status, kubernetes attacks are tracked by their resources
+     */
+    private List<ExperimentActivityTaskRecordDO> filterHostRecords(List<ExperimentActivityTaskRecordDO> records) {
+        Set<Long> deviceIds = records.stream()
+                .map(ExperimentActivityTaskRecordDO::getDeviceId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (deviceIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, DeviceDO> devices = deviceRepository.selectBatchIds(deviceIds).stream()
+                .collect(Collectors.toMap(DeviceDO::getId, Function.identity()));
+        return records.stream()
+                .filter(record -> record.getIp() != null)
+                .filter(record -> {
+                    DeviceDO device = devices.get(record.getDeviceId());
+                    return device != null && DeviceType.HOST.getCode().equals(device.getType());
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * attacks already destroyed by a successful recover, keyed by task, device and recover scene
+     */
+    private Set<String> selectRecovered(List<ExperimentActivityTaskRecordDO> records) {
+        if (records.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Long> taskIds = records.stream()
+                .map(ExperimentActivityTaskRecordDO::getExperimentTaskId)
+                .collect(Collectors.toSet());
+        Set<Long> deviceIds = records.stream()
+                .map(ExperimentActivityTaskRecordDO::getDeviceId)
+                .collect(Collectors.toSet());
+        return experimentActivityTaskRecordRepository.selectSuccessRecords(taskIds, ChaosConstant.PHASE_RECOVER, deviceIds)
+                .stream()
+                .map(record -> recoverKey(record.getExperimentTaskId(), record.getDeviceId(), record.getSceneCode()))
+                .collect(Collectors.toSet());
+    }
+
+    private static String recoverKey(Long experimentTaskId, Long deviceId, String sceneCode) {
+        return experimentTaskId + ":" + deviceId + ":" + sceneCode;
+    }
+
+    private CompletableFuture<Set<String>> queryActiveUids(String ip) {
+        HttpChannelRequest request = new HttpChannelRequest();
+        request.setHost(ip);
+        request.setPort(chaosAgentPort);
+        request.setType(TYPE_CREATE);
+
+        return invoke(() -> chaosBladeStatusHttpInvoker.invoke(request)).thenApply(response -> {
+            if (!response.isSuccess()) {
+                throw new CompletionException(new IllegalStateException(response.getError()));
+            }
+            if (StrUtil.isBlank(response.getResult())) {
+                return Collections.<String>emptySet();
+            }
+            List<ExperimentStatus> statuses = JsonUtils.readValue(new TypeReference<List<ExperimentStatus>>() {
+            }, response.getResult());
+            return statuses.stream()
+                    .filter(ExperimentStatus::isActive)
+                    .map(ExperimentStatus::getUid)
+                    .collect(Collectors.toSet());
+        }).whenComplete((r, e) -> {
+            if (e != null) {
+                log.warn("query agent status fail, ip: {}, error: {}", ip, e.getMessage());
+            }
+        });
+    }
+
+    private CompletableFuture<ResponseCommand> destroy(ExperimentActivityTaskRecordDO record) {
+        HttpChannelRequest request = new HttpChannelRequest();
+        request.setHost(record.getIp());
+        request.setPort(chaosAgentPort);
+        request.setName(record.getResult());
+
+        return invoke(() -> chaosBladeDestroyHttpInvoker.invoke(request)).whenComplete((r, e) -> {
+            if (e != null || !r.isSuccess()) {
+                log.warn("destroy orphaned attack fail, task ID: {}, ip: {}, uid: {}, error: {}",
+                        record.getExperimentTaskId(), record.getIp(), record.getResult(),
+                        e != null ? e.getMessage() : r.getError());
+            } else {
+                log.info("destroy orphaned attack, task ID: {}, ip: {}, uid: {}",
+                        record.getExperimentTaskId(), record.getIp(), record.getResult());
+            }
+        });
+    }
+
+    /**
+     * bounds the agent requests in flight, the permit is returned on completion
+     */
+    private CompletableFuture<ResponseCommand> invoke(Callable<CompletableFuture<ResponseCommand>> call) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CompletableFuture<ResponseCommand> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        CompletableFuture<ResponseCommand> future;
+        try {
+            future = call.call();
+        } catch (Exception e) {
+            permits.release();
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return future.whenComplete((r, e) -> permits.release());
+    }
+}
@@ -16,17 +16,20 @@
 
 package com.alibaba.chaosblade.platform.service.task.stateless;
 
-import cn.hutool.core.util.ArrayUtil;
 import com.alibaba.chaosblade.platform.cmmon.enums.ExperimentDimension;
 import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
 import com.alibaba.chaosblade.platform.cmmon.TaskLogRecord;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author yefei
@@ -34,9 +37,17 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 @TaskLogRecord
 @Component
-public class ActivityTaskHandlerStrategyContext implements ActivityTaskHandler, BeanPostProcessor {
+public class ActivityTaskHandlerStrategyContext implements ActivityTaskHandler, BeanPostProcessor, SmartInitializingSingleton {
 
-    private ConcurrentHashMap<ActivityTaskHandlerType, ActivityTaskHandler> map = new ConcurrentHashMap<>();
+    /**
+     * dimension -> upper case phase -> handler, registered handlers
+     */
+    private final Map<ExperimentDimension, Map<String, ActivityTaskHandler>> handlers = new EnumMap<>(ExperimentDimension.class);
+
+    /**
+     * immutable copy of handlers, compiled after all singletons instantiated
+     */
+    private volatile Map<ExperimentDimension, Map<String, ActivityTaskHandler>> routingTable;
 
     @Override
     public boolean preHandle(ActivityTask activityTask) {
@@ -62,7 +73,18 @@ public class ActivityTaskHandlerStrategyContext implements ActivityTaskHandler,
             ActivityTaskHandler activityTaskPhaseHandler = (ActivityTaskHandler) bean;
             ActivityTaskHandlerType activityTaskHandlerType = bean.getClass().getAnnotation(ActivityTaskHandlerType.class);
             if (activityTaskHandlerType != null) {
-                map.put(activityTaskHandlerType, activityTaskPhaseHandler);
+                synchronized (handlers) {
+                    for (ExperimentDimension dimension : activityTaskHandlerType.dimension()) {
+                        for (String phase : activityTaskHandlerType.value()) {
+                            ActivityTaskHandler exists = handlers.computeIfAbsent(dimension, k -> new HashMap<>())
+                                    .putIfAbsent(phase.toUpperCase(), activityTaskPhaseHandler);
+                            if (exists != null && exists != activityTaskPhaseHandler) {
+                                throw new IllegalStateException(String.format("duplicate activity task handler, dimension: %s, phase: %s, %s, %s",
+                                        dimension, phase, exists.getClass().getName(), beanName));
+                            }
+                        }
+                    }
+                }
             }
         }
         return bean;
@@ -73,23 +95,29 @@ public class ActivityTaskHandlerStrategyContext implements ActivityTaskHandler,
         return bean;
     }
 
-    private ActivityTaskHandler select(ActivityTask activityTask) {
+    @Override
+    public void afterSingletonsInstantiated() {
+        synchronized (handlers) {
+            Map<ExperimentDimension, Map<String, ActivityTaskHandler>> table = new EnumMap<>(ExperimentDimension.class);
+            handlers.forEach((dimension, phases) -> table.put(dimension, Collections.unmodifiableMap(new HashMap<>(phases))));
+            routingTable = Collections.unmodifiableMap(table);
+        }
+    }
 
-        for (ActivityTaskHandlerType activityTaskType : map.keySet()) {
-            for (ExperimentDimension experimentDimension : activityTaskType.dimension()) {
-                if (experimentDimension == activityTask.getExperimentDimension()) {
-                    String[] value = activityTaskType.value();
-                    if (ArrayUtil.isNotEmpty(value)) {
-                        for (String s : value) {
-                            if (s.equalsIgnoreCase(activityTask.getPhase())) {
-                                return map.get(activityTaskType);
-                            }
-                        }
-                    }
-                }
-            }
+    private ActivityTaskHandler select(ActivityTask activityTask) {
+        Map<ExperimentDimension, Map<String, ActivityTaskHandler>> table = routingTable;
+        if (table == null) {
+            afterSingletonsInstantiated();
+            table = routingTable;
+        }
+        ExperimentDimension dimension = activityTask.getExperimentDimension();
+        String phase = activityTask.getPhase();
+        Map<String, ActivityTaskHandler> phases = dimension == null ? null : table.get(dimension);
+        ActivityTaskHandler activityTaskHandler = phases == null || phase == null ? null : phases.get(phase.toUpperCase());
+        if (activityTaskHandler == null) {
+            throw new BizException(String.format("ActivityTaskHandler is null, dimension: %s, phase: %s", dimension, phase));
         }
-        throw new BizException("ActivityTaskHandler is null");
+        return activityTaskHandler;
     }
 
 }
@@ -26,6 +26,7 @@ import com.alibaba.chaosblade.platform.dao.model.ExperimentActivityTaskRecordDO;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
 import com.alibaba.chaosblade.platform.dao.repository.SceneRepository;
 import com.alibaba.chaosblade.platform.cmmon.TaskLogRecord;
+import com.alibaba.chaosblade.platform.service.scene.SceneCatalog;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,11 +47,15 @@ public class AttackActivityTaskHandler extends DefaultActivityTaskPhaseHandler {
     @Autowired
     private SceneRepository sceneRepository;
 
+    @Autowired
+    private SceneCatalog sceneCatalog;
+
     @Override
     public boolean preHandle(ActivityTask activityTask) {
         boolean b = super.preHandle(activityTask);
         if (b) {
             sceneRepository.incrementUseCount(activityTask.getSceneId());
+            sceneCatalog.invalidate(activityTask.getSceneId());
         }
         return b;
     }
@@ -32,9 +32,11 @@ import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentActivityTaskRecordRepository;
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentActivityTaskRepository;
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskRepository;
+import com.alibaba.chaosblade.platform.http.ChaosBladePingHttpInvoker;
 import com.alibaba.chaosblade.platform.http.model.reuest.HttpChannelRequest;
 import com.alibaba.chaosblade.platform.invoker.ChaosInvokerStrategyContext;
 import com.alibaba.chaosblade.platform.invoker.ResponseCommand;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogContext;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
 import com.alibaba.chaosblade.platform.service.task.ActivityTaskExecuteContext;
 import com.alibaba.chaosblade.platform.service.task.TimerFactory;
@@ -43,9 +45,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum.EXPERIMENT_TASK_NOT_FOUNT;
 
@@ -58,6 +65,8 @@ import static com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEn
 @ActivityTaskHandlerType(value = ChaosConstant.PHASE_PREPARE)
 public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
 
+    private static final String PING_HANDLER = "/ping";
+
     @Autowired
     protected ExperimentActivityTaskRecordRepository experimentActivityTaskRecordRepository;
 
@@ -79,6 +88,12 @@ public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
     @Autowired
     protected ActivityTaskExecuteContext activityTaskExecuteContext;
 
+    @Autowired
+    private ChaosBladePingHttpInvoker chaosBladePingHttpInvoker;
+
+    @Value("${chaos.agent.warmup-timeout:5000}")
+    private long warmUpTimeout;
+
     @Override
     public boolean preHandle(ActivityTask activityTask) {
         // check status
@@ -137,6 +152,11 @@ public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
             return;
         }
 
+        boolean synchronizedStart = Optional.ofNullable(activityTask.getSynchronizedStart()).orElse(false);
+        // synchronized start, all requests are released together after connections warmed up
+        CompletableFuture<Void> release = synchronizedStart ? warmUp(activityTask) : null;
+        Queue<Long> dispatchTimes = new ConcurrentLinkedQueue<>();
+
         List<CompletableFuture<ResponseCommand>> futures = CollUtil.newArrayList();
 
         for (DeviceMeta deviceMeta : activityTask.getDeviceMetas()) {
@@ -164,9 +184,21 @@ public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
             requestCommand.setPhase(activityTask.getPhase());
             requestCommand.setSceneCode(activityTask.getSceneCode());
 
-            CompletableFuture<ResponseCommand> invoke = chaosInvokerStrategyContext.invoke(requestCommand);
-            futures.add(invoke.handleAsync((result, e) -> {
+            CompletableFuture<ResponseCommand> invoke;
+            if (synchronizedStart) {
+                invoke = release.thenCompose(v -> {
+                    experimentActivityTaskRecordDO.setGmtStart(DateUtil.date());
+                    dispatchTimes.add(System.currentTimeMillis());
+                    return chaosInvokerStrategyContext.invoke(requestCommand);
+                });
+            } else {
+                invoke = chaosInvokerStrategyContext.invoke(requestCommand);
+            }
+            futures.add(invoke.handleAsync(TaskLogContext.wrap((result, e) -> {
                 ExperimentActivityTaskRecordDO record = ExperimentActivityTaskRecordDO.builder().gmtEnd(DateUtil.date()).build();
+                if (synchronizedStart) {
+                    record.setGmtStart(experimentActivityTaskRecordDO.getGmtStart());
+                }
                 if (e != null) {
                     record.setSuccess(false);
                     record.setErrorMessage(e.getMessage());
@@ -197,15 +229,18 @@ public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
                     AnyThrow.throwUnchecked(e);
                 }
                 return null;
-            }, activityTaskExecuteContext.executor()));
+            }), activityTaskExecuteContext.executor()));
         }
 
         CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 
-        future.handleAsync((r, e) -> {
+        future.handleAsync(TaskLogContext.wrap((r, e) -> {
+            if (synchronizedStart) {
+                recordStartSpread(activityTask, dispatchTimes);
+            }
             postHandle(activityTask, e);
             return null;
-        }, activityTaskExecuteContext.executor());
+        }), activityTaskExecuteContext.executor());
 
         // 执行后等待, 同步执行后续所有任务
         Long waitOfAfter = activityTask.getWaitOfAfter();
@@ -215,9 +250,11 @@ public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
                     activityTask.getActivityTaskId(),
                     waitOfAfter);
 
+            Runnable fireExecute = TaskLogContext.wrap(
+                    () -> activityTaskExecuteContext.fireExecute(activityTask.getActivityTaskExecutePipeline()));
             timerFactory.getTimer().newTimeout(timeout ->
                             future.thenRunAsync(
-                                    () -> activityTaskExecuteContext.fireExecute(activityTask.getActivityTaskExecutePipeline()),
+                                    fireExecute,
                                     activityTaskExecuteContext.executor()),
                     waitOfAfter,
                     TimeUnit.MILLISECONDS);
@@ -226,6 +263,61 @@ public class DefaultActivityTaskPhaseHandler implements ActivityTaskHandler {
         }
     }
 
+    /**
+     * ping all agents of the activity task, the returned barrier completes on the task executor
+     * after all pings finished or the warm up timeout reached
+     */
+    private CompletableFuture<Void> warmUp(ActivityTask activityTask) {
+        CompletableFuture<Void> barrier = new CompletableFuture<>();
+
+        List<CompletableFuture<ResponseCommand>> pings = activityTask.getDeviceMetas().stream().map(deviceMeta -> {
+            HttpChannelRequest ping = new HttpChannelRequest();
+            ping.setRequestURL(PING_HANDLER);
+            ping.setHost(deviceMeta.getIp());
+            ping.setPort(chaosAgentPort);
+            return chaosBladePingHttpInvoker.invoke(ping);
+        }).collect(Collectors.toList());
+
+        CompletableFuture.allOf(pings.toArray(new CompletableFuture[0])).whenComplete(TaskLogContext.wrap((r, e) -> {
+            long failed = pings.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            log.info("同步启动预热完成, 任务ID: {}, 子任务ID: {}, 机器数: {}, 失败数: {}",
+                    activityTask.getExperimentTaskId(),
+                    activityTask.getActivityTaskId(),
+                    pings.size(),
+                    failed);
+            barrier.complete(null);
+        }));
+
+        Runnable timeoutWarn = TaskLogContext.wrap(() -> log.warn("同步启动预热超时, 任务ID: {}, 子任务ID: {}, 超时时间: {} 毫秒",
+                activityTask.getExperimentTaskId(),
+                activityTask.getActivityTaskId(),
+                warmUpTimeout));
+        timerFactory.getTimer().newTimeout(timeout -> {
+            if (barrier.complete(null)) {
+                timeoutWarn.run();
+            }
+        }, warmUpTimeout, TimeUnit.MILLISECONDS);
+
+        return barrier.thenRunAsync(TaskLogContext.wrap(() -> log.info("同步启动释放请求, 任务ID: {}, 子任务ID: {}",
+                activityTask.getExperimentTaskId(),
+                activityTask.getActivityTaskId())), activityTaskExecuteContext.executor());
+    }
+
+    private void recordStartSpread(ActivityTask activityTask, Queue<Long> dispatchTimes) {
+        if (dispatchTimes.isEmpty()) {
+            return;
+        }
+        long startSpread = Collections.max(dispatchTimes) - Collections.min(dispatchTimes);
+        log.info("同步启动完成, 任务ID: {}, 子任务ID: {}, 启动时间差: {} 毫秒",
+                activityTask.getExperimentTaskId(),
+                activityTask.getActivityTaskId(),
+                startSpread);
+        experimentActivityTaskRepository.updateByPrimaryKey(activityTask.getActivityTaskId(),
+                ExperimentActivityTaskDO.builder()
+                        .startSpread(startSpread)
+                        .build());
+    }
+
     @Override
     public void postHandle(ActivityTask activityTask, Throwable e) {
 
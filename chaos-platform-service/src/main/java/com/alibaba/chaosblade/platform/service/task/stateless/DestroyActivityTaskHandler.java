@@ -29,6 +29,7 @@ import com.alibaba.chaosblade.platform.dao.model.ExperimentActivityTaskRecordDO;
 import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskDO;
 import com.alibaba.chaosblade.platform.http.model.reuest.HttpChannelRequest;
 import com.alibaba.chaosblade.platform.invoker.ResponseCommand;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogContext;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -103,7 +104,7 @@ public class DestroyActivityTaskHandler extends DefaultActivityTaskPhaseHandler
             }
 
             CompletableFuture<ResponseCommand> invoke = chaosInvokerStrategyContext.invoke(requestCommand);
-            futures.add(invoke.handleAsync((result, e) -> {
+            futures.add(invoke.handleAsync(TaskLogContext.wrap((result, e) -> {
                 ExperimentActivityTaskRecordDO recordDO = ExperimentActivityTaskRecordDO.builder().gmtEnd(DateUtil.date()).build();
                 if (e != null) {
                     recordDO.setSuccess(false);
@@ -135,15 +136,15 @@ public class DestroyActivityTaskHandler extends DefaultActivityTaskPhaseHandler
                     AnyThrow.throwUnchecked(e);
                 }
                 return null;
-            }, activityTaskExecuteContext.executor()));
+            }), activityTaskExecuteContext.executor()));
         }
 
         CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 
-        future.handleAsync((r, e) -> {
+        future.handleAsync(TaskLogContext.wrap((r, e) -> {
             postHandle(activityTask, e);
             return null;
-        }, activityTaskExecuteContext.executor());
+        }), activityTaskExecuteContext.executor());
 
         activityTaskExecuteContext.fireExecute(activityTask.getActivityTaskExecutePipeline());
     }
@@ -29,6 +29,7 @@ import com.alibaba.chaosblade.platform.dao.repository.ExperimentActivityTaskRepo
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskRepository;
 import com.alibaba.chaosblade.platform.invoker.ChaosInvokerStrategyContext;
 import com.alibaba.chaosblade.platform.invoker.RequestCommand;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogContext;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
 import com.alibaba.chaosblade.platform.service.task.ActivityTaskExecuteContext;
 import com.alibaba.chaosblade.platform.service.task.TimerFactory;
@@ -92,7 +93,7 @@ public class KubernetesAttackActivityTaskHandler extends AttackActivityTaskHandl
         requestCommand.setSceneCode(activityTask.getSceneCode());
         requestCommand.setArguments(activityTask.getArguments());
 
-        chaosInvokerStrategyContext.invoke(requestCommand).handleAsync((result, e) -> {
+        chaosInvokerStrategyContext.invoke(requestCommand).handleAsync(TaskLogContext.wrap((result, e) -> {
             ExperimentActivityTaskRecordDO record = ExperimentActivityTaskRecordDO.builder().gmtEnd(DateUtil.date()).build();
             StatusResponseCommand st = (StatusResponseCommand) result;
             if (e != null) {
@@ -123,7 +124,7 @@ public class KubernetesAttackActivityTaskHandler extends AttackActivityTaskHandl
 
             postHandle(activityTask, e);
             return null;
-        }, activityTaskExecuteContext.executor());
+        }), activityTaskExecuteContext.executor());
 
         activityTaskExecuteContext.fireExecute(activityTask.getActivityTaskExecutePipeline());
     }
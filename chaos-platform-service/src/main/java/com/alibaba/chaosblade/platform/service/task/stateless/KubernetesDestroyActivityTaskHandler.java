@@ -30,6 +30,7 @@ import com.alibaba.chaosblade.platform.dao.repository.ExperimentActivityTaskRepo
 import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskRepository;
 import com.alibaba.chaosblade.platform.invoker.ChaosInvokerStrategyContext;
 import com.alibaba.chaosblade.platform.invoker.RequestCommand;
+import com.alibaba.chaosblade.platform.service.logback.TaskLogContext;
 import com.alibaba.chaosblade.platform.service.task.ActivityTask;
 import com.alibaba.chaosblade.platform.service.task.ActivityTaskExecuteContext;
 import com.alibaba.chaosblade.platform.service.task.TimerFactory;
@@ -104,7 +105,7 @@ public class KubernetesDestroyActivityTaskHandler extends DestroyActivityTaskHan
             requestCommand.setArguments(activityTask.getArguments());
             requestCommand.setName(recordDO.getResult());
 
-            futures.add(chaosInvokerStrategyContext.invoke(requestCommand).handleAsync((result, e) -> {
+            futures.add(chaosInvokerStrategyContext.invoke(requestCommand).handleAsync(TaskLogContext.wrap((result, e) -> {
                 ExperimentActivityTaskRecordDO record = ExperimentActivityTaskRecordDO.builder().gmtEnd(DateUtil.date()).build();
                 if (e != null) {
                     record.setSuccess(false);
@@ -136,15 +137,15 @@ public class KubernetesDestroyActivityTaskHandler extends DestroyActivityTaskHan
                     AnyThrow.throwUnchecked(e);
                 }
                 return null;
-            }, activityTaskExecuteContext.executor()));
+            }), activityTaskExecuteContext.executor()));
         }
 
         CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 
-        future.handleAsync((r, e) -> {
+        future.handleAsync(TaskLogContext.wrap((r, e) -> {
             postHandle(activityTask, e);
             return null;
-        }, activityTaskExecuteContext.executor());
+        }), activityTaskExecuteContext.executor());
 
         activityTaskExecuteContext.fireExecute(activityTask.getActivityTaskExecutePipeline());
     }
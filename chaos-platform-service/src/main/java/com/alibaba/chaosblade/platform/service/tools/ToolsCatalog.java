@@ -0,0 +1,202 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.tools;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpStatus;
+import cn.hutool.http.HttpUtil;
+import com.alibaba.chaosblade.platform.cmmon.exception.BizException;
+import com.alibaba.chaosblade.platform.cmmon.utils.cache.SingleFlightCache;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Files of the chaos tools market, read from {@code chaos.tools.mirror}: an http(s) URL or a
+ * local directory holding the same layout.
+ *
+ * <p>Files are kept in memory with their parsed forms. A file older than {@code cache.ttl} is
+ * still served while one background refresh revalidates it, with If-None-Match and
+ * If-Modified-Since against a URL or the modification time of a local file. A failed refresh
+ * keeps the stale file until the next attempt, only the first load of a file fails the caller.
+ *
+ * @author yefei
+ */
+@Slf4j
+@Component
+public class ToolsCatalog implements InitializingBean, DisposableBean {
+
+    @Value("${chaos.tools.mirror:https://chaosblade.oss-cn-hangzhou.aliyuncs.com/platform/market/chaostools}")
+    private String mirror;
+
+    @Value("${chaos.tools.cache.ttl:300}")
+    private int ttl;
+
+    @Value("${chaos.tools.cache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${chaos.tools.timeout:10000}")
+    private int timeout;
+
+    private SingleFlightCache<String, Document> documents;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executorService;
+
+    private File directory;
+
+    @Override
+    public void afterPropertiesSet() {
+        documents = new SingleFlightCache<>(maxSize, document -> 1);
+        if (!StrUtil.startWithAny(mirror, "http://", "https://")) {
+            directory = StrUtil.startWith(mirror, "file:") ? FileUtil.file(URLUtil.url(mirror)) : new File(mirror);
+        }
+        executorService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(maxSize), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("TOOLS-CATALOG");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * @param path relative to the mirror, e.g. chaosblade/overview.yaml
+     * @return content of the file
+     */
+    public byte[] getContent(String path) {
+        return getDocument(path).content;
+    }
+
+    /**
+     * parsed content of the file, parsed once per type and file content
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String path, Class<T> type, Function<InputStream, T> parser) {
+        Document document = getDocument(path);
+        return (T) document.parsed.computeIfAbsent(type, t -> parser.apply(new ByteArrayInputStream(document.content)));
+    }
+
+    private Document getDocument(String path) {
+        String normalized = normalize(path);
+        Document document = documents.get(normalized, 0, () -> fetch(normalized, null));
+        if (document.checkedAt + TimeUnit.SECONDS.toMillis(ttl) <= System.currentTimeMillis()
+                && refreshing.add(normalized)) {
+            try {
+                executorService.execute(() -> {
+                    try {
+                        documents.put(normalized, fetch(normalized, document), 0);
+                    } catch (Exception e) {
+                        log.warn("refresh tools file {} fail, serving the one of {}", normalized, document.checkedAt, e);
+                        documents.put(normalized, document.checked(), 0);
+                    } finally {
+                        refreshing.remove(normalized);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // queue full or shutting down, a later get retries the refresh
+                refreshing.remove(normalized);
+            }
+        }
+        return document;
+    }
+
+    private Document fetch(String path, Document cached) {
+        if (directory != null) {
+            File file = new File(directory, path);
+            if (!file.isFile()) {
+                throw new BizException("tools file not found: " + path);
+            }
+            String version = file.lastModified() + "-" + file.length();
+            if (cached != null && version.equals(cached.etag)) {
+                return cached.checked();
+            }
+            return new Document(FileUtil.readBytes(file), version, null, System.currentTimeMillis(), new ConcurrentHashMap<>());
+        }
+
+        HttpRequest request = HttpUtil.createGet(StrUtil.removeSuffix(mirror, "/") + "/" + path).timeout(timeout);
+        if (cached != null) {
+            if (cached.etag != null) {
+                request.header("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                request.header("If-Modified-Since", cached.lastModified);
+            }
+        }
+        HttpResponse response = request.execute();
+        if (cached != null && response.getStatus() == HttpStatus.HTTP_NOT_MODIFIED) {
+            return cached.checked();
+        }
+        if (!response.isOk()) {
+            throw new BizException(String.format("fetch tools file %s fail, status: %d", path, response.getStatus()));
+        }
+        return new Document(response.bodyBytes(), response.header("ETag"), response.header("Last-Modified"),
+                System.currentTimeMillis(), new ConcurrentHashMap<>());
+    }
+
+    private static String normalize(String path) {
+        String normalized = StrUtil.removePrefix(FileUtil.normalize(path), "/");
+        if (StrUtil.isBlank(normalized) || normalized.startsWith("..") || normalized.contains("/../")) {
+            throw new BizException("illegal tools file: " + path);
+        }
+        return normalized;
+    }
+
+    @AllArgsConstructor
+    private static class Document {
+
+        private final byte[] content;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private final long checkedAt;
+
+        private final Map<Class<?>, Object> parsed;
+
+        Document checked() {
+            return new Document(content, etag, lastModified, System.currentTimeMillis(), parsed);
+        }
+    }
+}
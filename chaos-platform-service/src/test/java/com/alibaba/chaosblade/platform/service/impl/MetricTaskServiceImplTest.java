@@ -0,0 +1,55 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.alibaba.chaosblade.platform.service.impl;
+
+import com.alibaba.chaosblade.platform.service.model.metric.MetricTaskRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yefei
+ */
+public class MetricTaskServiceImplTest {
+
+    @Test
+    public void alignsWindowToStep() {
+        MetricTaskRequest a = request("2026-10-19 12:00:07.120", "2026-10-19 12:10:09.999", 5L);
+        MetricTaskRequest b = request("2026-10-19 12:00:08.004", "2026-10-19 12:10:06.001", 5L);
+        Assert.assertEquals(MetricTaskServiceImpl.align(a), MetricTaskServiceImpl.align(b));
+        Assert.assertEquals("2026-10-19 12:00:05", MetricTaskServiceImpl.align(a).getStartTime());
+        Assert.assertEquals("2026-10-19 12:10:05", MetricTaskServiceImpl.align(a).getEndTime());
+    }
+
+    @Test
+    public void alignsWindowToSecondWithoutStep() {
+        MetricTaskRequest a = request("2026-10-19 12:00:07.120", null, null);
+        MetricTaskRequest b = request("2026-10-19 12:00:07.980", null, null);
+        Assert.assertEquals(MetricTaskServiceImpl.align(a), MetricTaskServiceImpl.align(b));
+        Assert.assertEquals("2026-10-19 12:00:07", MetricTaskServiceImpl.align(a).getStartTime());
+        Assert.assertNull(MetricTaskServiceImpl.align(a).getEndTime());
+    }
+
+    private static MetricTaskRequest request(String startTime, String endTime, Long step) {
+        MetricTaskRequest request = new MetricTaskRequest();
+        request.setTaskId(1L);
+        request.setStartTime(startTime);
+        request.setEndTime(endTime);
+        request.setStep(step);
+        return request;
+    }
+}
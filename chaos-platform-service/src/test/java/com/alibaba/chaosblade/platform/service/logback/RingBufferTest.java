@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author yefei
+ */
+public class RingBufferTest {
+
+    @Test
+    public void overflowAndDrain() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(3);
+        Assert.assertEquals(4, ringBuffer.capacity());
+        Assert.assertTrue(ringBuffer.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(ringBuffer.offer(i));
+        }
+        Assert.assertFalse(ringBuffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(2, ringBuffer.drainTo(drained, 2));
+        Assert.assertEquals(Arrays.asList(0, 1), drained);
+        // the slots drained are free again, past the wrap
+        Assert.assertTrue(ringBuffer.offer(5));
+        Assert.assertTrue(ringBuffer.offer(6));
+        Assert.assertFalse(ringBuffer.offer(7));
+
+        drained.clear();
+        Assert.assertEquals(4, ringBuffer.drainTo(drained, 10));
+        Assert.assertEquals(Arrays.asList(2, 3, 5, 6), drained);
+        Assert.assertTrue(ringBuffer.isEmpty());
+        Assert.assertNull(ringBuffer.poll());
+        Assert.assertEquals(0, ringBuffer.drainTo(drained, 10));
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        RingBuffer<long[]> ringBuffer = new RingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ringBuffer.offer(new long[]{producer, i})) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        long[] next = new long[producers];
+        List<long[]> batch = new ArrayList<>();
+        int received = 0;
+        while (received < producers * perProducer) {
+            batch.clear();
+            int n = ringBuffer.drainTo(batch, 16);
+            for (long[] e : batch) {
+                // every producer's events come out in the order offered
+                Assert.assertEquals(next[(int) e[0]]++, e[1]);
+            }
+            received += n;
+            if (n == 0) {
+                Thread.yield();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(ringBuffer.isEmpty());
+        for (long n : next) {
+            Assert.assertEquals(perProducer, n);
+        }
+    }
+}
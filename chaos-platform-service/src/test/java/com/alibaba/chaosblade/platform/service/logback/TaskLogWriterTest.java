@@ -0,0 +1,148 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.alibaba.chaosblade.platform.service.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.alibaba.chaosblade.platform.dao.model.ExperimentTaskLogDO;
+import com.alibaba.chaosblade.platform.dao.repository.ExperimentTaskLogRepository;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author yefei
+ */
+public class TaskLogWriterTest {
+
+    private final List<List<ExperimentTaskLogDO>> batches = new CopyOnWriteArrayList<>();
+
+    private TaskLogWriter writer;
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void taskIdFromMdcOnly() {
+        LoggingEvent argument = event(null);
+        argument.setArgumentArray(new Object[]{42L});
+        Assert.assertNull(TaskLogWriter.taskId(argument));
+        Assert.assertEquals(Long.valueOf(7), TaskLogWriter.taskId(event("7")));
+        Assert.assertEquals(Long.valueOf(8), TaskLogWriter.taskId(event(" 8 ")));
+        Assert.assertNull(TaskLogWriter.taskId(event("task-7")));
+        Assert.assertNull(TaskLogWriter.taskId(event("")));
+    }
+
+    @Test
+    public void fullBatches() throws Exception {
+        writer = writer(3, 60_000);
+        for (int i = 0; i < 7; i++) {
+            writer.offer(event("1"));
+        }
+        writer.offer(event(null));
+        writer.offer(event("null"));
+
+        await(() -> writer.getWritten() == 6);
+        Assert.assertEquals(Arrays.asList(3, 3), sizes());
+
+        // the rest is written on stop
+        writer.stop();
+        Assert.assertEquals(7, writer.getWritten());
+        Assert.assertEquals(Arrays.asList(3, 3, 1), sizes());
+        for (List<ExperimentTaskLogDO> batch : batches) {
+            for (ExperimentTaskLogDO log : batch) {
+                Assert.assertEquals(Long.valueOf(1), log.getTaskId());
+                Assert.assertEquals("message", log.getContent());
+            }
+        }
+    }
+
+    @Test
+    public void flushInterval() throws Exception {
+        writer = writer(100, 50);
+        writer.offer(event("1"));
+        writer.offer(event("2"));
+
+        await(() -> writer.getWritten() == 2);
+        Assert.assertEquals(Collections.singletonList(2), sizes());
+        Assert.assertEquals(0, writer.getDropped());
+    }
+
+    private TaskLogWriter writer(int batchSize, long flushInterval) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("chaos.task-log.batch-size", batchSize);
+        properties.put("chaos.task-log.flush-interval", flushInterval);
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        applicationContext.registerBean(ExperimentTaskLogRepository.class, () -> new ExperimentTaskLogRepository() {
+            @Override
+            public void insertBatch(List<ExperimentTaskLogDO> list) {
+                batches.add(new ArrayList<>(list));
+            }
+        });
+        applicationContext.refresh();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(new LoggerContext());
+        encoder.setPattern("%msg");
+        encoder.start();
+
+        TaskLogWriter writer = new TaskLogWriter(encoder, applicationContext);
+        writer.start();
+        return writer;
+    }
+
+    private List<Integer> sizes() {
+        List<Integer> sizes = new ArrayList<>();
+        batches.forEach(batch -> sizes.add(batch.size()));
+        return sizes;
+    }
+
+    private static LoggingEvent event(String taskId) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(TaskLogWriterTest.class.getName());
+        event.setLevel(Level.INFO);
+        event.setMessage("message");
+        event.setTimeStamp(System.currentTimeMillis());
+        event.setMDCPropertyMap(taskId == null
+                ? Collections.emptyMap()
+                : Collections.singletonMap(DBLoggerAppender.MDC_TASK_ID, taskId));
+        return event;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("timed out", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.alibaba.chaosblade.platform.service.metric;
+
+import cn.hutool.core.date.DateUtil;
+import com.alibaba.chaosblade.platform.dao.model.MetricRollupDO;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author yefei
+ */
+public class MetricRollupTest {
+
+    @Test
+    public void buckets() {
+        MetricRollup rollup = new MetricRollup();
+        add(rollup, "2026-10-19 12:00:10", 5);
+        add(rollup, "2026-10-19 12:00:50", 7);
+        add(rollup, "2026-10-19 12:01:05", 9);
+        add(rollup, "2026-10-19 12:09:59", 1);
+        add(rollup, "2026-10-19 12:10:00", 3);
+        add(rollup, "2026-10-19 12:10:30", Double.NaN);
+        Assert.assertEquals(5, rollup.getSamples());
+
+        List<MetricRollupDO> rollups = rollup.toRollups(1L);
+        List<MetricRollupDO> minutes = resolution(rollups, MetricRetentionJob.MINUTE);
+        Assert.assertEquals(4, minutes.size());
+        assertBucket(minutes.get(0), "2026-10-19 12:00:00", 5, 7, 6, 2);
+        assertBucket(minutes.get(1), "2026-10-19 12:01:00", 9, 9, 9, 1);
+        assertBucket(minutes.get(2), "2026-10-19 12:09:00", 1, 1, 1, 1);
+        assertBucket(minutes.get(3), "2026-10-19 12:10:00", 3, 3, 3, 1);
+
+        List<MetricRollupDO> tenMinutes = resolution(rollups, MetricRetentionJob.TEN_MINUTES);
+        Assert.assertEquals(2, tenMinutes.size());
+        assertBucket(tenMinutes.get(0), "2026-10-19 12:00:00", 1, 9, 5.5, 4);
+        assertBucket(tenMinutes.get(1), "2026-10-19 12:10:00", 3, 3, 3, 1);
+    }
+
+    @Test
+    public void seriesAreBucketedApart() {
+        MetricRollup rollup = new MetricRollup();
+        long timestamp = DateUtil.parse("2026-10-19 12:00:10").getTime();
+        rollup.add(1L, "10.0.0.1", "a", 1L, "cpu", "usage", timestamp, 1);
+        rollup.add(2L, "10.0.0.2", "b", 1L, "cpu", "usage", timestamp, 2);
+        rollup.add(1L, "10.0.0.1", "a", 1L, "cpu", "load", timestamp, 3);
+        Assert.assertEquals(3, resolution(rollup.toRollups(1L), MetricRetentionJob.MINUTE).size());
+    }
+
+    private static void add(MetricRollup rollup, String time, double value) {
+        rollup.add(1L, "10.0.0.1", "host", 1L, "cpu", "usage", DateUtil.parse(time).getTime(), value);
+    }
+
+    private static List<MetricRollupDO> resolution(List<MetricRollupDO> rollups, int resolution) {
+        return rollups.stream()
+                .filter(rollup -> rollup.getResolution() == resolution)
+                .sorted(Comparator.comparing(MetricRollupDO::getBucketTime))
+                .collect(Collectors.toList());
+    }
+
+    private static void assertBucket(MetricRollupDO rollup, String bucketTime, double min, double max, double avg, int count) {
+        Assert.assertEquals(DateUtil.parse(bucketTime), rollup.getBucketTime());
+        Assert.assertEquals(min, rollup.getMinValue(), 0);
+        Assert.assertEquals(max, rollup.getMaxValue(), 0);
+        Assert.assertEquals(avg, rollup.getAvgValue(), 1e-9);
+        Assert.assertEquals(count, (int) rollup.getSampleCount());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.alibaba.chaosblade.platform.service.scene;
+
+import cn.hutool.core.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+
+/**
+ * @author yefei
+ */
+public class SceneCatalogSnapshotTest {
+
+    @Test
+    public void fileNames() {
+        Assert.assertTrue(SceneCatalogSnapshot.isFileName("chaosblade-os-spec.yaml"));
+        Assert.assertFalse(SceneCatalogSnapshot.isFileName("../CURRENT"));
+        Assert.assertFalse(SceneCatalogSnapshot.isFileName(".."));
+        Assert.assertFalse(SceneCatalogSnapshot.isFileName("spec/os.yaml"));
+        Assert.assertFalse(SceneCatalogSnapshot.isFileName("spec\\os.yaml"));
+        Assert.assertFalse(SceneCatalogSnapshot.isFileName(SceneCatalogSnapshot.MANIFEST));
+        Assert.assertFalse(SceneCatalogSnapshot.isFileName(" "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTraversal() {
+        LinkedHashMap<String, byte[]> files = new LinkedHashMap<>();
+        files.put("../../CURRENT", new byte[0]);
+        new SceneCatalogSnapshot("chaosblade", "1.0.0", files);
+    }
+
+    @Test
+    public void writeAndRead() throws Exception {
+        File root = Files.createTempDirectory("scene-catalog").toFile();
+        try {
+            LinkedHashMap<String, byte[]> files = new LinkedHashMap<>();
+            files.put("chaosblade-os-spec.yaml", "os".getBytes(StandardCharsets.UTF_8));
+            SceneCatalogSnapshot snapshot = new SceneCatalogSnapshot("chaosblade", "1.0.0", files);
+            SceneCatalogSnapshot read = SceneCatalogSnapshot.read(snapshot.write(root));
+            Assert.assertNotNull(read);
+            Assert.assertEquals(snapshot.getHash(), read.getHash());
+        } finally {
+            FileUtil.del(root);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 1999-2021 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.chaosblade.platform.service.scene;
+
+import com.alibaba.chaosblade.platform.dao.model.SceneDO;
+import com.alibaba.chaosblade.platform.dao.model.SceneParamDO;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author yefei
+ */
+public class SceneImportPlanTest {
+
+    @Test
+    public void reimportIsStable() {
+        // the matcher and the flag share the name "process"
+        List<SceneDO> scenes = new ArrayList<>();
+        List<SceneParamDO> params = new ArrayList<>();
+        SceneImportPlan plan = importOnce(scenes, params);
+        Assert.assertEquals(1, plan.getInserted());
+        Assert.assertEquals(3, plan.getParams().size());
+        persist(plan, scenes, params);
+
+        for (int i = 0; i < 2; i++) {
+            plan = importOnce(scenes, params);
+            Assert.assertEquals(1, plan.getUnchanged());
+            Assert.assertTrue(plan.getScenes().isEmpty());
+            Assert.assertTrue(plan.getParams().isEmpty());
+            Assert.assertTrue(plan.getStaleParamIds().isEmpty());
+            persist(plan, scenes, params);
+            Assert.assertEquals(1, scenes.size());
+            Assert.assertEquals(3, params.size());
+        }
+    }
+
+    @Test
+    public void duplicateRowsAreStale() {
+        List<SceneDO> scenes = new ArrayList<>();
+        List<SceneParamDO> params = new ArrayList<>();
+        persist(importOnce(scenes, params), scenes, params);
+
+        // a row duplicated by an earlier import
+        SceneParamDO duplicate = SceneParamDO.builder()
+                .sceneId(scenes.get(0).getId())
+                .paramName("timeout")
+                .alias("timeout")
+                .paramOrder(3)
+                .isRequired(false)
+                .build();
+        duplicate.setId(-1L);
+        params.add(duplicate);
+
+        SceneImportPlan plan = importOnce(scenes, params);
+        Assert.assertEquals(Collections.singletonList(-1L), plan.getStaleParamIds());
+        Assert.assertEquals(1, plan.getUpdated());
+        persist(plan, scenes, params);
+        Assert.assertEquals(3, params.size());
+    }
+
+    @Test
+    public void clearKeepsStagedScenes() {
+        SceneImportPlan plan = importOnce(new ArrayList<>(), new ArrayList<>());
+        Long id = plan.getScenes().get(0).getId();
+        // written in between
+        plan.clear();
+        Assert.assertTrue(plan.getScenes().isEmpty());
+        Assert.assertTrue(plan.getParams().isEmpty());
+        Assert.assertTrue(plan.isStaged("chaosblade.process.kill"));
+        Assert.assertEquals(id, plan.stage(SceneDO.builder().sceneCode("chaosblade.process.kill").build(),
+                Collections.emptyList()));
+        Assert.assertTrue(plan.getScenes().isEmpty());
+        Assert.assertEquals(1, plan.getInserted());
+    }
+
+    private SceneImportPlan importOnce(List<SceneDO> scenes, List<SceneParamDO> params) {
+        SceneImportPlan plan = new SceneImportPlan(scenes, params);
+        plan.stage(SceneDO.builder()
+                        .sceneName("chaosblade.process.kill")
+                        .sceneCode("chaosblade.process.kill")
+                        .version("1.0.0")
+                        .original("chaosblade")
+                        .supportScope("[\"host\"]")
+                        .build(),
+                Arrays.asList(param("process", true), param("process", false), param("timeout", false)));
+        return plan;
+    }
+
+    private SceneParamDO param(String name, boolean required) {
+        return SceneParamDO.builder()
+                .paramName(name)
+                .alias(name)
+                .isRequired(required)
+                .build();
+    }
+
+    /**
+     * what the upserts and the delete of the plan leave in the tables
+     */
+    private void persist(SceneImportPlan plan, List<SceneDO> scenes, List<SceneParamDO> params) {
+        Map<Long, SceneDO> sceneRows = new LinkedHashMap<>();
+        scenes.forEach(scene -> sceneRows.put(scene.getId(), scene));
+        plan.getScenes().forEach(scene -> sceneRows.put(scene.getId(), scene));
+        scenes.clear();
+        scenes.addAll(sceneRows.values());
+
+        Map<Long, SceneParamDO> paramRows = new LinkedHashMap<>();
+        params.forEach(param -> paramRows.put(param.getId(), param));
+        plan.getParams().forEach(param -> paramRows.put(param.getId(), param));
+        plan.getStaleParamIds().forEach(paramRows::remove);
+        params.clear();
+        params.addAll(paramRows.values());
+    }
+}
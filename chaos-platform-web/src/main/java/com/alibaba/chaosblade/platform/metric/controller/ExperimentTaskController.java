@@ -18,13 +18,19 @@ package com.alibaba.chaosblade.platform.metric.controller;
 
 import com.alibaba.chaosblade.platform.service.ExperimentTaskService;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentRequest;
+import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentTaskLogResponse;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentTaskRequest;
 import com.alibaba.chaosblade.platform.service.model.experiment.ExperimentTaskResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -37,6 +43,9 @@ public class ExperimentTaskController {
     @Autowired
     private ExperimentTaskService experimentTaskService;
 
+    @Value("${chaos.task-log.stream-timeout:1800000}")
+    private long streamTimeout;
+
     @RequestMapping("/GetTasksByExperimentId")
     public List<ExperimentTaskResponse> getExperimentById(@RequestBody ExperimentRequest experimentRequest) {
         return experimentTaskService.getExperimentById(experimentRequest);
@@ -52,6 +61,36 @@ public class ExperimentTaskController {
         return experimentTaskService.queryTaskLog(experimentRequest);
     }
 
+    @RequestMapping("/QueryTaskLogPage")
+    public ExperimentTaskLogResponse queryTaskLogPage(@RequestBody ExperimentTaskRequest experimentRequest) {
+        return experimentTaskService.queryTaskLogPage(experimentRequest);
+    }
+
+    @GetMapping("/QueryTaskLogStream")
+    public SseEmitter queryTaskLogStream(Long taskId, Long cursor) {
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        ExperimentTaskRequest experimentRequest = new ExperimentTaskRequest();
+        experimentRequest.setTaskId(taskId);
+        experimentRequest.setCursor(cursor);
+
+        Runnable unsubscribe = experimentTaskService.subscribeTaskLog(experimentRequest, response -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(response.getCursor()))
+                        .data(response, MediaType.APPLICATION_JSON));
+                if (response.getFinished()) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }, emitter::complete);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
     @RequestMapping("/FailRetryExperiment")
     public ExperimentTaskResponse failRetryExperiment(@RequestBody ExperimentTaskRequest experimentRequest) {
         return experimentTaskService.failRetryExperiment(experimentRequest);
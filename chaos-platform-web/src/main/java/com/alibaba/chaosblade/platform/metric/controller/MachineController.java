@@ -56,6 +56,11 @@ public class MachineController {
         return deviceService.getMachinesForPod(devicePodRequest);
     }
 
+    @PostMapping("/QueryMachinesByIds")
+    public List<DeviceResponse> queryMachinesByIds(@RequestBody DeviceRequest deviceRequest) {
+        return deviceService.getMachinesByIds(deviceRequest);
+    }
+
     @PostMapping("/BanMachine")
     public DeviceResponse banMachine(@RequestBody DeviceRequest deviceRequest) {
         return deviceService.banMachine(deviceRequest);
@@ -1,9 +1,8 @@
 package com.alibaba.chaosblade.platform.metric.controller;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
-import cn.hutool.http.HttpUtil;
+import com.alibaba.chaosblade.platform.service.ToolsService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
@@ -13,6 +12,9 @@ import javax.servlet.http.HttpServletResponse;
 @Controller
 public class MainController {
 
+    @Autowired
+    private ToolsService toolsService;
+
     @GetMapping(path = {"/", "/experiment/**", "/machine/**", "/scenario/**", "/chaostools/**"})
     public String root() {
         return "/index.html";
@@ -27,17 +29,11 @@ public class MainController {
         String requestURI = httpServletRequest.getRequestURI();
         int i = StrUtil.indexOf(requestURI, "/", 5, false);
 
-        String substring = "platform/market/chaostools" + requestURI.substring(i);
-
-        HttpRequest request = HttpUtil.createGet("https://chaosblade.oss-cn-hangzhou.aliyuncs.com/" + substring);
-        HttpResponse execute = request.execute();
-        response.getOutputStream().write(execute.bodyBytes());
+        response.getOutputStream().write(toolsService.toolsFile(requestURI.substring(i)));
     }
 
     @GetMapping("/api/FetchPublicChaostools")
     public void toolsYaml(HttpServletResponse response) throws Exception {
-        HttpRequest request = HttpUtil.createGet("https://chaosblade.oss-cn-hangzhou.aliyuncs.com/platform/market/chaostools/configuration.yaml");
-        HttpResponse execute = request.execute();
-        response.getOutputStream().write(execute.bodyBytes());
+        response.getOutputStream().write(toolsService.toolsFile("configuration.yaml"));
     }
 }
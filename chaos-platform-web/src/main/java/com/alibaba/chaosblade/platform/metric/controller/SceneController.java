@@ -20,6 +20,7 @@ import cn.hutool.core.collection.CollUtil;
 import com.alibaba.chaosblade.platform.cmmon.exception.ExceptionMessageEnum;
 import com.alibaba.chaosblade.platform.cmmon.utils.Preconditions;
 import com.alibaba.chaosblade.platform.service.SceneService;
+import com.alibaba.chaosblade.platform.service.model.scene.SceneCatalogStatistics;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneRequest;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneResponse;
 import com.alibaba.chaosblade.platform.service.model.scene.SceneImportRequest;
@@ -54,6 +55,11 @@ public class SceneController {
         return sceneService.getScenarioById(sceneRequest);
     }
 
+    @PostMapping("/GetSceneCatalogStatistics")
+    public SceneCatalogStatistics getSceneCatalogStatistics() {
+        return sceneService.getSceneCatalogStatistics();
+    }
+
     @PostMapping("/GetScenariosPageable")
     public List<SceneResponse> getScenariosPageable(@RequestBody SceneRequest sceneRequest) {
         return sceneService.getScenariosPageable(sceneRequest);
@@ -0,0 +1,12 @@
+-- Optional: range partition t_chaos_metric_task by day so that expired samples are dropped
+-- by partition, enable with chaos.metric.retention.partition.enable=true afterwards.
+-- The partition key must be part of the primary key.
+
+alter table t_chaos_metric_task
+    drop primary key,
+    add primary key (`id`, `date`);
+
+alter table t_chaos_metric_task
+    partition by range (to_days(`date`)) (
+        partition p_max values less than maxvalue
+        );
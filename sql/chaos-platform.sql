@@ -138,7 +138,7 @@ create table t_chaos_device_pod
     namespace    varchar(256)    null comment 'namespace',
     pod_name     varchar(128)    not null comment 'pod name',
     pod_ip       varchar(128)    null comment 'pod ip',
-    containers   longtext        null comment 'containers, json'
+    containers   longtext        null comment 'containers json, legacy, see t_chaos_device_container'
 )
     ENGINE = InnoDB
     comment 'k8s-pod'
@@ -147,6 +147,47 @@ create table t_chaos_device_pod
 alter table t_chaos_device_pod
     add index `INX_DEVICE_POD_DEVICE_ID` (device_id);
 
+create table t_chaos_device_container
+(
+    id             bigint unsigned auto_increment comment 'primary key'
+        primary key,
+    gmt_create     datetime        not null comment 'create time',
+    gmt_modified   datetime        not null comment 'modified time',
+    pod_id         bigint unsigned not null comment 'pod id',
+    namespace      varchar(256)    not null comment 'namespace',
+    pod_name       varchar(128)    not null comment 'pod name',
+    container_id   varchar(256)    null comment 'container id',
+    container_name varchar(256)    not null comment 'container name'
+)
+    ENGINE = InnoDB
+    comment 'k8s-container'
+    DEFAULT CHARSET = utf8;
+
+alter table t_chaos_device_container
+    add unique index `UNI_DEVICE_CONTAINER_NAME` (namespace, pod_name, container_name);
+
+alter table t_chaos_device_container
+    add index `INX_DEVICE_CONTAINER_POD_ID` (pod_id);
+
+create table t_chaos_kubernetes_counter
+(
+    id           bigint unsigned auto_increment comment 'primary key'
+        primary key,
+    gmt_create   datetime        not null comment 'create time',
+    gmt_modified datetime        not null comment 'modified time',
+    cluster_name varchar(256)    not null comment 'cluster name, empty if unknown',
+    namespace    varchar(256)    not null comment 'namespace, empty for nodes',
+    nodes        bigint          not null default 0 comment 'node count',
+    pods         bigint          not null default 0 comment 'pod count',
+    containers   bigint          not null default 0 comment 'container count'
+)
+    ENGINE = InnoDB
+    comment 'k8s resource counter'
+    DEFAULT CHARSET = utf8;
+
+alter table t_chaos_kubernetes_counter
+    add unique index `UNI_KUBERNETES_COUNTER_SCOPE` (cluster_name, namespace);
+
 create table t_chaos_experiment
 (
     id           bigint unsigned auto_increment comment 'primary key'
@@ -209,7 +250,8 @@ create table t_chaos_experiment_activity_task
     run_param             longtext                null comment 'run param',
     activity_order        int          default 0  not null comment 'order of execution of activities within the same phase',
     scene_code            varchar(100) default '' not null comment 'scene_code',
-    app_id                bigint unsigned         null comment 'application id'
+    app_id                bigint unsigned         null comment 'application id',
+    start_spread          bigint unsigned         null comment 'start time spread of synchronized start, ms'
 )
     ENGINE = InnoDB
     comment 'experiment activity task'
@@ -240,7 +282,9 @@ create table t_chaos_experiment_activity_task_record
     scene_code         varchar(256)     null comment 'scene code',
     gmt_start          datetime         null comment 'start time',
     gmt_end            datetime         null comment 'end time ',
-    phase              varchar(250)     null comment 'phase'
+    phase              varchar(250)     null comment 'phase',
+    reconcile_status   tinyint unsigned null comment '0-consistent, 1-divergent, 2-orphaned, 3-destroyed',
+    gmt_reconcile      datetime         null comment 'last reconcile time'
 )
     ENGINE = InnoDB
     comment 'experiment activity task_ record'
@@ -271,10 +315,32 @@ create table t_chaos_experiment_mini_flow_group
     gmt_modified  datetime        not null comment 'modified time',
     group_name    varchar(200)    not null comment 'group name',
     experiment_id bigint unsigned not null comment 'experiment id',
-    hosts         longtext        not null comment 'experiment machine info'
+    hosts         longtext        not null comment 'experiment machine info, legacy json, see t_chaos_experiment_target'
 )
     comment 'experiment mini flow group';
 
+create table t_chaos_experiment_target
+(
+    id             bigint unsigned auto_increment comment 'primary key'
+        primary key,
+    gmt_create     datetime         not null comment 'create time',
+    gmt_modified   datetime         not null comment 'modified time',
+    experiment_id  bigint unsigned  not null comment 'experiment id',
+    group_id       bigint unsigned  not null comment 'mini flow group id',
+    device_id      bigint unsigned  null comment 'device id',
+    device_type    tinyint unsigned null comment 'device type',
+    hostname       varchar(256)     null comment 'hostname',
+    ip             varchar(64)      null comment 'ip',
+    node_name      varchar(256)     null comment 'node name',
+    namespace      varchar(256)     null comment 'namespace',
+    pod_name       varchar(256)     null comment 'pod name',
+    container_name varchar(256)     null comment 'container name'
+)
+    comment 'experiment target' DEFAULT CHARSET = utf8;
+
+alter table t_chaos_experiment_target
+    add index `INX_EXPERIMENT_TARGET_GROUP_ID` (group_id, id);
+
 create table t_chaos_experiment_task
 (
     id               bigint unsigned auto_increment comment 'primary key'
@@ -318,6 +384,23 @@ create table t_chaos_experiment_task_log
 alter table t_chaos_experiment_task_log
     add index `INX_EXPERIMENT_TASK_LOG_TASK_ID` (task_id);
 
+create table t_chaos_experiment_task_log_chunk
+(
+    id           bigint unsigned auto_increment
+        primary key,
+    gmt_create   datetime        not null comment 'create time',
+    gmt_modified datetime        not null comment 'modified time',
+    task_id      bigint unsigned not null comment 'task id',
+    first_log_id bigint unsigned not null comment 'first log id of the chunk',
+    last_log_id  bigint unsigned not null comment 'last log id of the chunk',
+    line_count   int unsigned    not null comment 'line count',
+    content      longblob        not null comment 'gzip compressed lines'
+)
+    comment 'experiment task log chunk' DEFAULT CHARSET = utf8;
+
+alter table t_chaos_experiment_task_log_chunk
+    add index `INX_EXPERIMENT_TASK_LOG_CHUNK_TASK_ID` (task_id, first_log_id);
+
 create table t_chaos_probes
 (
     id               bigint unsigned auto_increment comment 'primary key'
@@ -410,6 +493,9 @@ create table t_chaos_tools
 )
     comment 'chaos tools' DEFAULT CHARSET = utf8;
 
+alter table t_chaos_tools
+    add index `INX_TOOLS_DEVICE_ID` (device_id);
+
 create table t_chaos_metric_category
 (
     id           bigint(100) unsigned auto_increment
@@ -451,6 +537,94 @@ alter table t_chaos_metric_task
 alter table t_chaos_metric_task
     add index `INX_METRIC_TASK_DATE` (date);
 
+alter table t_chaos_metric_task
+    add index `INX_METRIC_TASK_SERIES` (task_id, category_code, device_id, metric(255), date);
+
+CREATE TABLE `t_chaos_metric_chunk`
+(
+    `id`            bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    `gmt_create`    datetime            NOT NULL COMMENT 'create time',
+    `gmt_modified`  datetime            NOT NULL COMMENT 'modified time',
+    `task_id`       bigint(20) unsigned NOT NULL,
+    `device_id`     bigint(20) unsigned DEFAULT NULL,
+    `ip`            varchar(64)         DEFAULT NULL COMMENT 'ip',
+    `hostname`      varchar(100)        DEFAULT NULL COMMENT 'hostname',
+    `category_id`   bigint(20)          NOT NULL COMMENT 'category id',
+    `category_code` varchar(50)         NOT NULL COMMENT 'category code',
+    `metric`        varchar(1024)       DEFAULT NULL COMMENT 'metric',
+    `start_time`    datetime(3)         NOT NULL COMMENT 'first sample time',
+    `end_time`      datetime(3)         NOT NULL COMMENT 'last sample time',
+    `sample_count`  int unsigned        NOT NULL COMMENT 'sample count',
+    `sealed`        tinyint unsigned    NOT NULL DEFAULT 0 COMMENT '0-head chunk, 1-sealed',
+    `data`          blob                NOT NULL COMMENT 'gorilla encoded samples',
+    PRIMARY KEY (`id`)
+) ENGINE = InnoDB COMMENT 'metric chunk'
+  DEFAULT CHARSET = utf8;
+
+alter table t_chaos_metric_chunk
+    add index `INX_METRIC_CHUNK_TASK_ID` (task_id, category_code, device_id, start_time);
+
+CREATE TABLE `t_chaos_metric_rollup`
+(
+    `id`            bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    `gmt_create`    datetime            NOT NULL COMMENT 'create time',
+    `gmt_modified`  datetime            NOT NULL COMMENT 'modified time',
+    `task_id`       bigint(20) unsigned NOT NULL,
+    `device_id`     bigint(20) unsigned DEFAULT NULL,
+    `ip`            varchar(64)         DEFAULT NULL COMMENT 'ip',
+    `hostname`      varchar(100)        DEFAULT NULL COMMENT 'hostname',
+    `category_id`   bigint(20)          NOT NULL COMMENT 'category id',
+    `category_code` varchar(50)         NOT NULL COMMENT 'category code',
+    `metric`        varchar(1024)       DEFAULT NULL COMMENT 'metric',
+    `resolution`    int unsigned        NOT NULL COMMENT 'bucket width in seconds, 60 or 600',
+    `bucket_time`   datetime            NOT NULL COMMENT 'bucket start',
+    `min_value`     double              NOT NULL COMMENT 'min',
+    `max_value`     double              NOT NULL COMMENT 'max',
+    `avg_value`     double              NOT NULL COMMENT 'average',
+    `sample_count`  int unsigned        NOT NULL COMMENT 'sample count',
+    PRIMARY KEY (`id`)
+) ENGINE = InnoDB COMMENT 'metric rollup'
+  DEFAULT CHARSET = utf8;
+
+alter table t_chaos_metric_rollup
+    add index `INX_METRIC_ROLLUP_TASK_ID` (task_id, resolution, category_code, device_id, bucket_time);
+
+alter table t_chaos_metric_rollup
+    add index `INX_METRIC_ROLLUP_BUCKET_TIME` (resolution, bucket_time);
+
+CREATE TABLE `t_chaos_metric_rollup_task`
+(
+    `id`           bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    `gmt_create`   datetime            NOT NULL COMMENT 'create time',
+    `gmt_modified` datetime            NOT NULL COMMENT 'modified time',
+    `task_id`      bigint(20) unsigned NOT NULL,
+    `rolled_up`    tinyint unsigned    NOT NULL DEFAULT 0 COMMENT '1-rollups written',
+    `raw_purged`   tinyint unsigned    NOT NULL DEFAULT 0 COMMENT '1-raw samples deleted',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `UNQ_METRIC_ROLLUP_TASK_TASK_ID` (`task_id`)
+) ENGINE = InnoDB COMMENT 'metric rollup progress'
+  DEFAULT CHARSET = utf8;
+
+CREATE TABLE `t_chaos_guardrail_breach`
+(
+    `id`             bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    `gmt_create`     datetime            NOT NULL COMMENT 'create time',
+    `gmt_modified`   datetime            NOT NULL COMMENT 'modified time',
+    `task_id`        bigint(20) unsigned NOT NULL,
+    `category_code`  varchar(50)         NOT NULL COMMENT 'category code',
+    `device_id`      bigint(20) unsigned DEFAULT NULL,
+    `metric`         longtext            DEFAULT NULL COMMENT 'metric',
+    `rule`           varchar(256)        NOT NULL COMMENT 'guardrail rule',
+    `value`          double              DEFAULT NULL COMMENT 'aggregated value of the breaching window',
+    `breach_time`    datetime            NOT NULL COMMENT 'last sample of the breaching window',
+    `stop_time`      datetime            NOT NULL COMMENT 'task stop requested',
+    `recover_time`   datetime            DEFAULT NULL COMMENT 'task recovered',
+    `recover_millis` bigint(20)          DEFAULT NULL COMMENT 'breach to recover, milliseconds',
+    PRIMARY KEY (`id`),
+    KEY `INX_GUARDRAIL_BREACH_TASK_ID` (`task_id`)
+) ENGINE = InnoDB COMMENT 'guardrail breach'
+  DEFAULT CHARSET = utf8;
+
 
 INSERT INTO chaosblade.t_chaos_metric_category (id, gmt_create, gmt_modified, name, parent_id, level, unit, code,
                                                 params)